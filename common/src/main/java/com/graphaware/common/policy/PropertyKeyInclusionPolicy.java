@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.common.policy;
+
+/**
+ * Capability of a {@link PropertyInclusionPolicy} to declare that its decisions depend solely on the property key, never
+ * on the property container or the property value. The outcome of such policies can safely be memoized per property key,
+ * which avoids repeated evaluation of (potentially expensive) policies on hot paths.
+ */
+public interface PropertyKeyInclusionPolicy {
+
+    /**
+     * Does the outcome of {@link PropertyInclusionPolicy#include(String, org.neo4j.graphdb.PropertyContainer)} depend
+     * only on the property key?
+     *
+     * @return true iff the same key always produces the same decision, regardless of the property container.
+     */
+    boolean decidesByKeyOnly();
+}
@@ -17,12 +17,13 @@
 package com.graphaware.common.policy.all;
 
 import com.graphaware.common.policy.PropertyInclusionPolicy;
+import com.graphaware.common.policy.PropertyKeyInclusionPolicy;
 import org.neo4j.graphdb.PropertyContainer;
 
 /**
  * Base-class for {@link PropertyInclusionPolicy}s that includes all properties.
  */
-public abstract class IncludeAllProperties<T extends PropertyContainer> implements PropertyInclusionPolicy<T> {
+public abstract class IncludeAllProperties<T extends PropertyContainer> implements PropertyInclusionPolicy<T>, PropertyKeyInclusionPolicy {
 
     protected IncludeAllProperties() {
     }
@@ -34,4 +35,12 @@ public abstract class IncludeAllProperties<T extends PropertyContainer> implemen
     public boolean include(String key, T t) {
         return true;
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean decidesByKeyOnly() {
+        return true;
+    }
 }
@@ -37,6 +37,15 @@ public abstract class CompositePropertyContainerInclusionPolicy<P extends Proper
         this.policies = policies;
     }
 
+    /**
+     * Get the policies this policy is composed of.
+     *
+     * @return copy of the contained policies.
+     */
+    public T[] getPolicies() {
+        return Arrays.copyOf(policies, policies.length);
+    }
+
     /**
      * {@inheritDoc}
      */
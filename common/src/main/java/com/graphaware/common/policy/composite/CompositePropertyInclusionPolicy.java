@@ -17,6 +17,7 @@
 package com.graphaware.common.policy.composite;
 
 import com.graphaware.common.policy.PropertyInclusionPolicy;
+import com.graphaware.common.policy.PropertyKeyInclusionPolicy;
 import org.neo4j.graphdb.PropertyContainer;
 
 import java.util.Arrays;
@@ -26,7 +27,7 @@ import java.util.Arrays;
  * <code>true</code> to {@link #include(String, org.neo4j.graphdb.PropertyContainer)} in order for this policy to
  * return <code>true</code>.
  */
-public abstract class CompositePropertyInclusionPolicy<T extends PropertyContainer> implements PropertyInclusionPolicy<T> {
+public abstract class CompositePropertyInclusionPolicy<T extends PropertyContainer> implements PropertyInclusionPolicy<T>, PropertyKeyInclusionPolicy {
 
     private final PropertyInclusionPolicy<T>[] policies;
 
@@ -51,6 +52,22 @@ public abstract class CompositePropertyInclusionPolicy<T extends PropertyContain
         return true;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * A composite policy decides by key only iff all the contained policies do.
+     */
+    @Override
+    public boolean decidesByKeyOnly() {
+        for (PropertyInclusionPolicy<T> policy : policies) {
+            if (!(policy instanceof PropertyKeyInclusionPolicy) || !((PropertyKeyInclusionPolicy) policy).decidesByKeyOnly()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -17,6 +17,7 @@
 package com.graphaware.common.policy.fluent;
 
 import com.graphaware.common.policy.PropertyInclusionPolicy;
+import com.graphaware.common.policy.PropertyKeyInclusionPolicy;
 import org.neo4j.graphdb.PropertyContainer;
 import org.parboiled.common.StringUtils;
 
@@ -24,7 +25,7 @@ import org.parboiled.common.StringUtils;
  * Abstract base class for {@link com.graphaware.common.policy.PropertyInclusionPolicy} implementations with fluent interface,
  * intended to be used programmatically.
  */
-public abstract class BaseIncludeProperties<T extends BaseIncludeProperties<T, P>, P extends PropertyContainer> implements PropertyInclusionPolicy<P> {
+public abstract class BaseIncludeProperties<T extends BaseIncludeProperties<T, P>, P extends PropertyContainer> implements PropertyInclusionPolicy<P>, PropertyKeyInclusionPolicy {
 
     private final String key;
 
@@ -71,6 +72,14 @@ public abstract class BaseIncludeProperties<T extends BaseIncludeProperties<T, P
         return this.key == null || this.key.equals(key);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean decidesByKeyOnly() {
+        return true;
+    }
+
     public String getKey() {
         return key;
     }
@@ -18,12 +18,13 @@ package com.graphaware.common.policy.none;
 
 
 import com.graphaware.common.policy.PropertyInclusionPolicy;
+import com.graphaware.common.policy.PropertyKeyInclusionPolicy;
 import org.neo4j.graphdb.PropertyContainer;
 
 /**
  * {@link PropertyInclusionPolicy} that excludes all properties.
  */
-public abstract class IncludeNoProperties<T extends PropertyContainer> implements PropertyInclusionPolicy<T> {
+public abstract class IncludeNoProperties<T extends PropertyContainer> implements PropertyInclusionPolicy<T>, PropertyKeyInclusionPolicy {
 
     protected IncludeNoProperties() {
     }
@@ -35,4 +36,12 @@ public abstract class IncludeNoProperties<T extends PropertyContainer> implement
     public final boolean include(String key, T propertyContainer) {
         return false;
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean decidesByKeyOnly() {
+        return true;
+    }
 }
@@ -17,22 +17,95 @@
 package com.graphaware.common.policy.spel;
 
 import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.ast.*;
+import org.springframework.expression.spel.standard.SpelExpression;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
 /**
  * Abstract base-class for {@link com.graphaware.common.policy.ObjectInclusionPolicy} implementations that are based on
  * SPEL expressions.
  */
 public abstract class SpelInclusionPolicy {
 
+    private static final Set<String> KEY_REFERENCES = new HashSet<>(Arrays.asList("key", "getKey"));
+
     protected transient final Expression exp;
     private final String expression;
+    private transient Boolean keyOnly;
 
     protected SpelInclusionPolicy(String expression) {
         this.expression = expression;
         this.exp = new SpelExpressionParser().parseExpression(expression);
     }
 
+    /**
+     * Does the expression only ever reference the property key of the evaluation context? Such expressions evaluate
+     * to the same result for the same key, no matter which property container the property belongs to.
+     * <p/>
+     * The check is conservative: variables, functions, bean and type references, constructors, assignments, selections
+     * and projections all make the expression count as not key-only.
+     *
+     * @return true iff the expression is guaranteed to only reference the property key.
+     */
+    protected final boolean referencesKeyOnly() {
+        if (keyOnly == null) {
+            keyOnly = exp instanceof SpelExpression && referencesKeyOnly(((SpelExpression) exp).getAST(), true);
+        }
+        return keyOnly;
+    }
+
+    /**
+     * Check whether the given node of the expression AST only references the property key.
+     *
+     * @param node          to check.
+     * @param onRootContext true iff the node is evaluated against the root (evaluation context) object, false iff it
+     *                      is evaluated against the result of a previous step of a compound expression.
+     * @return true iff the node is guaranteed to only reference the property key.
+     */
+    private boolean referencesKeyOnly(SpelNode node, boolean onRootContext) {
+        if (node instanceof VariableReference
+                || node instanceof FunctionReference
+                || node instanceof BeanReference
+                || node instanceof TypeReference
+                || node instanceof ConstructorReference
+                || node instanceof Assign
+                || node instanceof Selection
+                || node instanceof Projection) {
+            return false;
+        }
+
+        if (node instanceof PropertyOrFieldReference) {
+            return !onRootContext || KEY_REFERENCES.contains(((PropertyOrFieldReference) node).getName());
+        }
+
+        if (node instanceof MethodReference && onRootContext && !KEY_REFERENCES.contains(((MethodReference) node).getName())) {
+            return false;
+        }
+
+        if (node instanceof CompoundExpression) {
+            for (int i = 0; i < node.getChildCount(); i++) {
+                if (!referencesKeyOnly(node.getChild(i), onRootContext && i == 0)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        //method arguments, indexes and operands are all evaluated against the root object
+        for (int i = 0; i < node.getChildCount(); i++) {
+            if (!referencesKeyOnly(node.getChild(i), true)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -18,6 +18,17 @@ package com.graphaware.common.policy.spel;
 
 import com.graphaware.common.policy.NodeInclusionPolicy;
 import org.neo4j.graphdb.Node;
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.ast.BooleanLiteral;
+import org.springframework.expression.spel.ast.MethodReference;
+import org.springframework.expression.spel.ast.OpAnd;
+import org.springframework.expression.spel.ast.OpOr;
+import org.springframework.expression.spel.ast.StringLiteral;
+import org.springframework.expression.spel.standard.SpelExpression;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 /**
  * {@link NodeInclusionPolicy} based on a SPEL expression. The expression can use methods defined in {@link NodeExpressions}.
@@ -35,4 +46,57 @@ public class SpelNodeInclusionPolicy extends SpelInclusionPolicy implements Node
     public boolean include(Node node) {
         return (Boolean) exp.getValue(new NodeExpressions(node));
     }
+
+    /**
+     * Get the labels, at least one of which every node included by this policy has. The labels can only be determined
+     * for expressions composed of <code>hasLabel('...')</code> calls with literal arguments, <code>false</code>, and
+     * <code>||</code> and <code>&&</code> operators. For <code>&&</code>, it is sufficient that the labels can be
+     * determined for one of the operands, e.g. <code>hasLabel('Person') && getDegree() > 1</code>.
+     *
+     * @return labels, <code>null</code> if they cannot be determined.
+     */
+    public Set<String> getCandidateLabels() {
+        if (!(exp instanceof SpelExpression)) {
+            return null;
+        }
+        return candidateLabels(((SpelExpression) exp).getAST());
+    }
+
+    private Set<String> candidateLabels(SpelNode node) {
+        if (node instanceof BooleanLiteral && Boolean.FALSE.equals(((BooleanLiteral) node).getLiteralValue().getValue())) {
+            return Collections.emptySet();
+        }
+
+        if (node instanceof MethodReference
+                && "hasLabel".equals(((MethodReference) node).getName())
+                && node.getChildCount() == 1
+                && node.getChild(0) instanceof StringLiteral) {
+            return Collections.singleton((String) ((StringLiteral) node.getChild(0)).getLiteralValue().getValue());
+        }
+
+        if (node instanceof OpOr) {
+            Set<String> result = new LinkedHashSet<>();
+            for (int i = 0; i < node.getChildCount(); i++) {
+                Set<String> labels = candidateLabels(node.getChild(i));
+                if (labels == null) {
+                    return null;
+                }
+                result.addAll(labels);
+            }
+            return result;
+        }
+
+        if (node instanceof OpAnd) {
+            Set<String> result = null;
+            for (int i = 0; i < node.getChildCount(); i++) {
+                Set<String> labels = candidateLabels(node.getChild(i));
+                if (labels != null && (result == null || labels.size() < result.size())) {
+                    result = labels;
+                }
+            }
+            return result;
+        }
+
+        return null;
+    }
 }
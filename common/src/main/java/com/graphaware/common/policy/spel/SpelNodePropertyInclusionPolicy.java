@@ -17,13 +17,14 @@
 package com.graphaware.common.policy.spel;
 
 import com.graphaware.common.policy.NodePropertyInclusionPolicy;
+import com.graphaware.common.policy.PropertyKeyInclusionPolicy;
 import org.neo4j.graphdb.Node;
 
 /**
  * {@link NodePropertyInclusionPolicy} based on a SPEL expression. The expression can use methods defined in
  * {@link NodePropertyExpressions}.
  */
-public class SpelNodePropertyInclusionPolicy extends SpelInclusionPolicy implements NodePropertyInclusionPolicy {
+public class SpelNodePropertyInclusionPolicy extends SpelInclusionPolicy implements NodePropertyInclusionPolicy, PropertyKeyInclusionPolicy {
 
     public SpelNodePropertyInclusionPolicy(String expression) {
         super(expression);
@@ -36,4 +37,12 @@ public class SpelNodePropertyInclusionPolicy extends SpelInclusionPolicy impleme
     public boolean include(String key, Node node) {
         return (Boolean) exp.getValue(new NodePropertyExpressions(key, node));
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean decidesByKeyOnly() {
+        return referencesKeyOnly();
+    }
 }
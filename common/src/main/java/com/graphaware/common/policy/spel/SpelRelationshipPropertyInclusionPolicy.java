@@ -17,13 +17,14 @@
 package com.graphaware.common.policy.spel;
 
 import com.graphaware.common.policy.RelationshipPropertyInclusionPolicy;
+import com.graphaware.common.policy.PropertyKeyInclusionPolicy;
 import org.neo4j.graphdb.Relationship;
 
 /**
  * {@link RelationshipPropertyInclusionPolicy} based on a SPEL expression. The expression can use methods defined in
  * {@link RelationshipPropertyExpressions}.
  */
-public class SpelRelationshipPropertyInclusionPolicy extends SpelInclusionPolicy implements RelationshipPropertyInclusionPolicy {
+public class SpelRelationshipPropertyInclusionPolicy extends SpelInclusionPolicy implements RelationshipPropertyInclusionPolicy, PropertyKeyInclusionPolicy {
 
     public SpelRelationshipPropertyInclusionPolicy(String expression) {
         super(expression);
@@ -36,4 +37,12 @@ public class SpelRelationshipPropertyInclusionPolicy extends SpelInclusionPolicy
     public boolean include(String key, Relationship relationship) {
         return (Boolean) exp.getValue(new RelationshipPropertyExpressions(key, relationship));
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean decidesByKeyOnly() {
+        return referencesKeyOnly();
+    }
 }
@@ -33,47 +33,61 @@ import com.graphaware.common.policy.none.IncludeNoRelationships;
 import com.sun.org.apache.xerces.internal.impl.dv.util.Base64;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.DynamicRelationshipType;
+import org.objenesis.instantiator.ObjectInstantiator;
 import org.objenesis.strategy.StdInstantiatorStrategy;
 
 import java.io.ByteArrayOutputStream;
 import java.util.HashMap;
+import java.util.List;
 import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Utility class for serializing objects to/from String or byte array using {@link Kryo}. For framework use only.
  * <p/>
  * Note: every class that wishes to be serialized must be registered with Kryo. It is the responsibility of the class
  * developer to test that serialization works ok for that class.
+ * <p/>
+ * {@link Kryo} is not thread-safe, so each thread gets its own instance. Registrations made through this class are
+ * recorded and applied to every instance in the same order, so that all instances assign the same IDs.
  */
 public final class Serializer {
 
-    private static Kryo kryo;
-
-    static {
-        kryo = new Kryo();
-        kryo.setRegistrationRequired(false);
-        kryo.setInstantiatorStrategy(new StdInstantiatorStrategy());
-
-        kryo.register(DynamicRelationshipType.class, 10);
-        kryo.register(Direction.class, 11);
-        kryo.register(HashMap.class, 15);
-        kryo.register(TreeMap.class, 16);
-
-        Predicates.register(kryo); //allocated 20-30
+    private static final List<Registration> registrations = new CopyOnWriteArrayList<>();
 
-        kryo.register(LiteralPropertiesDescription.class, 31);
+    private static final ThreadLocal<ThreadKryo> kryo = new ThreadLocal<ThreadKryo>() {
+        @Override
+        protected ThreadKryo initialValue() {
+            return new ThreadKryo();
+        }
+    };
 
-        kryo.register(DetachedRelationshipDescriptionImpl.class, 41);
-
-        kryo.register(byte[].class, 100);
-        kryo.register(char[].class, 101);
-        kryo.register(boolean[].class, 102);
-        kryo.register(long[].class, 103);
-        kryo.register(double[].class, 104);
-        kryo.register(int[].class, 105);
-        kryo.register(short[].class, 106);
-        kryo.register(float[].class, 107);
-        kryo.register(String[].class, 108);
+    static {
+        register(DynamicRelationshipType.class, null, 10);
+        register(Direction.class, null, 11);
+        register(HashMap.class, null, 15);
+        register(TreeMap.class, null, 16);
+
+        registrations.add(new Registration() {
+            @Override
+            public void apply(Kryo kryo) {
+                Predicates.register(kryo); //allocated 20-30
+            }
+        });
+
+        register(LiteralPropertiesDescription.class, null, 31);
+
+        register(DetachedRelationshipDescriptionImpl.class, null, 41);
+
+        register(byte[].class, null, 100);
+        register(char[].class, null, 101);
+        register(boolean[].class, null, 102);
+        register(long[].class, null, 103);
+        register(double[].class, null, 104);
+        register(int[].class, null, 105);
+        register(short[].class, null, 106);
+        register(float[].class, null, 107);
+        register(String[].class, null, 108);
 
         register(IncludeAllNodeProperties.class, new SingletonSerializer());
         register(IncludeAllNodes.class, new SingletonSerializer());
@@ -89,15 +103,37 @@ public final class Serializer {
     }
 
     public static void register(Class type) {
-        kryo.register(type);
+        register(type, null, -1);
     }
 
     public static void register(Class type, com.esotericsoftware.kryo.Serializer serializer) {
-        kryo.register(type, serializer);
+        register(type, serializer, -1);
     }
 
-    public static void register(Class type, com.esotericsoftware.kryo.Serializer serializer, int id) {
-        kryo.register(type, serializer, id);
+    public static void register(final Class type, final com.esotericsoftware.kryo.Serializer serializer, final int id) {
+        registrations.add(new Registration() {
+            @Override
+            public void apply(Kryo kryo) {
+                if (serializer == null && id < 0) {
+                    kryo.register(type);
+                } else if (serializer == null) {
+                    kryo.register(type, id);
+                } else if (id < 0) {
+                    kryo.register(type, serializer);
+                } else {
+                    kryo.register(type, serializer, id);
+                }
+            }
+        });
+    }
+
+    /**
+     * Get the {@link Kryo} instance of the current thread, with all registrations made so far applied.
+     *
+     * @return Kryo.
+     */
+    private static Kryo kryo() {
+        return kryo.get().upToDate();
     }
 
     /**
@@ -109,7 +145,7 @@ public final class Serializer {
     public static byte[] toByteArray(Object object) {
         ByteArrayOutputStream stream = new ByteArrayOutputStream();
         Output output = new Output(stream);
-        kryo.writeClassAndObject(output, object);
+        kryo().writeClassAndObject(output, object);
         output.flush();
         output.close();
 
@@ -133,7 +169,7 @@ public final class Serializer {
      * @return de-serialized object.
      */
     public static <T> T fromByteArray(byte[] array) {
-        return (T) kryo.readClassAndObject(new Input(array));
+        return (T) kryo().readClassAndObject(new Input(array));
     }
 
     /**
@@ -145,4 +181,46 @@ public final class Serializer {
     public static <T> T fromString(String string, String prefix) {
         return fromByteArray(Base64.decode(string.substring(prefix.length())));
     }
+
+    /**
+     * A registration of a class (or classes) with Kryo.
+     */
+    private interface Registration {
+
+        /**
+         * Apply the registration.
+         *
+         * @param kryo to register with.
+         */
+        void apply(Kryo kryo);
+    }
+
+    /**
+     * A thread's {@link Kryo} instance, together with the number of registrations already applied to it.
+     */
+    private static class ThreadKryo {
+
+        private final Kryo kryo;
+        private int applied = 0;
+
+        private ThreadKryo() {
+            kryo = new Kryo() {
+                @Override
+                protected ObjectInstantiator newInstantiator(Class type) {
+                    synchronized (registrations) { //generating constructor accessors concurrently is not thread-safe
+                        return super.newInstantiator(type);
+                    }
+                }
+            };
+            kryo.setRegistrationRequired(false);
+            kryo.setInstantiatorStrategy(new StdInstantiatorStrategy());
+        }
+
+        private Kryo upToDate() {
+            while (applied < registrations.size()) {
+                registrations.get(applied++).apply(kryo);
+            }
+            return kryo;
+        }
+    }
 }
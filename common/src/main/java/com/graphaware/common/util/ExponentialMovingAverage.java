@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.common.util;
+
+/**
+ * Exponentially weighted moving average of a value sampled at irregular intervals. The weight of each sample decays
+ * exponentially with its age, such that a sample one time constant old contributes about 37% (1/e) of the weight it
+ * had when it was taken.
+ * <p/>
+ * Updating and querying the average are constant-time operations that do not allocate any memory.
+ * <p/>
+ * This class is not thread-safe. It is intended to be used by a single writer; concurrent access must be synchronized
+ * externally.
+ */
+public class ExponentialMovingAverage {
+
+    private final double timeConstant;
+
+    private double average = Double.NaN;
+    private long lastTime;
+
+    /**
+     * Construct a new average.
+     *
+     * @param timeConstant time constant in milliseconds, must be positive. The higher the value, the slower the average
+     *                     reacts to changes of the sampled value.
+     */
+    public ExponentialMovingAverage(long timeConstant) {
+        if (timeConstant <= 0) {
+            throw new IllegalArgumentException("Time constant must be positive");
+        }
+
+        this.timeConstant = timeConstant;
+    }
+
+    /**
+     * Take a sample. Samples must be taken in non-decreasing order of time.
+     *
+     * @param time  at which the value was taken, in milliseconds.
+     * @param value sample value.
+     */
+    public void sample(long time, double value) {
+        if (Double.isNaN(average)) {
+            average = value;
+        } else {
+            double alpha = 1 - Math.exp(-Math.max(0, time - lastTime) / timeConstant);
+            average += alpha * (value - average);
+        }
+
+        lastTime = time;
+    }
+
+    /**
+     * Get the average.
+     *
+     * @return average, {@link Double#NaN} if no samples have been taken yet.
+     */
+    public double getAverage() {
+        return average;
+    }
+
+    /**
+     * Forget all samples taken so far.
+     */
+    public void clear() {
+        average = Double.NaN;
+    }
+}
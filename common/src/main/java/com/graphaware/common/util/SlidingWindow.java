@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.common.util;
+
+/**
+ * Sliding window of timestamped samples, backed by a ring buffer of primitive arrays. The window holds at most a
+ * configurable number of samples, none of which is more than a configurable number of milliseconds older than the
+ * latest one.
+ * <p/>
+ * Both taking a sample and querying the window are constant-time operations that do not allocate any memory.
+ * <p/>
+ * This class is not thread-safe. It is intended to be used by a single writer; concurrent access must be synchronized
+ * externally.
+ */
+public class SlidingWindow {
+
+    private final long[] times;
+    private final long[] values;
+    private final long maxTime;
+
+    private int oldest = 0;
+    private int size = 0;
+    private long sum = 0;
+
+    /**
+     * Construct a new window.
+     *
+     * @param maxSamples maximum number of samples kept in the window, must be positive.
+     * @param maxTime    maximum time span of the window in milliseconds.
+     */
+    public SlidingWindow(int maxSamples, long maxTime) {
+        if (maxSamples <= 0) {
+            throw new IllegalArgumentException("Maximum number of samples must be positive");
+        }
+
+        this.times = new long[maxSamples];
+        this.values = new long[maxSamples];
+        this.maxTime = maxTime;
+    }
+
+    /**
+     * Take a sample. Samples must be taken in non-decreasing order of time.
+     *
+     * @param time  at which the value was taken, in milliseconds.
+     * @param value sample value.
+     */
+    public void sample(long time, long value) {
+        if (size == times.length) {
+            evictOldest();
+        }
+
+        int latest = index(size);
+        times[latest] = time;
+        values[latest] = value;
+        sum += value;
+        size++;
+
+        while (time - times[oldest] > maxTime) {
+            evictOldest();
+        }
+    }
+
+    /**
+     * Get the number of samples in the window.
+     *
+     * @return number of samples.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Is the window empty?
+     *
+     * @return true iff there are no samples in the window.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get the time span of the window, i.e. the difference between the times of the latest and the oldest sample.
+     *
+     * @return time span in milliseconds, 0 if the window has fewer than 2 samples.
+     */
+    public long timeSpan() {
+        if (size < 2) {
+            return 0;
+        }
+
+        return times[index(size - 1)] - times[oldest];
+    }
+
+    /**
+     * Get the rate of change per second of an ever-increasing sampled value, i.e. the difference between the values of
+     * the latest and the oldest sample divided by their time difference.
+     *
+     * @return rate of change per second, rounded down. {@link Long#MIN_VALUE} if there are fewer than 2 samples or
+     *         they were taken less than a millisecond apart.
+     */
+    public long rate() {
+        long timeSpan = timeSpan();
+
+        if (timeSpan < 1) {
+            return Long.MIN_VALUE;
+        }
+
+        return ((values[index(size - 1)] - values[oldest]) * 1000) / timeSpan;
+    }
+
+    /**
+     * Get the arithmetic mean of the sampled values in the window.
+     *
+     * @return mean value, {@link Double#NaN} if the window is empty.
+     */
+    public double mean() {
+        if (size == 0) {
+            return Double.NaN;
+        }
+
+        return (double) sum / size;
+    }
+
+    /**
+     * Remove all samples from the window.
+     */
+    public void clear() {
+        oldest = 0;
+        size = 0;
+        sum = 0;
+    }
+
+    private void evictOldest() {
+        sum -= values[oldest];
+        oldest = index(1);
+        size--;
+    }
+
+    private int index(int offset) {
+        return (oldest + offset) % times.length;
+    }
+}
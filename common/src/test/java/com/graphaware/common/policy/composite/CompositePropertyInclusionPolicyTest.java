@@ -21,6 +21,7 @@ import com.graphaware.common.policy.all.IncludeAllNodeProperties;
 import com.graphaware.common.policy.all.IncludeAllRelationshipProperties;
 import com.graphaware.common.policy.none.IncludeNoNodeProperties;
 import com.graphaware.common.policy.none.IncludeNoRelationshipProperties;
+import com.graphaware.common.policy.spel.SpelNodePropertyInclusionPolicy;
 import org.junit.Test;
 
 import static org.junit.Assert.assertFalse;
@@ -57,4 +58,10 @@ public class CompositePropertyInclusionPolicyTest {
         assertFalse(CompositeNodePropertyInclusionPolicy.of(IncludeNoNodeProperties.getInstance(), IncludeAllNodeProperties.getInstance()).include("test", null));
         assertFalse(CompositeRelationshipPropertyInclusionPolicy.of(IncludeAllRelationshipProperties.getInstance(), IncludeNoRelationshipProperties.getInstance()).include("test", null));
     }
+
+    @Test
+    public void decidesByKeyOnlyIffAllContainedPoliciesDo() {
+        assertTrue(CompositeNodePropertyInclusionPolicy.of(IncludeAllNodeProperties.getInstance(), new SpelNodePropertyInclusionPolicy("key != 'name'")).decidesByKeyOnly());
+        assertFalse(CompositeNodePropertyInclusionPolicy.of(IncludeAllNodeProperties.getInstance(), new SpelNodePropertyInclusionPolicy("node.hasLabel('Employee')")).decidesByKeyOnly());
+    }
 }
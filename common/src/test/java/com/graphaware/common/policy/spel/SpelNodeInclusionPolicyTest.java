@@ -20,7 +20,13 @@ import com.graphaware.common.policy.NodeInclusionPolicy;
 import org.junit.Test;
 import org.neo4j.graphdb.Transaction;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -65,4 +71,17 @@ public class SpelNodeInclusionPolicyTest extends SpelInclusionPolicyTest {
             tx.success();
         }
     }
+
+    @Test
+    public void candidateLabelsShouldBeDeterminedForLabelBasedExpressions() {
+        assertEquals(Collections.singleton("A"), new SpelNodeInclusionPolicy("hasLabel('A')").getCandidateLabels());
+        assertEquals(new HashSet<>(Arrays.asList("A", "B")), new SpelNodeInclusionPolicy("hasLabel('A') || hasLabel('B')").getCandidateLabels());
+        assertEquals(new HashSet<>(Arrays.asList("A", "B")), new SpelNodeInclusionPolicy("(hasLabel('A') && getDegree() > 1) || hasLabel('B')").getCandidateLabels());
+        assertEquals(Collections.singleton("A"), new SpelNodeInclusionPolicy("hasLabel('A') and hasProperty('name')").getCandidateLabels());
+        assertEquals(Collections.<String>emptySet(), new SpelNodeInclusionPolicy("false").getCandidateLabels());
+
+        assertNull(new SpelNodeInclusionPolicy("hasLabel('A') || hasProperty('name')").getCandidateLabels());
+        assertNull(new SpelNodeInclusionPolicy("!hasLabel('A')").getCandidateLabels());
+        assertNull(new SpelNodeInclusionPolicy("degree > 2").getCandidateLabels());
+    }
 }
@@ -44,4 +44,19 @@ public class SpelNodePropertyInclusionPolicyTest extends SpelInclusionPolicyTest
             tx.success();
         }
     }
+
+    @Test
+    public void shouldDetectKeyOnlyExpressions() {
+        assertTrue(new SpelNodePropertyInclusionPolicy("key != 'name'").decidesByKeyOnly());
+        assertTrue(new SpelNodePropertyInclusionPolicy("getKey() == 'name'").decidesByKeyOnly());
+        assertTrue(new SpelNodePropertyInclusionPolicy("key.startsWith('_') || key.length() > 3").decidesByKeyOnly());
+        assertTrue(new SpelNodePropertyInclusionPolicy("!key.equals(key.toUpperCase())").decidesByKeyOnly());
+        assertTrue(new SpelNodePropertyInclusionPolicy("key matches 'n.*'").decidesByKeyOnly());
+
+        assertFalse(new SpelNodePropertyInclusionPolicy("node.hasLabel('Employee') && key == 'name'").decidesByKeyOnly());
+        assertFalse(new SpelNodePropertyInclusionPolicy("getNode().getDegree() > 1").decidesByKeyOnly());
+        assertFalse(new SpelNodePropertyInclusionPolicy("key.equals(node.toString())").decidesByKeyOnly());
+        assertFalse(new SpelNodePropertyInclusionPolicy("key == #name").decidesByKeyOnly());
+        assertFalse(new SpelNodePropertyInclusionPolicy("T(java.lang.Math).random() > 0.5").decidesByKeyOnly());
+    }
 }
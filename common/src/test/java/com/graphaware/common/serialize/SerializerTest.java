@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.common.serialize;
+
+import com.graphaware.common.description.predicate.Predicate;
+import com.graphaware.common.description.property.LiteralPropertiesDescription;
+import com.graphaware.common.policy.none.IncludeNoNodes;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.graphaware.common.description.predicate.Predicates.equalTo;
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link Serializer}.
+ */
+public class SerializerTest {
+
+    @Test
+    public void singletonsShouldBeDeserializedAsSameInstance() {
+        assertSame(IncludeNoNodes.getInstance(), Serializer.fromByteArray(Serializer.toByteArray(IncludeNoNodes.getInstance())));
+    }
+
+    @Test
+    public void objectsShouldBeSerializedCorrectlyFromManyThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final int thread = t;
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        for (int i = 0; i < 2_000; i++) {
+                            Map<String, Object> map = new HashMap<>();
+                            map.put("thread", thread);
+                            map.put("iteration", i);
+                            map.put("values", new long[]{thread, i});
+
+                            Map<String, Object> copy = Serializer.fromByteArray(Serializer.toByteArray(map));
+                            if (!copy.get("thread").equals(thread) || !copy.get("iteration").equals(i) || ((long[]) copy.get("values"))[1] != i) {
+                                return false;
+                            }
+
+                            LiteralPropertiesDescription description = new LiteralPropertiesDescription(Collections.<String, Predicate>singletonMap("key", equalTo(i)));
+                            if (!description.equals(Serializer.fromByteArray(Serializer.toByteArray(description)))) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.common.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link ExponentialMovingAverage}.
+ */
+public class ExponentialMovingAverageTest {
+
+    @Test
+    public void shouldReturnFirstSampleInitially() {
+        ExponentialMovingAverage average = new ExponentialMovingAverage(1000);
+        assertTrue(Double.isNaN(average.getAverage()));
+
+        average.sample(100, 50);
+        assertEquals(50, average.getAverage(), 0.0001);
+    }
+
+    @Test
+    public void shouldWeighSamplesByTheirAge() {
+        ExponentialMovingAverage average = new ExponentialMovingAverage(1000);
+        average.sample(0, 0);
+
+        average.sample(1000, 100);
+        assertEquals(100 * (1 - Math.exp(-1)), average.getAverage(), 0.0001);
+
+        average.sample(1000, 0);
+        assertEquals(100 * (1 - Math.exp(-1)), average.getAverage(), 0.0001);
+
+        average.sample(100_000, 10);
+        assertEquals(10, average.getAverage(), 0.0001);
+    }
+
+    @Test
+    public void shouldForgetSamplesWhenCleared() {
+        ExponentialMovingAverage average = new ExponentialMovingAverage(1000);
+        average.sample(0, 100);
+
+        average.clear();
+        assertTrue(Double.isNaN(average.getAverage()));
+
+        average.sample(10, 20);
+        assertEquals(20, average.getAverage(), 0.0001);
+    }
+}
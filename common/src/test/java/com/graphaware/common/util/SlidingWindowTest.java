@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.common.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link SlidingWindow}.
+ */
+public class SlidingWindowTest {
+
+    @Test
+    public void emptyWindowShouldHaveNoRateOrMean() {
+        SlidingWindow window = new SlidingWindow(3, 1000);
+
+        assertTrue(window.isEmpty());
+        assertEquals(Long.MIN_VALUE, window.rate());
+        assertTrue(Double.isNaN(window.mean()));
+    }
+
+    @Test
+    public void shouldKeepAtMostMaxSamples() {
+        SlidingWindow window = new SlidingWindow(3, 100_000);
+
+        for (int i = 1; i <= 10; i++) {
+            window.sample(i * 1000, i * 10);
+        }
+
+        assertEquals(3, window.size());
+        assertEquals(2000, window.timeSpan());
+        assertEquals(10, window.rate());
+        assertEquals(90.0, window.mean(), 0.0001);
+    }
+
+    @Test
+    public void shouldDropSamplesOlderThanMaxTime() {
+        SlidingWindow window = new SlidingWindow(10, 1000);
+
+        window.sample(0, 0);
+        window.sample(500, 10);
+        window.sample(1000, 20);
+        assertEquals(3, window.size());
+        assertEquals(20, window.rate());
+
+        window.sample(1200, 30);
+        assertEquals(3, window.size());
+        assertEquals(28, window.rate()); // 20/0.7
+
+        window.sample(5000, 40);
+        assertEquals(1, window.size());
+        assertEquals(Long.MIN_VALUE, window.rate());
+        assertEquals(40.0, window.mean(), 0.0001);
+    }
+
+    @Test
+    public void shouldReturnNoRateForSamplesTakenAtTheSameTime() {
+        SlidingWindow window = new SlidingWindow(10, 1000);
+
+        window.sample(100, 0);
+        window.sample(100, 10);
+
+        assertEquals(Long.MIN_VALUE, window.rate());
+        assertEquals(5.0, window.mean(), 0.0001);
+    }
+
+    @Test
+    public void shouldBeEmptyAfterClearing() {
+        SlidingWindow window = new SlidingWindow(3, 1000);
+        window.sample(100, 10);
+        window.sample(200, 20);
+
+        window.clear();
+        assertTrue(window.isEmpty());
+
+        window.sample(300, 50);
+        assertEquals(50.0, window.mean(), 0.0001);
+    }
+}
@@ -79,7 +79,12 @@ public class FriendshipStrengthCounter {
         applyDelta(delta);
     }
 
-    private void applyDelta(long delta) {
+    /**
+     * Add a delta to the total friendship strength. Must be called within a transaction.
+     *
+     * @param delta to add.
+     */
+    public void applyDelta(long delta) {
         if (delta != 0L) {
             Node root = getCounterNode(database);
             root.setProperty(TOTAL_FRIENDSHIP_STRENGTH, (long) root.getProperty(TOTAL_FRIENDSHIP_STRENGTH, 0L) + delta);
@@ -19,27 +19,32 @@ package com.graphaware.example.module;
 import com.graphaware.common.policy.RelationshipInclusionPolicy;
 import com.graphaware.runtime.config.FluentTxDrivenModuleConfiguration;
 import com.graphaware.runtime.config.TxDrivenModuleConfiguration;
+import com.graphaware.runtime.metadata.TxDrivenModuleMetadata;
+import com.graphaware.runtime.module.BaseInitializationVisitor;
 import com.graphaware.runtime.module.BaseTxDrivenModule;
+import com.graphaware.runtime.module.InitializationVisitor;
+import com.graphaware.runtime.module.ScanInitializedTxDrivenModule;
 import com.graphaware.tx.event.improved.api.ImprovedTransactionData;
-import com.graphaware.tx.executor.batch.IterableInputBatchTransactionExecutor;
-import com.graphaware.tx.executor.batch.UnitOfWork;
-import com.graphaware.tx.executor.single.TransactionCallback;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Relationship;
 import org.neo4j.graphdb.Transaction;
 
-import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.graphaware.example.module.Labels.FriendshipCounter;
+import static com.graphaware.example.module.PropertyKeys.STRENGTH;
 import static com.graphaware.example.module.Relationships.FRIEND_OF;
 import static org.neo4j.tooling.GlobalGraphOperations.at;
 
 /**
  * {@link com.graphaware.runtime.module.TxDrivenModule} that counts the total friendship strength in the database
  * and keeps it up to date.
+ * <p/>
+ * The module is initialized by visiting all friendships during a scan of the graph, which can be shared with other
+ * modules.
  */
-public class FriendshipStrengthModule extends BaseTxDrivenModule<Void> {
+public class FriendshipStrengthModule extends BaseTxDrivenModule<Void> implements ScanInitializedTxDrivenModule<Void> {
 
     private final TxDrivenModuleConfiguration configuration;
     private final FriendshipStrengthCounter counter;
@@ -73,29 +78,40 @@ public class FriendshipStrengthModule extends BaseTxDrivenModule<Void> {
      * {@inheritDoc}
      */
     @Override
-    public void initialize(GraphDatabaseService database) {
-        try (Transaction tx = database.beginTx()) {
-            for (Node counter : at(database).getAllNodesWithLabel(FriendshipCounter)) {
-                counter.delete();
-            }
-            tx.success();
-        }
+    public InitializationVisitor createInitializationVisitor(final GraphDatabaseService database, TxDrivenModuleMetadata oldMetadata) {
+        return new BaseInitializationVisitor() {
 
-        new IterableInputBatchTransactionExecutor<>(
-                database, 10000,
-                new TransactionCallback<Iterable<Relationship>>() {
-                    @Override
-                    public Iterable<Relationship> doInTransaction(GraphDatabaseService database) throws Exception {
-                        return at(database).getAllRelationships();
-                    }
-                },
-                new UnitOfWork<Relationship>() {
-                    @Override
-                    public void execute(GraphDatabaseService database, Relationship relationship, int batchNumber, int stepNumber) {
-                        counter.handleCreatedFriendships(Collections.singleton(relationship));
+            //relationships are visited concurrently, so the total is only written to the graph once all have been visited
+            private final AtomicLong totalStrength = new AtomicLong(0);
+
+            @Override
+            public void beforeScan() {
+                try (Transaction tx = database.beginTx()) {
+                    for (Node counter : at(database).getAllNodesWithLabel(FriendshipCounter)) {
+                        counter.delete();
                     }
+                    tx.success();
+                }
+            }
+
+            @Override
+            public boolean visitsRelationships() {
+                return true;
+            }
+
+            @Override
+            public void visit(Relationship relationship) {
+                totalStrength.addAndGet((long) relationship.getProperty(STRENGTH, 0L));
+            }
+
+            @Override
+            public void afterScan() {
+                try (Transaction tx = database.beginTx()) {
+                    counter.applyDelta(totalStrength.get());
+                    tx.success();
                 }
-        ).execute();
+            }
+        };
     }
 
     /**
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.config;
+
+/**
+ * Immutable configuration of how often the contexts of {@link com.graphaware.runtime.module.TimerDrivenModule}s are
+ * persisted (checkpointed). Contexts that have not changed since they were last persisted are never persisted again.
+ * A changed context is persisted when the configured number of changes have accumulated since the last checkpoint of
+ * the module, or when the configured interval has elapsed since then, whichever comes first.
+ * <p/>
+ * The latest contexts are persisted when the runtime shuts down, if the database still accepts writes at that point.
+ * Modules must therefore be prepared to resume from a context that is older than the last one they produced, which is
+ * the case after a crash anyway.
+ */
+public final class CheckpointingConfiguration {
+
+    private final int maxChanges;
+    private final long intervalMillis;
+
+    /**
+     * Create a new instance of this configuration with default values, which are:
+     * <ul>
+     * <li>maximum number of changes between checkpoints = 1, i.e. every changed context is persisted immediately</li>
+     * <li>interval = 1,000 ms</li>
+     * </ul>
+     *
+     * @return default configuration.
+     */
+    public static CheckpointingConfiguration defaultConfiguration() {
+        return new CheckpointingConfiguration(1, 1_000);
+    }
+
+    /**
+     * Construct a new configuration.
+     *
+     * @param maxChanges     maximum number of context changes of a module between two checkpoints.
+     * @param intervalMillis maximum time in ms between two checkpoints of a module, provided its context has changed.
+     */
+    private CheckpointingConfiguration(int maxChanges, long intervalMillis) {
+        if (maxChanges < 1) {
+            throw new IllegalArgumentException("Maximum number of changes must be positive");
+        }
+
+        if (intervalMillis < 0) {
+            throw new IllegalArgumentException("Interval must not be negative");
+        }
+
+        this.maxChanges = maxChanges;
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Returns a copy of this configuration with the given maximum number of changes between checkpoints.
+     *
+     * @param maxChanges maximum number of context changes of a module between two checkpoints.
+     * @return A new {@link CheckpointingConfiguration}.
+     */
+    public CheckpointingConfiguration withMaxChanges(int maxChanges) {
+        return new CheckpointingConfiguration(maxChanges, intervalMillis);
+    }
+
+    /**
+     * Returns a copy of this configuration with the given interval.
+     *
+     * @param intervalMillis maximum time in ms between two checkpoints of a module, provided its context has changed.
+     * @return A new {@link CheckpointingConfiguration}.
+     */
+    public CheckpointingConfiguration withIntervalMillis(long intervalMillis) {
+        return new CheckpointingConfiguration(maxChanges, intervalMillis);
+    }
+
+    /**
+     * Get the maximum number of changes between checkpoints.
+     *
+     * @return maximum number of context changes of a module between two checkpoints.
+     */
+    public int getMaxChanges() {
+        return maxChanges;
+    }
+
+    /**
+     * Get the interval.
+     *
+     * @return maximum time in ms between two checkpoints of a module, provided its context has changed.
+     */
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("RedundantIfStatement")
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        CheckpointingConfiguration that = (CheckpointingConfiguration) o;
+
+        if (maxChanges != that.maxChanges) return false;
+        if (intervalMillis != that.intervalMillis) return false;
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        int result = maxChanges;
+        result = 31 * result + (int) (intervalMillis ^ (intervalMillis >>> 32));
+        return result;
+    }
+}
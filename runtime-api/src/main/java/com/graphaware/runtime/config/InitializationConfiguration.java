@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.config;
+
+/**
+ * Immutable configuration of the initialization of modules when the runtime starts. Modules that need to be
+ * (re-)initialized, e.g. because they have been registered for the first time or their configuration has changed,
+ * are initialized concurrently by a bounded number of threads, respecting the dependencies declared by
+ * {@link com.graphaware.runtime.module.DependentModule}s.
+ * <p/>
+ * By default, a single thread initializes all modules one by one within the transaction that starts the runtime, so
+ * the writes of the modules are committed together with their metadata. With more threads, each module is initialized
+ * by a thread that is not running any transaction, so modules writing to the graph must open their own transactions.
+ * <p/>
+ * Modules that are initialized by visiting nodes and relationships share a single scan of the graph, which is
+ * performed by the same number of threads, each processing batches of entities in a transaction per batch.
+ * <p/>
+ * When initialization in the background is enabled, modules that support it (see
+ * {@link com.graphaware.runtime.module.BackgroundInitializedTxDrivenModule}) are initialized after the runtime has
+ * started, while the database is already in use. Changes committed in the meantime are buffered, up to a maximum number
+ * of transactions per module, and replayed once the module has been initialized.
+ */
+public final class InitializationConfiguration {
+
+    private final int threads;
+    private final int batchSize;
+    private final boolean background;
+    private final int replayBufferSize;
+
+    /**
+     * Create a new instance of this configuration with default values, which are:
+     * <ul>
+     * <li>threads = 1</li>
+     * <li>batch size = 1000</li>
+     * <li>background = false</li>
+     * <li>replay buffer size = 10000</li>
+     * </ul>
+     *
+     * @return default configuration.
+     */
+    public static InitializationConfiguration defaultConfiguration() {
+        return new InitializationConfiguration(1, 1000, false, 10000);
+    }
+
+    /**
+     * Construct a new configuration.
+     *
+     * @param threads   maximum number of modules initialized at the same time, 1 for initializing them one by one.
+     * @param batchSize        number of entities visited in a single transaction when scanning the graph.
+     * @param background       true for initializing modules that support it in the background.
+     * @param replayBufferSize maximum number of transactions buffered for a module initialized in the background.
+     */
+    private InitializationConfiguration(int threads, int batchSize, boolean background, int replayBufferSize) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of initialization threads must be positive");
+        }
+
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+
+        if (replayBufferSize < 1) {
+            throw new IllegalArgumentException("Replay buffer size must be positive");
+        }
+
+        this.threads = threads;
+        this.batchSize = batchSize;
+        this.background = background;
+        this.replayBufferSize = replayBufferSize;
+    }
+
+    /**
+     * Returns a copy of this configuration with the given number of threads.
+     *
+     * @param threads maximum number of modules initialized at the same time, 1 for initializing them one by one.
+     * @return A new {@link InitializationConfiguration}.
+     */
+    public InitializationConfiguration withThreads(int threads) {
+        return new InitializationConfiguration(threads, batchSize, background, replayBufferSize);
+    }
+
+    /**
+     * Returns a copy of this configuration with the given batch size.
+     *
+     * @param batchSize number of entities visited in a single transaction when scanning the graph.
+     * @return A new {@link InitializationConfiguration}.
+     */
+    public InitializationConfiguration withBatchSize(int batchSize) {
+        return new InitializationConfiguration(threads, batchSize, background, replayBufferSize);
+    }
+
+    /**
+     * Returns a copy of this configuration with initialization in the background enabled or disabled.
+     *
+     * @param background true for initializing modules that support it in the background.
+     * @return A new {@link InitializationConfiguration}.
+     */
+    public InitializationConfiguration withBackground(boolean background) {
+        return new InitializationConfiguration(threads, batchSize, background, replayBufferSize);
+    }
+
+    /**
+     * Returns a copy of this configuration with the given replay buffer size.
+     *
+     * @param replayBufferSize maximum number of transactions buffered for a module initialized in the background.
+     * @return A new {@link InitializationConfiguration}.
+     */
+    public InitializationConfiguration withReplayBufferSize(int replayBufferSize) {
+        return new InitializationConfiguration(threads, batchSize, background, replayBufferSize);
+    }
+
+    /**
+     * Get the number of threads.
+     *
+     * @return maximum number of modules initialized at the same time.
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Get the batch size.
+     *
+     * @return number of entities visited in a single transaction when scanning the graph.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Is initialization in the background enabled?
+     *
+     * @return true iff modules that support it are initialized in the background.
+     */
+    public boolean isBackground() {
+        return background;
+    }
+
+    /**
+     * Get the replay buffer size.
+     *
+     * @return maximum number of transactions buffered for a module initialized in the background. When exceeded,
+     *         the module's initialization fails and the module will be re-initialized next time the database starts.
+     */
+    public int getReplayBufferSize() {
+        return replayBufferSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("RedundantIfStatement")
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        InitializationConfiguration that = (InitializationConfiguration) o;
+
+        if (threads != that.threads) return false;
+        if (batchSize != that.batchSize) return false;
+        if (background != that.background) return false;
+        if (replayBufferSize != that.replayBufferSize) return false;
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        int result = threads;
+        result = 31 * result + batchSize;
+        result = 31 * result + (background ? 1 : 0);
+        result = 31 * result + replayBufferSize;
+        return result;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.config;
+
+/**
+ * Immutable configuration of the profiling of {@link com.graphaware.runtime.module.TxDrivenModule}s. The runtime
+ * always counts the transactions each module has been invoked for, skipped, or failed on. The latencies of the
+ * modules' callbacks and the runtime's own overhead are only measured in a sample of transactions, one in every
+ * "sampling rate" transactions on average, in order to keep the overhead of profiling low.
+ * <p/>
+ * The collected statistics are published as JMX MBeans, unless disabled.
+ */
+public final class ProfilingConfiguration {
+
+    private final int samplingRate;
+    private final boolean jmxEnabled;
+
+    /**
+     * Create a new instance of this configuration with default values, which are:
+     * <ul>
+     * <li>sampling rate = 1, i.e. latencies are measured in every transaction</li>
+     * <li>JMX enabled = true</li>
+     * </ul>
+     *
+     * @return default configuration.
+     */
+    public static ProfilingConfiguration defaultConfiguration() {
+        return new ProfilingConfiguration(1, true);
+    }
+
+    /**
+     * Construct a new configuration.
+     *
+     * @param samplingRate one in how many transactions latencies are measured, 0 for never.
+     * @param jmxEnabled   whether to publish the statistics as JMX MBeans.
+     */
+    private ProfilingConfiguration(int samplingRate, boolean jmxEnabled) {
+        if (samplingRate < 0) {
+            throw new IllegalArgumentException("Sampling rate must not be negative");
+        }
+
+        this.samplingRate = samplingRate;
+        this.jmxEnabled = jmxEnabled;
+    }
+
+    /**
+     * Returns a copy of this configuration with the given sampling rate.
+     *
+     * @param samplingRate one in how many transactions latencies are measured, 0 for never.
+     * @return A new {@link ProfilingConfiguration}.
+     */
+    public ProfilingConfiguration withSamplingRate(int samplingRate) {
+        return new ProfilingConfiguration(samplingRate, jmxEnabled);
+    }
+
+    /**
+     * Returns a copy of this configuration with JMX publishing enabled or disabled.
+     *
+     * @param jmxEnabled whether to publish the statistics as JMX MBeans.
+     * @return A new {@link ProfilingConfiguration}.
+     */
+    public ProfilingConfiguration withJmxEnabled(boolean jmxEnabled) {
+        return new ProfilingConfiguration(samplingRate, jmxEnabled);
+    }
+
+    /**
+     * Get the sampling rate.
+     *
+     * @return one in how many transactions latencies are measured, 0 for never.
+     */
+    public int getSamplingRate() {
+        return samplingRate;
+    }
+
+    /**
+     * Should the statistics be published as JMX MBeans?
+     *
+     * @return true iff JMX is enabled.
+     */
+    public boolean isJmxEnabled() {
+        return jmxEnabled;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("RedundantIfStatement")
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ProfilingConfiguration that = (ProfilingConfiguration) o;
+
+        if (samplingRate != that.samplingRate) return false;
+        if (jmxEnabled != that.jmxEnabled) return false;
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        int result = samplingRate;
+        result = 31 * result + (jmxEnabled ? 1 : 0);
+        return result;
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.graphaware.runtime.config;
 
+import com.graphaware.runtime.schedule.SchedulingPolicy;
 import com.graphaware.runtime.schedule.TimingStrategy;
 import com.graphaware.runtime.write.WritingConfig;
 import com.graphaware.writer.DatabaseWriter;
@@ -57,6 +58,54 @@ public interface RuntimeConfiguration {
      */
     TimingStrategy getTimingStrategy();
 
+    /**
+     * Retrieves the number of threads used for delegating work to {@link com.graphaware.runtime.module.TimerDrivenModule}s.
+     * Independent modules can run in parallel, but a single module is never delegated to by more than one thread at a time.
+     *
+     * @return number of threads, positive.
+     */
+    int getTimerDrivenModuleThreads();
+
+    /**
+     * Retrieves the {@link SchedulingPolicy} deciding which {@link com.graphaware.runtime.module.TimerDrivenModule} is
+     * delegated to next.
+     *
+     * @return The {@link SchedulingPolicy}, which may not be <code>null</code>.
+     */
+    SchedulingPolicy getSchedulingPolicy();
+
+    /**
+     * Retrieves the {@link CheckpointingConfiguration} deciding how often contexts of
+     * {@link com.graphaware.runtime.module.TimerDrivenModule}s are persisted.
+     *
+     * @return The {@link CheckpointingConfiguration}, which may not be <code>null</code>.
+     */
+    CheckpointingConfiguration getCheckpointingConfiguration();
+
+    /**
+     * Retrieves the {@link ProfilingConfiguration} deciding how {@link com.graphaware.runtime.module.TxDrivenModule}s
+     * are profiled.
+     *
+     * @return The {@link ProfilingConfiguration}, which may not be <code>null</code>.
+     */
+    ProfilingConfiguration getProfilingConfiguration();
+
+    /**
+     * Retrieves the {@link InitializationConfiguration} deciding how modules are initialized when the runtime starts.
+     *
+     * @return The {@link InitializationConfiguration}, which may not be <code>null</code>.
+     */
+    InitializationConfiguration getInitializationConfiguration();
+
+    /**
+     * Retrieves the number of changes a transaction must exceed for the data about it, handed to
+     * {@link com.graphaware.runtime.module.TxDrivenModule}s, to be held in compact structures, with captured property
+     * values moved off the heap. Intended for very large transactions, such as bulk imports.
+     *
+     * @return threshold, {@link Long#MAX_VALUE} for keeping all data about all transactions on the heap.
+     */
+    long getTransactionDataSpillThreshold();
+
     /**
      * Retrieves the {@link WritingConfig} used for configuring a {@link DatabaseWriter}.
      *
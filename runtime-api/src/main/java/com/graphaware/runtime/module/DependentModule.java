@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.module;
+
+import java.util.Set;
+
+/**
+ * A {@link RuntimeModule} that depends on other modules. Modules are initialized concurrently when the runtime starts,
+ * but a dependent module is only initialized after all of its dependencies have been successfully initialized. If any
+ * of them fails to initialize, the dependent module is not initialized either.
+ */
+public interface DependentModule extends RuntimeModule {
+
+    /**
+     * Get the IDs of the modules this module depends on. All of them must be registered with the same runtime.
+     * Only read once when the runtime starts.
+     *
+     * @return IDs of the dependencies, must not be <code>null</code>.
+     */
+    Set<String> getDependencies();
+}
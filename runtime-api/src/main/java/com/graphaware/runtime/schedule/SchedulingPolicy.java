@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.schedule;
+
+/**
+ * Policy deciding which {@link com.graphaware.runtime.module.TimerDrivenModule} is delegated to next, among those that
+ * are ready to do some work.
+ */
+public enum SchedulingPolicy {
+
+    /**
+     * Modules take turns in the order in which they were registered, regardless of how long their work takes.
+     */
+    ROUND_ROBIN,
+
+    /**
+     * Modules are given time in proportion to their declared shares (see {@code WeightedTimerDrivenModule}),
+     * based on the actual duration of their work. The module that has received the least time relative to its share
+     * goes next (stride scheduling).
+     */
+    WEIGHTED_FAIR
+}
@@ -18,6 +18,7 @@ package com.graphaware.runtime;
 
 import com.graphaware.common.ping.GoogleAnalyticsStatsCollector;
 import com.graphaware.runtime.config.RuntimeConfiguration;
+import com.graphaware.runtime.manager.ModuleInitializer;
 import com.graphaware.runtime.module.RuntimeModule;
 import com.graphaware.tx.event.improved.api.ImprovedTransactionData;
 import org.neo4j.graphdb.Transaction;
@@ -27,6 +28,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -37,6 +39,8 @@ public abstract class BaseGraphAwareRuntime implements GraphAwareRuntime, Kernel
 
     private static final Logger LOG = LoggerFactory.getLogger(BaseGraphAwareRuntime.class);
 
+    //not inheritable, threads spawned while starting (writers, executors, timers) must wait for the runtime to start;
+    //only threads of the pool initializing modules are let through, see ModuleInitializer#isInitializationThread()
     private static final ThreadLocal<Boolean> startingThread = new ThreadLocal<Boolean>() {
         @Override
         protected Boolean initialValue() {
@@ -47,6 +51,8 @@ public abstract class BaseGraphAwareRuntime implements GraphAwareRuntime, Kernel
     private final RuntimeConfiguration configuration;
 
     private volatile State state = State.NONE;
+    private final CountDownLatch starting = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
 
     private enum State {
         NONE,
@@ -141,12 +147,14 @@ public abstract class BaseGraphAwareRuntime implements GraphAwareRuntime, Kernel
         startingThread.set(true);
         LOG.info("Starting GraphAware...");
         state = State.STARTING;
+        starting.countDown();
 
         startStatsCollector();
         startModules(skipLoadingMetadata);
         startWriter();
 
         state = State.STARTED;
+        started.countDown();
         LOG.info("GraphAware started.");
         startingThread.set(false);
     }
@@ -223,8 +231,9 @@ public abstract class BaseGraphAwareRuntime implements GraphAwareRuntime, Kernel
      * <li>it's already started, in which case the method returns <code>true</code></li>
      * <li>hasn't even started starting for more than 1s, in which case an exception is thrown</li>
      * <li>hasn't been started yet, but the transaction triggering the call of this method isn't mutating, in which case it returns <code>false</code></li>
-     * <li>it's starting but the caller is the thread that starts the runtime itself, in which case it returns <code>false</code></li>
+     * <li>it's starting but the caller is the thread that starts the runtime itself, or a thread initializing modules, in which case it returns <code>false</code></li>
      * </ul>
+     * Blocked threads wait on latches released when the runtime starts (or shuts down), rather than polling its state.
      *
      * @return <code>true</code> iff the runtime is started.
      *         <code>false</code> iff the runtime isn't started but it is safe to proceed.
@@ -239,32 +248,61 @@ public abstract class BaseGraphAwareRuntime implements GraphAwareRuntime, Kernel
             throw new IllegalStateException("Runtime is being / has been shut down.");
         }
 
-        int attempts = 0;
+        if (State.STARTED.equals(state)) {
+            return true;
+        }
 
-        while (!State.STARTED.equals(state)) {
-            //workaround for https://github.com/neo4j/neo4j/issues/2804
-            if (transactionData != null && !transactionData.mutationsOccurred()) {
-                return false;
-            }
+        //workaround for https://github.com/neo4j/neo4j/issues/2804
+        if (transactionData != null && !transactionData.mutationsOccurred()) {
+            return false;
+        }
 
-            if (State.STARTING.equals(state) && startingThread.get()) {
-                return false;
-            }
+        if (!awaitUninterruptibly(starting, 1000)) {
+            throw new IllegalStateException("Runtime has not been started!");
+        }
 
-            try {
-                attempts++;
-                if (attempts > 100 && State.REGISTERED.equals(state)) {
-                    throw new IllegalStateException("Runtime has not been started!");
-                }
-                TimeUnit.MILLISECONDS.sleep(10);
-            } catch (InterruptedException e) {
-                //just continue
-            }
+        if (State.STARTING.equals(state) && (startingThread.get() || ModuleInitializer.isInitializationThread())) {
+            return false;
+        }
+
+        awaitUninterruptibly(started, -1);
+
+        if (State.SHUTDOWN.equals(state)) {
+            throw new IllegalStateException("Runtime is being / has been shut down.");
         }
 
         return true;
     }
 
+    /**
+     * Wait for a latch to count down, preserving (but otherwise ignoring) interrupts.
+     *
+     * @param latch         to wait for.
+     * @param timeoutMillis maximum time to wait, negative for waiting indefinitely.
+     * @return true iff the latch has counted down.
+     */
+    private boolean awaitUninterruptibly(CountDownLatch latch, long timeoutMillis) {
+        boolean interrupted = false;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        try {
+            while (true) {
+                try {
+                    if (timeoutMillis < 0) {
+                        latch.await();
+                        return true;
+                    }
+                    return latch.await(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -272,6 +310,8 @@ public abstract class BaseGraphAwareRuntime implements GraphAwareRuntime, Kernel
     public final void beforeShutdown() {
         LOG.info("Shutting down GraphAware Runtime... ");
         state = State.SHUTDOWN;
+        starting.countDown();
+        started.countDown();
         shutdownModules();
         stopWriter();
         afterShutdown();
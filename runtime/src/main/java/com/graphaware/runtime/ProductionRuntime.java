@@ -17,6 +17,7 @@
 package com.graphaware.runtime;
 
 import com.graphaware.runtime.config.RuntimeConfiguration;
+import com.graphaware.runtime.manager.ModuleReadiness;
 import com.graphaware.runtime.manager.TimerDrivenModuleManager;
 import com.graphaware.runtime.manager.TxDrivenModuleManager;
 import com.graphaware.runtime.module.RuntimeModule;
@@ -112,6 +113,20 @@ public class ProductionRuntime extends DatabaseRuntime {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ModuleReadiness getReadiness(String moduleId) {
+        ModuleReadiness readiness = super.getReadiness(moduleId);
+
+        if (readiness == null) {
+            readiness = timerDrivenModuleManager.getReadiness(moduleId);
+        }
+
+        return readiness;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -17,9 +17,11 @@
 package com.graphaware.runtime;
 
 import com.graphaware.runtime.config.RuntimeConfiguration;
+import com.graphaware.runtime.manager.ModuleReadiness;
 import com.graphaware.runtime.manager.TxDrivenModuleManager;
 import com.graphaware.runtime.module.RuntimeModule;
 import com.graphaware.runtime.module.TxDrivenModule;
+import com.graphaware.runtime.profile.TxDrivenProfiler;
 import com.graphaware.tx.event.improved.api.LazyTransactionData;
 import org.neo4j.graphdb.NotFoundException;
 import org.neo4j.graphdb.event.TransactionData;
@@ -38,6 +40,9 @@ import java.util.Set;
  */
 public abstract class TxDrivenRuntime<T extends TxDrivenModule> extends BaseGraphAwareRuntime implements TransactionEventHandler<Map<String, Object>> {
 
+    //key under which transaction data is passed from beforeCommit to afterCommit / afterRollback, to be closed there
+    private static final String TRANSACTION_DATA = TxDrivenRuntime.class.getName() + ".TRANSACTION_DATA";
+
     /**
      * Create a new instance.
      *
@@ -54,6 +59,25 @@ public abstract class TxDrivenRuntime<T extends TxDrivenModule> extends BaseGrap
      */
     protected abstract TxDrivenModuleManager<T> getTxDrivenModuleManager();
 
+    /**
+     * Get the profiler of {@link TxDrivenModule}s, e.g. in order to read their statistics.
+     *
+     * @return profiler.
+     */
+    public TxDrivenProfiler getProfiler() {
+        return getTxDrivenModuleManager().getProfiler();
+    }
+
+    /**
+     * Get the readiness of a module, e.g. in order to find out whether it has been initialized.
+     *
+     * @param moduleId ID of the module.
+     * @return readiness, <code>null</code> if no such module has been registered.
+     */
+    public ModuleReadiness getReadiness(String moduleId) {
+        return getTxDrivenModuleManager().getReadiness(moduleId);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -67,13 +91,29 @@ public abstract class TxDrivenRuntime<T extends TxDrivenModule> extends BaseGrap
      */
     @Override
     public Map<String, Object> beforeCommit(TransactionData data) throws Exception {
-        LazyTransactionData transactionData = new LazyTransactionData(data);
+        TxDrivenProfiler profiler = getProfiler();
+        long start = profiler.sample() ? System.nanoTime() : -1;
 
-        if (!isStarted(transactionData)) {
-            return null;
+        LazyTransactionData transactionData = new LazyTransactionData(data, getConfiguration().getTransactionDataSpillThreshold());
+
+        if (start != -1) {
+            profiler.getRuntimeProfile().recordTransactionData(System.nanoTime() - start);
         }
 
-        return getTxDrivenModuleManager().beforeCommit(transactionData);
+        Map<String, Object> states = null;
+        try {
+            if (!isStarted(transactionData)) {
+                return null;
+            }
+
+            states = getTxDrivenModuleManager().beforeCommit(transactionData);
+            states.put(TRANSACTION_DATA, transactionData);
+            return states;
+        } finally {
+            if (states == null) {
+                transactionData.close();
+            }
+        }
     }
 
     /**
@@ -85,7 +125,11 @@ public abstract class TxDrivenRuntime<T extends TxDrivenModule> extends BaseGrap
             return;
         }
 
-        getTxDrivenModuleManager().afterCommit(states);
+        try {
+            getTxDrivenModuleManager().afterCommit(states);
+        } finally {
+            closeTransactionData(states);
+        }
     }
 
     /**
@@ -97,7 +141,23 @@ public abstract class TxDrivenRuntime<T extends TxDrivenModule> extends BaseGrap
             return;
         }
 
-        getTxDrivenModuleManager().afterRollback(states);
+        try {
+            getTxDrivenModuleManager().afterRollback(states);
+        } finally {
+            closeTransactionData(states);
+        }
+    }
+
+    /**
+     * Release resources held by the transaction data passed from {@link #beforeCommit(TransactionData)}.
+     *
+     * @param states returned by {@link #beforeCommit(TransactionData)}.
+     */
+    private void closeTransactionData(Map<String, Object> states) {
+        Object transactionData = states.remove(TRANSACTION_DATA);
+        if (transactionData instanceof LazyTransactionData) {
+            ((LazyTransactionData) transactionData).close();
+        }
     }
 
     /**
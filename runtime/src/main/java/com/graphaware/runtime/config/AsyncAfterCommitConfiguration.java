@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.config;
+
+/**
+ * Immutable configuration of asynchronous {@link com.graphaware.runtime.module.TxDrivenModule#afterCommit(Object)}
+ * execution for modules implementing {@link com.graphaware.runtime.module.AsyncTxDrivenModule}.
+ */
+public final class AsyncAfterCommitConfiguration {
+
+    /**
+     * Ordering guarantees of asynchronously executed after-commit work.
+     */
+    public enum Ordering {
+        /**
+         * After-commit work of a module is executed one at a time, in the order of transaction commits.
+         */
+        STRICT,
+
+        /**
+         * After-commit work of a module can be executed concurrently by multiple threads, in no particular order.
+         */
+        UNORDERED
+    }
+
+    /**
+     * Behaviour when the queue of after-commit work of a module is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * The committing thread waits until there is space in the queue. If the runtime shuts down in the meantime,
+         * the after-commit work is discarded and a warning is logged.
+         */
+        BLOCK,
+
+        /**
+         * The after-commit work is discarded and a warning is logged.
+         */
+        DISCARD,
+
+        /**
+         * The after-commit work is executed synchronously by the committing thread. Only allowed with {@link Ordering#UNORDERED}.
+         */
+        RUN_SYNCHRONOUSLY
+    }
+
+    private final int queueCapacity;
+    private final Ordering ordering;
+    private final OverflowPolicy overflowPolicy;
+    private final int numberOfThreads;
+
+    /**
+     * Create a new instance of this configuration with default values, which are:
+     * <ul>
+     * <li>queue capacity = 10,000</li>
+     * <li>ordering = {@link Ordering#STRICT}</li>
+     * <li>overflow policy = {@link OverflowPolicy#BLOCK}</li>
+     * <li>number of threads = 1</li>
+     * </ul>
+     *
+     * @return default configuration.
+     */
+    public static AsyncAfterCommitConfiguration defaultConfiguration() {
+        return new AsyncAfterCommitConfiguration(10_000, Ordering.STRICT, OverflowPolicy.BLOCK, 1);
+    }
+
+    /**
+     * Construct a new configuration.
+     *
+     * @param queueCapacity   maximum number of after-commit tasks waiting for execution.
+     * @param ordering        ordering guarantees.
+     * @param overflowPolicy  behaviour when the queue is full.
+     * @param numberOfThreads number of threads executing after-commit work. Only honoured with {@link Ordering#UNORDERED}.
+     */
+    private AsyncAfterCommitConfiguration(int queueCapacity, Ordering ordering, OverflowPolicy overflowPolicy, int numberOfThreads) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be positive");
+        }
+
+        if (numberOfThreads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+
+        this.queueCapacity = queueCapacity;
+        this.ordering = ordering;
+        this.overflowPolicy = overflowPolicy;
+        this.numberOfThreads = numberOfThreads;
+    }
+
+    /**
+     * Returns a copy of this configuration with the given queue capacity.
+     *
+     * @param queueCapacity maximum number of after-commit tasks waiting for execution.
+     * @return A new {@link AsyncAfterCommitConfiguration}.
+     */
+    public AsyncAfterCommitConfiguration withQueueCapacity(int queueCapacity) {
+        return new AsyncAfterCommitConfiguration(queueCapacity, ordering, overflowPolicy, numberOfThreads);
+    }
+
+    /**
+     * Returns a copy of this configuration with the given ordering guarantees.
+     *
+     * @param ordering guarantees.
+     * @return A new {@link AsyncAfterCommitConfiguration}.
+     */
+    public AsyncAfterCommitConfiguration withOrdering(Ordering ordering) {
+        return new AsyncAfterCommitConfiguration(queueCapacity, ordering, overflowPolicy, numberOfThreads);
+    }
+
+    /**
+     * Returns a copy of this configuration with the given overflow policy.
+     *
+     * @param overflowPolicy behaviour when the queue is full.
+     * @return A new {@link AsyncAfterCommitConfiguration}.
+     */
+    public AsyncAfterCommitConfiguration withOverflowPolicy(OverflowPolicy overflowPolicy) {
+        return new AsyncAfterCommitConfiguration(queueCapacity, ordering, overflowPolicy, numberOfThreads);
+    }
+
+    /**
+     * Returns a copy of this configuration with the given number of threads. Only honoured with {@link Ordering#UNORDERED};
+     * {@link Ordering#STRICT} always uses a single thread.
+     *
+     * @param numberOfThreads number of threads executing after-commit work.
+     * @return A new {@link AsyncAfterCommitConfiguration}.
+     */
+    public AsyncAfterCommitConfiguration withNumberOfThreads(int numberOfThreads) {
+        return new AsyncAfterCommitConfiguration(queueCapacity, ordering, overflowPolicy, numberOfThreads);
+    }
+
+    /**
+     * Get the maximum number of after-commit tasks waiting for execution.
+     *
+     * @return queue capacity.
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Get the ordering guarantees.
+     *
+     * @return ordering.
+     */
+    public Ordering getOrdering() {
+        return ordering;
+    }
+
+    /**
+     * Get the behaviour when the queue is full.
+     *
+     * @return overflow policy.
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Get the number of threads executing after-commit work, taking the ordering guarantees into account.
+     *
+     * @return number of threads.
+     */
+    public int getNumberOfThreads() {
+        return Ordering.STRICT.equals(ordering) ? 1 : numberOfThreads;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("RedundantIfStatement")
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        AsyncAfterCommitConfiguration that = (AsyncAfterCommitConfiguration) o;
+
+        if (numberOfThreads != that.numberOfThreads) return false;
+        if (queueCapacity != that.queueCapacity) return false;
+        if (ordering != that.ordering) return false;
+        if (overflowPolicy != that.overflowPolicy) return false;
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        int result = queueCapacity;
+        result = 31 * result + ordering.hashCode();
+        result = 31 * result + overflowPolicy.hashCode();
+        result = 31 * result + numberOfThreads;
+        return result;
+    }
+}
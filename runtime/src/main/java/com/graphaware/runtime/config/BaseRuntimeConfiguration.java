@@ -16,6 +16,7 @@
 
 package com.graphaware.runtime.config;
 
+import com.graphaware.runtime.schedule.SchedulingPolicy;
 import com.graphaware.runtime.schedule.TimingStrategy;
 import com.graphaware.runtime.write.WritingConfig;
 
@@ -26,10 +27,50 @@ public abstract class BaseRuntimeConfiguration implements RuntimeConfiguration {
 
     private final TimingStrategy timingStrategy;
     private final WritingConfig writingConfig;
+    private final int timerDrivenModuleThreads;
+    private final SchedulingPolicy schedulingPolicy;
+    private final CheckpointingConfiguration checkpointingConfiguration;
+    private final ProfilingConfiguration profilingConfiguration;
+    private final InitializationConfiguration initializationConfiguration;
+    private final long transactionDataSpillThreshold;
 
     protected BaseRuntimeConfiguration(TimingStrategy timingStrategy, WritingConfig writingConfig) {
+        this(timingStrategy, writingConfig, 1);
+    }
+
+    protected BaseRuntimeConfiguration(TimingStrategy timingStrategy, WritingConfig writingConfig, int timerDrivenModuleThreads) {
+        this(timingStrategy, writingConfig, timerDrivenModuleThreads, SchedulingPolicy.ROUND_ROBIN, CheckpointingConfiguration.defaultConfiguration());
+    }
+
+    protected BaseRuntimeConfiguration(TimingStrategy timingStrategy, WritingConfig writingConfig, int timerDrivenModuleThreads, SchedulingPolicy schedulingPolicy, CheckpointingConfiguration checkpointingConfiguration) {
+        this(timingStrategy, writingConfig, timerDrivenModuleThreads, schedulingPolicy, checkpointingConfiguration, ProfilingConfiguration.defaultConfiguration());
+    }
+
+    protected BaseRuntimeConfiguration(TimingStrategy timingStrategy, WritingConfig writingConfig, int timerDrivenModuleThreads, SchedulingPolicy schedulingPolicy, CheckpointingConfiguration checkpointingConfiguration, ProfilingConfiguration profilingConfiguration) {
+        this(timingStrategy, writingConfig, timerDrivenModuleThreads, schedulingPolicy, checkpointingConfiguration, profilingConfiguration, InitializationConfiguration.defaultConfiguration());
+    }
+
+    protected BaseRuntimeConfiguration(TimingStrategy timingStrategy, WritingConfig writingConfig, int timerDrivenModuleThreads, SchedulingPolicy schedulingPolicy, CheckpointingConfiguration checkpointingConfiguration, ProfilingConfiguration profilingConfiguration, InitializationConfiguration initializationConfiguration) {
+        this(timingStrategy, writingConfig, timerDrivenModuleThreads, schedulingPolicy, checkpointingConfiguration, profilingConfiguration, initializationConfiguration, Long.MAX_VALUE);
+    }
+
+    protected BaseRuntimeConfiguration(TimingStrategy timingStrategy, WritingConfig writingConfig, int timerDrivenModuleThreads, SchedulingPolicy schedulingPolicy, CheckpointingConfiguration checkpointingConfiguration, ProfilingConfiguration profilingConfiguration, InitializationConfiguration initializationConfiguration, long transactionDataSpillThreshold) {
+        if (timerDrivenModuleThreads < 1) {
+            throw new IllegalArgumentException("Number of threads for timer-driven modules must be positive");
+        }
+
+        if (transactionDataSpillThreshold < 0) {
+            throw new IllegalArgumentException("Transaction data spill threshold must not be negative");
+        }
+
         this.timingStrategy = timingStrategy;
         this.writingConfig = writingConfig;
+        this.timerDrivenModuleThreads = timerDrivenModuleThreads;
+        this.schedulingPolicy = schedulingPolicy;
+        this.checkpointingConfiguration = checkpointingConfiguration;
+        this.profilingConfiguration = profilingConfiguration;
+        this.initializationConfiguration = initializationConfiguration;
+        this.transactionDataSpillThreshold = transactionDataSpillThreshold;
     }
 
     /**
@@ -48,6 +89,54 @@ public abstract class BaseRuntimeConfiguration implements RuntimeConfiguration {
         return writingConfig;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getTimerDrivenModuleThreads() {
+        return timerDrivenModuleThreads;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SchedulingPolicy getSchedulingPolicy() {
+        return schedulingPolicy;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CheckpointingConfiguration getCheckpointingConfiguration() {
+        return checkpointingConfiguration;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ProfilingConfiguration getProfilingConfiguration() {
+        return profilingConfiguration;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InitializationConfiguration getInitializationConfiguration() {
+        return initializationConfiguration;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getTransactionDataSpillThreshold() {
+        return transactionDataSpillThreshold;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -66,8 +155,14 @@ public abstract class BaseRuntimeConfiguration implements RuntimeConfiguration {
 
         BaseRuntimeConfiguration that = (BaseRuntimeConfiguration) o;
 
+        if (timerDrivenModuleThreads != that.timerDrivenModuleThreads) return false;
+        if (transactionDataSpillThreshold != that.transactionDataSpillThreshold) return false;
         if (!writingConfig.equals(that.writingConfig)) return false;
         if (!timingStrategy.equals(that.timingStrategy)) return false;
+        if (schedulingPolicy != that.schedulingPolicy) return false;
+        if (!checkpointingConfiguration.equals(that.checkpointingConfiguration)) return false;
+        if (!profilingConfiguration.equals(that.profilingConfiguration)) return false;
+        if (!initializationConfiguration.equals(that.initializationConfiguration)) return false;
 
         return true;
     }
@@ -79,6 +174,12 @@ public abstract class BaseRuntimeConfiguration implements RuntimeConfiguration {
     public int hashCode() {
         int result = timingStrategy.hashCode();
         result = 31 * result + writingConfig.hashCode();
+        result = 31 * result + timerDrivenModuleThreads;
+        result = 31 * result + schedulingPolicy.hashCode();
+        result = 31 * result + checkpointingConfiguration.hashCode();
+        result = 31 * result + profilingConfiguration.hashCode();
+        result = 31 * result + initializationConfiguration.hashCode();
+        result = 31 * result + (int) (transactionDataSpillThreshold ^ (transactionDataSpillThreshold >>> 32));
         return result;
     }
 }
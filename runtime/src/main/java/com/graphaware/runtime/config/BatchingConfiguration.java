@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.config;
+
+/**
+ * Immutable configuration of the coalescing window of modules implementing
+ * {@link com.graphaware.runtime.module.BatchingTxDrivenModule}. A batch is delivered to the module when the window
+ * closes, which happens when the configured time has elapsed since the first transaction of the batch committed, or
+ * when the configured number of transactions have been collected, whichever comes first.
+ */
+public final class BatchingConfiguration {
+
+    private final long windowMillis;
+    private final int maxTransactions;
+
+    /**
+     * Create a new instance of this configuration with default values, which are:
+     * <ul>
+     * <li>window = 50 ms</li>
+     * <li>maximum number of transactions per batch = 1,000</li>
+     * </ul>
+     *
+     * @return default configuration.
+     */
+    public static BatchingConfiguration defaultConfiguration() {
+        return new BatchingConfiguration(50, 1_000);
+    }
+
+    /**
+     * Construct a new configuration.
+     *
+     * @param windowMillis    maximum time in ms between the commit of the first transaction of a batch and the delivery of the batch.
+     * @param maxTransactions maximum number of transactions in a single batch.
+     */
+    private BatchingConfiguration(long windowMillis, int maxTransactions) {
+        if (windowMillis < 1) {
+            throw new IllegalArgumentException("Window must be positive");
+        }
+
+        if (maxTransactions < 1) {
+            throw new IllegalArgumentException("Maximum number of transactions must be positive");
+        }
+
+        this.windowMillis = windowMillis;
+        this.maxTransactions = maxTransactions;
+    }
+
+    /**
+     * Returns a copy of this configuration with the given window.
+     *
+     * @param windowMillis maximum time in ms between the commit of the first transaction of a batch and the delivery of the batch.
+     * @return A new {@link BatchingConfiguration}.
+     */
+    public BatchingConfiguration withWindowMillis(long windowMillis) {
+        return new BatchingConfiguration(windowMillis, maxTransactions);
+    }
+
+    /**
+     * Returns a copy of this configuration with the given maximum number of transactions per batch.
+     *
+     * @param maxTransactions maximum number of transactions in a single batch.
+     * @return A new {@link BatchingConfiguration}.
+     */
+    public BatchingConfiguration withMaxTransactions(int maxTransactions) {
+        return new BatchingConfiguration(windowMillis, maxTransactions);
+    }
+
+    /**
+     * Get the window.
+     *
+     * @return maximum time in ms between the commit of the first transaction of a batch and the delivery of the batch.
+     */
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    /**
+     * Get the maximum number of transactions per batch.
+     *
+     * @return maximum number of transactions in a single batch.
+     */
+    public int getMaxTransactions() {
+        return maxTransactions;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("RedundantIfStatement")
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        BatchingConfiguration that = (BatchingConfiguration) o;
+
+        if (maxTransactions != that.maxTransactions) return false;
+        if (windowMillis != that.windowMillis) return false;
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        int result = (int) (windowMillis ^ (windowMillis >>> 32));
+        result = 31 * result + maxTransactions;
+        return result;
+    }
+}
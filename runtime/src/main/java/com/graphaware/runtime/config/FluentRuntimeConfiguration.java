@@ -17,6 +17,7 @@
 package com.graphaware.runtime.config;
 
 import com.graphaware.runtime.schedule.AdaptiveTimingStrategy;
+import com.graphaware.runtime.schedule.SchedulingPolicy;
 import com.graphaware.runtime.schedule.TimingStrategy;
 import com.graphaware.runtime.write.FluentWritingConfig;
 import com.graphaware.runtime.write.WritingConfig;
@@ -33,11 +34,11 @@ public final class FluentRuntimeConfiguration extends BaseRuntimeConfiguration {
      * @return The {@link FluentRuntimeConfiguration} instance.
      */
     public static FluentRuntimeConfiguration defaultConfiguration() {
-        return new FluentRuntimeConfiguration(AdaptiveTimingStrategy.defaultConfiguration(), FluentWritingConfig.defaultConfiguration());
+        return new FluentRuntimeConfiguration(AdaptiveTimingStrategy.defaultConfiguration(), FluentWritingConfig.defaultConfiguration(), 1, SchedulingPolicy.ROUND_ROBIN, CheckpointingConfiguration.defaultConfiguration(), ProfilingConfiguration.defaultConfiguration(), InitializationConfiguration.defaultConfiguration(), Long.MAX_VALUE);
     }
 
-    private FluentRuntimeConfiguration(TimingStrategy timingStrategy, WritingConfig writingConfig) {
-        super(timingStrategy, writingConfig);
+    private FluentRuntimeConfiguration(TimingStrategy timingStrategy, WritingConfig writingConfig, int timerDrivenModuleThreads, SchedulingPolicy schedulingPolicy, CheckpointingConfiguration checkpointingConfiguration, ProfilingConfiguration profilingConfiguration, InitializationConfiguration initializationConfiguration, long transactionDataSpillThreshold) {
+        super(timingStrategy, writingConfig, timerDrivenModuleThreads, schedulingPolicy, checkpointingConfiguration, profilingConfiguration, initializationConfiguration, transactionDataSpillThreshold);
     }
 
     /**
@@ -47,7 +48,7 @@ public final class FluentRuntimeConfiguration extends BaseRuntimeConfiguration {
      * @return new instance.
      */
     public FluentRuntimeConfiguration withTimingStrategy(TimingStrategy timingStrategy) {
-        return new FluentRuntimeConfiguration(timingStrategy, getWritingConfig());
+        return new FluentRuntimeConfiguration(timingStrategy, getWritingConfig(), getTimerDrivenModuleThreads(), getSchedulingPolicy(), getCheckpointingConfiguration(), getProfilingConfiguration(), getInitializationConfiguration(), getTransactionDataSpillThreshold());
     }
 
     /**
@@ -57,6 +58,67 @@ public final class FluentRuntimeConfiguration extends BaseRuntimeConfiguration {
      * @return new instance.
      */
     public FluentRuntimeConfiguration withWritingConfig(WritingConfig writingConfig) {
-        return new FluentRuntimeConfiguration(getTimingStrategy(), writingConfig);
+        return new FluentRuntimeConfiguration(getTimingStrategy(), writingConfig, getTimerDrivenModuleThreads(), getSchedulingPolicy(), getCheckpointingConfiguration(), getProfilingConfiguration(), getInitializationConfiguration(), getTransactionDataSpillThreshold());
+    }
+
+    /**
+     * Create an instance with a different number of threads delegating work to timer-driven modules.
+     *
+     * @param timerDrivenModuleThreads of the new instance.
+     * @return new instance.
+     */
+    public FluentRuntimeConfiguration withTimerDrivenModuleThreads(int timerDrivenModuleThreads) {
+        return new FluentRuntimeConfiguration(getTimingStrategy(), getWritingConfig(), timerDrivenModuleThreads, getSchedulingPolicy(), getCheckpointingConfiguration(), getProfilingConfiguration(), getInitializationConfiguration(), getTransactionDataSpillThreshold());
+    }
+
+    /**
+     * Create an instance with a different {@link SchedulingPolicy}.
+     *
+     * @param schedulingPolicy of the new instance.
+     * @return new instance.
+     */
+    public FluentRuntimeConfiguration withSchedulingPolicy(SchedulingPolicy schedulingPolicy) {
+        return new FluentRuntimeConfiguration(getTimingStrategy(), getWritingConfig(), getTimerDrivenModuleThreads(), schedulingPolicy, getCheckpointingConfiguration(), getProfilingConfiguration(), getInitializationConfiguration(), getTransactionDataSpillThreshold());
+    }
+
+    /**
+     * Create an instance with a different {@link CheckpointingConfiguration}.
+     *
+     * @param checkpointingConfiguration of the new instance.
+     * @return new instance.
+     */
+    public FluentRuntimeConfiguration withCheckpointingConfiguration(CheckpointingConfiguration checkpointingConfiguration) {
+        return new FluentRuntimeConfiguration(getTimingStrategy(), getWritingConfig(), getTimerDrivenModuleThreads(), getSchedulingPolicy(), checkpointingConfiguration, getProfilingConfiguration(), getInitializationConfiguration(), getTransactionDataSpillThreshold());
+    }
+
+    /**
+     * Create an instance with a different {@link ProfilingConfiguration}.
+     *
+     * @param profilingConfiguration of the new instance.
+     * @return new instance.
+     */
+    public FluentRuntimeConfiguration withProfilingConfiguration(ProfilingConfiguration profilingConfiguration) {
+        return new FluentRuntimeConfiguration(getTimingStrategy(), getWritingConfig(), getTimerDrivenModuleThreads(), getSchedulingPolicy(), getCheckpointingConfiguration(), profilingConfiguration, getInitializationConfiguration(), getTransactionDataSpillThreshold());
+    }
+
+    /**
+     * Create an instance with a different {@link InitializationConfiguration}.
+     *
+     * @param initializationConfiguration of the new instance.
+     * @return new instance.
+     */
+    public FluentRuntimeConfiguration withInitializationConfiguration(InitializationConfiguration initializationConfiguration) {
+        return new FluentRuntimeConfiguration(getTimingStrategy(), getWritingConfig(), getTimerDrivenModuleThreads(), getSchedulingPolicy(), getCheckpointingConfiguration(), getProfilingConfiguration(), initializationConfiguration, getTransactionDataSpillThreshold());
+    }
+
+    /**
+     * Create an instance with a different number of changes a transaction must exceed for the data about it to be
+     * held in compact structures, with captured property values moved off the heap.
+     *
+     * @param transactionDataSpillThreshold of the new instance, {@link Long#MAX_VALUE} for keeping everything on the heap.
+     * @return new instance.
+     */
+    public FluentRuntimeConfiguration withTransactionDataSpillThreshold(long transactionDataSpillThreshold) {
+        return new FluentRuntimeConfiguration(getTimingStrategy(), getWritingConfig(), getTimerDrivenModuleThreads(), getSchedulingPolicy(), getCheckpointingConfiguration(), getProfilingConfiguration(), getInitializationConfiguration(), transactionDataSpillThreshold);
     }
 }
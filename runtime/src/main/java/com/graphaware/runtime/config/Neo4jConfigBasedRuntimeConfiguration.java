@@ -17,9 +17,13 @@
 package com.graphaware.runtime.config;
 
 import com.graphaware.runtime.config.function.StringToDatabaseWriterType;
+import com.graphaware.runtime.config.function.StringToSchedulingPolicy;
 import com.graphaware.runtime.config.function.StringToTimingStrategy;
+import com.graphaware.runtime.monitor.CompositeLoadConfiguration;
 import com.graphaware.runtime.schedule.AdaptiveTimingStrategy;
 import com.graphaware.runtime.schedule.FixedDelayTimingStrategy;
+import com.graphaware.runtime.schedule.PidGains;
+import com.graphaware.runtime.schedule.SchedulingPolicy;
 import com.graphaware.runtime.schedule.TimingStrategy;
 import com.graphaware.runtime.write.DatabaseWriterType;
 import com.graphaware.runtime.write.FluentWritingConfig;
@@ -48,6 +52,31 @@ import static org.neo4j.helpers.Settings.*;
  * The above are also the default values, if no configuration is provided. For exact meaning of the values, please refer
  * to the Javadoc of {@link AdaptiveTimingStrategy}.
  * <p/>
+ * Using <code>com.graphaware.runtime.timing.strategy=composite</code> with the same settings also results in an
+ * {@link AdaptiveTimingStrategy}, which determines the level of activity using a
+ * {@link com.graphaware.runtime.monitor.CompositeLoadMonitor} (CPU usage, GC pauses, page cache faults, committed and
+ * running transactions) rather than the rate of started transactions. The busy threshold then means percent of the
+ * composite's thresholds, i.e. the default of 100 means the busiest resource is at its threshold. The thresholds
+ * (in units of the respective monitors) and weights of the composite are configured using the following settings,
+ * which default to the values shown (see {@link com.graphaware.runtime.monitor.CompositeLoadConfiguration}):
+ * <pre>
+ *     com.graphaware.runtime.timing.cpuThreshold=80
+ *     com.graphaware.runtime.timing.gcThreshold=100
+ *     com.graphaware.runtime.timing.pageFaultThreshold=1000
+ *     com.graphaware.runtime.timing.commitThreshold=100
+ *     com.graphaware.runtime.timing.activeTxThreshold=10
+ *     com.graphaware.runtime.timing.cpuWeight=1
+ *     com.graphaware.runtime.timing.gcWeight=1
+ *     com.graphaware.runtime.timing.pageFaultWeight=1
+ *     com.graphaware.runtime.timing.commitWeight=1
+ *     com.graphaware.runtime.timing.activeTxWeight=1
+ * </pre>
+ * <p/>
+ * For both of the above, <code>com.graphaware.runtime.timing.adjuster=pid</code> makes the strategy adjust the delay
+ * using a {@link com.graphaware.runtime.schedule.PidDelayAdjuster} with
+ * {@link PidGains#defaultGains()}, which aims to keep the load at the busy threshold.
+ * The default is <code>com.graphaware.runtime.timing.adjuster=constant</code>.
+ * <p/>
  * The other option is {@link FixedDelayTimingStrategy}, configured by using the following settings
  * <pre>
  *     com.graphaware.runtime.timing.strategy=fixed
@@ -55,6 +84,45 @@ import static org.neo4j.helpers.Settings.*;
  *     com.graphaware.runtime.timing.initialDelay=1000
  * </pre>
  * <p/>
+ * Regardless of the {@link TimingStrategy}, the number of threads delegating work to timer-driven modules can be
+ * configured using the following setting (defaults to 1):
+ * <pre>
+ *     com.graphaware.runtime.timing.threads=4
+ * </pre>
+ * and so can the {@link SchedulingPolicy} (defaults to roundRobin):
+ * <pre>
+ *     com.graphaware.runtime.timing.policy=weightedFair
+ * </pre>
+ * <p/>
+ * The {@link CheckpointingConfiguration} of timer-driven module contexts is configured using the following settings,
+ * which default to persisting every changed context immediately:
+ * <pre>
+ *     com.graphaware.runtime.checkpoint.changes=100
+ *     com.graphaware.runtime.checkpoint.interval=1000
+ * </pre>
+ * <p/>
+ * The {@link ProfilingConfiguration} of transaction-driven modules is configured using the following settings,
+ * which default to measuring latencies in every transaction and publishing the statistics over JMX:
+ * <pre>
+ *     com.graphaware.runtime.profiling.samplingRate=100
+ *     com.graphaware.runtime.profiling.jmx=true
+ * </pre>
+ * <p/>
+ * The {@link InitializationConfiguration} of modules is configured using the following settings, which default to
+ * 1, 1000, false, and 10000, respectively:
+ * <pre>
+ *     com.graphaware.runtime.initialization.threads=4
+ *     com.graphaware.runtime.initialization.batchSize=1000
+ *     com.graphaware.runtime.initialization.background=true
+ *     com.graphaware.runtime.initialization.replayBufferSize=10000
+ * </pre>
+ * <p/>
+ * Data about transactions with more than a given number of changes can be held in compact structures, with captured
+ * property values moved off the heap, which is disabled by default:
+ * <pre>
+ *     com.graphaware.runtime.tx.spillThreshold=1000000
+ * </pre>
+ * <p/>
  * For {@link WritingConfig}, there are three choices:
  * <pre>
  *     com.graphaware.runtime.db.writer=default
@@ -99,6 +167,40 @@ public final class Neo4jConfigBasedRuntimeConfiguration extends BaseRuntimeConfi
     private static final Setting<Integer> BUSY_THRESHOLD_SETTING = setting("com.graphaware.runtime.timing.busyThreshold", INTEGER, (String) null);
     private static final Setting<Integer> MAX_SAMPLES_SETTING = setting("com.graphaware.runtime.timing.maxSamples", INTEGER, (String) null);
     private static final Setting<Integer> MAX_TIME_SETTING = setting("com.graphaware.runtime.timing.maxTime", INTEGER, (String) null);
+    private static final Setting<Long> CPU_THRESHOLD_SETTING = setting("com.graphaware.runtime.timing.cpuThreshold", LONG, (String) null);
+    private static final Setting<Long> GC_THRESHOLD_SETTING = setting("com.graphaware.runtime.timing.gcThreshold", LONG, (String) null);
+    private static final Setting<Long> PAGE_FAULT_THRESHOLD_SETTING = setting("com.graphaware.runtime.timing.pageFaultThreshold", LONG, (String) null);
+    private static final Setting<Long> COMMIT_THRESHOLD_SETTING = setting("com.graphaware.runtime.timing.commitThreshold", LONG, (String) null);
+    private static final Setting<Long> ACTIVE_TX_THRESHOLD_SETTING = setting("com.graphaware.runtime.timing.activeTxThreshold", LONG, (String) null);
+    private static final Setting<Double> CPU_WEIGHT_SETTING = setting("com.graphaware.runtime.timing.cpuWeight", DOUBLE, (String) null);
+    private static final Setting<Double> GC_WEIGHT_SETTING = setting("com.graphaware.runtime.timing.gcWeight", DOUBLE, (String) null);
+    private static final Setting<Double> PAGE_FAULT_WEIGHT_SETTING = setting("com.graphaware.runtime.timing.pageFaultWeight", DOUBLE, (String) null);
+    private static final Setting<Double> COMMIT_WEIGHT_SETTING = setting("com.graphaware.runtime.timing.commitWeight", DOUBLE, (String) null);
+    private static final Setting<Double> ACTIVE_TX_WEIGHT_SETTING = setting("com.graphaware.runtime.timing.activeTxWeight", DOUBLE, (String) null);
+    private static final Setting<String> DELAY_ADJUSTER_SETTING = setting("com.graphaware.runtime.timing.adjuster", options("constant", "pid"), "constant");
+
+    //number of threads
+    private static final Setting<Integer> THREADS_SETTING = setting("com.graphaware.runtime.timing.threads", INTEGER, "1");
+
+    //scheduling policy
+    private static final Setting<SchedulingPolicy> SCHEDULING_POLICY_SETTING = setting("com.graphaware.runtime.timing.policy", StringToSchedulingPolicy.getInstance(), StringToSchedulingPolicy.ROUND_ROBIN);
+
+    //checkpointing
+    private static final Setting<Integer> CHECKPOINT_CHANGES_SETTING = setting("com.graphaware.runtime.checkpoint.changes", INTEGER, (String) null);
+    private static final Setting<Long> CHECKPOINT_INTERVAL_SETTING = setting("com.graphaware.runtime.checkpoint.interval", LONG, (String) null);
+
+    //profiling
+    private static final Setting<Integer> PROFILING_SAMPLING_RATE_SETTING = setting("com.graphaware.runtime.profiling.samplingRate", INTEGER, (String) null);
+    private static final Setting<Boolean> PROFILING_JMX_SETTING = setting("com.graphaware.runtime.profiling.jmx", BOOLEAN, (String) null);
+
+    //initialization
+    private static final Setting<Integer> INITIALIZATION_THREADS_SETTING = setting("com.graphaware.runtime.initialization.threads", INTEGER, (String) null);
+    private static final Setting<Integer> INITIALIZATION_BATCH_SIZE_SETTING = setting("com.graphaware.runtime.initialization.batchSize", INTEGER, (String) null);
+    private static final Setting<Boolean> INITIALIZATION_BACKGROUND_SETTING = setting("com.graphaware.runtime.initialization.background", BOOLEAN, (String) null);
+    private static final Setting<Integer> INITIALIZATION_REPLAY_BUFFER_SIZE_SETTING = setting("com.graphaware.runtime.initialization.replayBufferSize", INTEGER, (String) null);
+
+    //large transactions
+    private static final Setting<Long> TX_SPILL_THRESHOLD_SETTING = setting("com.graphaware.runtime.tx.spillThreshold", LONG, String.valueOf(Long.MAX_VALUE));
 
     /**
      * Constructs a new {@link Neo4jConfigBasedRuntimeConfiguration} based on the given Neo4j {@link Config}.
@@ -106,7 +208,7 @@ public final class Neo4jConfigBasedRuntimeConfiguration extends BaseRuntimeConfi
      * @param config The {@link Config} containing the settings used to configure the runtime
      */
     public Neo4jConfigBasedRuntimeConfiguration(Config config) {
-        super(createTimingStrategy(config), createWritingConfig(config));
+        super(createTimingStrategy(config), createWritingConfig(config), config.get(THREADS_SETTING), config.get(SCHEDULING_POLICY_SETTING), createCheckpointingConfiguration(config), createProfilingConfiguration(config), createInitializationConfiguration(config), config.get(TX_SPILL_THRESHOLD_SETTING));
     }
 
     private static TimingStrategy createTimingStrategy(Config config) {
@@ -157,12 +259,112 @@ public final class Neo4jConfigBasedRuntimeConfiguration extends BaseRuntimeConfi
                 strategy = strategy.withMaxTime(config.get(MAX_TIME_SETTING));
             }
 
-            return strategy;
+            if ("pid".equals(config.get(DELAY_ADJUSTER_SETTING))) {
+                strategy = strategy.withPidGains(PidGains.defaultGains());
+            }
+
+            return strategy.withCompositeLoadConfiguration(createCompositeLoadConfiguration(config));
         }
 
         throw new IllegalStateException("Unknown timing strategy!");
     }
 
+    private static CompositeLoadConfiguration createCompositeLoadConfiguration(Config config) {
+        CompositeLoadConfiguration result = CompositeLoadConfiguration.defaultConfiguration();
+
+        if (config.get(CPU_THRESHOLD_SETTING) != null) {
+            result = result.withCpuThreshold(config.get(CPU_THRESHOLD_SETTING));
+        }
+
+        if (config.get(GC_THRESHOLD_SETTING) != null) {
+            result = result.withGcThreshold(config.get(GC_THRESHOLD_SETTING));
+        }
+
+        if (config.get(PAGE_FAULT_THRESHOLD_SETTING) != null) {
+            result = result.withPageFaultThreshold(config.get(PAGE_FAULT_THRESHOLD_SETTING));
+        }
+
+        if (config.get(COMMIT_THRESHOLD_SETTING) != null) {
+            result = result.withCommitThreshold(config.get(COMMIT_THRESHOLD_SETTING));
+        }
+
+        if (config.get(ACTIVE_TX_THRESHOLD_SETTING) != null) {
+            result = result.withActiveTxThreshold(config.get(ACTIVE_TX_THRESHOLD_SETTING));
+        }
+
+        if (config.get(CPU_WEIGHT_SETTING) != null) {
+            result = result.withCpuWeight(config.get(CPU_WEIGHT_SETTING));
+        }
+
+        if (config.get(GC_WEIGHT_SETTING) != null) {
+            result = result.withGcWeight(config.get(GC_WEIGHT_SETTING));
+        }
+
+        if (config.get(PAGE_FAULT_WEIGHT_SETTING) != null) {
+            result = result.withPageFaultWeight(config.get(PAGE_FAULT_WEIGHT_SETTING));
+        }
+
+        if (config.get(COMMIT_WEIGHT_SETTING) != null) {
+            result = result.withCommitWeight(config.get(COMMIT_WEIGHT_SETTING));
+        }
+
+        if (config.get(ACTIVE_TX_WEIGHT_SETTING) != null) {
+            result = result.withActiveTxWeight(config.get(ACTIVE_TX_WEIGHT_SETTING));
+        }
+
+        return result;
+    }
+
+    private static CheckpointingConfiguration createCheckpointingConfiguration(Config config) {
+        CheckpointingConfiguration result = CheckpointingConfiguration.defaultConfiguration();
+
+        if (config.get(CHECKPOINT_CHANGES_SETTING) != null) {
+            result = result.withMaxChanges(config.get(CHECKPOINT_CHANGES_SETTING));
+        }
+
+        if (config.get(CHECKPOINT_INTERVAL_SETTING) != null) {
+            result = result.withIntervalMillis(config.get(CHECKPOINT_INTERVAL_SETTING));
+        }
+
+        return result;
+    }
+
+    private static ProfilingConfiguration createProfilingConfiguration(Config config) {
+        ProfilingConfiguration result = ProfilingConfiguration.defaultConfiguration();
+
+        if (config.get(PROFILING_SAMPLING_RATE_SETTING) != null) {
+            result = result.withSamplingRate(config.get(PROFILING_SAMPLING_RATE_SETTING));
+        }
+
+        if (config.get(PROFILING_JMX_SETTING) != null) {
+            result = result.withJmxEnabled(config.get(PROFILING_JMX_SETTING));
+        }
+
+        return result;
+    }
+
+    private static InitializationConfiguration createInitializationConfiguration(Config config) {
+        InitializationConfiguration result = InitializationConfiguration.defaultConfiguration();
+
+        if (config.get(INITIALIZATION_THREADS_SETTING) != null) {
+            result = result.withThreads(config.get(INITIALIZATION_THREADS_SETTING));
+        }
+
+        if (config.get(INITIALIZATION_BATCH_SIZE_SETTING) != null) {
+            result = result.withBatchSize(config.get(INITIALIZATION_BATCH_SIZE_SETTING));
+        }
+
+        if (config.get(INITIALIZATION_BACKGROUND_SETTING) != null) {
+            result = result.withBackground(config.get(INITIALIZATION_BACKGROUND_SETTING));
+        }
+
+        if (config.get(INITIALIZATION_REPLAY_BUFFER_SIZE_SETTING) != null) {
+            result = result.withReplayBufferSize(config.get(INITIALIZATION_REPLAY_BUFFER_SIZE_SETTING));
+        }
+
+        return result;
+    }
+
     private static WritingConfig createWritingConfig(Config config) {
         DatabaseWriterType databaseWriterType = config.get(DATABASE_WRITER_TYPE_SETTING);
 
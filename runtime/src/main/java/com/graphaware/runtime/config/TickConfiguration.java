@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.config;
+
+/**
+ * Immutable configuration of a single tick of modules implementing {@link com.graphaware.runtime.module.MultiStepTimerDrivenModule}.
+ * In each tick, the module's work is performed repeatedly within a single transaction, until the configured number
+ * of steps have been performed or the configured time budget has been used up, whichever comes first.
+ */
+public final class TickConfiguration {
+
+    private final int maxSteps;
+    private final long maxTimeMillis;
+
+    /**
+     * Create a new instance of this configuration with default values, which are:
+     * <ul>
+     * <li>maximum number of steps per tick = 1,000</li>
+     * <li>time budget = 50 ms</li>
+     * </ul>
+     *
+     * @return default configuration.
+     */
+    public static TickConfiguration defaultConfiguration() {
+        return new TickConfiguration(1_000, 50);
+    }
+
+    /**
+     * Construct a new configuration.
+     *
+     * @param maxSteps      maximum number of steps performed in a single tick.
+     * @param maxTimeMillis time budget of a single tick in ms. The step that exceeds the budget is always completed.
+     */
+    private TickConfiguration(int maxSteps, long maxTimeMillis) {
+        if (maxSteps < 1) {
+            throw new IllegalArgumentException("Maximum number of steps must be positive");
+        }
+
+        if (maxTimeMillis < 1) {
+            throw new IllegalArgumentException("Time budget must be positive");
+        }
+
+        this.maxSteps = maxSteps;
+        this.maxTimeMillis = maxTimeMillis;
+    }
+
+    /**
+     * Returns a copy of this configuration with the given maximum number of steps per tick.
+     *
+     * @param maxSteps maximum number of steps performed in a single tick.
+     * @return A new {@link TickConfiguration}.
+     */
+    public TickConfiguration withMaxSteps(int maxSteps) {
+        return new TickConfiguration(maxSteps, maxTimeMillis);
+    }
+
+    /**
+     * Returns a copy of this configuration with the given time budget.
+     *
+     * @param maxTimeMillis time budget of a single tick in ms.
+     * @return A new {@link TickConfiguration}.
+     */
+    public TickConfiguration withMaxTimeMillis(long maxTimeMillis) {
+        return new TickConfiguration(maxSteps, maxTimeMillis);
+    }
+
+    /**
+     * Get the maximum number of steps per tick.
+     *
+     * @return maximum number of steps performed in a single tick.
+     */
+    public int getMaxSteps() {
+        return maxSteps;
+    }
+
+    /**
+     * Get the time budget.
+     *
+     * @return time budget of a single tick in ms.
+     */
+    public long getMaxTimeMillis() {
+        return maxTimeMillis;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("RedundantIfStatement")
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        TickConfiguration that = (TickConfiguration) o;
+
+        if (maxSteps != that.maxSteps) return false;
+        if (maxTimeMillis != that.maxTimeMillis) return false;
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        int result = maxSteps;
+        result = 31 * result + (int) (maxTimeMillis ^ (maxTimeMillis >>> 32));
+        return result;
+    }
+}
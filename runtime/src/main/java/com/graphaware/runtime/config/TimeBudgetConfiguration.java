@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.config;
+
+/**
+ * Immutable configuration of the time budget and circuit breaker of
+ * {@link com.graphaware.runtime.module.TxDrivenModule#beforeCommit(com.graphaware.tx.event.improved.api.ImprovedTransactionData)}
+ * for modules implementing {@link com.graphaware.runtime.module.TimeBudgetedTxDrivenModule}.
+ * <p/>
+ * When beforeCommit of a module exceeds its budget the configured number of times within the configured window, the
+ * circuit breaker opens: the module is bypassed by all transactions and marked as needing re-initialization. After the
+ * configured cool-down, the module is given another chance as soon as the load of the database is at or below the
+ * configured threshold. If beforeCommit then finishes within budget, the circuit breaker closes again, otherwise it
+ * re-opens for another cool-down.
+ */
+public final class TimeBudgetConfiguration {
+
+    private final long budgetMillis;
+    private final int maxViolations;
+    private final long windowMillis;
+    private final long cooldownMillis;
+    private final long reenableLoadThreshold;
+
+    /**
+     * Create a new instance of this configuration with default values, which are:
+     * <ul>
+     * <li>budget = 100 ms</li>
+     * <li>maximum number of budget violations = 5</li>
+     * <li>window = 10,000 ms</li>
+     * <li>cool-down = 60,000 ms</li>
+     * <li>re-enable load threshold = 100, i.e. 100 started transactions per second</li>
+     * </ul>
+     *
+     * @return default configuration.
+     */
+    public static TimeBudgetConfiguration defaultConfiguration() {
+        return new TimeBudgetConfiguration(100, 5, 10_000, 60_000, 100);
+    }
+
+    /**
+     * Construct a new configuration.
+     *
+     * @param budgetMillis          maximum time in ms beforeCommit of the module should take.
+     * @param maxViolations         number of budget violations within the window that opens the circuit breaker.
+     * @param windowMillis          window in ms, within which the budget violations are counted.
+     * @param cooldownMillis        minimum time in ms the module is bypassed for when the circuit breaker opens.
+     * @param reenableLoadThreshold maximum load of the database at which the module can be re-enabled after cool-down.
+     */
+    private TimeBudgetConfiguration(long budgetMillis, int maxViolations, long windowMillis, long cooldownMillis, long reenableLoadThreshold) {
+        if (budgetMillis < 0) {
+            throw new IllegalArgumentException("Budget must not be negative");
+        }
+
+        if (maxViolations < 1) {
+            throw new IllegalArgumentException("Maximum number of violations must be positive");
+        }
+
+        if (windowMillis < 0 || cooldownMillis < 0) {
+            throw new IllegalArgumentException("Window and cool-down must not be negative");
+        }
+
+        this.budgetMillis = budgetMillis;
+        this.maxViolations = maxViolations;
+        this.windowMillis = windowMillis;
+        this.cooldownMillis = cooldownMillis;
+        this.reenableLoadThreshold = reenableLoadThreshold;
+    }
+
+    /**
+     * Returns a copy of this configuration with the given budget.
+     *
+     * @param budgetMillis maximum time in ms beforeCommit of the module should take.
+     * @return A new {@link TimeBudgetConfiguration}.
+     */
+    public TimeBudgetConfiguration withBudgetMillis(long budgetMillis) {
+        return new TimeBudgetConfiguration(budgetMillis, maxViolations, windowMillis, cooldownMillis, reenableLoadThreshold);
+    }
+
+    /**
+     * Returns a copy of this configuration with the given maximum number of budget violations.
+     *
+     * @param maxViolations number of budget violations within the window that opens the circuit breaker.
+     * @return A new {@link TimeBudgetConfiguration}.
+     */
+    public TimeBudgetConfiguration withMaxViolations(int maxViolations) {
+        return new TimeBudgetConfiguration(budgetMillis, maxViolations, windowMillis, cooldownMillis, reenableLoadThreshold);
+    }
+
+    /**
+     * Returns a copy of this configuration with the given window.
+     *
+     * @param windowMillis window in ms, within which the budget violations are counted.
+     * @return A new {@link TimeBudgetConfiguration}.
+     */
+    public TimeBudgetConfiguration withWindowMillis(long windowMillis) {
+        return new TimeBudgetConfiguration(budgetMillis, maxViolations, windowMillis, cooldownMillis, reenableLoadThreshold);
+    }
+
+    /**
+     * Returns a copy of this configuration with the given cool-down.
+     *
+     * @param cooldownMillis minimum time in ms the module is bypassed for when the circuit breaker opens.
+     * @return A new {@link TimeBudgetConfiguration}.
+     */
+    public TimeBudgetConfiguration withCooldownMillis(long cooldownMillis) {
+        return new TimeBudgetConfiguration(budgetMillis, maxViolations, windowMillis, cooldownMillis, reenableLoadThreshold);
+    }
+
+    /**
+     * Returns a copy of this configuration with the given re-enable load threshold.
+     *
+     * @param reenableLoadThreshold maximum load of the database at which the module can be re-enabled after cool-down.
+     *                              See {@link com.graphaware.runtime.monitor.DatabaseLoadMonitor}.
+     * @return A new {@link TimeBudgetConfiguration}.
+     */
+    public TimeBudgetConfiguration withReenableLoadThreshold(long reenableLoadThreshold) {
+        return new TimeBudgetConfiguration(budgetMillis, maxViolations, windowMillis, cooldownMillis, reenableLoadThreshold);
+    }
+
+    /**
+     * Get the budget.
+     *
+     * @return maximum time in ms beforeCommit of the module should take.
+     */
+    public long getBudgetMillis() {
+        return budgetMillis;
+    }
+
+    /**
+     * Get the maximum number of budget violations.
+     *
+     * @return number of budget violations within the window that opens the circuit breaker.
+     */
+    public int getMaxViolations() {
+        return maxViolations;
+    }
+
+    /**
+     * Get the window.
+     *
+     * @return window in ms, within which the budget violations are counted.
+     */
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    /**
+     * Get the cool-down.
+     *
+     * @return minimum time in ms the module is bypassed for when the circuit breaker opens.
+     */
+    public long getCooldownMillis() {
+        return cooldownMillis;
+    }
+
+    /**
+     * Get the re-enable load threshold.
+     *
+     * @return maximum load of the database at which the module can be re-enabled after cool-down.
+     */
+    public long getReenableLoadThreshold() {
+        return reenableLoadThreshold;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("RedundantIfStatement")
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        TimeBudgetConfiguration that = (TimeBudgetConfiguration) o;
+
+        if (budgetMillis != that.budgetMillis) return false;
+        if (maxViolations != that.maxViolations) return false;
+        if (windowMillis != that.windowMillis) return false;
+        if (cooldownMillis != that.cooldownMillis) return false;
+        if (reenableLoadThreshold != that.reenableLoadThreshold) return false;
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        int result = (int) (budgetMillis ^ (budgetMillis >>> 32));
+        result = 31 * result + maxViolations;
+        result = 31 * result + (int) (windowMillis ^ (windowMillis >>> 32));
+        result = 31 * result + (int) (cooldownMillis ^ (cooldownMillis >>> 32));
+        result = 31 * result + (int) (reenableLoadThreshold ^ (reenableLoadThreshold >>> 32));
+        return result;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.config.function;
+
+import com.graphaware.runtime.schedule.SchedulingPolicy;
+import org.neo4j.helpers.Function;
+
+/**
+ * A {@link org.neo4j.helpers.Function} that converts String to {@link SchedulingPolicy}. Singleton.
+ */
+public final class StringToSchedulingPolicy implements Function<String, SchedulingPolicy> {
+
+    public static final String ROUND_ROBIN = "roundRobin";
+    public static final String WEIGHTED_FAIR = "weightedFair";
+
+    private static StringToSchedulingPolicy INSTANCE = new StringToSchedulingPolicy();
+
+    public static StringToSchedulingPolicy getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SchedulingPolicy apply(String s) {
+        if (s.equalsIgnoreCase(ROUND_ROBIN)) {
+            return SchedulingPolicy.ROUND_ROBIN;
+        }
+
+        if (s.equalsIgnoreCase(WEIGHTED_FAIR)) {
+            return SchedulingPolicy.WEIGHTED_FAIR;
+        }
+
+        throw new IllegalStateException("Unknown scheduling policy: " + s);
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.graphaware.runtime.config.function;
 
+import com.graphaware.runtime.monitor.DatabaseLoadMonitorType;
 import com.graphaware.runtime.schedule.AdaptiveTimingStrategy;
 import com.graphaware.runtime.schedule.FixedDelayTimingStrategy;
 import com.graphaware.runtime.schedule.TimingStrategy;
@@ -24,12 +25,14 @@ import org.neo4j.helpers.Function;
 /**
  * A {@link Function} that converts String to {@link TimingStrategy}. Singleton.
  * <p/>
- * Converts "fixed" to {@link FixedDelayTimingStrategy} and "adaptive" to {@link AdaptiveTimingStrategy}.
+ * Converts "fixed" to {@link FixedDelayTimingStrategy}, "adaptive" to {@link AdaptiveTimingStrategy}, and "composite"
+ * to {@link AdaptiveTimingStrategy} using {@link DatabaseLoadMonitorType#COMPOSITE} load monitoring.
  */
 public final class StringToTimingStrategy implements Function<String, TimingStrategy> {
 
     public static final String FIXED = "fixed";
     public static final String ADAPTIVE = "adaptive";
+    public static final String COMPOSITE = "composite";
 
     private static StringToTimingStrategy INSTANCE = new StringToTimingStrategy();
 
@@ -50,6 +53,10 @@ public final class StringToTimingStrategy implements Function<String, TimingStra
             return AdaptiveTimingStrategy.defaultConfiguration();
         }
 
+        if (s.equalsIgnoreCase(COMPOSITE)) {
+            return AdaptiveTimingStrategy.defaultConfiguration().withLoadMonitorType(DatabaseLoadMonitorType.COMPOSITE);
+        }
+
         throw new IllegalStateException("Unknown timing strategy: " + s);
     }
 }
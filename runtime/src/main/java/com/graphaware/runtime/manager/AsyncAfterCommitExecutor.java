@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.manager;
+
+import com.graphaware.runtime.config.AsyncAfterCommitConfiguration;
+import com.graphaware.runtime.module.AsyncTxDrivenModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.graphaware.runtime.config.AsyncAfterCommitConfiguration.Ordering.STRICT;
+import static com.graphaware.runtime.config.AsyncAfterCommitConfiguration.OverflowPolicy.RUN_SYNCHRONOUSLY;
+
+/**
+ * Bounded executor of {@link AsyncTxDrivenModule#afterCommit(Object)} for a single module, configured by the module's
+ * {@link AsyncAfterCommitConfiguration}. Keeps track of the number of submitted, completed, discarded, and failed tasks,
+ * and of the lag, i.e. the time between a transaction commit and the start of the module's after-commit work for it.
+ *
+ * @param <T> type of the module's state.
+ */
+public class AsyncAfterCommitExecutor<T> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncAfterCommitExecutor.class);
+
+    private static final long SHUTDOWN_TIMEOUT_MS = 10_000;
+    private static final long BLOCK_POLL_MS = 100;
+
+    private final AsyncTxDrivenModule<T> module;
+    private final AsyncAfterCommitConfiguration configuration;
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong submitted = new AtomicLong(0);
+    private final AtomicLong completed = new AtomicLong(0);
+    private final AtomicLong discarded = new AtomicLong(0);
+    private final AtomicLong failed = new AtomicLong(0);
+    private final AtomicLong totalLagNanos = new AtomicLong(0);
+    private final AtomicLong started = new AtomicLong(0);
+    private volatile long lastLagNanos = 0;
+    private volatile long maxLagNanos = 0;
+
+    /**
+     * Construct a new executor and start its threads.
+     *
+     * @param module whose after-commit work to execute.
+     */
+    public AsyncAfterCommitExecutor(final AsyncTxDrivenModule<T> module) {
+        this.module = module;
+        this.configuration = module.getAsyncAfterCommitConfiguration();
+
+        if (STRICT.equals(configuration.getOrdering()) && RUN_SYNCHRONOUSLY.equals(configuration.getOverflowPolicy())) {
+            throw new IllegalArgumentException("Module " + module.getId() + ": overflow policy " + RUN_SYNCHRONOUSLY + " cannot guarantee " + STRICT + " ordering");
+        }
+
+        final AtomicInteger threadNumber = new AtomicInteger(0);
+        executor = new ThreadPoolExecutor(
+                configuration.getNumberOfThreads(),
+                configuration.getNumberOfThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(configuration.getQueueCapacity()),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "GraphAware-AfterCommit-" + module.getId() + "-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                },
+                new OverflowHandler());
+    }
+
+    /**
+     * Enqueue the after-commit work of the module for the given state.
+     *
+     * @param state returned by the module's beforeCommit.
+     */
+    public void submit(T state) {
+        submitted.incrementAndGet();
+        executor.execute(new AfterCommitTask(state, System.nanoTime()));
+    }
+
+    /**
+     * Stop accepting new work and wait (for a limited time) until all enqueued work has been executed.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                LOG.warn("Module " + module.getId() + " did not finish its after-commit work in " + SHUTDOWN_TIMEOUT_MS + " ms. " + executor.shutdownNow().size() + " tasks will not be executed.");
+            }
+        } catch (InterruptedException e) {
+            LOG.warn("Interrupted while waiting for module " + module.getId() + " to finish its after-commit work.");
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Get the configuration this executor has been created with.
+     *
+     * @return configuration.
+     */
+    public AsyncAfterCommitConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * Get the number of submitted after-commit tasks.
+     *
+     * @return number of submitted tasks.
+     */
+    public long getSubmittedCount() {
+        return submitted.get();
+    }
+
+    /**
+     * Get the number of after-commit tasks that have been executed, successfully or not.
+     *
+     * @return number of completed tasks.
+     */
+    public long getCompletedCount() {
+        return completed.get();
+    }
+
+    /**
+     * Get the number of after-commit tasks that have been discarded because the queue was full.
+     *
+     * @return number of discarded tasks.
+     */
+    public long getDiscardedCount() {
+        return discarded.get();
+    }
+
+    /**
+     * Get the number of after-commit tasks that threw an exception.
+     *
+     * @return number of failed tasks.
+     */
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * Get the number of after-commit tasks waiting for execution.
+     *
+     * @return queue size.
+     */
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Get the lag of the most recently started after-commit task, i.e. the time it spent waiting in the queue.
+     *
+     * @return lag in milliseconds.
+     */
+    public long getLastLagMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lastLagNanos);
+    }
+
+    /**
+     * Get the maximum lag of all started after-commit tasks.
+     *
+     * @return maximum lag in milliseconds.
+     */
+    public long getMaxLagMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLagNanos);
+    }
+
+    /**
+     * Get the average lag of all started after-commit tasks.
+     *
+     * @return average lag in milliseconds, 0 if no task has started yet.
+     */
+    public long getAverageLagMillis() {
+        long started = this.started.get();
+        if (started == 0) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(totalLagNanos.get() / started);
+    }
+
+    private void recordLag(long lagNanos) {
+        started.incrementAndGet();
+        totalLagNanos.addAndGet(lagNanos);
+        lastLagNanos = lagNanos;
+        if (lagNanos > maxLagNanos) {
+            maxLagNanos = lagNanos; //racy, but good enough for a metric
+        }
+    }
+
+    /**
+     * Task calling the module's after-commit.
+     */
+    private class AfterCommitTask implements Runnable {
+
+        private final T state;
+        private final long enqueuedNanos;
+
+        private AfterCommitTask(T state, long enqueuedNanos) {
+            this.state = state;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+
+        @Override
+        public void run() {
+            recordLag(System.nanoTime() - enqueuedNanos);
+            try {
+                module.afterCommit(state);
+            } catch (RuntimeException e) {
+                failed.incrementAndGet();
+                LOG.warn("Module " + module.getId() + " threw an exception in asynchronous afterCommit", e);
+            } finally {
+                completed.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Handler of tasks that do not fit into the queue, behaving according to the configured {@link AsyncAfterCommitConfiguration.OverflowPolicy}.
+     */
+    private class OverflowHandler implements RejectedExecutionHandler {
+
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                discard("the runtime is shutting down");
+                return;
+            }
+
+            switch (configuration.getOverflowPolicy()) {
+                case BLOCK:
+                    block(task, executor);
+                    break;
+                case RUN_SYNCHRONOUSLY:
+                    task.run();
+                    break;
+                case DISCARD:
+                    discard("its after-commit queue is full");
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown overflow policy " + configuration.getOverflowPolicy() + ". This is a bug.");
+            }
+        }
+
+        /**
+         * Wait for space in the queue and enqueue the task, giving up when the executor is shut down, so that the
+         * committing thread is never blocked forever by an executor whose threads are gone.
+         *
+         * @param task     to enqueue.
+         * @param executor executor whose queue to put the task into.
+         */
+        private void block(Runnable task, ThreadPoolExecutor executor) {
+            try {
+                while (!executor.isShutdown()) {
+                    if (executor.getQueue().offer(task, BLOCK_POLL_MS, TimeUnit.MILLISECONDS)) {
+                        if (executor.isShutdown() && executor.getQueue().remove(task)) {
+                            break; //enqueued after the threads might have finished
+                        }
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for space in the after-commit queue of module " + module.getId(), e);
+            }
+
+            discard("the runtime is shutting down");
+        }
+
+        private void discard(String reason) {
+            discarded.incrementAndGet();
+            LOG.warn("Discarding after-commit work of module " + module.getId() + ", because " + reason + ".");
+        }
+    }
+}
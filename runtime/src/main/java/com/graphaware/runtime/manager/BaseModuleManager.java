@@ -16,17 +16,21 @@
 
 package com.graphaware.runtime.manager;
 
+import com.graphaware.runtime.config.InitializationConfiguration;
 import com.graphaware.runtime.metadata.CorruptMetadataException;
 import com.graphaware.runtime.metadata.ModuleMetadata;
 import com.graphaware.runtime.metadata.ModuleMetadataRepository;
+import com.graphaware.runtime.module.DependentModule;
 import com.graphaware.runtime.module.RuntimeModule;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Base-class for {@link ModuleManager} implementations.
@@ -37,14 +41,28 @@ public abstract class BaseModuleManager<M extends ModuleMetadata, T extends Runt
 
     protected final Map<String, T> modules = new LinkedHashMap<>();
     protected final ModuleMetadataRepository metadataRepository;
+    private final Map<String, ModuleReadiness> readiness = new ConcurrentHashMap<>();
+    private final ModuleInitializer initializer;
+    private final Map<String, M> deferredMetadata = new ConcurrentHashMap<>();
 
     /**
-     * Construct a new manager.
+     * Construct a new manager with default {@link InitializationConfiguration}.
      *
      * @param metadataRepository repository for storing module metadata.
      */
     protected BaseModuleManager(ModuleMetadataRepository metadataRepository) {
+        this(metadataRepository, InitializationConfiguration.defaultConfiguration());
+    }
+
+    /**
+     * Construct a new manager.
+     *
+     * @param metadataRepository          repository for storing module metadata.
+     * @param initializationConfiguration configuration of the initialization of modules.
+     */
+    protected BaseModuleManager(ModuleMetadataRepository metadataRepository, InitializationConfiguration initializationConfiguration) {
         this.metadataRepository = metadataRepository;
+        this.initializer = new ModuleInitializer(initializationConfiguration.getThreads(), readiness);
     }
 
     /**
@@ -53,6 +71,7 @@ public abstract class BaseModuleManager<M extends ModuleMetadata, T extends Runt
     @Override
     public final void registerModule(T module) {
         modules.put(module.getId(), module);
+        readiness.put(module.getId(), ModuleReadiness.PENDING);
     }
 
     /**
@@ -73,6 +92,14 @@ public abstract class BaseModuleManager<M extends ModuleMetadata, T extends Runt
         return (M) module;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ModuleReadiness getReadiness(String moduleId) {
+        return readiness.get(moduleId);
+    }
+
     /**
      * Check that the given module isn't already registered with the manager.
      *
@@ -96,24 +123,140 @@ public abstract class BaseModuleManager<M extends ModuleMetadata, T extends Runt
      */
     @Override
     public final Set<String> loadMetadata() {
+        checkDependencies();
+
         final Set<String> moduleIds = new HashSet<>();
+        final Map<T, M> metadata = new LinkedHashMap<>();
 
         for (final T module : modules.values()) {
             moduleIds.add(module.getId());
             LOG.info("Loading metadata for module " + module.getId());
-            loadMetadata(module);
+            metadata.put(module, loadMetadata(module));
+        }
+
+        beforeInitialization();
+        initializer.initialize();
+
+        for (Map.Entry<T, M> entry : metadata.entrySet()) {
+            String moduleId = entry.getKey().getId();
+            if (ModuleReadiness.WAITING.equals(readiness.get(moduleId))) {
+                deferredMetadata.put(moduleId, entry.getValue());
+                continue;
+            }
+            persistMetadata(entry.getKey(), entry.getValue());
+            readiness.put(moduleId, ModuleReadiness.READY);
         }
 
         return moduleIds;
     }
 
+    /**
+     * Check that all dependencies of all {@link DependentModule}s are registered with this manager.
+     *
+     * @throws IllegalStateException in case they are not.
+     */
+    private void checkDependencies() {
+        for (T module : modules.values()) {
+            for (String dependency : getDependencies(module)) {
+                if (!modules.containsKey(dependency) || module.getId().equals(dependency)) {
+                    LOG.error("Module " + module.getId() + " depends on module " + dependency + ", which has not been registered!");
+                    throw new IllegalStateException("Module " + module.getId() + " depends on module " + dependency + ", which has not been registered!");
+                }
+            }
+        }
+    }
+
+    private Set<String> getDependencies(T module) {
+        if (module instanceof DependentModule) {
+            return ((DependentModule) module).getDependencies();
+        }
+        return Collections.emptySet();
+    }
+
+    /**
+     * Schedule (re-)initialization work for a module. The work is executed once metadata of all modules have been
+     * loaded, concurrently with the work of other modules, but only after the work of all the modules this module
+     * depends on has been successfully executed. The metadata of the modules are persisted afterwards.
+     * <p/>
+     * Intended to be called from {@link #handleNoMetadata(com.graphaware.runtime.module.RuntimeModule)},
+     * {@link #handleCorruptMetadata(com.graphaware.runtime.module.RuntimeModule)}, and
+     * {@link #acknowledgeMetadata(com.graphaware.runtime.module.RuntimeModule, com.graphaware.runtime.metadata.ModuleMetadata)}.
+     *
+     * @param module to be initialized.
+     * @param task   initialization work.
+     */
+    protected final void scheduleInitialization(T module, Runnable task) {
+        initializer.schedule(module.getId(), getDependencies(module), task);
+    }
+
+    /**
+     * Replace the (re-)initialization work scheduled for the given modules by a single piece of work initializing all
+     * of them at once. The work is executed once the dependencies of all the modules, apart from the modules
+     * themselves, have been initialized.
+     * <p/>
+     * Intended to be called from {@link #beforeInitialization()}.
+     *
+     * @param moduleIds IDs of modules, for each of which work must have been scheduled and not merged yet.
+     * @param task      initialization work for all the modules.
+     */
+    protected final void mergeInitialization(Set<String> moduleIds, Runnable task) {
+        initializer.merge(moduleIds, task);
+    }
+
+    /**
+     * Has any (re-)initialization work been scheduled for the given module?
+     *
+     * @param moduleId ID of the module.
+     * @return true iff work has been scheduled.
+     */
+    protected final boolean isInitializationScheduled(String moduleId) {
+        return initializer.isScheduled(moduleId);
+    }
+
+    /**
+     * Move the (re-)initialization work scheduled for the given modules out of the work executed when metadata are
+     * loaded. The metadata of these modules are not persisted when metadata are loaded; it is the responsibility of
+     * the caller to execute the returned work and then {@link #persistDeferredMetadata(String)} of every successfully
+     * initialized module.
+     * <p/>
+     * Intended to be called from {@link #beforeInitialization()}. No work remaining scheduled may depend on the moved work.
+     *
+     * @param moduleIds IDs of modules whose work to move. Merged work is only moved when all its modules are included.
+     * @return initializer with the moved work.
+     */
+    protected final ModuleInitializer splitInitialization(Set<String> moduleIds) {
+        return initializer.split(moduleIds);
+    }
+
+    /**
+     * Persist the metadata of a module, whose (re-)initialization work has been moved out by {@link #splitInitialization(java.util.Set)},
+     * and which has now been successfully initialized. Must be called within a transaction.
+     *
+     * @param moduleId ID of the module.
+     */
+    protected final void persistDeferredMetadata(String moduleId) {
+        M metadata = deferredMetadata.remove(moduleId);
+        if (metadata == null) {
+            throw new IllegalStateException("No deferred metadata for module " + moduleId + ". This is a bug.");
+        }
+        persistMetadata(modules.get(moduleId), metadata);
+    }
+
+    /**
+     * Called after metadata of all modules have been loaded, before the scheduled (re-)initialization work is executed.
+     */
+    protected void beforeInitialization() {
+        //for subclasses
+    }
+
     /**
      * Load module metadata from wherever they are stored in between database restarts and do whatever is necessary
      * to do with this metadata before the module can be used.
      *
      * @param module to load metadata for.
+     * @return metadata to be persisted once all modules have been initialized.
      */
-    private void loadMetadata(T module) {
+    private M loadMetadata(T module) {
         M moduleMetadata = null;
         try {
             moduleMetadata = metadataRepository.getModuleMetadata(module);
@@ -133,8 +276,7 @@ public abstract class BaseModuleManager<M extends ModuleMetadata, T extends Runt
             moduleMetadata = createFreshMetadata(module);
         }
 
-        moduleMetadata = acknowledgeMetadata(module, moduleMetadata);
-        persistMetadata(module, moduleMetadata);
+        return acknowledgeMetadata(module, moduleMetadata);
     }
 
     /**
@@ -16,35 +16,114 @@
 
 package com.graphaware.runtime.manager;
 
+import com.graphaware.common.policy.InclusionPolicies;
+import com.graphaware.runtime.config.BaseTxDrivenModuleConfiguration;
+import com.graphaware.runtime.config.InitializationConfiguration;
+import com.graphaware.runtime.config.ProfilingConfiguration;
+import com.graphaware.runtime.config.TimeBudgetConfiguration;
+import com.graphaware.runtime.config.TxDrivenModuleConfiguration;
 import com.graphaware.runtime.metadata.DefaultTxDrivenModuleMetadata;
 import com.graphaware.runtime.metadata.ModuleMetadataRepository;
 import com.graphaware.runtime.metadata.TxDrivenModuleMetadata;
+import com.graphaware.runtime.monitor.DatabaseLoadMonitor;
+import com.graphaware.runtime.module.AsyncTxDrivenModule;
+import com.graphaware.runtime.module.BackgroundInitializedTxDrivenModule;
+import com.graphaware.runtime.module.BatchingTxDrivenModule;
 import com.graphaware.runtime.module.DeliberateTransactionRollbackException;
+import com.graphaware.runtime.module.DependentModule;
+import com.graphaware.runtime.module.IncrementallyReinitializedTxDrivenModule;
 import com.graphaware.runtime.module.NeedsInitializationException;
+import com.graphaware.runtime.module.ScanInitializedTxDrivenModule;
+import com.graphaware.runtime.module.TimeBudgetedTxDrivenModule;
 import com.graphaware.runtime.module.TxDrivenModule;
+import com.graphaware.runtime.profile.TxDrivenModuleProfile;
+import com.graphaware.runtime.profile.TxDrivenProfiler;
 import com.graphaware.tx.event.improved.api.FilteredTransactionData;
 import com.graphaware.tx.event.improved.data.TransactionDataContainer;
+import com.graphaware.tx.event.improved.detached.DetachedTransactionData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 /**
  * {@link BaseModuleManager} for {@link TxDrivenModule}s.
+ * <p/>
+ * {@link BackgroundInitializedTxDrivenModule}s that need (re-)initializing can be initialized by a background thread
+ * started by {@link #startModules()}, in which case the changes committed in the meantime are buffered and replayed
+ * once their initialization has finished.
+ * <p/>
+ * {@link TimeBudgetedTxDrivenModule}s that keep exceeding their time budget are marked as needing initialization by a
+ * background thread once the offending transaction has completed, so that the mark survives a rollback of that
+ * transaction.
  */
 public abstract class BaseTxDrivenModuleManager<T extends TxDrivenModule> extends BaseModuleManager<TxDrivenModuleMetadata, T> implements TxDrivenModuleManager<T> {
 
     private static final Logger LOG = LoggerFactory.getLogger(BaseTxDrivenModuleManager.class);
 
+    private static final long SHUTDOWN_TIMEOUT_MS = 10_000;
+
+    private final Map<String, AsyncAfterCommitExecutor<?>> asyncExecutors = new ConcurrentHashMap<>();
+    private final Map<String, BatchingExecutor> batchingExecutors = new ConcurrentHashMap<>();
+    private final Map<String, ModuleCircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    //IDs of modules that have exceeded their time budget and are yet to be marked as needing initialization
+    private final Set<String> overBudgetModules = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private volatile ExecutorService overBudgetMarker;
+    private final Map<T, TxDrivenModuleMetadata> scanInitialized = new LinkedHashMap<>();
+    private final TxDrivenProfiler profiler;
+    private final InitializationConfiguration initializationConfiguration;
+    private final Map<String, ReplayBuffer> replayBuffers = new ConcurrentHashMap<>();
+    //IDs of modules that must not see transactions of the current thread, because it is initializing them in the background
+    private final ThreadLocal<Set<String>> initializingInBackground = new ThreadLocal<>();
+    private ModuleInitializer backgroundInitializer;
+    private Thread backgroundInitialization;
+
     /**
-     * Construct a new manager.
+     * Construct a new manager with default {@link ProfilingConfiguration}.
      *
      * @param metadataRepository repository for storing module metadata.
      */
     protected BaseTxDrivenModuleManager(ModuleMetadataRepository metadataRepository) {
-        super(metadataRepository);
+        this(metadataRepository, ProfilingConfiguration.defaultConfiguration());
+    }
+
+    /**
+     * Construct a new manager.
+     *
+     * @param metadataRepository     repository for storing module metadata.
+     * @param profilingConfiguration configuration of the profiling of modules.
+     */
+    protected BaseTxDrivenModuleManager(ModuleMetadataRepository metadataRepository, ProfilingConfiguration profilingConfiguration) {
+        this(metadataRepository, profilingConfiguration, InitializationConfiguration.defaultConfiguration());
+    }
+
+    /**
+     * Construct a new manager.
+     *
+     * @param metadataRepository          repository for storing module metadata.
+     * @param profilingConfiguration      configuration of the profiling of modules.
+     * @param initializationConfiguration configuration of the initialization of modules.
+     */
+    protected BaseTxDrivenModuleManager(ModuleMetadataRepository metadataRepository, ProfilingConfiguration profilingConfiguration, InitializationConfiguration initializationConfiguration) {
+        super(metadataRepository, initializationConfiguration);
+        this.profiler = new TxDrivenProfiler(profilingConfiguration);
+        this.initializationConfiguration = initializationConfiguration;
     }
 
     /**
@@ -53,7 +132,7 @@ public abstract class BaseTxDrivenModuleManager<T extends TxDrivenModule> extend
     @Override
     protected void handleCorruptMetadata(T module) {
         LOG.info("Module " + module.getId() + " seems to have corrupted metadata, will re-initialize...");
-        reinitialize(module, null);
+        scheduleInitialization(module, true, null);
     }
 
     /**
@@ -62,7 +141,140 @@ public abstract class BaseTxDrivenModuleManager<T extends TxDrivenModule> extend
     @Override
     protected void handleNoMetadata(T module) {
         LOG.info("Module " + module.getId() + " seems to have been registered for the first time, will initialize...");
-        initialize(module);
+        scheduleInitialization(module, false, null);
+    }
+
+    /**
+     * Schedule (re-)initialization of a module. {@link ScanInitializedTxDrivenModule}s are initialized by scanning
+     * the graph, the others by {@link #initialize(TxDrivenModule)} or {@link #reinitialize(TxDrivenModule, TxDrivenModuleMetadata)}.
+     *
+     * @param module       to (re-)initialize.
+     * @param reinitialize true for re-initialization.
+     * @param oldMetadata  metadata stored for this module from its previous run, can be <code>null</code>.
+     */
+    private void scheduleInitialization(final T module, final boolean reinitialize, final TxDrivenModuleMetadata oldMetadata) {
+        if (module instanceof ScanInitializedTxDrivenModule) {
+            scanInitialized.put(module, oldMetadata);
+            scheduleInitialization(module, new Runnable() {
+                @Override
+                public void run() {
+                    scan(Collections.singletonMap(module, oldMetadata));
+                }
+            });
+            return;
+        }
+
+        scheduleInitialization(module, new Runnable() {
+            @Override
+            public void run() {
+                if (reinitialize) {
+                    reinitialize(module, oldMetadata);
+                } else {
+                    initialize(module);
+                }
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Merges the initialization of all {@link ScanInitializedTxDrivenModule}s that do not depend on other modules
+     * being initialized into a single scan of the graph. Then, if enabled, moves the initialization of
+     * {@link BackgroundInitializedTxDrivenModule}s to the background.
+     */
+    @Override
+    protected void beforeInitialization() {
+        mergeScans();
+        splitBackgroundInitialization();
+    }
+
+    private void mergeScans() {
+        final Map<T, TxDrivenModuleMetadata> shared = new LinkedHashMap<>();
+
+        for (Map.Entry<T, TxDrivenModuleMetadata> entry : scanInitialized.entrySet()) {
+            if (!dependsOnInitializedModule(entry.getKey())) {
+                shared.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        scanInitialized.clear();
+
+        if (shared.size() < 2) {
+            return;
+        }
+
+        Set<String> moduleIds = new LinkedHashSet<>();
+        for (T module : shared.keySet()) {
+            moduleIds.add(module.getId());
+        }
+
+        LOG.info("Modules " + moduleIds + " will be initialized by a single scan of the graph.");
+
+        mergeInitialization(moduleIds, new Runnable() {
+            @Override
+            public void run() {
+                scan(shared);
+            }
+        });
+    }
+
+    private void splitBackgroundInitialization() {
+        if (!initializationConfiguration.isBackground()) {
+            return;
+        }
+
+        Set<String> background = new LinkedHashSet<>();
+        for (T module : modules.values()) {
+            if (module instanceof BackgroundInitializedTxDrivenModule && isInitializationScheduled(module.getId())) {
+                background.add(module.getId());
+            }
+        }
+
+        //modules initialized before the runtime starts must not depend on modules initialized in the background
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (T module : modules.values()) {
+                if (background.contains(module.getId()) || !isInitializationScheduled(module.getId()) || !(module instanceof DependentModule)) {
+                    continue;
+                }
+
+                for (String dependency : ((DependentModule) module).getDependencies()) {
+                    if (background.remove(dependency)) {
+                        changed = true;
+                    }
+                }
+            }
+        }
+
+        if (background.isEmpty()) {
+            return;
+        }
+
+        backgroundInitializer = splitInitialization(background);
+
+        for (String moduleId : background) {
+            if (backgroundInitializer.isScheduled(moduleId)) {
+                replayBuffers.put(moduleId, new ReplayBuffer(moduleId, initializationConfiguration.getReplayBufferSize()));
+            }
+        }
+
+        LOG.info("Modules " + replayBuffers.keySet() + " will be initialized in the background.");
+    }
+
+    private boolean dependsOnInitializedModule(T module) {
+        if (!(module instanceof DependentModule)) {
+            return false;
+        }
+
+        for (String dependency : ((DependentModule) module).getDependencies()) {
+            if (isInitializationScheduled(dependency)) {
+                return true;
+            }
+        }
+
+        return false;
     }
 
     /**
@@ -80,13 +292,19 @@ public abstract class BaseTxDrivenModuleManager<T extends TxDrivenModule> extend
     protected TxDrivenModuleMetadata acknowledgeMetadata(T module, TxDrivenModuleMetadata metadata) {
         if (metadata.needsInitialization()) {
             LOG.info("Module " + module.getId() + " has been marked for re-initialization on " + new Date(metadata.problemTimestamp()).toString() + ". Will re-initialize...");
-            reinitialize(module, metadata);
+            scheduleInitialization(module, true, metadata);
+            return createFreshMetadata(module);
+        }
+
+        if (!metadata.getConfig().equals(module.getConfiguration()) && module instanceof IncrementallyReinitializedTxDrivenModule && onlyScopeChanged(metadata.getConfig(), module.getConfiguration())) {
+            LOG.info("Module " + module.getId() + " seems to have only changed its inclusion policies since last run, will re-initialize incrementally...");
+            scheduleIncrementalReinitialization(module, metadata.getConfig());
             return createFreshMetadata(module);
         }
 
         if (!metadata.getConfig().equals(module.getConfiguration())) {
             LOG.info("Module " + module.getId() + " seems to have changed configuration since last run, will re-initialize...");
-            reinitialize(module, metadata);
+            scheduleInitialization(module, true, metadata);
             return createFreshMetadata(module);
         }
 
@@ -94,18 +312,297 @@ public abstract class BaseTxDrivenModuleManager<T extends TxDrivenModule> extend
         return metadata;
     }
 
+    /**
+     * Do the given configurations only differ in their node and/or relationship inclusion policies?
+     *
+     * @param oldConfiguration old configuration.
+     * @param newConfiguration new configuration.
+     * @return true iff the configurations are equal apart from node and relationship inclusion policies.
+     */
+    private boolean onlyScopeChanged(TxDrivenModuleConfiguration oldConfiguration, TxDrivenModuleConfiguration newConfiguration) {
+        if (!(oldConfiguration instanceof BaseTxDrivenModuleConfiguration)) {
+            return false;
+        }
+
+        InclusionPolicies oldPolicies = oldConfiguration.getInclusionPolicies();
+        InclusionPolicies newPolicies = newConfiguration.getInclusionPolicies();
+
+        if (!oldPolicies.getNodePropertyInclusionPolicy().equals(newPolicies.getNodePropertyInclusionPolicy())
+                || !oldPolicies.getRelationshipPropertyInclusionPolicy().equals(newPolicies.getRelationshipPropertyInclusionPolicy())) {
+            return false;
+        }
+
+        return ((BaseTxDrivenModuleConfiguration<?>) oldConfiguration).with(newPolicies).equals(newConfiguration);
+    }
+
+    private void scheduleIncrementalReinitialization(final T module, final TxDrivenModuleConfiguration oldConfiguration) {
+        scheduleInitialization(module, new Runnable() {
+            @Override
+            public void run() {
+                reinitializeIncrementally(module, oldConfiguration);
+            }
+        });
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public void startModules() {
         LOG.info("Starting transaction-driven modules...");
+        DatabaseLoadMonitor loadMonitor = null;
         for (T module : modules.values()) {
-            start(module);
+            if (!replayBuffers.containsKey(module.getId())) {
+                start(module);
+            }
+
+            if (module instanceof TimeBudgetedTxDrivenModule) {
+                if (loadMonitor == null) {
+                    loadMonitor = createLoadMonitor();
+                }
+                TimeBudgetConfiguration configuration = ((TimeBudgetedTxDrivenModule) module).getTimeBudgetConfiguration();
+                LOG.info("Module " + module.getId() + " has a time budget of " + configuration.getBudgetMillis() + " ms.");
+                circuitBreakers.put(module.getId(), new ModuleCircuitBreaker(module.getId(), configuration, loadMonitor));
+            }
+
+            if (module instanceof BatchingTxDrivenModule) {
+                LOG.info("Module " + module.getId() + " will process changes in batches.");
+                batchingExecutors.put(module.getId(), createBatchingExecutor((BatchingTxDrivenModule) module));
+            } else if (module instanceof AsyncTxDrivenModule) {
+                LOG.info("Module " + module.getId() + " will execute afterCommit asynchronously.");
+                asyncExecutors.put(module.getId(), createAsyncExecutor((AsyncTxDrivenModule<?>) module));
+            }
+        }
+        if (!circuitBreakers.isEmpty()) {
+            overBudgetMarker = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "GraphAware-OverBudgetMarker");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
         }
+        profiler.publish(modules.keySet());
+        startBackgroundInitialization();
         LOG.info("Transaction-driven modules started.");
     }
 
+    /**
+     * Start a thread initializing the modules that have been chosen to be initialized in the background, if any.
+     * Every successfully initialized module is started, its buffered changes replayed, and its metadata persisted.
+     * Modules that fail to initialize, or miss changes because too many transactions have been committed in the
+     * meantime, keep being bypassed until the database is restarted.
+     * <p/>
+     * Transactions run by the thread are not seen by the modules it has yet to finish initializing, but are seen by
+     * all other modules. Transactions run by threads spawned by the modules' initialization (e.g. those scanning the
+     * graph) are seen by all modules, i.e. they are buffered and later replayed even to the module that has run them.
+     */
+    private void startBackgroundInitialization() {
+        if (backgroundInitializer == null) {
+            return;
+        }
+
+        final ModuleInitializer initializer = backgroundInitializer;
+        backgroundInitializer = null;
+
+        backgroundInitialization = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                initializingInBackground.set(new HashSet<>(replayBuffers.keySet()));
+                try {
+                    initializer.initialize(new ModuleInitializer.Listener() {
+                        @Override
+                        public void initialized(Set<String> moduleIds) {
+                            for (String moduleId : moduleIds) {
+                                finishBackgroundInitialization(modules.get(moduleId));
+                            }
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    LOG.error("Background initialization of modules did not finish successfully.", e);
+                } finally {
+                    initializingInBackground.remove();
+                    for (Map.Entry<String, ReplayBuffer> entry : replayBuffers.entrySet()) {
+                        if (!entry.getValue().isDiscarding()) {
+                            LOG.warn("Module " + entry.getKey() + " has not been initialized and will be bypassed until the database is restarted.");
+                            entry.getValue().discard();
+                        }
+                    }
+                }
+            }
+        }, "GraphAware-Background-Initializer");
+
+        backgroundInitialization.setDaemon(true);
+        backgroundInitialization.start();
+    }
+
+    /**
+     * Start a module initialized in the background, replay the changes buffered for it, and persist its metadata.
+     * If the module has missed some changes, because its buffer has overflown, it is marked as needing
+     * initialization instead, and keeps being bypassed.
+     *
+     * @param module that has been initialized.
+     * @throws IllegalStateException in case the module has missed some changes.
+     */
+    private void finishBackgroundInitialization(final T module) {
+        final String moduleId = module.getId();
+        ReplayBuffer buffer = replayBuffers.get(moduleId);
+
+        try {
+            if (buffer.isDiscarding()) {
+                markMissedChanges(module);
+            }
+
+            start(module);
+
+            List<DetachedTransactionData> changes;
+            int replayed = 0;
+            while ((changes = buffer.drainOrClose()) != null) {
+                for (DetachedTransactionData change : changes) {
+                    ((BackgroundInitializedTxDrivenModule) module).replay(change);
+                }
+                replayed += changes.size();
+            }
+
+            if (buffer.isDiscarding()) {
+                markMissedChanges(module);
+            }
+
+            replayBuffers.remove(moduleId);
+
+            LOG.info("Replayed " + replayed + " transaction(s) committed while module " + moduleId + " was being initialized.");
+
+            executeInTransaction(new Runnable() {
+                @Override
+                public void run() {
+                    persistDeferredMetadata(moduleId);
+                }
+            });
+        } finally {
+            initializingInBackground.get().remove(moduleId);
+        }
+    }
+
+    /**
+     * Mark a module initialized in the background, which has missed some changes, as needing initialization.
+     *
+     * @param module to mark.
+     * @throws IllegalStateException always, to fail the module's initialization.
+     */
+    private void markMissedChanges(final T module) {
+        executeInTransaction(new Runnable() {
+            @Override
+            public void run() {
+                persistDeferredMetadata(module.getId());
+                markNeedingInitialization(module);
+            }
+        });
+
+        throw new IllegalStateException("Module " + module.getId() + " has missed changes committed while it was being initialized. It will be re-initialized next time the database is started.");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void shutdownModules() {
+        if (backgroundInitialization != null && backgroundInitialization.isAlive()) {
+            LOG.info("Interrupting background initialization of modules...");
+            backgroundInitialization.interrupt();
+            try {
+                backgroundInitialization.join(SHUTDOWN_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                LOG.warn("Interrupted while waiting for background initialization of modules to finish.");
+                Thread.currentThread().interrupt();
+            }
+        }
+        backgroundInitialization = null;
+
+        for (Map.Entry<String, AsyncAfterCommitExecutor<?>> entry : asyncExecutors.entrySet()) {
+            LOG.info("Waiting for module " + entry.getKey() + " to finish its asynchronous afterCommit work...");
+            entry.getValue().shutdown();
+        }
+        asyncExecutors.clear();
+
+        for (Map.Entry<String, BatchingExecutor> entry : batchingExecutors.entrySet()) {
+            LOG.info("Waiting for module " + entry.getKey() + " to process its remaining batches...");
+            entry.getValue().shutdown();
+        }
+        batchingExecutors.clear();
+
+        if (overBudgetMarker != null) {
+            overBudgetMarker.shutdown();
+            try {
+                if (!overBudgetMarker.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    LOG.warn("Modules that exceeded their time budget could not be marked as needing initialization in " + SHUTDOWN_TIMEOUT_MS + " ms.");
+                }
+            } catch (InterruptedException e) {
+                LOG.warn("Interrupted while marking modules that exceeded their time budget as needing initialization.");
+                Thread.currentThread().interrupt();
+            }
+            overBudgetMarker = null;
+        }
+        overBudgetModules.clear();
+        circuitBreakers.clear();
+
+        profiler.unpublish();
+
+        super.shutdownModules();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TxDrivenProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * Get the circuit breaker guarding the time budget of a module, e.g. in order to read its state.
+     *
+     * @param moduleId ID of the module.
+     * @return circuit breaker, <code>null</code> if the module does not exist, is not a {@link TimeBudgetedTxDrivenModule},
+     *         or the modules have not been started.
+     */
+    public ModuleCircuitBreaker getCircuitBreaker(String moduleId) {
+        return circuitBreakers.get(moduleId);
+    }
+
+    /**
+     * Create a monitor of the database load, consulted before modules bypassed by their circuit breakers are re-enabled.
+     * Intended to be overridden, returns <code>null</code> by default, meaning that modules are re-enabled regardless
+     * of load.
+     *
+     * @return load monitor, can be <code>null</code>.
+     */
+    protected DatabaseLoadMonitor createLoadMonitor() {
+        return null;
+    }
+
+    /**
+     * Get the executor of asynchronous after-commit work of a module, e.g. in order to read its metrics.
+     *
+     * @param moduleId ID of the module.
+     * @return executor, <code>null</code> if the module does not exist, is not an {@link AsyncTxDrivenModule}, or the
+     *         modules have not been started.
+     */
+    public AsyncAfterCommitExecutor<?> getAsyncAfterCommitExecutor(String moduleId) {
+        return asyncExecutors.get(moduleId);
+    }
+
+    /**
+     * Get the executor collecting batches of a module, e.g. in order to read its metrics.
+     *
+     * @param moduleId ID of the module.
+     * @return executor, <code>null</code> if the module does not exist, is not a {@link BatchingTxDrivenModule}, or the
+     *         modules have not been started.
+     */
+    public BatchingExecutor getBatchingExecutor(String moduleId) {
+        return batchingExecutors.get(moduleId);
+    }
+
     /**
      * Start module. This means preparing for doing the actual work. Call in a single-thread exactly once on each module
      * every time the runtime starts.
@@ -118,6 +615,9 @@ public abstract class BaseTxDrivenModuleManager<T extends TxDrivenModule> extend
      * Initialize module. This means doing any work necessary for a module that has been registered for the first time
      * on an existing database, or that has been previously registered with different configuration.
      * <p/>
+     * Called at most once when the runtime starts, possibly concurrently with the (re-)initialization of other modules,
+     * but never before the initialization of the modules this module depends on has finished.
+     * <p/>
      * For example, a module that performs some in-graph caching needs to write information into the graph so that when
      * the method returns, the graph is in the same state as it would be if the module has been running all the time
      * since the graph was empty.
@@ -133,6 +633,8 @@ public abstract class BaseTxDrivenModuleManager<T extends TxDrivenModule> extend
      * doing any work necessary for a module that has been registered for the first time
      * on an existing database, or that has been previously registered with different configuration.
      * <p/>
+     * Called under the same conditions as {@link #initialize(TxDrivenModule)}.
+     * <p/>
      * For example, a module that performs some in-graph caching needs to write information into the graph so that when
      * the method returns, the graph is in the same state as it would be if the module has been running all the time
      * since the graph was empty.
@@ -145,6 +647,40 @@ public abstract class BaseTxDrivenModuleManager<T extends TxDrivenModule> extend
      */
     protected abstract void reinitialize(T module, TxDrivenModuleMetadata oldMetadata);
 
+    /**
+     * (Re-)initialize {@link ScanInitializedTxDrivenModule}s by a single scan of the graph. Called under the same
+     * conditions as {@link #initialize(TxDrivenModule)}.
+     *
+     * @param modules to (re-)initialize, mapped to their metadata from the previous run (<code>null</code> values for
+     *                modules initialized for the first time or with corrupt metadata).
+     */
+    protected abstract void scan(Map<T, TxDrivenModuleMetadata> modules);
+
+    /**
+     * Re-initialize an {@link IncrementallyReinitializedTxDrivenModule} whose node and/or relationship inclusion
+     * policies are the only thing that has changed since it last ran. Called under the same conditions as
+     * {@link #initialize(TxDrivenModule)}.
+     *
+     * @param module           to re-initialize.
+     * @param oldConfiguration configuration the module ran with last time.
+     */
+    protected abstract void reinitializeIncrementally(T module, TxDrivenModuleConfiguration oldConfiguration);
+
+    /**
+     * Create the collector of change-sets that delivers batches to a module.
+     *
+     * @param module to deliver batches to.
+     * @return executor.
+     */
+    protected abstract BatchingExecutor createBatchingExecutor(BatchingTxDrivenModule module);
+
+    /**
+     * Execute a task in a new transaction, which is committed unless the task throws an exception.
+     *
+     * @param task to execute.
+     */
+    protected abstract void executeInTransaction(Runnable task);
+
     /**
      * {@inheritDoc}
      */
@@ -152,63 +688,283 @@ public abstract class BaseTxDrivenModuleManager<T extends TxDrivenModule> extend
     public Map<String, Object> beforeCommit(TransactionDataContainer transactionData) {
         Map<String, Object> result = new HashMap<>();
 
-        for (T module : modules.values()) {
-            FilteredTransactionData filteredTransactionData = new FilteredTransactionData(transactionData, module.getConfiguration().getInclusionPolicies());
+        Set<String> initializing = initializingInBackground.get();
 
-            if (!filteredTransactionData.mutationsOccurred()) {
-                continue;
-            }
+        boolean sampled = profiler.sample();
+        long start = sampled ? System.nanoTime() : 0;
+        long filteringNanos = 0;
 
-            Object state = null;
+        profiler.getRuntimeProfile().recordTransaction();
 
-            try {
-                state = module.beforeCommit(filteredTransactionData);
-            } catch (NeedsInitializationException e) {
-                LOG.warn("Module " + module.getId() + " seems to have a problem and will be re-initialized next time the database is started. ");
-                TxDrivenModuleMetadata moduleMetadata = metadataRepository.getModuleMetadata(module);
-                metadataRepository.persistModuleMetadata(module, moduleMetadata.markedNeedingInitialization());
-            } catch (DeliberateTransactionRollbackException e) {
-                LOG.debug("Module " + module.getId() + " threw an exception indicating that the transaction should be rolled back.", e);
-
-                result.put(module.getId(), state);      //just so the module gets afterRollback called as well
-                afterRollback(result); //remove this when https://github.com/neo4j/neo4j/issues/2660 is resolved
-
-                throw e;               //will cause rollback
-            } catch (RuntimeException e) {
-                LOG.warn("Module " + module.getId() + " threw an exception", e);
-            }
+        try {
+            for (T module : modules.values()) {
+                TxDrivenModuleProfile profile = profiler.getModuleProfile(module.getId());
 
-            result.put(module.getId(), state);
+                if (initializing != null && initializing.contains(module.getId())) {
+                    continue; //transactions run while initializing a module in the background are not seen by the module
+                }
+
+                ReplayBuffer replayBuffer = replayBuffers.isEmpty() ? null : replayBuffers.get(module.getId());
+                if (replayBuffer != null && replayBuffer.isClosed()) {
+                    replayBuffer = null;
+                }
+
+                if (replayBuffer != null && replayBuffer.isDiscarding()) {
+                    profile.recordBypassed();
+                    continue;
+                }
+
+                ModuleCircuitBreaker circuitBreaker = circuitBreakers.get(module.getId());
+                if (circuitBreaker != null && !circuitBreaker.allows()) {
+                    profile.recordBypassed();
+                    continue;
+                }
+
+                long filteringStart = sampled ? System.nanoTime() : 0;
+                FilteredTransactionData filteredTransactionData = new FilteredTransactionData(transactionData, module.getConfiguration().getInclusionPolicies());
+                boolean mutationsOccurred = filteredTransactionData.mutationsOccurred();
+                if (sampled) {
+                    long nanos = System.nanoTime() - filteringStart;
+                    profile.recordFiltering(nanos);
+                    filteringNanos += nanos;
+                }
+
+                if (!mutationsOccurred) {
+                    profile.recordSkipped();
+                    continue;
+                }
+
+                if (replayBuffer != null) {
+                    result.put(module.getId(), new BufferedChanges(DetachedTransactionData.of(filteredTransactionData)));
+                    continue;
+                }
+
+                profile.recordInvoked();
+
+                Object state = null;
+                boolean timed = sampled || circuitBreaker != null;
+                boolean overBudget = false;
+                long moduleStart = timed ? System.nanoTime() : 0;
+
+                try {
+                    state = module.beforeCommit(filteredTransactionData);
+                } catch (NeedsInitializationException e) {
+                    profile.recordException();
+                    LOG.warn("Module " + module.getId() + " seems to have a problem and will be re-initialized next time the database is started. ");
+                    markNeedingInitialization(module);
+                } catch (DeliberateTransactionRollbackException e) {
+                    profile.recordRollback();
+                    LOG.debug("Module " + module.getId() + " threw an exception indicating that the transaction should be rolled back.", e);
+
+                    result.put(module.getId(), state);      //just so the module gets afterRollback called as well
+                    afterRollback(result); //remove this when https://github.com/neo4j/neo4j/issues/2660 is resolved
+
+                    throw e;               //will cause rollback
+                } catch (RuntimeException e) {
+                    profile.recordException();
+                    LOG.warn("Module " + module.getId() + " threw an exception", e);
+                } finally {
+                    if (timed) {
+                        long nanos = System.nanoTime() - moduleStart;
+                        if (sampled) {
+                            profile.recordBeforeCommit(nanos);
+                        }
+                        if (circuitBreaker != null) {
+                            overBudget = circuitBreaker.record(nanos);
+                        }
+                    }
+                }
+
+                if (overBudget) {
+                    LOG.warn("Module " + module.getId() + " keeps exceeding its time budget and will be bypassed for a while. It will be re-initialized next time the database is started.");
+                    overBudgetModules.add(module.getId()); //marked once the transaction completes, see markOverBudgetModules
+                }
+
+                result.put(module.getId(), state);
+            }
+        } finally {
+            if (sampled) {
+                profiler.getRuntimeProfile().recordFiltering(filteringNanos);
+                profiler.getRuntimeProfile().recordBeforeCommit(System.nanoTime() - start);
+            }
         }
 
         return result;
     }
 
+    private void markNeedingInitialization(T module) {
+        TxDrivenModuleMetadata moduleMetadata = metadataRepository.getModuleMetadata(module);
+        metadataRepository.persistModuleMetadata(module, moduleMetadata.markedNeedingInitialization());
+    }
+
+    /**
+     * Mark modules that have exceeded their time budget as needing initialization, in a transaction of their own.
+     * Must be called after a transaction has completed. The work happens in a background thread, because the thread
+     * that has just completed a transaction cannot start a new one from within transaction event handlers.
+     */
+    private void markOverBudgetModules() {
+        ExecutorService marker = overBudgetMarker;
+        if (overBudgetModules.isEmpty() || marker == null) {
+            return;
+        }
+
+        try {
+            marker.execute(new Runnable() {
+                @Override
+                public void run() {
+                    final List<T> toMark = new ArrayList<>();
+                    for (Iterator<String> iterator = overBudgetModules.iterator(); iterator.hasNext(); ) {
+                        T module = modules.get(iterator.next());
+                        iterator.remove();
+                        if (module != null) {
+                            toMark.add(module);
+                        }
+                    }
+
+                    if (toMark.isEmpty()) {
+                        return;
+                    }
+
+                    try {
+                        executeInTransaction(new Runnable() {
+                            @Override
+                            public void run() {
+                                for (T module : toMark) {
+                                    markNeedingInitialization(module);
+                                }
+                            }
+                        });
+                    } catch (RuntimeException e) {
+                        LOG.warn("Could not mark modules that exceeded their time budget as needing initialization.", e);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOG.warn("Could not mark modules that exceeded their time budget as needing initialization, because the runtime is shutting down.");
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
+    @SuppressWarnings("unchecked")
     public void afterCommit(Map<String, Object> states) {
+        markOverBudgetModules();
+
         for (T module : modules.values()) {
             if (!states.containsKey(module.getId())) {
-                return; //perhaps module wasn't interested, or threw RuntimeException
+                continue; //perhaps module wasn't interested, or threw RuntimeException
+            }
+
+            if (states.get(module.getId()) instanceof BufferedChanges) {
+                bufferOrReplay(module, ((BufferedChanges) states.get(module.getId())).changes);
+                continue;
             }
 
-            module.afterCommit(states.get(module.getId()));
+            TxDrivenModuleProfile profile = profiler.getModuleProfile(module.getId());
+            long start = profiler.sample() ? System.nanoTime() : -1;
+
+            try {
+                BatchingExecutor batchingExecutor = batchingExecutors.get(module.getId());
+                AsyncAfterCommitExecutor<?> executor = asyncExecutors.get(module.getId());
+                if (batchingExecutor != null) {
+                    batchingExecutor.submit((DetachedTransactionData) states.get(module.getId()));
+                } else if (executor != null) {
+                    submitAsync(executor, states.get(module.getId()));
+                } else {
+                    module.afterCommit(states.get(module.getId()));
+                }
+            } catch (RuntimeException e) {
+                profile.recordException();
+                throw e;
+            } finally {
+                if (start != -1) {
+                    profile.recordAfterCommit(System.nanoTime() - start);
+                }
+            }
         }
     }
 
+    /**
+     * Create an executor of asynchronous after-commit work for a module.
+     *
+     * @param module to create the executor for.
+     * @param <S>    type of the module's state.
+     * @return executor.
+     */
+    private static <S> AsyncAfterCommitExecutor<S> createAsyncExecutor(AsyncTxDrivenModule<S> module) {
+        return new AsyncAfterCommitExecutor<>(module);
+    }
+
+    /**
+     * Submit a state to an executor of asynchronous after-commit work. The state must have been produced by the
+     * beforeCommit of the executor's module.
+     *
+     * @param executor to submit to.
+     * @param state    returned by the module's beforeCommit.
+     * @param <S>      type of the module's state.
+     */
+    @SuppressWarnings("unchecked")
+    private static <S> void submitAsync(AsyncAfterCommitExecutor<S> executor, Object state) {
+        executor.submit((S) state);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public void afterRollback(Map<String, Object> states) {
+        markOverBudgetModules();
+
         for (T module : modules.values()) {
             if (!states.containsKey(module.getId())) {
-                return; //rollback happened before this module had a go
+                continue; //rollback happened before this module had a go
+            }
+
+            if (states.get(module.getId()) instanceof BufferedChanges) {
+                continue; //module is being initialized in the background, nothing has been buffered yet
+            }
+
+            TxDrivenModuleProfile profile = profiler.getModuleProfile(module.getId());
+            long start = profiler.sample() ? System.nanoTime() : -1;
+
+            try {
+                module.afterRollback(states.get(module.getId()));
+            } catch (RuntimeException e) {
+                profile.recordException();
+                throw e;
+            } finally {
+                if (start != -1) {
+                    profile.recordAfterRollback(System.nanoTime() - start);
+                }
             }
+        }
+    }
+
+    /**
+     * Buffer changes committed while a module is being initialized in the background, or replay them directly in case
+     * the module's initialization has finished since the transaction started committing.
+     *
+     * @param module  module.
+     * @param changes changes.
+     */
+    private void bufferOrReplay(T module, DetachedTransactionData changes) {
+        ReplayBuffer buffer = replayBuffers.get(module.getId());
+        if (buffer == null || !buffer.offer(changes)) {
+            ((BackgroundInitializedTxDrivenModule) module).replay(changes);
+        }
+    }
+
+    /**
+     * State of a module being initialized in the background, carrying the changes to be buffered after commit.
+     */
+    private static final class BufferedChanges {
+
+        private final DetachedTransactionData changes;
 
-            module.afterRollback(states.get(module.getId()));
+        private BufferedChanges(DetachedTransactionData changes) {
+            this.changes = changes;
         }
     }
 }
@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.manager;
+
+import com.graphaware.runtime.config.BatchingConfiguration;
+import com.graphaware.runtime.module.BatchingTxDrivenModule;
+import com.graphaware.tx.event.improved.detached.DetachedTransactionData;
+import com.graphaware.tx.event.improved.detached.DetachedTransactionDataMerger;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collector of change-sets of committed transactions for a single {@link BatchingTxDrivenModule}. Change-sets are
+ * merged as they arrive, so memory consumption is bounded by the number of distinct containers changed within a window,
+ * rather than the number of transactions. When the window configured by the module's {@link BatchingConfiguration}
+ * closes, the merged change-set is delivered to {@link BatchingTxDrivenModule#processBatch(DetachedTransactionData)}
+ * on a dedicated background thread, in a transaction started by that thread. Batches are delivered one at a time, in
+ * commit order, and a batch counts as processed only once its transaction has been committed or rolled back.
+ * <p/>
+ * Change-sets submitted after {@link #shutdown()} has been called are delivered immediately as single-transaction
+ * batches, rather than being discarded. They are delivered by another dedicated thread, because the submitting thread
+ * is completing a transaction and cannot start a new one, and the submitting thread waits until such a batch has been
+ * processed.
+ */
+public class BatchingExecutor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BatchingExecutor.class);
+
+    private static final long SHUTDOWN_TIMEOUT_MS = 10_000;
+
+    private final BatchingTxDrivenModule module;
+    private final GraphDatabaseService database;
+    private final BatchingConfiguration configuration;
+    private final ScheduledExecutorService executor;
+    private final ExecutorService inlineExecutor;
+
+    private DetachedTransactionDataMerger pending = new DetachedTransactionDataMerger();
+    private ScheduledFuture<?> scheduledDelivery;
+
+    private final AtomicLong transactions = new AtomicLong(0);
+    private final AtomicLong batches = new AtomicLong(0);
+    private final AtomicLong failedBatches = new AtomicLong(0);
+
+    /**
+     * Construct a new executor and start its thread.
+     *
+     * @param module   to deliver batches to.
+     * @param database in which batches are processed.
+     */
+    public BatchingExecutor(final BatchingTxDrivenModule module, GraphDatabaseService database) {
+        this.module = module;
+        this.database = database;
+        this.configuration = module.getBatchingConfiguration();
+
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "GraphAware-Batch-" + module.getId());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.executor = executor;
+
+        //at most one thread, only alive while there are late change-sets to deliver
+        this.inlineExecutor = new ThreadPoolExecutor(0, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "GraphAware-Batch-" + module.getId() + "-Inline");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Add the change-set of a committed transaction to the current batch. Opens a new window if there is no current batch.
+     *
+     * If the executor has been shut down, the change-set is delivered as a batch of its own before this method returns.
+     *
+     * @param changeSet returned by the module's beforeCommit. <code>null</code> and empty change-sets are ignored.
+     */
+    public void submit(DetachedTransactionData changeSet) {
+        if (changeSet == null || !changeSet.mutationsOccurred()) {
+            return;
+        }
+
+        final DetachedTransactionDataMerger inline;
+        synchronized (this) {
+            transactions.incrementAndGet();
+
+            if (!executor.isShutdown()) {
+                enqueue(changeSet);
+                return;
+            }
+
+            inline = new DetachedTransactionDataMerger();
+            inline.add(changeSet);
+        }
+
+        LOG.debug("Delivering changes for module " + module.getId() + " inline, because the runtime is shutting down.");
+        deliverInline(inline);
+    }
+
+    /**
+     * Deliver a batch and wait until it has been processed. The batch is delivered by the inline delivery thread,
+     * because this method is called from transaction event handlers, where the calling thread cannot start a new
+     * transaction.
+     *
+     * @param batch to deliver.
+     */
+    private void deliverInline(final DetachedTransactionDataMerger batch) {
+        try {
+            inlineExecutor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    deliver(batch);
+                }
+            }).get();
+        } catch (InterruptedException e) {
+            LOG.warn("Interrupted while waiting for module " + module.getId() + " to process a batch.");
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOG.warn("Failed to deliver a batch to module " + module.getId(), e.getCause());
+        }
+    }
+
+    /**
+     * Add a change-set to the current batch. Must be called with the lock on this executor held, before it is shut down.
+     *
+     * @param changeSet to add.
+     */
+    private void enqueue(DetachedTransactionData changeSet) {
+        pending.add(changeSet);
+
+        if (pending.getNumberOfMerged() >= configuration.getMaxTransactions()) {
+            closeWindow();
+        } else if (scheduledDelivery == null) {
+            scheduledDelivery = executor.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    closeWindowIfOpen();
+                }
+            }, configuration.getWindowMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Deliver the current batch (if any), stop batching new change-sets, and wait (for a limited time) until all batches
+     * have been delivered.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            closeWindowIfOpen();
+            executor.shutdown();
+        }
+
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                LOG.warn("Module " + module.getId() + " did not finish processing batches in " + SHUTDOWN_TIMEOUT_MS + " ms. " + executor.shutdownNow().size() + " batches will not be processed.");
+            }
+        } catch (InterruptedException e) {
+            LOG.warn("Interrupted while waiting for module " + module.getId() + " to finish processing batches.");
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Get the configuration this executor has been created with.
+     *
+     * @return configuration.
+     */
+    public BatchingConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * Get the number of non-empty change-sets submitted to this executor.
+     *
+     * @return number of transactions.
+     */
+    public long getTransactionCount() {
+        return transactions.get();
+    }
+
+    /**
+     * Get the number of batches that have been processed, successfully or not.
+     *
+     * @return number of batches.
+     */
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    /**
+     * Get the number of batches whose processing threw an exception.
+     *
+     * @return number of failed batches.
+     */
+    public long getFailedBatchCount() {
+        return failedBatches.get();
+    }
+
+    private synchronized void closeWindowIfOpen() {
+        if (!pending.isEmpty()) {
+            closeWindow();
+        }
+    }
+
+    private void closeWindow() {
+        if (scheduledDelivery != null) {
+            scheduledDelivery.cancel(false);
+            scheduledDelivery = null;
+        }
+
+        final DetachedTransactionDataMerger batch = pending;
+        pending = new DetachedTransactionDataMerger();
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                deliver(batch);
+            }
+        });
+    }
+
+    private void deliver(DetachedTransactionDataMerger batch) {
+        DetachedTransactionData merged = batch.merge();
+
+        try {
+            if (merged.mutationsOccurred()) {
+                try (Transaction tx = database.beginTx()) {
+                    module.processBatch(merged);
+                    tx.success();
+                }
+            }
+        } catch (RuntimeException e) {
+            failedBatches.incrementAndGet();
+            LOG.warn("Module " + module.getId() + " threw an exception while processing a batch of " + batch.getNumberOfMerged() + " transactions", e);
+        } finally {
+            batches.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.manager;
+
+import com.graphaware.runtime.config.TimeBudgetConfiguration;
+import com.graphaware.runtime.monitor.DatabaseLoadMonitor;
+import com.graphaware.runtime.schedule.TimingStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker guarding the time budget of a single {@link com.graphaware.runtime.module.TimeBudgetedTxDrivenModule},
+ * as described by {@link TimeBudgetConfiguration}.
+ * <p/>
+ * While the circuit breaker is closed, {@link #allows()} is a single volatile read, so it adds no contention to
+ * committing threads. State transitions are synchronized.
+ */
+public class ModuleCircuitBreaker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ModuleCircuitBreaker.class);
+
+    /**
+     * State of the circuit breaker.
+     */
+    public enum State {
+        /**
+         * The module is invoked as usual.
+         */
+        CLOSED,
+
+        /**
+         * The module is bypassed.
+         */
+        OPEN,
+
+        /**
+         * The module is invoked on trial after cool-down; the next invocation decides whether the breaker closes or re-opens.
+         */
+        HALF_OPEN
+    }
+
+    private final String moduleId;
+    private final TimeBudgetConfiguration configuration;
+    private final DatabaseLoadMonitor loadMonitor;
+    private final long budgetNanos;
+
+    private final long[] violations;
+    private int nextViolation = 0;
+
+    private volatile State state = State.CLOSED;
+    private volatile long openedAt;
+    private long trips = 0;
+
+    /**
+     * Construct a new circuit breaker.
+     *
+     * @param moduleId      ID of the guarded module, for logging.
+     * @param configuration of the time budget.
+     * @param loadMonitor   monitor of the database load, consulted before re-enabling the module. Can be <code>null</code>,
+     *                      in which case the module is re-enabled regardless of load.
+     */
+    public ModuleCircuitBreaker(String moduleId, TimeBudgetConfiguration configuration, DatabaseLoadMonitor loadMonitor) {
+        this.moduleId = moduleId;
+        this.configuration = configuration;
+        this.loadMonitor = loadMonitor;
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(configuration.getBudgetMillis());
+        this.violations = new long[configuration.getMaxViolations()];
+    }
+
+    /**
+     * Should the module be invoked?
+     *
+     * @return true iff the module should be invoked, false iff it should be bypassed.
+     */
+    public boolean allows() {
+        if (state != State.OPEN) {
+            return true;
+        }
+
+        if (System.currentTimeMillis() - openedAt < configuration.getCooldownMillis()) {
+            return false;
+        }
+
+        return tryHalfOpen();
+    }
+
+    /**
+     * Record the duration of an invocation of the module.
+     *
+     * @param nanos duration in nanoseconds.
+     * @return true iff this invocation has opened the circuit breaker, in which case the caller is expected to take
+     *         action, such as marking the module as needing re-initialization. Re-opening the breaker after an
+     *         unsuccessful trial does not count, as the action has already been taken.
+     */
+    public boolean record(long nanos) {
+        if (nanos <= budgetNanos) {
+            if (state == State.HALF_OPEN) {
+                close();
+            }
+            return false;
+        }
+
+        return violation();
+    }
+
+    /**
+     * Get the current state of the circuit breaker.
+     *
+     * @return state.
+     */
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Get the number of times the circuit breaker has opened, not counting re-opening after unsuccessful trials.
+     *
+     * @return number of trips.
+     */
+    public synchronized long getTrips() {
+        return trips;
+    }
+
+    private synchronized boolean tryHalfOpen() {
+        if (state != State.OPEN) {
+            return true;
+        }
+
+        if (loadMonitor != null) {
+            long load = loadMonitor.getLoad();
+            if (load != TimingStrategy.UNKNOWN && load > configuration.getReenableLoadThreshold()) {
+                return false;
+            }
+        }
+
+        LOG.info("Module " + moduleId + " has been bypassed for " + configuration.getCooldownMillis() + " ms, giving it another chance...");
+        state = State.HALF_OPEN;
+        return true;
+    }
+
+    private synchronized void close() {
+        if (state == State.HALF_OPEN) {
+            LOG.info("Module " + moduleId + " is within its time budget again and has been re-enabled.");
+            state = State.CLOSED;
+        }
+    }
+
+    private synchronized boolean violation() {
+        long now = System.currentTimeMillis();
+
+        switch (state) {
+            case OPEN:
+                return false;
+            case HALF_OPEN:
+                LOG.warn("Module " + moduleId + " has exceeded its time budget of " + configuration.getBudgetMillis() + " ms again and will be bypassed for another " + configuration.getCooldownMillis() + " ms.");
+                open(now);
+                return false;
+            case CLOSED:
+                violations[nextViolation] = now;
+                nextViolation = (nextViolation + 1) % violations.length;
+
+                //the oldest of the last maxViolations violations is the one about to be overwritten
+                long oldest = violations[nextViolation];
+                if (oldest != 0 && now - oldest <= configuration.getWindowMillis()) {
+                    open(now);
+                    trips++;
+                    return true;
+                }
+                return false;
+            default:
+                throw new IllegalStateException("Unknown circuit breaker state " + state + ". This is a bug.");
+        }
+    }
+
+    private void open(long now) {
+        state = State.OPEN;
+        openedAt = now;
+        for (int i = 0; i < violations.length; i++) {
+            violations[i] = 0;
+        }
+    }
+}
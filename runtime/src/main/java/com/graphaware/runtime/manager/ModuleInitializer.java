@@ -0,0 +1,431 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.manager;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor of module (re-)initialization work. Modules are initialized concurrently by a bounded number of threads,
+ * but a module is only initialized once all of its dependencies that need initializing have been successfully
+ * initialized. When a module fails to initialize, the modules depending on it (directly or transitively) are not
+ * initialized at all.
+ * <p/>
+ * The work of several modules can be {@link #merge(java.util.Set, Runnable)}d into a single piece of work, which
+ * initializes all of them at once, e.g. by a single scan of the graph.
+ * <p/>
+ * With a single thread, or a single piece of work to execute, the work is done by the calling thread. Otherwise, it is
+ * done by a pool of threads created for a single call of {@link #initialize()}, so each module's initialization runs
+ * in its own transactions, separately from any transaction the calling thread is running. Threads of the pool can be
+ * recognized by {@link #isInitializationThread()}; threads they spawn themselves can not.
+ * <p/>
+ * The {@link ModuleReadiness} of each scheduled module is kept up to date in a map provided by the caller. Some of the
+ * scheduled work can be {@link #split(java.util.Set)} off into another initializer, e.g. to be executed later by
+ * a different thread.
+ */
+public class ModuleInitializer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ModuleInitializer.class);
+
+    private static final ThreadLocal<Boolean> initializationThread = new ThreadLocal<Boolean>() {
+        @Override
+        protected Boolean initialValue() {
+            return false;
+        }
+    };
+
+    private final int threads;
+    private final Map<String, ModuleReadiness> readiness;
+    private final Map<String, Work> work = new LinkedHashMap<>();
+
+    /**
+     * Construct a new initializer.
+     *
+     * @param threads   maximum number of modules initialized at the same time.
+     * @param readiness map of module IDs to their readiness, updated by this initializer. Must be thread-safe.
+     */
+    public ModuleInitializer(int threads, Map<String, ModuleReadiness> readiness) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of initialization threads must be positive");
+        }
+
+        this.threads = threads;
+        this.readiness = readiness;
+    }
+
+    /**
+     * Is the current thread one of the threads of a pool initializing modules?
+     *
+     * @return true iff the current thread has been created by an initializer to initialize modules.
+     */
+    public static boolean isInitializationThread() {
+        return initializationThread.get();
+    }
+
+    /**
+     * Schedule initialization work for a module. If work has already been scheduled for the module, the new work
+     * will run after it, by the same thread.
+     *
+     * @param moduleId     ID of the module.
+     * @param dependencies IDs of the modules that must be initialized before this module.
+     * @param task         initialization work.
+     */
+    public void schedule(String moduleId, Set<String> dependencies, Runnable task) {
+        if (!work.containsKey(moduleId)) {
+            work.put(moduleId, new Work(moduleId));
+        }
+
+        Work scheduled = work.get(moduleId);
+        scheduled.tasks.add(task);
+        scheduled.dependencies.addAll(dependencies);
+        readiness.put(moduleId, ModuleReadiness.WAITING);
+    }
+
+    /**
+     * Replace the work scheduled for the given modules by a single piece of work initializing all of them. The work
+     * is executed once the dependencies of all the modules, apart from the modules themselves, have been initialized.
+     *
+     * @param moduleIds IDs of the modules, for each of which work must have been scheduled and not merged yet.
+     * @param task      initialization work for all the modules.
+     */
+    public void merge(Set<String> moduleIds, Runnable task) {
+        Work merged = new Work(moduleIds);
+        merged.tasks.add(task);
+
+        for (String moduleId : moduleIds) {
+            Work scheduled = work.get(moduleId);
+            if (scheduled == null || scheduled.moduleIds.size() > 1) {
+                throw new IllegalStateException("No separate work has been scheduled for module " + moduleId + ". This is a bug.");
+            }
+            merged.dependencies.addAll(scheduled.dependencies);
+        }
+
+        merged.dependencies.removeAll(moduleIds);
+
+        for (String moduleId : moduleIds) {
+            work.put(moduleId, merged);
+        }
+    }
+
+    /**
+     * Is any initialization work scheduled for the given module?
+     *
+     * @param moduleId ID of the module.
+     * @return true iff work is scheduled.
+     */
+    public boolean isScheduled(String moduleId) {
+        return work.containsKey(moduleId);
+    }
+
+    /**
+     * Move the work scheduled for the given modules into a new initializer, sharing the readiness map with this one.
+     * The new initializer executes all work by the thread calling {@link #initialize(Listener)}, one piece at a time.
+     * Merged work is only moved if all the modules it initializes are among the given ones. Dependencies between work
+     * remaining in this initializer and work moved to the new one are not tracked any more; callers must therefore
+     * make sure that no work remaining in this initializer depends on moved work.
+     *
+     * @param moduleIds IDs of the modules whose work to move.
+     * @return new initializer with the moved work, possibly empty.
+     */
+    public ModuleInitializer split(Set<String> moduleIds) {
+        ModuleInitializer result = new ModuleInitializer(1, readiness);
+
+        Iterator<Map.Entry<String, Work>> iterator = work.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Work> entry = iterator.next();
+            if (moduleIds.containsAll(entry.getValue().moduleIds)) {
+                result.work.put(entry.getKey(), entry.getValue());
+                iterator.remove();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Execute all scheduled work and block until it is finished.
+     *
+     * @throws IllegalStateException in case the scheduled modules have circular dependencies.
+     * @throws RuntimeException      the first exception thrown by a module's initialization, after all the work that
+     *                               could be executed has been executed.
+     */
+    public void initialize() {
+        initialize(null);
+    }
+
+    /**
+     * Execute all scheduled work and block until it is finished, notifying a listener about each successfully finished
+     * piece of work.
+     *
+     * @param listener to be notified, executed by the thread that has done the work, before the modules are marked
+     *                 {@link ModuleReadiness#READY}. An exception thrown by the listener fails the modules. Can be
+     *                 <code>null</code>.
+     * @throws IllegalStateException in case the scheduled modules have circular dependencies.
+     * @throws RuntimeException      the first exception thrown by a module's initialization (or the listener), after
+     *                               all the work that could be executed has been executed.
+     */
+    public void initialize(Listener listener) {
+        if (work.isEmpty()) {
+            return;
+        }
+
+        Set<Work> remaining = new LinkedHashSet<>(work.values());
+
+        int poolSize = Math.min(threads, remaining.size());
+        LOG.info("Initializing " + work.size() + " module(s) using " + poolSize + " thread(s)...");
+
+        ExecutorService pool = poolSize > 1 ? createPool(poolSize) : null;
+        CompletionService<Work> completionService = new ExecutorCompletionService<>(pool != null ? pool : new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        });
+
+        List<Throwable> failures = new ArrayList<>();
+        int running = 0;
+
+        try {
+            while (!remaining.isEmpty() || running > 0) {
+                running += submitReady(remaining, completionService, listener);
+
+                if (running == 0) {
+                    if (!remaining.isEmpty()) {
+                        Set<String> moduleIds = new LinkedHashSet<>();
+                        for (Work circular : remaining) {
+                            moduleIds.addAll(circular.moduleIds);
+                            setReadiness(circular, ModuleReadiness.FAILED);
+                        }
+                        throw new IllegalStateException("Modules " + moduleIds + " have circular dependencies and cannot be initialized!");
+                    }
+                    break;
+                }
+
+                try {
+                    setReadiness(completionService.take().get(), ModuleReadiness.READY);
+                } catch (ExecutionException e) {
+                    ModuleInitializationException cause = (ModuleInitializationException) e.getCause();
+                    failures.add(cause.getCause());
+                    setReadiness(cause.work, ModuleReadiness.FAILED);
+                    LOG.error("Module(s) " + cause.work.moduleIds + " failed to initialize.", cause.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while initializing modules.", e);
+                }
+
+                running--;
+            }
+        } finally {
+            work.clear();
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            Throwable failure = failures.get(0);
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            throw new RuntimeException(failure);
+        }
+
+        LOG.info("Modules initialized.");
+    }
+
+    /**
+     * Submit all work whose dependencies have been initialized, and remove it from the remaining work.
+     * Work with a dependency that failed to initialize is marked as failed and removed from the remaining work too.
+     *
+     * @param remaining         work yet to be submitted.
+     * @param completionService to submit work to.
+     * @param listener          to be notified about finished work, can be <code>null</code>.
+     * @return number of submitted pieces of work.
+     */
+    private int submitReady(Set<Work> remaining, CompletionService<Work> completionService, Listener listener) {
+        int submitted = 0;
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            Iterator<Work> iterator = remaining.iterator();
+            while (iterator.hasNext()) {
+                Work next = iterator.next();
+
+                String failedDependency = findFailedDependency(next);
+                if (failedDependency != null) {
+                    LOG.error("Module(s) " + next.moduleIds + " will not be initialized, because module " + failedDependency + " has failed to initialize.");
+                    setReadiness(next, ModuleReadiness.FAILED);
+                    iterator.remove();
+                    changed = true;
+                    continue;
+                }
+
+                if (dependenciesReady(next)) {
+                    iterator.remove();
+                    completionService.submit(new InitializationTask(next, listener));
+                    submitted++;
+                }
+            }
+        }
+
+        return submitted;
+    }
+
+    private String findFailedDependency(Work next) {
+        for (String dependency : next.dependencies) {
+            if (ModuleReadiness.FAILED.equals(readiness.get(dependency))) {
+                return dependency;
+            }
+        }
+        return null;
+    }
+
+    private boolean dependenciesReady(Work next) {
+        for (String dependency : next.dependencies) {
+            if (work.containsKey(dependency) && !ModuleReadiness.READY.equals(readiness.get(dependency))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void setReadiness(Work work, ModuleReadiness value) {
+        for (String moduleId : work.moduleIds) {
+            readiness.put(moduleId, value);
+        }
+    }
+
+    private ExecutorService createPool(int poolSize) {
+        final AtomicInteger threadNumber = new AtomicInteger(0);
+        return Executors.newFixedThreadPool(poolSize, new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable r) {
+                Thread thread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        initializationThread.set(true);
+                        r.run();
+                    }
+                }, "GraphAware-Initializer-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Listener notified when initialization work has been successfully finished.
+     */
+    public interface Listener {
+
+        /**
+         * Called when the initialization work of the given modules has been finished.
+         *
+         * @param moduleIds IDs of the modules initialized by the work.
+         */
+        void initialized(Set<String> moduleIds);
+    }
+
+    /**
+     * Initialization work of one or more modules.
+     */
+    private static class Work {
+
+        private final Set<String> moduleIds;
+        private final Set<String> dependencies = new HashSet<>();
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        private Work(String moduleId) {
+            this.moduleIds = new LinkedHashSet<>();
+            this.moduleIds.add(moduleId);
+        }
+
+        private Work(Set<String> moduleIds) {
+            this.moduleIds = new LinkedHashSet<>(moduleIds);
+        }
+    }
+
+    /**
+     * Task executing a piece of initialization work.
+     */
+    private class InitializationTask implements Callable<Work> {
+
+        private final Work work;
+        private final Listener listener;
+
+        private InitializationTask(Work work, Listener listener) {
+            this.work = work;
+            this.listener = listener;
+        }
+
+        @Override
+        public Work call() throws Exception {
+            setReadiness(work, ModuleReadiness.INITIALIZING);
+            LOG.info("Initializing module(s) " + work.moduleIds + "...");
+            long start = System.currentTimeMillis();
+
+            try {
+                for (Runnable task : work.tasks) {
+                    task.run();
+                }
+                if (listener != null) {
+                    listener.initialized(work.moduleIds);
+                }
+            } catch (RuntimeException | Error e) {
+                throw new ModuleInitializationException(work, e);
+            }
+
+            LOG.info("Module(s) " + work.moduleIds + " initialized in " + (System.currentTimeMillis() - start) + " ms.");
+            return work;
+        }
+    }
+
+    /**
+     * Wrapper of an exception thrown during a piece of initialization work, carrying the work.
+     */
+    private static class ModuleInitializationException extends Exception {
+
+        private final Work work;
+
+        private ModuleInitializationException(Work work, Throwable cause) {
+            super(cause);
+            this.work = work;
+        }
+    }
+}
@@ -53,9 +53,18 @@ public interface ModuleManager<T extends RuntimeModule> {
      */
     <M extends RuntimeModule> M getModule(String moduleId, Class<M> clazz);
 
+    /**
+     * Get the readiness of a module registered with the manager.
+     *
+     * @param moduleId module ID.
+     * @return readiness, <code>null</code> if no such module exists.
+     */
+    ModuleReadiness getReadiness(String moduleId);
+
     /**
      * Load module metadata from wherever they are stored in between database restarts and do whatever is necessary
-     * to do with this metadata before the modules can be used.
+     * to do with this metadata before the modules can be used. Modules that need to be (re-)initialized are
+     * initialized concurrently, respecting their declared dependencies.
      *
      * @return IDs of all modules registered with this manager.
      */
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.manager;
+
+/**
+ * Readiness of a {@link com.graphaware.runtime.module.RuntimeModule}, as far as its initialization is concerned.
+ */
+public enum ModuleReadiness {
+
+    /**
+     * Metadata of the module have not been loaded yet, so it is not known whether it needs to be initialized.
+     */
+    PENDING,
+
+    /**
+     * The module needs to be (re-)initialized and is waiting for its dependencies to be initialized, or for a free thread.
+     */
+    WAITING,
+
+    /**
+     * The module is being (re-)initialized.
+     */
+    INITIALIZING,
+
+    /**
+     * The module has been (re-)initialized, or did not need to be.
+     */
+    READY,
+
+    /**
+     * The (re-)initialization of the module, or of one of its dependencies, has failed.
+     */
+    FAILED
+}
@@ -16,15 +16,20 @@
 
 package com.graphaware.runtime.manager;
 
+import com.graphaware.runtime.config.CheckpointingConfiguration;
 import com.graphaware.runtime.metadata.DefaultTimerDrivenModuleMetadata;
 import com.graphaware.runtime.metadata.ModuleMetadataRepository;
 import com.graphaware.runtime.metadata.TimerDrivenModuleMetadata;
 import com.graphaware.runtime.module.TimerDrivenModule;
+import com.graphaware.runtime.schedule.ModuleSchedulingStatistics;
 import com.graphaware.runtime.schedule.RotatingTaskScheduler;
+import com.graphaware.runtime.schedule.SchedulingPolicy;
 import com.graphaware.runtime.schedule.TaskScheduler;
 import com.graphaware.runtime.schedule.TimingStrategy;
 import org.neo4j.graphdb.GraphDatabaseService;
 
+import java.util.Map;
+
 /**
  * Production implementation of {@link TimerDrivenModuleManager}. Must be backed by a {@link GraphDatabaseService},
  * as there is no support for using {@link TimerDrivenModule}s in batch mode (i.e. with {@link org.neo4j.unsafe.batchinsert.BatchInserter}s).
@@ -42,9 +47,23 @@ public class ProductionTimerDrivenModuleManager extends BaseModuleManager<TimerD
      * @param timingStrategy     the {@link TimingStrategy} to use for scheduling the timer-driven modules.
      */
     public ProductionTimerDrivenModuleManager(GraphDatabaseService database, ModuleMetadataRepository metadataRepository, TimingStrategy timingStrategy) {
+        this(database, metadataRepository, timingStrategy, 1, SchedulingPolicy.ROUND_ROBIN, CheckpointingConfiguration.defaultConfiguration());
+    }
+
+    /**
+     * Constructs a new {@link ProductionTimerDrivenModuleManager} based on the given arguments.
+     *
+     * @param database                   storing graph data.
+     * @param metadataRepository         for storing module metadata.
+     * @param timingStrategy             the {@link TimingStrategy} to use for scheduling the timer-driven modules.
+     * @param numberOfThreads            number of threads delegating work to the timer-driven modules.
+     * @param schedulingPolicy           the {@link SchedulingPolicy} deciding which timer-driven module is delegated to next.
+     * @param checkpointingConfiguration the {@link CheckpointingConfiguration} deciding how often contexts are persisted.
+     */
+    public ProductionTimerDrivenModuleManager(GraphDatabaseService database, ModuleMetadataRepository metadataRepository, TimingStrategy timingStrategy, int numberOfThreads, SchedulingPolicy schedulingPolicy, CheckpointingConfiguration checkpointingConfiguration) {
     	super(metadataRepository);
     	this.database = database;
-    	taskScheduler = new RotatingTaskScheduler(database, metadataRepository, timingStrategy);
+    	taskScheduler = new RotatingTaskScheduler(database, metadataRepository, timingStrategy, numberOfThreads, schedulingPolicy, checkpointingConfiguration);
     }
 
     /**
@@ -80,4 +99,13 @@ public class ProductionTimerDrivenModuleManager extends BaseModuleManager<TimerD
         super.shutdownModules();
         taskScheduler.stop();
     }
+
+    /**
+     * Get statistics about delegating work to the timer-driven modules.
+     *
+     * @return statistics keyed by module ID.
+     */
+    public Map<String, ModuleSchedulingStatistics> getSchedulingStatistics() {
+        return taskScheduler.getStatistics();
+    }
 }
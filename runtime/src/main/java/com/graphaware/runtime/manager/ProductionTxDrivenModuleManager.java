@@ -16,10 +16,24 @@
 
 package com.graphaware.runtime.manager;
 
+import com.graphaware.runtime.config.InitializationConfiguration;
+import com.graphaware.runtime.config.ProfilingConfiguration;
+import com.graphaware.runtime.config.TxDrivenModuleConfiguration;
 import com.graphaware.runtime.metadata.ModuleMetadataRepository;
 import com.graphaware.runtime.metadata.TxDrivenModuleMetadata;
+import com.graphaware.runtime.module.BatchingTxDrivenModule;
+import com.graphaware.runtime.module.IncrementallyReinitializedTxDrivenModule;
+import com.graphaware.runtime.module.InitializationVisitor;
+import com.graphaware.runtime.module.ScanInitializedTxDrivenModule;
 import com.graphaware.runtime.module.TxDrivenModule;
+import com.graphaware.runtime.monitor.DatabaseLoadMonitor;
+import com.graphaware.runtime.monitor.RunningWindowAverage;
+import com.graphaware.runtime.monitor.StartedTxBasedLoadMonitor;
 import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Transaction;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * {@link BaseTxDrivenModuleManager} backed by a {@link GraphDatabaseService}.
@@ -27,6 +41,7 @@ import org.neo4j.graphdb.GraphDatabaseService;
 public class ProductionTxDrivenModuleManager extends BaseTxDrivenModuleManager<TxDrivenModule> {
 
     private final GraphDatabaseService database;
+    private final InitializationConfiguration initializationConfiguration;
 
     /**
      * Construct a new manager.
@@ -37,6 +52,44 @@ public class ProductionTxDrivenModuleManager extends BaseTxDrivenModuleManager<T
     public ProductionTxDrivenModuleManager(GraphDatabaseService database, ModuleMetadataRepository metadataRepository) {
         super(metadataRepository);
         this.database = database;
+        this.initializationConfiguration = InitializationConfiguration.defaultConfiguration();
+    }
+
+    /**
+     * Construct a new manager.
+     *
+     * @param database               storing graph data.
+     * @param metadataRepository     for storing module metadata.
+     * @param profilingConfiguration configuration of the profiling of modules.
+     */
+    public ProductionTxDrivenModuleManager(GraphDatabaseService database, ModuleMetadataRepository metadataRepository, ProfilingConfiguration profilingConfiguration) {
+        super(metadataRepository, profilingConfiguration);
+        this.database = database;
+        this.initializationConfiguration = InitializationConfiguration.defaultConfiguration();
+    }
+
+    /**
+     * Construct a new manager.
+     *
+     * @param database                    storing graph data.
+     * @param metadataRepository          for storing module metadata.
+     * @param profilingConfiguration      configuration of the profiling of modules.
+     * @param initializationConfiguration configuration of the initialization of modules.
+     */
+    public ProductionTxDrivenModuleManager(GraphDatabaseService database, ModuleMetadataRepository metadataRepository, ProfilingConfiguration profilingConfiguration, InitializationConfiguration initializationConfiguration) {
+        super(metadataRepository, profilingConfiguration, initializationConfiguration);
+        this.database = database;
+        this.initializationConfiguration = initializationConfiguration;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Returns a {@link StartedTxBasedLoadMonitor}.
+     */
+    @Override
+    protected DatabaseLoadMonitor createLoadMonitor() {
+        return new StartedTxBasedLoadMonitor(database, new RunningWindowAverage(200, 2000));
     }
 
     /**
@@ -62,4 +115,47 @@ public class ProductionTxDrivenModuleManager extends BaseTxDrivenModuleManager<T
     protected void reinitialize(TxDrivenModule module, TxDrivenModuleMetadata oldMetadata) {
         module.reinitialize(database, oldMetadata);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void scan(Map<TxDrivenModule, TxDrivenModuleMetadata> modules) {
+        Map<TxDrivenModule, InitializationVisitor> visitors = new LinkedHashMap<>();
+        for (Map.Entry<TxDrivenModule, TxDrivenModuleMetadata> entry : modules.entrySet()) {
+            visitors.put(entry.getKey(), ((ScanInitializedTxDrivenModule) entry.getKey()).createInitializationVisitor(database, entry.getValue()));
+        }
+
+        new StoreScanner(database, initializationConfiguration.getThreads(), initializationConfiguration.getBatchSize()).scan(visitors);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void reinitializeIncrementally(TxDrivenModule module, TxDrivenModuleConfiguration oldConfiguration) {
+        new ScopeChangeScanner(database, initializationConfiguration.getThreads(), initializationConfiguration.getBatchSize()).scan(
+                oldConfiguration.getInclusionPolicies(),
+                module.getConfiguration().getInclusionPolicies(),
+                ((IncrementallyReinitializedTxDrivenModule) module).createScopeChangeVisitor(database, oldConfiguration));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected BatchingExecutor createBatchingExecutor(BatchingTxDrivenModule module) {
+        return new BatchingExecutor(module, database);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void executeInTransaction(Runnable task) {
+        try (Transaction tx = database.beginTx()) {
+            task.run();
+            tx.success();
+        }
+    }
 }
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.manager;
+
+import com.graphaware.tx.event.improved.detached.DetachedTransactionData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounded buffer of changes committed while a {@link com.graphaware.runtime.module.BackgroundInitializedTxDrivenModule}
+ * is being initialized. Once the module has been initialized, the buffer is drained until it is empty, at which point
+ * it closes and stops accepting changes.
+ * <p/>
+ * When more changes than the buffer's capacity are offered, the buffer starts discarding all changes, because the module
+ * has missed some of them and has to be re-initialized anyway.
+ * <p/>
+ * This class is thread-safe.
+ */
+public class ReplayBuffer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReplayBuffer.class);
+
+    private enum State {
+        OPEN,
+        CLOSED,
+        DISCARDING
+    }
+
+    private final String moduleId;
+    private final int capacity;
+    private final List<DetachedTransactionData> changes = new ArrayList<>();
+    private volatile State state = State.OPEN;
+
+    /**
+     * Construct a new buffer.
+     *
+     * @param moduleId ID of the module the buffer is for.
+     * @param capacity maximum number of buffered transactions.
+     */
+    public ReplayBuffer(String moduleId, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+
+        this.moduleId = moduleId;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Offer changes of a committed transaction to the buffer.
+     *
+     * @param transactionData changes.
+     * @return false iff the buffer has been closed, in which case the changes have not been accepted and must be
+     *         processed by the caller. True if the changes have been buffered or discarded.
+     */
+    public synchronized boolean offer(DetachedTransactionData transactionData) {
+        if (State.CLOSED.equals(state)) {
+            return false;
+        }
+
+        if (State.DISCARDING.equals(state)) {
+            return true;
+        }
+
+        if (changes.size() >= capacity) {
+            LOG.warn("More than " + capacity + " transactions committed while module " + moduleId + " was being initialized. Its changes will be discarded and it will be re-initialized next time the database is started.");
+            discard();
+            return true;
+        }
+
+        changes.add(transactionData);
+        return true;
+    }
+
+    /**
+     * Remove all buffered changes from the buffer or, if there are none, close the buffer.
+     *
+     * @return removed changes, <code>null</code> iff the buffer has been closed or has been discarding changes (see
+     *         {@link #isDiscarding()}), in which case the changes cannot be replayed.
+     */
+    public synchronized List<DetachedTransactionData> drainOrClose() {
+        if (State.DISCARDING.equals(state)) {
+            return null;
+        }
+
+        if (changes.isEmpty()) {
+            state = State.CLOSED;
+            return null;
+        }
+
+        List<DetachedTransactionData> result = new ArrayList<>(changes);
+        changes.clear();
+        return result;
+    }
+
+    /**
+     * Discard all buffered changes and all changes offered from now on.
+     */
+    public synchronized void discard() {
+        state = State.DISCARDING;
+        changes.clear();
+    }
+
+    /**
+     * Has the buffer been closed?
+     *
+     * @return true iff closed.
+     */
+    public boolean isClosed() {
+        return State.CLOSED.equals(state);
+    }
+
+    /**
+     * Is the buffer discarding changes?
+     *
+     * @return true iff discarding.
+     */
+    public boolean isDiscarding() {
+        return State.DISCARDING.equals(state);
+    }
+
+    /**
+     * Get the number of buffered transactions.
+     *
+     * @return number of transactions.
+     */
+    public synchronized int size() {
+        return changes.size();
+    }
+}
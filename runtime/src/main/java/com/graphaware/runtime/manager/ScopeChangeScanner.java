@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.manager;
+
+import com.graphaware.common.policy.InclusionPolicies;
+import com.graphaware.common.policy.NodeInclusionPolicy;
+import com.graphaware.common.policy.RelationshipInclusionPolicy;
+import com.graphaware.common.policy.all.IncludeAllNodes;
+import com.graphaware.common.policy.all.IncludeAllRelationships;
+import com.graphaware.common.policy.composite.CompositeNodeInclusionPolicy;
+import com.graphaware.common.policy.fluent.BaseIncludeNodes;
+import com.graphaware.common.policy.none.IncludeNoNodes;
+import com.graphaware.common.policy.none.IncludeNoRelationships;
+import com.graphaware.common.policy.spel.SpelNodeInclusionPolicy;
+import com.graphaware.runtime.module.BaseInitializationVisitor;
+import com.graphaware.runtime.module.ScopeChangeVisitor;
+import org.neo4j.graphdb.DynamicLabel;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.NotFoundException;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.tooling.GlobalGraphOperations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Finds nodes and relationships that have entered or left the scope of a module's inclusion policies when they change
+ * from old to new, and hands them to a {@link ScopeChangeVisitor}.
+ * <p/>
+ * When both the old and the new node inclusion policy only include nodes with known labels (see
+ * {@link #candidateLabels(NodeInclusionPolicy)}), the candidate nodes are found by label scans. Otherwise, and for relationships, the candidates are found by a {@link StoreScanner}. Nodes and
+ * relationships are only looked at when their respective inclusion policy has changed.
+ */
+public class ScopeChangeScanner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ScopeChangeScanner.class);
+
+    private final GraphDatabaseService database;
+    private final int threads;
+    private final int batchSize;
+
+    /**
+     * Construct a new scanner.
+     *
+     * @param database  to scan.
+     * @param threads   number of threads scanning each store, when the stores have to be scanned.
+     * @param batchSize number of entities read in a single transaction.
+     */
+    public ScopeChangeScanner(GraphDatabaseService database, int threads, int batchSize) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+
+        this.database = database;
+        this.threads = threads;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Find the entities whose inclusion has changed and hand them to the visitor.
+     *
+     * @param oldPolicies policies before the change.
+     * @param newPolicies policies after the change.
+     * @param visitor     to hand the entities to.
+     */
+    public void scan(InclusionPolicies oldPolicies, InclusionPolicies newPolicies, final ScopeChangeVisitor visitor) {
+        final NodeInclusionPolicy oldNodes = oldPolicies.getNodeInclusionPolicy();
+        final NodeInclusionPolicy newNodes = newPolicies.getNodeInclusionPolicy();
+        final RelationshipInclusionPolicy oldRelationships = oldPolicies.getRelationshipInclusionPolicy();
+        final RelationshipInclusionPolicy newRelationships = newPolicies.getRelationshipInclusionPolicy();
+
+        boolean nodesChanged = !oldNodes.equals(newNodes);
+        boolean relationshipsChanged = !oldRelationships.equals(newRelationships);
+
+        Set<Label> labels = null;
+        if (nodesChanged) {
+            Set<Label> oldLabels = candidateLabels(oldNodes);
+            Set<Label> newLabels = candidateLabels(newNodes);
+            if (oldLabels != null && newLabels != null) {
+                labels = new LinkedHashSet<>(oldLabels);
+                labels.addAll(newLabels);
+            }
+        }
+
+        boolean scanNodes = nodesChanged && labels == null;
+
+        visitor.beforeScan();
+
+        if (labels != null) {
+            LOG.info("Looking for nodes that have entered or left the scope using label scans of " + labels + "...");
+            visitNodes(findNodeIds(labels), oldNodes, newNodes, visitor);
+        }
+
+        if (scanNodes || relationshipsChanged) {
+            LOG.info("Looking for " + (scanNodes ? (relationshipsChanged ? "nodes and relationships" : "nodes") : "relationships") + " that have entered or left the scope by scanning the graph...");
+
+            InclusionPolicies scanned = InclusionPolicies.all()
+                    .with(scanNodes ? IncludeAllNodes.getInstance() : IncludeNoNodes.getInstance())
+                    .with(relationshipsChanged ? IncludeAllRelationships.getInstance() : IncludeNoRelationships.getInstance());
+
+            new StoreScanner(database, threads, batchSize).scan(scanned, new BaseInitializationVisitor() {
+                @Override
+                public boolean visitsNodes() {
+                    return true;
+                }
+
+                @Override
+                public boolean visitsRelationships() {
+                    return true;
+                }
+
+                @Override
+                public void visit(Node node) {
+                    visitNode(node, oldNodes, newNodes, visitor);
+                }
+
+                @Override
+                public void visit(Relationship relationship) {
+                    boolean before = oldRelationships.include(relationship);
+                    boolean after = newRelationships.include(relationship);
+                    if (after && !before) {
+                        visitor.relationshipEntered(relationship);
+                    } else if (before && !after) {
+                        visitor.relationshipLeft(relationship);
+                    }
+                }
+            });
+        }
+
+        visitor.afterScan();
+    }
+
+    /**
+     * Get the labels, at least one of which every node included by the given policy has. The labels can be determined
+     * for fluent policies with a label, SPEL policies composed of label checks (see
+     * {@link SpelNodeInclusionPolicy#getCandidateLabels()}), and composite policies at least one part of which is one
+     * of the former.
+     *
+     * @param policy to get labels for.
+     * @return labels, <code>null</code> if they cannot be determined.
+     */
+    Set<Label> candidateLabels(NodeInclusionPolicy policy) {
+        if (policy instanceof IncludeNoNodes) {
+            return Collections.emptySet();
+        }
+
+        if (policy instanceof BaseIncludeNodes && ((BaseIncludeNodes) policy).getLabel() != null) {
+            return Collections.singleton(((BaseIncludeNodes) policy).getLabel());
+        }
+
+        if (policy instanceof SpelNodeInclusionPolicy) {
+            Set<String> labelNames = ((SpelNodeInclusionPolicy) policy).getCandidateLabels();
+            if (labelNames == null) {
+                return null;
+            }
+
+            Set<Label> labels = new LinkedHashSet<>();
+            for (String labelName : labelNames) {
+                labels.add(DynamicLabel.label(labelName));
+            }
+            return labels;
+        }
+
+        if (policy instanceof CompositeNodeInclusionPolicy) {
+            //every included node is included by all the parts, so the smallest set of labels of any part will do
+            Set<Label> result = null;
+            for (NodeInclusionPolicy part : ((CompositeNodeInclusionPolicy) policy).getPolicies()) {
+                Set<Label> labels = candidateLabels(part);
+                if (labels != null && (result == null || labels.size() < result.size())) {
+                    result = labels;
+                }
+            }
+            return result;
+        }
+
+        return null;
+    }
+
+    /**
+     * Find IDs of all nodes with at least one of the given labels.
+     *
+     * @param labels labels.
+     * @return sorted IDs without duplicates.
+     */
+    private long[] findNodeIds(Set<Label> labels) {
+        long[] ids = new long[1024];
+        int size = 0;
+
+        try (Transaction tx = database.beginTx()) {
+            for (Label label : labels) {
+                for (Node node : GlobalGraphOperations.at(database).getAllNodesWithLabel(label)) {
+                    if (size == ids.length) {
+                        ids = Arrays.copyOf(ids, size * 2);
+                    }
+                    ids[size++] = node.getId();
+                }
+            }
+            tx.success();
+        }
+
+        Arrays.sort(ids, 0, size);
+
+        int unique = 0;
+        for (int i = 0; i < size; i++) {
+            if (unique == 0 || ids[i] != ids[unique - 1]) {
+                ids[unique++] = ids[i];
+            }
+        }
+
+        return Arrays.copyOf(ids, unique);
+    }
+
+    /**
+     * Visit nodes with the given IDs in batches, one transaction per batch.
+     *
+     * @param ids      IDs of the nodes.
+     * @param oldNodes old node inclusion policy.
+     * @param newNodes new node inclusion policy.
+     * @param visitor  to hand nodes to.
+     */
+    private void visitNodes(long[] ids, NodeInclusionPolicy oldNodes, NodeInclusionPolicy newNodes, ScopeChangeVisitor visitor) {
+        for (int from = 0; from < ids.length; from += batchSize) {
+            try (Transaction tx = database.beginTx()) {
+                for (int i = from; i < Math.min(from + batchSize, ids.length); i++) {
+                    Node node;
+                    try {
+                        node = database.getNodeById(ids[i]);
+                    } catch (NotFoundException e) {
+                        continue;
+                    }
+                    visitNode(node, oldNodes, newNodes, visitor);
+                }
+                tx.success();
+            }
+        }
+    }
+
+    private void visitNode(Node node, NodeInclusionPolicy oldNodes, NodeInclusionPolicy newNodes, ScopeChangeVisitor visitor) {
+        boolean before = oldNodes.include(node);
+        boolean after = newNodes.include(node);
+        if (after && !before) {
+            visitor.nodeEntered(node);
+        } else if (before && !after) {
+            visitor.nodeLeft(node);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.manager;
+
+import com.graphaware.common.policy.InclusionPolicies;
+import com.graphaware.common.policy.none.IncludeNoNodes;
+import com.graphaware.common.policy.none.IncludeNoRelationships;
+import com.graphaware.runtime.module.InitializationVisitor;
+import com.graphaware.runtime.module.TxDrivenModule;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.NotFoundException;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.GraphDatabaseAPI;
+import org.neo4j.kernel.impl.store.NeoStore;
+import org.neo4j.kernel.impl.transaction.state.NeoStoreProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A single scan of the graph, during which every node and every relationship is read once and handed to the
+ * {@link InitializationVisitor}s of all {@link TxDrivenModule}s whose {@link InclusionPolicies} include it.
+ * <p/>
+ * The node store and the relationship store are scanned one after the other, each by a number of threads reading
+ * consecutive batches of IDs, one transaction per batch. When a visitor throws an exception, the scan stops and the
+ * exception is re-thrown.
+ */
+public class StoreScanner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StoreScanner.class);
+
+    private final GraphDatabaseService database;
+    private final int threads;
+    private final int batchSize;
+
+    /**
+     * Construct a new scanner.
+     *
+     * @param database  to scan.
+     * @param threads   number of threads scanning each store.
+     * @param batchSize number of entities read in a single transaction.
+     */
+    public StoreScanner(GraphDatabaseService database, int threads, int batchSize) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+
+        this.database = database;
+        this.threads = threads;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Scan the graph.
+     *
+     * @param visitors visitors of modules, keyed by the modules.
+     */
+    public void scan(Map<? extends TxDrivenModule, InitializationVisitor> visitors) {
+        List<Participant> participants = new ArrayList<>();
+        for (Map.Entry<? extends TxDrivenModule, InitializationVisitor> entry : visitors.entrySet()) {
+            participants.add(new Participant(entry.getKey().getConfiguration().getInclusionPolicies(), entry.getValue()));
+        }
+
+        scan(participants);
+    }
+
+    /**
+     * Scan the graph for a single visitor, which is handed the entities included by the given policies.
+     *
+     * @param policies deciding which entities to visit.
+     * @param visitor  visitor.
+     */
+    public void scan(InclusionPolicies policies, InitializationVisitor visitor) {
+        scan(Collections.singletonList(new Participant(policies, visitor)));
+    }
+
+    private void scan(List<Participant> participants) {
+        final List<Participant> nodeParticipants = new ArrayList<>();
+        final List<Participant> relationshipParticipants = new ArrayList<>();
+
+        for (Participant participant : participants) {
+            if (participant.visitor.visitsNodes() && !(participant.policies.getNodeInclusionPolicy() instanceof IncludeNoNodes)) {
+                nodeParticipants.add(participant);
+            }
+
+            if (participant.visitor.visitsRelationships() && !(participant.policies.getRelationshipInclusionPolicy() instanceof IncludeNoRelationships)) {
+                relationshipParticipants.add(participant);
+            }
+        }
+
+        for (Participant participant : participants) {
+            participant.visitor.beforeScan();
+        }
+
+        NeoStore neoStore = ((GraphDatabaseAPI) database).getDependencyResolver().resolveDependency(NeoStoreProvider.class).evaluate();
+
+        if (!nodeParticipants.isEmpty()) {
+            LOG.info("Scanning nodes for " + nodeParticipants.size() + " module(s)...");
+            scan(neoStore.getNodeStore().getHighestPossibleIdInUse(), new EntityVisit() {
+                @Override
+                public void visit(long id) {
+                    Node node;
+                    try {
+                        node = database.getNodeById(id);
+                    } catch (NotFoundException e) {
+                        return;
+                    }
+
+                    for (Participant participant : nodeParticipants) {
+                        if (participant.policies.getNodeInclusionPolicy().include(node)) {
+                            participant.visitor.visit(node);
+                        }
+                    }
+                }
+            });
+        }
+
+        if (!relationshipParticipants.isEmpty()) {
+            LOG.info("Scanning relationships for " + relationshipParticipants.size() + " module(s)...");
+            scan(neoStore.getRelationshipStore().getHighestPossibleIdInUse(), new EntityVisit() {
+                @Override
+                public void visit(long id) {
+                    Relationship relationship;
+                    try {
+                        relationship = database.getRelationshipById(id);
+                    } catch (NotFoundException e) {
+                        return;
+                    }
+
+                    for (Participant participant : relationshipParticipants) {
+                        if (participant.policies.getRelationshipInclusionPolicy().include(relationship)) {
+                            participant.visitor.visit(relationship);
+                        }
+                    }
+                }
+            });
+        }
+
+        for (Participant participant : participants) {
+            participant.visitor.afterScan();
+        }
+    }
+
+    /**
+     * Scan a range of IDs from 0 to the given highest ID (inclusive) in batches.
+     *
+     * @param highestId highest ID to visit.
+     * @param visit     visit of a single entity.
+     */
+    private void scan(final long highestId, final EntityVisit visit) {
+        final AtomicLong nextBatch = new AtomicLong(0);
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+        Runnable worker = new Runnable() {
+            @Override
+            public void run() {
+                long from;
+                while (failure.get() == null && (from = nextBatch.getAndAdd(batchSize)) <= highestId) {
+                    long to = Math.min(from + batchSize - 1, highestId);
+                    try (Transaction tx = database.beginTx()) {
+                        for (long id = from; id <= to; id++) {
+                            visit.visit(id);
+                        }
+                        tx.success();
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            }
+        };
+
+        long start = System.currentTimeMillis();
+        int poolSize = (int) Math.min(threads, highestId / batchSize + 1);
+
+        if (poolSize <= 1) {
+            worker.run();
+        } else {
+            ExecutorService executor = createPool(poolSize);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < poolSize; i++) {
+                futures.add(executor.submit(worker));
+            }
+
+            try {
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (Exception e) {
+                failure.compareAndSet(null, new RuntimeException(e));
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+
+        LOG.info("Scanned " + (highestId + 1) + " IDs using " + Math.max(1, poolSize) + " thread(s) in " + (System.currentTimeMillis() - start) + " ms.");
+    }
+
+    private ExecutorService createPool(int poolSize) {
+        final AtomicInteger threadNumber = new AtomicInteger(0);
+        return Executors.newFixedThreadPool(poolSize, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "GraphAware-Scanner-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Visit of a single entity by all interested visitors.
+     */
+    private interface EntityVisit {
+
+        void visit(long id);
+    }
+
+    /**
+     * A module's visitor along with the module's inclusion policies.
+     */
+    private static class Participant {
+
+        private final InclusionPolicies policies;
+        private final InitializationVisitor visitor;
+
+        private Participant(InclusionPolicies policies, InitializationVisitor visitor) {
+            this.policies = policies;
+            this.visitor = visitor;
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package com.graphaware.runtime.manager;
 
 import com.graphaware.runtime.module.TxDrivenModule;
+import com.graphaware.runtime.profile.TxDrivenProfiler;
 import com.graphaware.tx.event.improved.data.TransactionDataContainer;
 
 import java.util.Map;
@@ -47,4 +48,11 @@ public interface TxDrivenModuleManager<T extends TxDrivenModule> extends ModuleM
      * @param states returned by {@link #beforeCommit(com.graphaware.tx.event.improved.data.TransactionDataContainer)}.
      */
     void afterRollback(Map<String, Object> states);
+
+    /**
+     * Get the profiler of the managed modules.
+     *
+     * @return profiler.
+     */
+    TxDrivenProfiler getProfiler();
 }
@@ -26,19 +26,29 @@ import org.neo4j.graphdb.GraphDatabaseService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * {@link ModuleMetadataRepository} backed by a {@link org.neo4j.kernel.impl.core.GraphProperties}.
+ * <p/>
+ * Metadata of each module is stored in a single graph property, which is looked up directly by its key. Deserialized
+ * metadata is cached in memory, together with its serialized form, and the cache is written through when metadata is
+ * persisted. The cache never holds the instance passed to {@link #persistModuleMetadata(String, ModuleMetadata)}, but a
+ * copy deserialized from what has actually been persisted, so callers mutating their instance afterwards can't corrupt
+ * it. The graph property remains the source of truth: cached metadata is only returned when its serialized form is
+ * equal to the current value of the property, so metadata persisted in a transaction that is later rolled back is never
+ * returned.
  */
 public class GraphPropertiesMetadataRepository implements ModuleMetadataRepository {
 
     private static final Logger LOG = LoggerFactory.getLogger(GraphPropertiesMetadataRepository.class);
     private final KeyValueStore keyValueStore;
     private final String propertyPrefix;
+    private final ConcurrentMap<String, CachedMetadata> cache = new ConcurrentHashMap<>();
 
     /**
      * Create a new repository.
@@ -67,16 +77,19 @@ public class GraphPropertiesMetadataRepository implements ModuleMetadataReposito
     public <M extends ModuleMetadata> M getModuleMetadata(String moduleId) {
         final String key = moduleKey(moduleId);
 
-        Map<String, Object> internalProperties = getInternalProperties(keyValueStore);
-
         try {
-            byte[] serializedMetadata = (byte[]) internalProperties.get(key);
-
-            if (serializedMetadata == null) {
+            if (!keyValueStore.hasKey(key)) {
                 return null;
             }
 
-            return Serializer.fromByteArray(serializedMetadata);
+            byte[] serializedMetadata = (byte[]) keyValueStore.get(key);
+
+            CachedMetadata cached = cache.get(moduleId);
+            if (cached == null || !cached.isSerializedAs(serializedMetadata)) {
+                cached = cache(moduleId, serializedMetadata);
+            }
+
+            return cached.getMetadata();
         } catch (Exception e) {
             removeModuleMetadata(moduleId);
             LOG.error("Could not deserialize metadata for module ID " + moduleId);
@@ -97,7 +110,22 @@ public class GraphPropertiesMetadataRepository implements ModuleMetadataReposito
      */
     @Override
     public <M extends ModuleMetadata> void persistModuleMetadata(String moduleId, M metadata) {
-        keyValueStore.set(moduleKey(moduleId), Serializer.toByteArray(metadata));
+        byte[] serializedMetadata = Serializer.toByteArray(metadata);
+        keyValueStore.set(moduleKey(moduleId), serializedMetadata);
+        cache(moduleId, serializedMetadata);
+    }
+
+    /**
+     * Deserialize metadata and cache it.
+     *
+     * @param moduleId           ID of the module the metadata belongs to.
+     * @param serializedMetadata metadata to deserialize.
+     * @return cached metadata.
+     */
+    private CachedMetadata cache(String moduleId, byte[] serializedMetadata) {
+        CachedMetadata cached = new CachedMetadata(serializedMetadata, Serializer.<ModuleMetadata>fromByteArray(serializedMetadata));
+        cache.put(moduleId, cached);
+        return cached;
     }
 
     /**
@@ -106,8 +134,10 @@ public class GraphPropertiesMetadataRepository implements ModuleMetadataReposito
     @Override
     public Set<String> getAllModuleIds() {
         Set<String> result = new HashSet<>();
-        for (String key : getInternalProperties(keyValueStore).keySet()) {
-            result.add(key.replace(propertyPrefix, ""));
+        for (String key : keyValueStore.getKeys()) {
+            if (key.startsWith(propertyPrefix)) {
+                result.add(key.substring(propertyPrefix.length()));
+            }
         }
         return result;
     }
@@ -118,22 +148,7 @@ public class GraphPropertiesMetadataRepository implements ModuleMetadataReposito
     @Override
     public void removeModuleMetadata(String moduleId) {
         keyValueStore.remove(moduleKey(moduleId));
-    }
-
-    /**
-     * Get properties starting with {@link #propertyPrefix} from a {@link com.graphaware.common.kv.KeyValueStore}.
-     *
-     * @param keyValueStore {@link KeyValueStore} to get properties from.
-     * @return map of properties (key-value).
-     */
-    private Map<String, Object> getInternalProperties(KeyValueStore keyValueStore) {
-        Map<String, Object> result = new HashMap<>();
-        for (String key : keyValueStore.getKeys()) {
-            if (key.startsWith(propertyPrefix)) {
-                result.put(key, keyValueStore.get(key));
-            }
-        }
-        return result;
+        cache.remove(moduleId);
     }
 
     /**
@@ -145,4 +160,27 @@ public class GraphPropertiesMetadataRepository implements ModuleMetadataReposito
     protected final String moduleKey(String moduleId) {
         return propertyPrefix + moduleId;
     }
+
+    /**
+     * Deserialized metadata together with its serialized form.
+     */
+    private static class CachedMetadata {
+
+        private final byte[] serializedMetadata;
+        private final ModuleMetadata metadata;
+
+        private CachedMetadata(byte[] serializedMetadata, ModuleMetadata metadata) {
+            this.serializedMetadata = serializedMetadata;
+            this.metadata = metadata;
+        }
+
+        private boolean isSerializedAs(byte[] serializedMetadata) {
+            return this.serializedMetadata == serializedMetadata || Arrays.equals(this.serializedMetadata, serializedMetadata);
+        }
+
+        @SuppressWarnings("unchecked")
+        private <M extends ModuleMetadata> M getMetadata() {
+            return (M) metadata;
+        }
+    }
 }
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.module;
+
+import com.graphaware.runtime.config.AsyncAfterCommitConfiguration;
+
+/**
+ * A {@link TxDrivenModule} whose {@link #afterCommit(Object)} is not called by the committing thread, but enqueued
+ * to a bounded executor dedicated to this module, so that slow after-commit work (cache refreshes, notifications, ...)
+ * does not add to the commit latency seen by clients.
+ * <p/>
+ * Note that the state returned from {@link #beforeCommit(com.graphaware.tx.event.improved.api.ImprovedTransactionData)}
+ * is used after the transaction has finished and possibly from a different thread. It must therefore not reference
+ * any objects only valid within the transaction, such as the {@link com.graphaware.tx.event.improved.api.ImprovedTransactionData}
+ * itself. Use {@link com.graphaware.tx.event.improved.detached.DetachedTransactionData} if needed.
+ * <p/>
+ * {@link #afterRollback(Object)} is still called synchronously.
+ *
+ * @param <T> The type of a state object that the module can use to pass information from the
+ *            {@link #beforeCommit(com.graphaware.tx.event.improved.api.ImprovedTransactionData)} method to the
+ *            {@link #afterCommit(Object)} method.
+ */
+public interface AsyncTxDrivenModule<T> extends TxDrivenModule<T> {
+
+    /**
+     * Get the configuration of asynchronous after-commit execution for this module. Only read once when the runtime starts.
+     *
+     * @return configuration, must not be <code>null</code>.
+     */
+    AsyncAfterCommitConfiguration getAsyncAfterCommitConfiguration();
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.module;
+
+import com.graphaware.tx.event.improved.detached.DetachedTransactionData;
+
+/**
+ * A {@link TxDrivenModule} that can be (re-)initialized in the background, after the runtime has started, when enabled
+ * by {@link com.graphaware.runtime.config.InitializationConfiguration#isBackground()}. This makes the database usable
+ * immediately, even if the module takes a long time to initialize.
+ * <p/>
+ * While such a module is being initialized, neither {@link #beforeCommit(com.graphaware.tx.event.improved.api.ImprovedTransactionData)}
+ * nor {@link #afterCommit(Object)} are called. Instead, the (filtered) changes of committed transactions are buffered
+ * and passed to {@link #replay(DetachedTransactionData)} once the initialization has finished and the module has been
+ * started. Since the initialization runs concurrently with the transactions, a replayed change may already have been
+ * seen by the initialization, i.e. changes are delivered at least once and the module must make sure that processing
+ * them twice has no undesired effects. Transactions run during the initialization and the replay of buffered changes
+ * by the initializing thread are not seen by the modules at all.
+ * <p/>
+ * When too many transactions commit during the initialization (see {@link com.graphaware.runtime.config.InitializationConfiguration#getReplayBufferSize()}),
+ * or when the initialization fails, the module is bypassed until the database restarts, and re-initialized then.
+ * A module is only initialized in the background if no module initialized before the runtime starts depends on it.
+ *
+ * @param <T> The type of a state object that the module can use to pass information from the
+ *            {@link #beforeCommit(com.graphaware.tx.event.improved.api.ImprovedTransactionData)} method to the
+ *            {@link #afterCommit(Object)} method.
+ */
+public interface BackgroundInitializedTxDrivenModule<T> extends TxDrivenModule<T> {
+
+    /**
+     * Process changes committed while the module was being initialized in the background. Called after the module has
+     * been initialized and started, outside of any transaction, once per committed transaction that has mutated
+     * something the module is interested in. Can be called by different threads concurrently.
+     *
+     * @param changes committed changes, filtered by the module's inclusion policies.
+     */
+    void replay(DetachedTransactionData changes);
+}
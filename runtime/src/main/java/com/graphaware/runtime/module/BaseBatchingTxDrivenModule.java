@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.module;
+
+import com.graphaware.runtime.config.BatchingConfiguration;
+import com.graphaware.tx.event.improved.api.ImprovedTransactionData;
+import com.graphaware.tx.event.improved.detached.DetachedTransactionData;
+
+/**
+ * Base class for {@link BatchingTxDrivenModule} implementations. Detaches the filtered transaction data in
+ * {@link #beforeCommit(ImprovedTransactionData)}.
+ */
+public abstract class BaseBatchingTxDrivenModule extends BaseTxDrivenModule<DetachedTransactionData> implements BatchingTxDrivenModule {
+
+    /**
+     * Construct a new module.
+     *
+     * @param moduleId ID of this module.
+     */
+    protected BaseBatchingTxDrivenModule(String moduleId) {
+        super(moduleId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DetachedTransactionData beforeCommit(ImprovedTransactionData transactionData) throws DeliberateTransactionRollbackException {
+        return DetachedTransactionData.of(transactionData);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BatchingConfiguration getBatchingConfiguration() {
+        return BatchingConfiguration.defaultConfiguration();
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.module;
+
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+
+/**
+ * Base-class for {@link InitializationVisitor}s, which visits neither nodes nor relationships and does nothing before
+ * and after the scan. Subclasses override what they need.
+ */
+public abstract class BaseInitializationVisitor implements InitializationVisitor {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void beforeScan() {
+        //for subclasses
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean visitsNodes() {
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean visitsRelationships() {
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void visit(Node node) {
+        //for subclasses
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void visit(Relationship relationship) {
+        //for subclasses
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void afterScan() {
+        //for subclasses
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.module;
+
+import com.graphaware.runtime.config.BatchingConfiguration;
+import com.graphaware.tx.event.improved.detached.DetachedTransactionData;
+
+/**
+ * A {@link TxDrivenModule} that only needs eventual consistency and processes the (filtered) changes of many committed
+ * transactions at once, rather than one transaction at a time. This amortizes fixed per-transaction costs, such as
+ * looking up a counter node, over many small transactions.
+ * <p/>
+ * The change-set returned from {@link #beforeCommit(com.graphaware.tx.event.improved.api.ImprovedTransactionData)} of
+ * every committed transaction is collected by the framework and merged with the change-sets of other transactions
+ * committed within the window defined by {@link #getBatchingConfiguration()} (see {@link com.graphaware.tx.event.improved.detached.DetachedTransactionDataMerger}
+ * for merging semantics). The merged change-set is then passed to {@link #processBatch(DetachedTransactionData)},
+ * which runs in a background thread, within a transaction started by the framework.
+ * <p/>
+ * {@link #afterCommit(Object)} of batching modules is not called by the framework. When the database shuts down, the
+ * batch of the last open window can only be delivered if the database still accepts transactions; modules must
+ * therefore tolerate losing it. Note that writes performed while processing a batch are transactions like any other,
+ * so the module's inclusion policies should normally exclude them.
+ *
+ * @see BaseBatchingTxDrivenModule
+ */
+public interface BatchingTxDrivenModule extends TxDrivenModule<DetachedTransactionData> {
+
+    /**
+     * Get the configuration of the coalescing window for this module. Only read once when the runtime starts.
+     *
+     * @return configuration, must not be <code>null</code>.
+     */
+    BatchingConfiguration getBatchingConfiguration();
+
+    /**
+     * Process a batch of changes. Called from a background thread, within a transaction that is committed unless this
+     * method throws an exception. Batches are delivered one at a time, in commit order.
+     *
+     * @param batch merged changes of all transactions committed within a single window.
+     */
+    void processBatch(DetachedTransactionData batch);
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.module;
+
+import com.graphaware.runtime.config.TxDrivenModuleConfiguration;
+import org.neo4j.graphdb.GraphDatabaseService;
+
+/**
+ * A {@link TxDrivenModule} that can be re-initialized incrementally when the only thing that has changed about its
+ * configuration since it last ran is which nodes and/or relationships it is interested in. Instead of calling
+ * {@link #reinitialize(org.neo4j.graphdb.GraphDatabaseService, com.graphaware.runtime.metadata.TxDrivenModuleMetadata)},
+ * the runtime then finds the entities that have entered or left the scope of the module's node and relationship
+ * inclusion policies, and hands only those to the module's {@link ScopeChangeVisitor}.
+ * <p/>
+ * The runtime only takes this route if the old and the new configuration are equal apart from their node and relationship
+ * inclusion policies, which requires configurations extending {@link com.graphaware.runtime.config.BaseTxDrivenModuleConfiguration}.
+ * Nodes are found using label scans when both the old and the new node inclusion policy only include nodes with a
+ * specific label (see {@link com.graphaware.common.policy.fluent.IncludeNodes#with(String)}); otherwise, all nodes are read.
+ * Relationships are only read when the relationship inclusion policy has changed, in which case all of them are read.
+ *
+ * @param <T> The type of a state object that the module can use to pass information from the
+ *            {@link #beforeCommit(com.graphaware.tx.event.improved.api.ImprovedTransactionData)} method to the
+ *            {@link #afterCommit(Object)} method.
+ */
+public interface IncrementallyReinitializedTxDrivenModule<T> extends TxDrivenModule<T> {
+
+    /**
+     * Create a visitor that will re-initialize this module incrementally.
+     *
+     * @param database         to re-initialize this module for.
+     * @param oldConfiguration configuration the module ran with last time. The new one is {@link #getConfiguration()}.
+     * @return visitor, must not be <code>null</code>.
+     */
+    ScopeChangeVisitor createScopeChangeVisitor(GraphDatabaseService database, TxDrivenModuleConfiguration oldConfiguration);
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.module;
+
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+
+/**
+ * Visitor of nodes and relationships, through which a {@link ScanInitializedTxDrivenModule} initializes itself during
+ * a scan of the graph shared with other such modules. Only entities included by the module's
+ * {@link com.graphaware.common.policy.InclusionPolicies} are visited.
+ * <p/>
+ * The visit methods are called by multiple threads concurrently, each in a transaction covering a batch of entities,
+ * so implementations must be thread-safe.
+ */
+public interface InitializationVisitor {
+
+    /**
+     * Called once before the scan starts, e.g. to remove any data written to the graph by a previous run of the module.
+     * No transaction is running for the visitor, it has to start its own.
+     */
+    void beforeScan();
+
+    /**
+     * Does this visitor want to visit nodes?
+     *
+     * @return true iff {@link #visit(org.neo4j.graphdb.Node)} should be called.
+     */
+    boolean visitsNodes();
+
+    /**
+     * Does this visitor want to visit relationships?
+     *
+     * @return true iff {@link #visit(org.neo4j.graphdb.Relationship)} should be called.
+     */
+    boolean visitsRelationships();
+
+    /**
+     * Visit a node included by the module's inclusion policies.
+     *
+     * @param node to visit.
+     */
+    void visit(Node node);
+
+    /**
+     * Visit a relationship included by the module's inclusion policies.
+     *
+     * @param relationship to visit.
+     */
+    void visit(Relationship relationship);
+
+    /**
+     * Called once after all nodes and relationships have been visited. No transaction is running for the visitor.
+     */
+    void afterScan();
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.module;
+
+import com.graphaware.runtime.config.TickConfiguration;
+import com.graphaware.runtime.metadata.TimerDrivenModuleContext;
+
+/**
+ * A {@link TimerDrivenModule} whose unit of work is so small that the overhead of a transaction and of persisting its
+ * context would dominate if only one unit was performed per tick.
+ * <p/>
+ * In each tick, the runtime calls {@link #doSomeWork(TimerDrivenModuleContext, org.neo4j.graphdb.GraphDatabaseService)}
+ * repeatedly within a single transaction, passing in the context returned by the previous call, until the budget defined
+ * by {@link #getTickConfiguration()} is used up, or until the returned context's
+ * {@link TimerDrivenModuleContext#earliestNextCall()} is in the future. Only the final context is persisted. If any
+ * of the calls throws an exception, the work of the whole tick is rolled back and the next tick starts from the last
+ * persisted context.
+ *
+ * @param <C> type of the context.
+ */
+public interface MultiStepTimerDrivenModule<C extends TimerDrivenModuleContext> extends TimerDrivenModule<C> {
+
+    /**
+     * Get the configuration of a single tick. Only read once when the runtime starts.
+     *
+     * @return tick configuration.
+     */
+    TickConfiguration getTickConfiguration();
+}
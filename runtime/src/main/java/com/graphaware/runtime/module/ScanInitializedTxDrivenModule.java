@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.module;
+
+import com.graphaware.runtime.metadata.TxDrivenModuleMetadata;
+import org.neo4j.graphdb.GraphDatabaseService;
+
+/**
+ * A {@link TxDrivenModule} that (re-)initializes itself by visiting nodes and/or relationships, rather than by
+ * iterating over the graph on its own. When more modules like this need to be (re-)initialized at the same time, the
+ * runtime scans the graph once for all of them, fanning each entity out to the visitors of all the modules whose
+ * inclusion policies include it.
+ * <p/>
+ * {@link #initialize(org.neo4j.graphdb.GraphDatabaseService)} and
+ * {@link #reinitialize(org.neo4j.graphdb.GraphDatabaseService, com.graphaware.runtime.metadata.TxDrivenModuleMetadata)}
+ * are not called for modules implementing this interface.
+ *
+ * @param <T> The type of a state object that the module can use to pass information from the
+ *            {@link #beforeCommit(com.graphaware.tx.event.improved.api.ImprovedTransactionData)} method to the
+ *            {@link #afterCommit(Object)} method.
+ */
+public interface ScanInitializedTxDrivenModule<T> extends TxDrivenModule<T> {
+
+    /**
+     * Create a visitor that will (re-)initialize this module.
+     *
+     * @param database    to initialize this module for.
+     * @param oldMetadata metadata stored for this module from its previous run in case of re-initialization,
+     *                    <code>null</code> in case the module is initialized for the first time, or its metadata was corrupt.
+     * @return visitor, must not be <code>null</code>.
+     */
+    InitializationVisitor createInitializationVisitor(GraphDatabaseService database, TxDrivenModuleMetadata oldMetadata);
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.module;
+
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+
+/**
+ * Visitor of nodes and relationships that have entered or left the scope of a module's inclusion policies, because the
+ * policies have changed since the module last ran. Used to re-initialize {@link IncrementallyReinitializedTxDrivenModule}s.
+ * <p/>
+ * Entities are visited within transactions, in batches, possibly by multiple threads concurrently. Implementations must
+ * therefore be thread-safe.
+ */
+public interface ScopeChangeVisitor {
+
+    /**
+     * Called once before any entity is visited.
+     */
+    void beforeScan();
+
+    /**
+     * Visit a node that is included by the new node inclusion policy, but was not included by the old one.
+     *
+     * @param node that has entered the scope.
+     */
+    void nodeEntered(Node node);
+
+    /**
+     * Visit a node that was included by the old node inclusion policy, but is not included by the new one.
+     *
+     * @param node that has left the scope.
+     */
+    void nodeLeft(Node node);
+
+    /**
+     * Visit a relationship that is included by the new relationship inclusion policy, but was not included by the old one.
+     *
+     * @param relationship that has entered the scope.
+     */
+    void relationshipEntered(Relationship relationship);
+
+    /**
+     * Visit a relationship that was included by the old relationship inclusion policy, but is not included by the new one.
+     *
+     * @param relationship that has left the scope.
+     */
+    void relationshipLeft(Relationship relationship);
+
+    /**
+     * Called once after all entities have been visited, outside of any transaction.
+     */
+    void afterScan();
+}
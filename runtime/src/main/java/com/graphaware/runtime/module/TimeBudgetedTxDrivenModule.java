@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.module;
+
+import com.graphaware.runtime.config.TimeBudgetConfiguration;
+
+/**
+ * A {@link TxDrivenModule} whose {@link #beforeCommit(com.graphaware.tx.event.improved.api.ImprovedTransactionData)}
+ * has a time budget, guarded by a circuit breaker. A module that keeps exceeding its budget, e.g. because it has run
+ * into a supernode, is bypassed for a while, so that it does not slow down every write transaction in the database.
+ * <p/>
+ * A bypassed module misses transactions, so it is marked as needing re-initialization (see
+ * {@link com.graphaware.runtime.metadata.TxDrivenModuleMetadata#markedNeedingInitialization()}) and will be
+ * re-initialized the next time the database starts, even if it has been re-enabled in the meantime.
+ *
+ * @param <T> The type of a state object that the module can use to pass information from the
+ *            {@link #beforeCommit(com.graphaware.tx.event.improved.api.ImprovedTransactionData)} method to the
+ *            {@link #afterCommit(Object)} method.
+ */
+public interface TimeBudgetedTxDrivenModule<T> extends TxDrivenModule<T> {
+
+    /**
+     * Get the configuration of the time budget and circuit breaker for this module. Only read once when the runtime starts.
+     *
+     * @return configuration, must not be <code>null</code>.
+     */
+    TimeBudgetConfiguration getTimeBudgetConfiguration();
+}
@@ -97,6 +97,11 @@ public interface TxDrivenModule<T> extends RuntimeModule {
      * the method returns, the graph is in the same state as it would be if the module has been running all the time
      * since the graph was empty.
      * <p/>
+     * This method is called within the transaction starting the runtime, unless the runtime is configured to initialize
+     * more modules at the same time (see {@link com.graphaware.runtime.config.InitializationConfiguration}). In that case,
+     * it is called by a thread other than the one starting the database, which runs no transaction, concurrently with the
+     * initialization of other modules, so any writes must be performed in transactions opened by this method. Implement
+     * {@link DependentModule} if it must run after the initialization of other modules.
      *
      * @param database to initialize this module for.
      */
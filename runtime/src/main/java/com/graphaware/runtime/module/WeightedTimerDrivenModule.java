@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.module;
+
+import com.graphaware.runtime.metadata.TimerDrivenModuleContext;
+
+/**
+ * A {@link TimerDrivenModule} declaring its share of the time the runtime spends delegating work to timer-driven
+ * modules. Only honoured with {@link com.graphaware.runtime.schedule.SchedulingPolicy#WEIGHTED_FAIR} scheduling.
+ * Modules that do not implement this interface have a share of {@link #DEFAULT_SHARE}.
+ *
+ * @param <C> type of the context.
+ */
+public interface WeightedTimerDrivenModule<C extends TimerDrivenModuleContext> extends TimerDrivenModule<C> {
+
+    /**
+     * Share of modules that do not declare one.
+     */
+    int DEFAULT_SHARE = 100;
+
+    /**
+     * Get the share of this module. A module with twice the share of another module gets twice as much time, provided
+     * both always have work to do. Only read once when the runtime starts.
+     *
+     * @return share, must be positive.
+     */
+    int getShare();
+}
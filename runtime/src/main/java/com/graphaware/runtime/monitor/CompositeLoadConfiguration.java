@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.monitor;
+
+/**
+ * Immutable configuration of the busy thresholds and weights of the monitors contained in a
+ * {@link CompositeLoadMonitor} created by {@link CompositeLoadMonitor#create(org.neo4j.graphdb.GraphDatabaseService, int, int, CompositeLoadConfiguration)}.
+ * Each threshold is expressed in the units of the respective monitor; see
+ * {@link CompositeLoadMonitor#withMonitor(DatabaseLoadMonitor, long, double)} for the meaning of thresholds and weights.
+ */
+public final class CompositeLoadConfiguration {
+
+    private final long cpuThreshold;
+    private final long gcThreshold;
+    private final long pageFaultThreshold;
+    private final long commitThreshold;
+    private final long activeTxThreshold;
+    private final double cpuWeight;
+    private final double gcWeight;
+    private final double pageFaultWeight;
+    private final double commitWeight;
+    private final double activeTxWeight;
+
+    /**
+     * Create a new instance of this configuration with default values, which are:
+     * <ul>
+     * <li>CPU threshold = 80 % CPU</li>
+     * <li>GC threshold = 100 ms of garbage collection per second</li>
+     * <li>page fault threshold = 1,000 page cache faults per second</li>
+     * <li>commit threshold = 100 committed transactions per second</li>
+     * <li>active transaction threshold = 10 running transactions</li>
+     * </ul>
+     * all with weight 1.
+     *
+     * @return default configuration.
+     */
+    public static CompositeLoadConfiguration defaultConfiguration() {
+        return new CompositeLoadConfiguration(80, 100, 1_000, 100, 10, 1, 1, 1, 1, 1);
+    }
+
+    private CompositeLoadConfiguration(long cpuThreshold, long gcThreshold, long pageFaultThreshold, long commitThreshold, long activeTxThreshold,
+                                       double cpuWeight, double gcWeight, double pageFaultWeight, double commitWeight, double activeTxWeight) {
+        if (cpuThreshold <= 0 || gcThreshold <= 0 || pageFaultThreshold <= 0 || commitThreshold <= 0 || activeTxThreshold <= 0) {
+            throw new IllegalArgumentException("Busy thresholds must be positive");
+        }
+
+        if (cpuWeight <= 0 || gcWeight <= 0 || pageFaultWeight <= 0 || commitWeight <= 0 || activeTxWeight <= 0) {
+            throw new IllegalArgumentException("Weights must be positive");
+        }
+
+        this.cpuThreshold = cpuThreshold;
+        this.gcThreshold = gcThreshold;
+        this.pageFaultThreshold = pageFaultThreshold;
+        this.commitThreshold = commitThreshold;
+        this.activeTxThreshold = activeTxThreshold;
+        this.cpuWeight = cpuWeight;
+        this.gcWeight = gcWeight;
+        this.pageFaultWeight = pageFaultWeight;
+        this.commitWeight = commitWeight;
+        this.activeTxWeight = activeTxWeight;
+    }
+
+    /**
+     * Returns a copy of this configuration with the given threshold of {@link ProcessCpuLoadMonitor}.
+     *
+     * @param cpuThreshold percent of CPU at which the database is deemed busy. Must be positive.
+     * @return A new {@link CompositeLoadConfiguration}.
+     */
+    public CompositeLoadConfiguration withCpuThreshold(long cpuThreshold) {
+        return new CompositeLoadConfiguration(cpuThreshold, gcThreshold, pageFaultThreshold, commitThreshold, activeTxThreshold, cpuWeight, gcWeight, pageFaultWeight, commitWeight, activeTxWeight);
+    }
+
+    /**
+     * Returns a copy of this configuration with the given threshold of {@link GcPauseBasedLoadMonitor}.
+     *
+     * @param gcThreshold ms of garbage collection per second at which the database is deemed busy. Must be positive.
+     * @return A new {@link CompositeLoadConfiguration}.
+     */
+    public CompositeLoadConfiguration withGcThreshold(long gcThreshold) {
+        return new CompositeLoadConfiguration(cpuThreshold, gcThreshold, pageFaultThreshold, commitThreshold, activeTxThreshold, cpuWeight, gcWeight, pageFaultWeight, commitWeight, activeTxWeight);
+    }
+
+    /**
+     * Returns a copy of this configuration with the given threshold of {@link PageCacheFaultBasedLoadMonitor}.
+     *
+     * @param pageFaultThreshold page cache faults per second at which the database is deemed busy. Must be positive.
+     * @return A new {@link CompositeLoadConfiguration}.
+     */
+    public CompositeLoadConfiguration withPageFaultThreshold(long pageFaultThreshold) {
+        return new CompositeLoadConfiguration(cpuThreshold, gcThreshold, pageFaultThreshold, commitThreshold, activeTxThreshold, cpuWeight, gcWeight, pageFaultWeight, commitWeight, activeTxWeight);
+    }
+
+    /**
+     * Returns a copy of this configuration with the given threshold of {@link CommittedTxBasedLoadMonitor}.
+     *
+     * @param commitThreshold committed transactions per second at which the database is deemed busy. Must be positive.
+     * @return A new {@link CompositeLoadConfiguration}.
+     */
+    public CompositeLoadConfiguration withCommitThreshold(long commitThreshold) {
+        return new CompositeLoadConfiguration(cpuThreshold, gcThreshold, pageFaultThreshold, commitThreshold, activeTxThreshold, cpuWeight, gcWeight, pageFaultWeight, commitWeight, activeTxWeight);
+    }
+
+    /**
+     * Returns a copy of this configuration with the given threshold of {@link ActiveTxBasedLoadMonitor}.
+     *
+     * @param activeTxThreshold number of running transactions at which the database is deemed busy. Must be positive.
+     * @return A new {@link CompositeLoadConfiguration}.
+     */
+    public CompositeLoadConfiguration withActiveTxThreshold(long activeTxThreshold) {
+        return new CompositeLoadConfiguration(cpuThreshold, gcThreshold, pageFaultThreshold, commitThreshold, activeTxThreshold, cpuWeight, gcWeight, pageFaultWeight, commitWeight, activeTxWeight);
+    }
+
+    /**
+     * Returns a copy of this configuration with the given weight of {@link ProcessCpuLoadMonitor}.
+     *
+     * @param cpuWeight weight of the monitor. Must be positive.
+     * @return A new {@link CompositeLoadConfiguration}.
+     */
+    public CompositeLoadConfiguration withCpuWeight(double cpuWeight) {
+        return new CompositeLoadConfiguration(cpuThreshold, gcThreshold, pageFaultThreshold, commitThreshold, activeTxThreshold, cpuWeight, gcWeight, pageFaultWeight, commitWeight, activeTxWeight);
+    }
+
+    /**
+     * Returns a copy of this configuration with the given weight of {@link GcPauseBasedLoadMonitor}.
+     *
+     * @param gcWeight weight of the monitor. Must be positive.
+     * @return A new {@link CompositeLoadConfiguration}.
+     */
+    public CompositeLoadConfiguration withGcWeight(double gcWeight) {
+        return new CompositeLoadConfiguration(cpuThreshold, gcThreshold, pageFaultThreshold, commitThreshold, activeTxThreshold, cpuWeight, gcWeight, pageFaultWeight, commitWeight, activeTxWeight);
+    }
+
+    /**
+     * Returns a copy of this configuration with the given weight of {@link PageCacheFaultBasedLoadMonitor}.
+     *
+     * @param pageFaultWeight weight of the monitor. Must be positive.
+     * @return A new {@link CompositeLoadConfiguration}.
+     */
+    public CompositeLoadConfiguration withPageFaultWeight(double pageFaultWeight) {
+        return new CompositeLoadConfiguration(cpuThreshold, gcThreshold, pageFaultThreshold, commitThreshold, activeTxThreshold, cpuWeight, gcWeight, pageFaultWeight, commitWeight, activeTxWeight);
+    }
+
+    /**
+     * Returns a copy of this configuration with the given weight of {@link CommittedTxBasedLoadMonitor}.
+     *
+     * @param commitWeight weight of the monitor. Must be positive.
+     * @return A new {@link CompositeLoadConfiguration}.
+     */
+    public CompositeLoadConfiguration withCommitWeight(double commitWeight) {
+        return new CompositeLoadConfiguration(cpuThreshold, gcThreshold, pageFaultThreshold, commitThreshold, activeTxThreshold, cpuWeight, gcWeight, pageFaultWeight, commitWeight, activeTxWeight);
+    }
+
+    /**
+     * Returns a copy of this configuration with the given weight of {@link ActiveTxBasedLoadMonitor}.
+     *
+     * @param activeTxWeight weight of the monitor. Must be positive.
+     * @return A new {@link CompositeLoadConfiguration}.
+     */
+    public CompositeLoadConfiguration withActiveTxWeight(double activeTxWeight) {
+        return new CompositeLoadConfiguration(cpuThreshold, gcThreshold, pageFaultThreshold, commitThreshold, activeTxThreshold, cpuWeight, gcWeight, pageFaultWeight, commitWeight, activeTxWeight);
+    }
+
+    /**
+     * Get the threshold of {@link ProcessCpuLoadMonitor}.
+     *
+     * @return percent of CPU at which the database is deemed busy.
+     */
+    public long getCpuThreshold() {
+        return cpuThreshold;
+    }
+
+    /**
+     * Get the threshold of {@link GcPauseBasedLoadMonitor}.
+     *
+     * @return ms of garbage collection per second at which the database is deemed busy.
+     */
+    public long getGcThreshold() {
+        return gcThreshold;
+    }
+
+    /**
+     * Get the threshold of {@link PageCacheFaultBasedLoadMonitor}.
+     *
+     * @return page cache faults per second at which the database is deemed busy.
+     */
+    public long getPageFaultThreshold() {
+        return pageFaultThreshold;
+    }
+
+    /**
+     * Get the threshold of {@link CommittedTxBasedLoadMonitor}.
+     *
+     * @return committed transactions per second at which the database is deemed busy.
+     */
+    public long getCommitThreshold() {
+        return commitThreshold;
+    }
+
+    /**
+     * Get the threshold of {@link ActiveTxBasedLoadMonitor}.
+     *
+     * @return number of running transactions at which the database is deemed busy.
+     */
+    public long getActiveTxThreshold() {
+        return activeTxThreshold;
+    }
+
+    /**
+     * Get the weight of {@link ProcessCpuLoadMonitor}.
+     *
+     * @return weight.
+     */
+    public double getCpuWeight() {
+        return cpuWeight;
+    }
+
+    /**
+     * Get the weight of {@link GcPauseBasedLoadMonitor}.
+     *
+     * @return weight.
+     */
+    public double getGcWeight() {
+        return gcWeight;
+    }
+
+    /**
+     * Get the weight of {@link PageCacheFaultBasedLoadMonitor}.
+     *
+     * @return weight.
+     */
+    public double getPageFaultWeight() {
+        return pageFaultWeight;
+    }
+
+    /**
+     * Get the weight of {@link CommittedTxBasedLoadMonitor}.
+     *
+     * @return weight.
+     */
+    public double getCommitWeight() {
+        return commitWeight;
+    }
+
+    /**
+     * Get the weight of {@link ActiveTxBasedLoadMonitor}.
+     *
+     * @return weight.
+     */
+    public double getActiveTxWeight() {
+        return activeTxWeight;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("RedundantIfStatement")
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        CompositeLoadConfiguration that = (CompositeLoadConfiguration) o;
+
+        if (cpuThreshold != that.cpuThreshold) return false;
+        if (gcThreshold != that.gcThreshold) return false;
+        if (pageFaultThreshold != that.pageFaultThreshold) return false;
+        if (commitThreshold != that.commitThreshold) return false;
+        if (activeTxThreshold != that.activeTxThreshold) return false;
+        if (Double.compare(that.cpuWeight, cpuWeight) != 0) return false;
+        if (Double.compare(that.gcWeight, gcWeight) != 0) return false;
+        if (Double.compare(that.pageFaultWeight, pageFaultWeight) != 0) return false;
+        if (Double.compare(that.commitWeight, commitWeight) != 0) return false;
+        if (Double.compare(that.activeTxWeight, activeTxWeight) != 0) return false;
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        int result;
+        long temp;
+        result = (int) (cpuThreshold ^ (cpuThreshold >>> 32));
+        result = 31 * result + (int) (gcThreshold ^ (gcThreshold >>> 32));
+        result = 31 * result + (int) (pageFaultThreshold ^ (pageFaultThreshold >>> 32));
+        result = 31 * result + (int) (commitThreshold ^ (commitThreshold >>> 32));
+        result = 31 * result + (int) (activeTxThreshold ^ (activeTxThreshold >>> 32));
+        temp = Double.doubleToLongBits(cpuWeight);
+        result = 31 * result + (int) (temp ^ (temp >>> 32));
+        temp = Double.doubleToLongBits(gcWeight);
+        result = 31 * result + (int) (temp ^ (temp >>> 32));
+        temp = Double.doubleToLongBits(pageFaultWeight);
+        result = 31 * result + (int) (temp ^ (temp >>> 32));
+        temp = Double.doubleToLongBits(commitWeight);
+        result = 31 * result + (int) (temp ^ (temp >>> 32));
+        temp = Double.doubleToLongBits(activeTxWeight);
+        result = 31 * result + (int) (temp ^ (temp >>> 32));
+        return result;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.monitor;
+
+import com.graphaware.runtime.schedule.TimingStrategy;
+import org.neo4j.graphdb.GraphDatabaseService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link DatabaseLoadMonitor} combining a number of other monitors, which measure load in different units. Each
+ * contained monitor is registered with its own busy threshold (in its own units) and a weight. The load of each
+ * monitor is expressed as a percentage of its busy threshold, multiplied by its weight, and the highest of these is
+ * the load of the composite.
+ * <p/>
+ * Hence, the load is 100 when the busiest of the monitored resources is exactly at its threshold (with weight 1), which
+ * makes the composite directly usable with the default busy threshold of {@link com.graphaware.runtime.schedule.AdaptiveTimingStrategy}.
+ * Taking the maximum, rather than an average, means that a single saturated resource (e.g. the CPU during a GC storm)
+ * is enough for the database to be considered busy.
+ * <p/>
+ * Monitors returning {@link TimingStrategy#UNKNOWN} (or any negative value) are ignored. If all monitors do, the load
+ * is unknown.
+ * <p/>
+ * This class is immutable; use {@link #withMonitor(DatabaseLoadMonitor, long, double)} to build instances.
+ */
+public final class CompositeLoadMonitor implements DatabaseLoadMonitor {
+
+    private final List<WeightedMonitor> monitors;
+
+    /**
+     * Create a new composite monitor with default monitors, thresholds, and weights, which are:
+     * <ul>
+     * <li>{@link ProcessCpuLoadMonitor} with threshold of 80 % CPU</li>
+     * <li>{@link GcPauseBasedLoadMonitor} with threshold of 100 ms of garbage collection per second</li>
+     * <li>{@link PageCacheFaultBasedLoadMonitor} with threshold of 1,000 page faults per second</li>
+     * <li>{@link CommittedTxBasedLoadMonitor} with threshold of 100 committed transactions per second</li>
+     * <li>{@link ActiveTxBasedLoadMonitor} with threshold of 10 running transactions</li>
+     * </ul>
+     * all with weight 1.
+     *
+     * @param database   to monitor.
+     * @param maxSamples maximum number of samples of the rate-based monitors. See {@link RunningWindowAverage}.
+     * @param maxTime    maximum time span of the rate-based monitors. See {@link RunningWindowAverage}.
+     * @return composite monitor.
+     */
+    public static CompositeLoadMonitor defaultConfiguration(GraphDatabaseService database, int maxSamples, int maxTime) {
+        return create(database, maxSamples, maxTime, CompositeLoadConfiguration.defaultConfiguration());
+    }
+
+    /**
+     * Create a new composite monitor with the same monitors as {@link #defaultConfiguration(GraphDatabaseService, int, int)},
+     * using the given thresholds and weights.
+     *
+     * @param database      to monitor.
+     * @param maxSamples    maximum number of samples of the rate-based monitors. See {@link RunningWindowAverage}.
+     * @param maxTime       maximum time span of the rate-based monitors. See {@link RunningWindowAverage}.
+     * @param configuration thresholds and weights of the contained monitors.
+     * @return composite monitor.
+     */
+    public static CompositeLoadMonitor create(GraphDatabaseService database, int maxSamples, int maxTime, CompositeLoadConfiguration configuration) {
+        return new CompositeLoadMonitor()
+                .withMonitor(new ProcessCpuLoadMonitor(), configuration.getCpuThreshold(), configuration.getCpuWeight())
+                .withMonitor(new GcPauseBasedLoadMonitor(new RunningWindowAverage(maxSamples, maxTime)), configuration.getGcThreshold(), configuration.getGcWeight())
+                .withMonitor(new PageCacheFaultBasedLoadMonitor(database, new RunningWindowAverage(maxSamples, maxTime)), configuration.getPageFaultThreshold(), configuration.getPageFaultWeight())
+                .withMonitor(new CommittedTxBasedLoadMonitor(database, new RunningWindowAverage(maxSamples, maxTime)), configuration.getCommitThreshold(), configuration.getCommitWeight())
+                .withMonitor(new ActiveTxBasedLoadMonitor(database), configuration.getActiveTxThreshold(), configuration.getActiveTxWeight());
+    }
+
+    /**
+     * Create a new composite monitor with no contained monitors.
+     */
+    public CompositeLoadMonitor() {
+        this(Collections.<WeightedMonitor>emptyList());
+    }
+
+    private CompositeLoadMonitor(List<WeightedMonitor> monitors) {
+        this.monitors = monitors;
+    }
+
+    /**
+     * Returns a copy of this composite with an additional monitor.
+     *
+     * @param monitor       to add.
+     * @param busyThreshold load of the monitor (in its own units) at which the database is deemed busy. Must be positive.
+     * @param weight        of the monitor. Must be positive.
+     * @return A new {@link CompositeLoadMonitor}.
+     */
+    public CompositeLoadMonitor withMonitor(DatabaseLoadMonitor monitor, long busyThreshold, double weight) {
+        if (busyThreshold <= 0) {
+            throw new IllegalArgumentException("Busy threshold must be positive");
+        }
+
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Weight must be positive");
+        }
+
+        List<WeightedMonitor> newMonitors = new ArrayList<>(monitors);
+        newMonitors.add(new WeightedMonitor(monitor, busyThreshold, weight));
+        return new CompositeLoadMonitor(Collections.unmodifiableList(newMonitors));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * All contained monitors are queried, so that the rate-based ones keep sampling.
+     */
+    @Override
+    public long getLoad() {
+        long result = TimingStrategy.UNKNOWN;
+
+        for (WeightedMonitor monitor : monitors) {
+            long load = monitor.getRelativeLoad();
+            if (load > result) {
+                result = load;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * A contained monitor with its threshold and weight.
+     */
+    private static class WeightedMonitor {
+
+        private final DatabaseLoadMonitor monitor;
+        private final long busyThreshold;
+        private final double weight;
+
+        private WeightedMonitor(DatabaseLoadMonitor monitor, long busyThreshold, double weight) {
+            this.monitor = monitor;
+            this.busyThreshold = busyThreshold;
+            this.weight = weight;
+        }
+
+        private long getRelativeLoad() {
+            long load = monitor.getLoad();
+
+            if (load < 0) {
+                return TimingStrategy.UNKNOWN;
+            }
+
+            return Math.round(weight * load * 100 / busyThreshold);
+        }
+    }
+}
@@ -22,9 +22,10 @@ package com.graphaware.runtime.monitor;
 public interface DatabaseLoadMonitor {
 
     /**
-     * Get the current load of the database in transactions per second.
+     * Get the current load of the database. The unit depends on the implementation; it is transactions per second
+     * for {@link StartedTxBasedLoadMonitor}.
      *
-     * @return load in tx per second.
+     * @return load, {@link com.graphaware.runtime.schedule.TimingStrategy#UNKNOWN} if unknown.
      */
     long getLoad();
 }
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.monitor;
+
+/**
+ * Type of {@link DatabaseLoadMonitor} used by {@link com.graphaware.runtime.schedule.AdaptiveTimingStrategy}.
+ */
+public enum DatabaseLoadMonitorType {
+
+    /**
+     * {@link StartedTxBasedLoadMonitor}, measuring load in started transactions per second.
+     */
+    STARTED_TRANSACTIONS,
+
+    /**
+     * {@link CompositeLoadMonitor} with default configuration, combining CPU usage, GC pauses, page cache faults,
+     * committed transactions, and running transactions. Load of 100 means the busiest resource is at its threshold.
+     */
+    COMPOSITE
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.monitor;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * {@link DatabaseLoadMonitor} returning the load based on the time the JVM has spent collecting garbage in a period of
+ * time, i.e. in milliseconds of garbage collection per second, across all collectors.
+ * <p/>
+ * The load is measured as the average load in a configurable {@link RunningWindowAverage}.
+ * <p/>
+ * Samples are taken as the monitor is queried.
+ */
+public class GcPauseBasedLoadMonitor extends RateBasedLoadMonitor {
+
+    private final List<GarbageCollectorMXBean> garbageCollectors;
+
+    /**
+     * Construct a new monitor.
+     *
+     * @param runningWindowAverage to use for the monitoring.
+     */
+    public GcPauseBasedLoadMonitor(RunningWindowAverage runningWindowAverage) {
+        super(runningWindowAverage);
+        this.garbageCollectors = ManagementFactory.getGarbageCollectorMXBeans();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected long currentValue() {
+        long result = 0;
+        for (GarbageCollectorMXBean garbageCollector : garbageCollectors) {
+            long collectionTime = garbageCollector.getCollectionTime();
+            if (collectionTime > 0) {
+                result += collectionTime;
+            }
+        }
+        return result;
+    }
+}
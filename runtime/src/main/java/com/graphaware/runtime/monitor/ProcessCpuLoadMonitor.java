@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.monitor;
+
+import com.graphaware.runtime.schedule.TimingStrategy;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+
+/**
+ * {@link DatabaseLoadMonitor} returning the load as the CPU usage of the JVM process, in percent of all available
+ * processors.
+ * <p/>
+ * On JVMs that do not expose the process CPU load, the system load average divided by the number of processors is used
+ * instead. If neither is available, the load is {@link TimingStrategy#UNKNOWN}.
+ */
+public class ProcessCpuLoadMonitor implements DatabaseLoadMonitor {
+
+    private final OperatingSystemMXBean operatingSystem;
+
+    /**
+     * Construct a new monitor.
+     */
+    public ProcessCpuLoadMonitor() {
+        this.operatingSystem = ManagementFactory.getOperatingSystemMXBean();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLoad() {
+        double load = -1;
+
+        if (operatingSystem instanceof com.sun.management.OperatingSystemMXBean) {
+            load = ((com.sun.management.OperatingSystemMXBean) operatingSystem).getProcessCpuLoad();
+        }
+
+        if (load < 0) {
+            double loadAverage = operatingSystem.getSystemLoadAverage();
+            if (loadAverage >= 0) {
+                load = Math.min(1.0, loadAverage / operatingSystem.getAvailableProcessors());
+            }
+        }
+
+        if (load < 0) {
+            return TimingStrategy.UNKNOWN;
+        }
+
+        return Math.round(load * 100);
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.monitor;
+
+/**
+ * {@link DatabaseLoadMonitor} returning the load as the rate of change of an ever-increasing value, such as a counter of
+ * transactions, per second.
+ * <p/>
+ * The load is measured as the average load in a configurable {@link RunningWindowAverage}.
+ * <p/>
+ * Samples are taken as the monitor is queried.
+ */
+public abstract class RateBasedLoadMonitor implements DatabaseLoadMonitor {
+
+    private final RunningWindowAverage runningWindowAverage;
+
+    /**
+     * Construct a new monitor.
+     *
+     * @param runningWindowAverage to use for the monitoring.
+     */
+    protected RateBasedLoadMonitor(RunningWindowAverage runningWindowAverage) {
+        this.runningWindowAverage = runningWindowAverage;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLoad() {
+        runningWindowAverage.sample(System.currentTimeMillis(), currentValue());
+        return runningWindowAverage.getAverage();
+    }
+
+    /**
+     * Get the current value of the monitored ever-increasing value.
+     *
+     * @return current value.
+     */
+    protected abstract long currentValue();
+}
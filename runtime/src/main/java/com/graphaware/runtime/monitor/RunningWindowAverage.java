@@ -16,20 +16,28 @@
 
 package com.graphaware.runtime.monitor;
 
-import com.graphaware.common.util.BoundedConcurrentStack;
-import com.graphaware.common.util.Pair;
+import com.graphaware.common.util.ExponentialMovingAverage;
+import com.graphaware.common.util.SlidingWindow;
 import com.graphaware.runtime.schedule.TimingStrategy;
 
-import java.util.Iterator;
-
 /**
  * Computes the average value per second of an ever-increasing value over the last configurable number samples or
- * configurable time in milliseconds, whichever is smaller.
+ * configurable time in milliseconds, whichever is smaller. It also keeps an exponentially weighted moving average of
+ * the value per second, with the configurable time as its time constant.
+ * <p/>
+ * Samples are kept in a {@link SlidingWindow}, so that neither taking a sample, nor computing the averages allocates
+ * any memory, and both take constant time.
+ * <p/>
+ * This class is thread-safe.
  */
 public class RunningWindowAverage {
 
-    private final BoundedConcurrentStack<Pair<Long, Long>> timesAndValues;
-    private final int maxTime;
+    private final SlidingWindow window;
+    private final ExponentialMovingAverage exponentialAverage;
+
+    private boolean sampled = false;
+    private long lastTime;
+    private long lastValue;
 
     /**
      * Construct a new instance.
@@ -38,8 +46,8 @@ public class RunningWindowAverage {
      * @param maxTime    maximum amount of time span of the window.
      */
     public RunningWindowAverage(int maxSamples, int maxTime) {
-        this.timesAndValues = new BoundedConcurrentStack<>(maxSamples);
-        this.maxTime = maxTime;
+        this.window = new SlidingWindow(maxSamples, maxTime);
+        this.exponentialAverage = new ExponentialMovingAverage(Math.max(1, maxTime));
     }
 
     /**
@@ -48,8 +56,18 @@ public class RunningWindowAverage {
      * @param time  at which the value was taken.
      * @param value sample value.
      */
-    public void sample(long time, long value) {
-        timesAndValues.push(new Pair<>(time, value));
+    public synchronized void sample(long time, long value) {
+        window.sample(time, value);
+
+        if (sampled && time - lastTime >= 1) {
+            exponentialAverage.sample(time, ((value - lastValue) * 1000.0) / (time - lastTime));
+        }
+
+        if (!sampled || time - lastTime >= 1) {
+            lastTime = time;
+            lastValue = value;
+            sampled = true;
+        }
     }
 
     /**
@@ -59,40 +77,30 @@ public class RunningWindowAverage {
      *
      * @return average of the value as described, rounded down to the nearest integer.
      */
-    public long getAverage() {
-        if (timesAndValues.isEmpty()) {
-            return TimingStrategy.UNKNOWN;
-        }
-
-        Iterator<Pair<Long, Long>> iterator = timesAndValues.iterator();
-        Pair<Long, Long> latest = iterator.next();
-        long latestTime = latest.first();
-        long latestValue = latest.second();
+    public synchronized long getAverage() {
+        long rate = window.rate();
 
-        if (!iterator.hasNext()) {
+        if (rate == Long.MIN_VALUE) {
             return TimingStrategy.UNKNOWN;
         }
 
-        long pastTime = 0;
-        long pastValue = 0;
-
-        while (iterator.hasNext()) {
-            Pair<Long, Long> next = iterator.next();
-
-            if (latestTime - next.first() > maxTime) {
-                break;
-            }
-
-            pastTime = next.first();
-            pastValue = next.second();
-        }
+        return rate;
+    }
 
-        int period = Long.valueOf(latestTime - pastTime).intValue();
+    /**
+     * Get exponentially weighted moving average of the ever-increasing value per second. Unlike {@link #getAverage()},
+     * which weighs all samples in the window equally and forgets them abruptly, this average gives the most weight to
+     * the most recent samples and forgets the old ones gradually, which makes it less prone to sudden jumps.
+     *
+     * @return average of the value as described, rounded down to the nearest integer.
+     */
+    public synchronized long getExponentialAverage() {
+        double average = exponentialAverage.getAverage();
 
-        if (period < 1) {
+        if (Double.isNaN(average)) {
             return TimingStrategy.UNKNOWN;
         }
 
-        return ((latestValue - pastValue) * 1000) / period;
+        return (long) Math.floor(average);
     }
 }
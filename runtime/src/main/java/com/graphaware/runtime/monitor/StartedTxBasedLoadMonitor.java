@@ -27,10 +27,9 @@ import org.neo4j.kernel.impl.transaction.TransactionCounters;
  * <p/>
  * Samples are taken as the monitor is queried.
  */
-public class StartedTxBasedLoadMonitor implements DatabaseLoadMonitor {
+public class StartedTxBasedLoadMonitor extends RateBasedLoadMonitor {
 
     private final TransactionCounters txCounters;
-    private final RunningWindowAverage runningWindowAverage;
 
     /**
      * Construct a new monitor.
@@ -39,16 +38,15 @@ public class StartedTxBasedLoadMonitor implements DatabaseLoadMonitor {
      * @param runningWindowAverage to use for the monitoring.
      */
     public StartedTxBasedLoadMonitor(GraphDatabaseService database, RunningWindowAverage runningWindowAverage) {
+        super(runningWindowAverage);
         this.txCounters = ((GraphDatabaseAPI) database).getDependencyResolver().resolveDependency(TransactionCounters.class);
-        this.runningWindowAverage = runningWindowAverage;
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public long getLoad() {
-        runningWindowAverage.sample(System.currentTimeMillis(), txCounters.getNumberOfStartedTransactions());
-        return runningWindowAverage.getAverage();
+    protected long currentValue() {
+        return txCounters.getNumberOfStartedTransactions();
     }
 }
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.profile;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe histogram of latencies in nanoseconds. Each power of two is split into 8 linear buckets, so that any
+ * reported percentile is at most 12.5% higher than the exact value, regardless of the magnitude of the latencies.
+ * <p/>
+ * Recording a latency takes constant time, does not allocate any memory, and does not block.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong(0);
+    private final AtomicLong totalNanos = new AtomicLong(0);
+    private final AtomicLong maxNanos = new AtomicLong(0);
+
+    /**
+     * Record a latency.
+     *
+     * @param nanos latency in nanoseconds. Negative values are recorded as 0.
+     */
+    public void record(long nanos) {
+        nanos = Math.max(0, nanos);
+
+        buckets.incrementAndGet(bucket(nanos));
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * Get the number of recorded latencies.
+     *
+     * @return count.
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Take a snapshot of the statistics of this histogram. Latencies recorded while the snapshot is being taken may or
+     * may not be reflected in it.
+     *
+     * @return statistics.
+     */
+    public LatencyStatistics getStatistics() {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+
+        if (total == 0) {
+            return LatencyStatistics.EMPTY;
+        }
+
+        long max = maxNanos.get();
+
+        return LatencyStatistics.fromNanos(
+                total,
+                totalNanos.get() / Math.max(1, count.get()),
+                Math.min(max, percentile(snapshot, total, 0.5)),
+                Math.min(max, percentile(snapshot, total, 0.99)),
+                max);
+    }
+
+    /**
+     * Forget all recorded latencies. Latencies recorded concurrently with the reset may or may not be forgotten.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+
+    private static long percentile(long[] snapshot, long total, double percentile) {
+        long rank = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return upperBound(i);
+            }
+        }
+
+        return upperBound(BUCKETS - 1);
+    }
+
+    static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) ((nanos >>> shift) & (SUB_BUCKETS - 1));
+
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        int subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        long lowerBound = ((long) (SUB_BUCKETS + subBucket)) << shift;
+
+        return lowerBound + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.profile;
+
+import java.beans.ConstructorProperties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable snapshot of the statistics of a {@link LatencyHistogram}. All latencies are in microseconds.
+ */
+public final class LatencyStatistics {
+
+    static final LatencyStatistics EMPTY = new LatencyStatistics(0, 0, 0, 0, 0);
+
+    private final long count;
+    private final long meanMicros;
+    private final long medianMicros;
+    private final long p99Micros;
+    private final long maxMicros;
+
+    /**
+     * Create new statistics from latencies in nanoseconds.
+     *
+     * @param count       number of recorded latencies.
+     * @param meanNanos   mean latency in nanoseconds.
+     * @param medianNanos median latency in nanoseconds.
+     * @param p99Nanos    99th percentile latency in nanoseconds.
+     * @param maxNanos    maximum latency in nanoseconds.
+     * @return statistics.
+     */
+    static LatencyStatistics fromNanos(long count, long meanNanos, long medianNanos, long p99Nanos, long maxNanos) {
+        return new LatencyStatistics(count, toMicros(meanNanos), toMicros(medianNanos), toMicros(p99Nanos), toMicros(maxNanos));
+    }
+
+    /**
+     * Construct new statistics. Used by JMX to reconstruct the statistics from their open type representation.
+     *
+     * @param count        number of recorded latencies.
+     * @param meanMicros   mean latency in microseconds.
+     * @param medianMicros median latency in microseconds.
+     * @param p99Micros    99th percentile latency in microseconds.
+     * @param maxMicros    maximum latency in microseconds.
+     */
+    @ConstructorProperties({"count", "meanMicros", "medianMicros", "p99Micros", "maxMicros"})
+    public LatencyStatistics(long count, long meanMicros, long medianMicros, long p99Micros, long maxMicros) {
+        this.count = count;
+        this.meanMicros = meanMicros;
+        this.medianMicros = medianMicros;
+        this.p99Micros = p99Micros;
+        this.maxMicros = maxMicros;
+    }
+
+    private static long toMicros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    /**
+     * Get the number of recorded latencies.
+     *
+     * @return number of recorded latencies.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Get the mean latency in microseconds.
+     *
+     * @return mean latency in microseconds.
+     */
+    public long getMeanMicros() {
+        return meanMicros;
+    }
+
+    /**
+     * Get the median latency in microseconds.
+     *
+     * @return median latency in microseconds.
+     */
+    public long getMedianMicros() {
+        return medianMicros;
+    }
+
+    /**
+     * Get the 99th percentile latency in microseconds.
+     *
+     * @return 99th percentile latency in microseconds.
+     */
+    public long getP99Micros() {
+        return p99Micros;
+    }
+
+    /**
+     * Get the maximum latency in microseconds.
+     *
+     * @return maximum latency in microseconds.
+     */
+    public long getMaxMicros() {
+        return maxMicros;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "count=" + count + ", mean=" + meanMicros + "us, median=" + medianMicros + "us, p99=" + p99Micros + "us, max=" + maxMicros + "us";
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.profile;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe profile of a single {@link com.graphaware.runtime.module.TxDrivenModule}, collecting the number of
+ * transactions the module has been invoked for, skipped, failed on, or rolled back, and the latencies of its callbacks.
+ */
+public class TxDrivenModuleProfile implements TxDrivenModuleProfileMXBean {
+
+    private final String moduleId;
+
+    private final AtomicLong invoked = new AtomicLong(0);
+    private final AtomicLong skipped = new AtomicLong(0);
+    private final AtomicLong bypassed = new AtomicLong(0);
+    private final AtomicLong exceptions = new AtomicLong(0);
+    private final AtomicLong rollbacks = new AtomicLong(0);
+
+    private final LatencyHistogram beforeCommit = new LatencyHistogram();
+    private final LatencyHistogram afterCommit = new LatencyHistogram();
+    private final LatencyHistogram afterRollback = new LatencyHistogram();
+    private final LatencyHistogram filtering = new LatencyHistogram();
+
+    /**
+     * Construct a new profile.
+     *
+     * @param moduleId ID of the profiled module.
+     */
+    public TxDrivenModuleProfile(String moduleId) {
+        this.moduleId = moduleId;
+    }
+
+    /**
+     * Record that the module has been invoked for a transaction.
+     */
+    public void recordInvoked() {
+        invoked.incrementAndGet();
+    }
+
+    /**
+     * Record that the module has been skipped for a transaction.
+     */
+    public void recordSkipped() {
+        skipped.incrementAndGet();
+    }
+
+    /**
+     * Record that the module has been bypassed for a transaction.
+     */
+    public void recordBypassed() {
+        bypassed.incrementAndGet();
+    }
+
+    /**
+     * Record that the module has thrown an exception.
+     */
+    public void recordException() {
+        exceptions.incrementAndGet();
+    }
+
+    /**
+     * Record that the module has deliberately rolled back a transaction.
+     */
+    public void recordRollback() {
+        rollbacks.incrementAndGet();
+    }
+
+    /**
+     * Record the latency of the module's beforeCommit.
+     *
+     * @param nanos latency in nanoseconds.
+     */
+    public void recordBeforeCommit(long nanos) {
+        beforeCommit.record(nanos);
+    }
+
+    /**
+     * Record the latency of the module's afterCommit.
+     *
+     * @param nanos latency in nanoseconds.
+     */
+    public void recordAfterCommit(long nanos) {
+        afterCommit.record(nanos);
+    }
+
+    /**
+     * Record the latency of the module's afterRollback.
+     *
+     * @param nanos latency in nanoseconds.
+     */
+    public void recordAfterRollback(long nanos) {
+        afterRollback.record(nanos);
+    }
+
+    /**
+     * Record the latency of filtering transaction data for the module.
+     *
+     * @param nanos latency in nanoseconds.
+     */
+    public void recordFiltering(long nanos) {
+        filtering.record(nanos);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getModuleId() {
+        return moduleId;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getInvokedCount() {
+        return invoked.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getSkippedCount() {
+        return skipped.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getBypassedCount() {
+        return bypassed.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getExceptionCount() {
+        return exceptions.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getRollbackCount() {
+        return rollbacks.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LatencyStatistics getBeforeCommitLatency() {
+        return beforeCommit.getStatistics();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LatencyStatistics getAfterCommitLatency() {
+        return afterCommit.getStatistics();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LatencyStatistics getAfterRollbackLatency() {
+        return afterRollback.getStatistics();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LatencyStatistics getFilteringLatency() {
+        return filtering.getStatistics();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reset() {
+        invoked.set(0);
+        skipped.set(0);
+        bypassed.set(0);
+        exceptions.set(0);
+        rollbacks.set(0);
+        beforeCommit.reset();
+        afterCommit.reset();
+        afterRollback.reset();
+        filtering.reset();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "Module " + moduleId + ": invoked=" + invoked.get() + ", skipped=" + skipped.get() + ", bypassed=" + bypassed.get() + ", exceptions=" + exceptions.get() + ", rollbacks=" + rollbacks.get()
+                + ", beforeCommit [" + beforeCommit.getStatistics() + "], afterCommit [" + afterCommit.getStatistics() + "]";
+    }
+}
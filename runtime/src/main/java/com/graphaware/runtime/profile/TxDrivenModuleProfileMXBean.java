@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.profile;
+
+/**
+ * JMX management interface of {@link TxDrivenModuleProfile}.
+ */
+public interface TxDrivenModuleProfileMXBean {
+
+    /**
+     * Get the ID of the profiled module.
+     *
+     * @return module ID.
+     */
+    String getModuleId();
+
+    /**
+     * Get the number of transactions the module has been invoked for.
+     *
+     * @return number of transactions.
+     */
+    long getInvokedCount();
+
+    /**
+     * Get the number of transactions the module has not been invoked for, because none of the changes they made were
+     * included by the module's inclusion policies.
+     *
+     * @return number of transactions.
+     */
+    long getSkippedCount();
+
+    /**
+     * Get the number of transactions the module has been bypassed by, because its circuit breaker was open.
+     *
+     * @return number of transactions.
+     */
+    long getBypassedCount();
+
+    /**
+     * Get the number of exceptions thrown by the module, not counting those that deliberately roll back transactions.
+     *
+     * @return number of exceptions.
+     */
+    long getExceptionCount();
+
+    /**
+     * Get the number of transactions the module has deliberately rolled back.
+     *
+     * @return number of transactions.
+     */
+    long getRollbackCount();
+
+    /**
+     * Get the latency statistics of the module's beforeCommit.
+     *
+     * @return statistics of sampled transactions.
+     */
+    LatencyStatistics getBeforeCommitLatency();
+
+    /**
+     * Get the latency statistics of the module's afterCommit, as experienced by the committing thread. For modules
+     * processing changes asynchronously or in batches, this is the time it takes to hand the changes over.
+     *
+     * @return statistics of sampled transactions.
+     */
+    LatencyStatistics getAfterCommitLatency();
+
+    /**
+     * Get the latency statistics of the module's afterRollback.
+     *
+     * @return statistics of sampled transactions.
+     */
+    LatencyStatistics getAfterRollbackLatency();
+
+    /**
+     * Get the latency statistics of filtering transaction data using the module's inclusion policies.
+     *
+     * @return statistics of sampled transactions.
+     */
+    LatencyStatistics getFilteringLatency();
+
+    /**
+     * Forget all statistics collected so far.
+     */
+    void reset();
+}
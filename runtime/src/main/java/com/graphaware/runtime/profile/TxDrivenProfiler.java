@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.profile;
+
+import com.graphaware.runtime.config.ProfilingConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Profiler of {@link com.graphaware.runtime.module.TxDrivenModule}s and of the runtime's own overhead, configured by
+ * a {@link ProfilingConfiguration}. It holds a {@link TxDrivenModuleProfile} per module and a single
+ * {@link TxDrivenRuntimeProfile}, and publishes them as JMX MBeans named
+ * <code>com.graphaware.runtime:instance=&lt;instance&gt;,type=TxDrivenModule,name=&lt;module ID&gt;</code> and
+ * <code>com.graphaware.runtime:instance=&lt;instance&gt;,type=TxDrivenRuntime,name=Overhead</code>, where the instance
+ * (see {@link #getInstance()}) is unique to each profiler in the JVM, so that runtimes of several databases in the same
+ * JVM do not replace each other's MBeans.
+ * <p/>
+ * Counts are always collected. Latencies are only measured in transactions for which {@link #sample()} returns
+ * <code>true</code>.
+ */
+public class TxDrivenProfiler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TxDrivenProfiler.class);
+
+    static final String JMX_DOMAIN = "com.graphaware.runtime";
+
+    private static final AtomicInteger INSTANCES = new AtomicInteger(0);
+
+    private final ProfilingConfiguration configuration;
+    private final String instance = "runtime#" + INSTANCES.getAndIncrement();
+    private final ConcurrentMap<String, TxDrivenModuleProfile> moduleProfiles = new ConcurrentHashMap<>();
+    private final TxDrivenRuntimeProfile runtimeProfile = new TxDrivenRuntimeProfile();
+    private final List<ObjectName> published = new CopyOnWriteArrayList<>();
+
+    /**
+     * Construct a new profiler.
+     *
+     * @param configuration of the profiling.
+     */
+    public TxDrivenProfiler(ProfilingConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Get the identifier of this profiler, used as the <code>instance</code> key of the names of its MBeans.
+     *
+     * @return instance identifier, unique within the JVM.
+     */
+    public String getInstance() {
+        return instance;
+    }
+
+    /**
+     * Decide whether latencies should be measured for the current invocation.
+     *
+     * @return true iff latencies should be measured.
+     */
+    public boolean sample() {
+        int samplingRate = configuration.getSamplingRate();
+
+        if (samplingRate <= 1) {
+            return samplingRate == 1;
+        }
+
+        return ThreadLocalRandom.current().nextInt(samplingRate) == 0;
+    }
+
+    /**
+     * Get the profile of a module, creating it if it does not exist yet.
+     *
+     * @param moduleId ID of the module.
+     * @return profile of the module.
+     */
+    public TxDrivenModuleProfile getModuleProfile(String moduleId) {
+        TxDrivenModuleProfile profile = moduleProfiles.get(moduleId);
+
+        if (profile == null) {
+            moduleProfiles.putIfAbsent(moduleId, new TxDrivenModuleProfile(moduleId));
+            profile = moduleProfiles.get(moduleId);
+        }
+
+        return profile;
+    }
+
+    /**
+     * Get the profiles of all modules.
+     *
+     * @return read-only profiles keyed by module ID.
+     */
+    public Map<String, TxDrivenModuleProfile> getModuleProfiles() {
+        return Collections.unmodifiableMap(moduleProfiles);
+    }
+
+    /**
+     * Get the profile of the runtime's overhead.
+     *
+     * @return profile.
+     */
+    public TxDrivenRuntimeProfile getRuntimeProfile() {
+        return runtimeProfile;
+    }
+
+    /**
+     * Publish the profiles of the runtime and the given modules as JMX MBeans, unless disabled by configuration.
+     *
+     * @param moduleIds IDs of the modules.
+     */
+    public void publish(Iterable<String> moduleIds) {
+        if (!configuration.isJmxEnabled()) {
+            return;
+        }
+
+        publish(runtimeProfile, JMX_DOMAIN + ":instance=" + instance + ",type=TxDrivenRuntime,name=Overhead");
+
+        for (String moduleId : moduleIds) {
+            publish(getModuleProfile(moduleId), JMX_DOMAIN + ":instance=" + instance + ",type=TxDrivenModule,name=" + quoteIfNeeded(moduleId));
+        }
+    }
+
+    /**
+     * Remove all MBeans published by {@link #publish(Iterable)} of this profiler and log a summary of the modules' profiles.
+     */
+    public void unpublish() {
+        for (TxDrivenModuleProfile profile : moduleProfiles.values()) {
+            LOG.info(profile.toString());
+        }
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : published) {
+            try {
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+            } catch (JMException e) {
+                LOG.warn("Could not unregister MBean " + name, e);
+            }
+        }
+        published.clear();
+    }
+
+    private void publish(Object mBean, String name) {
+        try {
+            ObjectName objectName = new ObjectName(name);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+            if (published.contains(objectName)) {
+                server.unregisterMBean(objectName);
+                published.remove(objectName);
+            }
+
+            server.registerMBean(mBean, objectName);
+            published.add(objectName);
+        } catch (JMException e) {
+            LOG.warn("Could not register MBean " + name, e);
+        }
+    }
+
+    private static String quoteIfNeeded(String value) {
+        for (char c : value.toCharArray()) {
+            if (c == ',' || c == '=' || c == ':' || c == '"' || c == '*' || c == '?' || c == '\n' || c == '\\') {
+                return ObjectName.quote(value);
+            }
+        }
+
+        return value;
+    }
+}
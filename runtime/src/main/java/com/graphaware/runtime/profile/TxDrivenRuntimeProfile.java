@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.profile;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe profile of the overhead the runtime adds to transactions, on top of the work done by
+ * {@link com.graphaware.runtime.module.TxDrivenModule}s.
+ */
+public class TxDrivenRuntimeProfile implements TxDrivenRuntimeProfileMXBean {
+
+    private final AtomicLong transactions = new AtomicLong(0);
+
+    private final LatencyHistogram transactionData = new LatencyHistogram();
+    private final LatencyHistogram filtering = new LatencyHistogram();
+    private final LatencyHistogram beforeCommit = new LatencyHistogram();
+
+    /**
+     * Record that a transaction has been handed over to modules.
+     */
+    public void recordTransaction() {
+        transactions.incrementAndGet();
+    }
+
+    /**
+     * Record the latency of wrapping Neo4j's transaction data.
+     *
+     * @param nanos latency in nanoseconds.
+     */
+    public void recordTransactionData(long nanos) {
+        transactionData.record(nanos);
+    }
+
+    /**
+     * Record the latency of filtering transaction data for all modules.
+     *
+     * @param nanos latency in nanoseconds.
+     */
+    public void recordFiltering(long nanos) {
+        filtering.record(nanos);
+    }
+
+    /**
+     * Record the latency of the runtime's beforeCommit.
+     *
+     * @param nanos latency in nanoseconds.
+     */
+    public void recordBeforeCommit(long nanos) {
+        beforeCommit.record(nanos);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getTransactionCount() {
+        return transactions.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LatencyStatistics getTransactionDataLatency() {
+        return transactionData.getStatistics();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LatencyStatistics getFilteringLatency() {
+        return filtering.getStatistics();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LatencyStatistics getBeforeCommitLatency() {
+        return beforeCommit.getStatistics();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reset() {
+        transactions.set(0);
+        transactionData.reset();
+        filtering.reset();
+        beforeCommit.reset();
+    }
+}
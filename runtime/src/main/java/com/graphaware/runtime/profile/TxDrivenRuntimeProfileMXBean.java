@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.profile;
+
+/**
+ * JMX management interface of {@link TxDrivenRuntimeProfile}.
+ */
+public interface TxDrivenRuntimeProfileMXBean {
+
+    /**
+     * Get the number of transactions the runtime has handed over to modules.
+     *
+     * @return number of transactions.
+     */
+    long getTransactionCount();
+
+    /**
+     * Get the latency statistics of wrapping Neo4j's transaction data for the modules.
+     *
+     * @return statistics of sampled transactions.
+     */
+    LatencyStatistics getTransactionDataLatency();
+
+    /**
+     * Get the latency statistics of filtering transaction data for all modules, per transaction. This includes the
+     * lazy loading of transaction data the first time it is accessed.
+     *
+     * @return statistics of sampled transactions.
+     */
+    LatencyStatistics getFilteringLatency();
+
+    /**
+     * Get the latency statistics of the runtime's beforeCommit, per transaction, including the work done by modules.
+     *
+     * @return statistics of sampled transactions.
+     */
+    LatencyStatistics getBeforeCommitLatency();
+
+    /**
+     * Forget all statistics collected so far.
+     */
+    void reset();
+}
@@ -16,14 +16,22 @@
 
 package com.graphaware.runtime.schedule;
 
+import com.graphaware.runtime.monitor.CompositeLoadConfiguration;
+import com.graphaware.runtime.monitor.CompositeLoadMonitor;
 import com.graphaware.runtime.monitor.DatabaseLoadMonitor;
+import com.graphaware.runtime.monitor.DatabaseLoadMonitorType;
 import com.graphaware.runtime.monitor.RunningWindowAverage;
 import com.graphaware.runtime.monitor.StartedTxBasedLoadMonitor;
 import org.neo4j.graphdb.GraphDatabaseService;
 
 /**
- * Implementation of {@link TimingStrategy} that pays attention to the current level of activity in the database, i.e.
- * the number of started transactions, in order to decide how long to wait before scheduling the next task.
+ * Implementation of {@link TimingStrategy} that pays attention to the current level of activity in the database, in order
+ * to decide how long to wait before scheduling the next task. By default, the level of activity is the number of started
+ * transactions per second. Alternatively, a {@link CompositeLoadMonitor} can be used, which also takes into account
+ * CPU usage, GC pauses, page cache faults, and running transactions (see {@link DatabaseLoadMonitorType}).
+ * <p/>
+ * By default, the delay is adjusted by a {@link ConstantDeltaDelayAdjuster}. When {@link PidGains} are configured,
+ * a {@link PidDelayAdjuster} is used instead, which aims to keep the load at the busy threshold.
  */
 public class AdaptiveTimingStrategy implements TimingStrategy {
 
@@ -34,6 +42,9 @@ public class AdaptiveTimingStrategy implements TimingStrategy {
     private final long busyThreshold;
     private final int maxSamples;
     private final int maxTime;
+    private final DatabaseLoadMonitorType loadMonitorType;
+    private final PidGains pidGains;
+    private final CompositeLoadConfiguration compositeLoadConfiguration;
 
     private DelayAdjuster delayAdjuster;
     private DatabaseLoadMonitor loadMonitor;
@@ -50,27 +61,34 @@ public class AdaptiveTimingStrategy implements TimingStrategy {
      * <li>busy threshold = 100</li>
      * <li>maximum samples = 200</li>
      * <li>maximum time = 2s</li>
+     * <li>load monitor = {@link DatabaseLoadMonitorType#STARTED_TRANSACTIONS}</li>
+     * <li>delay adjuster = {@link ConstantDeltaDelayAdjuster}</li>
+     * <li>composite load configuration = {@link CompositeLoadConfiguration#defaultConfiguration()}</li>
      * </ul>
      *
      * @return instance of this strategy.
      */
     public static AdaptiveTimingStrategy defaultConfiguration() {
-        return new AdaptiveTimingStrategy(100, 2_000, 5, 5_000, 100, 200, 2_000);
+        return new AdaptiveTimingStrategy(100, 2_000, 5, 5_000, 100, 200, 2_000, DatabaseLoadMonitorType.STARTED_TRANSACTIONS, null, CompositeLoadConfiguration.defaultConfiguration());
     }
 
     /**
      * Constructs a new instance of this strategy with the specified configuration settings.
      *
-     * @param delta         The number of milliseconds by which to adjust the current delay.
-     * @param defaultDelay  The number of milliseconds to return if there is not enough information to make a better decision.
-     * @param minDelay      The lower limit to the delay that can be returned as the next delay.
-     * @param maxDelay      The upper limit to the delay that can be returned as the next delay.
-     * @param busyThreshold The number of transactions per second, above which the database is deemed
-     *                      to be busy.
-     * @param maxSamples    The maximum number of running window average samples. See {@link RunningWindowAverage}.
-     * @param maxTime       The maximum amount of running window average time. See {@link RunningWindowAverage}.
-     */
-    private AdaptiveTimingStrategy(long delta, long defaultDelay, long minDelay, long maxDelay, long busyThreshold, int maxSamples, int maxTime) {
+     * @param delta           The number of milliseconds by which to adjust the current delay.
+     * @param defaultDelay    The number of milliseconds to return if there is not enough information to make a better decision.
+     * @param minDelay        The lower limit to the delay that can be returned as the next delay.
+     * @param maxDelay        The upper limit to the delay that can be returned as the next delay.
+     * @param busyThreshold   The load above which the database is deemed to be busy, in units of the load monitor
+     *                        (transactions per second by default).
+     * @param maxSamples      The maximum number of running window average samples. See {@link RunningWindowAverage}.
+     * @param maxTime         The maximum amount of running window average time. See {@link RunningWindowAverage}.
+     * @param loadMonitorType The type of {@link DatabaseLoadMonitor} used to determine the level of activity.
+     * @param pidGains        The gains of the {@link PidDelayAdjuster}, <code>null</code> for {@link ConstantDeltaDelayAdjuster}.
+     * @param compositeLoadConfiguration The thresholds and weights of the {@link CompositeLoadMonitor}, used only with
+     *                        {@link DatabaseLoadMonitorType#COMPOSITE}.
+     */
+    private AdaptiveTimingStrategy(long delta, long defaultDelay, long minDelay, long maxDelay, long busyThreshold, int maxSamples, int maxTime, DatabaseLoadMonitorType loadMonitorType, PidGains pidGains, CompositeLoadConfiguration compositeLoadConfiguration) {
         this.delta = delta;
         this.defaultDelay = defaultDelay;
         this.minDelay = minDelay;
@@ -78,6 +96,9 @@ public class AdaptiveTimingStrategy implements TimingStrategy {
         this.busyThreshold = busyThreshold;
         this.maxSamples = maxSamples;
         this.maxTime = maxTime;
+        this.loadMonitorType = loadMonitorType;
+        this.pidGains = pidGains;
+        this.compositeLoadConfiguration = compositeLoadConfiguration;
     }
 
     /**
@@ -87,7 +108,7 @@ public class AdaptiveTimingStrategy implements TimingStrategy {
      * @return A new {@link AdaptiveTimingStrategy}.
      */
     public AdaptiveTimingStrategy withDelta(long delta) {
-        return new AdaptiveTimingStrategy(delta, this.defaultDelay, this.minDelay, this.maxDelay, this.busyThreshold, this.maxSamples, this.maxTime);
+        return new AdaptiveTimingStrategy(delta, this.defaultDelay, this.minDelay, this.maxDelay, this.busyThreshold, this.maxSamples, this.maxTime, this.loadMonitorType, this.pidGains, this.compositeLoadConfiguration);
     }
 
     /**
@@ -98,7 +119,7 @@ public class AdaptiveTimingStrategy implements TimingStrategy {
      * @return A new {@link AdaptiveTimingStrategy}.
      */
     public AdaptiveTimingStrategy withDefaultDelayMillis(long defaultDelay) {
-        return new AdaptiveTimingStrategy(this.delta, defaultDelay, this.minDelay, this.maxDelay, this.busyThreshold, this.maxSamples, this.maxTime);
+        return new AdaptiveTimingStrategy(this.delta, defaultDelay, this.minDelay, this.maxDelay, this.busyThreshold, this.maxSamples, this.maxTime, this.loadMonitorType, this.pidGains, this.compositeLoadConfiguration);
     }
 
     /**
@@ -109,7 +130,7 @@ public class AdaptiveTimingStrategy implements TimingStrategy {
      * @return A new {@link AdaptiveTimingStrategy}.
      */
     public AdaptiveTimingStrategy withMinimumDelayMillis(long minDelay) {
-        return new AdaptiveTimingStrategy(this.delta, this.defaultDelay, minDelay, this.maxDelay, this.busyThreshold, this.maxSamples, this.maxTime);
+        return new AdaptiveTimingStrategy(this.delta, this.defaultDelay, minDelay, this.maxDelay, this.busyThreshold, this.maxSamples, this.maxTime, this.loadMonitorType, this.pidGains, this.compositeLoadConfiguration);
     }
 
     /**
@@ -120,7 +141,7 @@ public class AdaptiveTimingStrategy implements TimingStrategy {
      * @return A new {@link AdaptiveTimingStrategy}.
      */
     public AdaptiveTimingStrategy withMaximumDelayMillis(long maxDelay) {
-        return new AdaptiveTimingStrategy(this.delta, this.defaultDelay, this.minDelay, maxDelay, this.busyThreshold, this.maxSamples, this.maxTime);
+        return new AdaptiveTimingStrategy(this.delta, this.defaultDelay, this.minDelay, maxDelay, this.busyThreshold, this.maxSamples, this.maxTime, this.loadMonitorType, this.pidGains, this.compositeLoadConfiguration);
     }
 
     /**
@@ -130,7 +151,7 @@ public class AdaptiveTimingStrategy implements TimingStrategy {
      * @return A new {@link AdaptiveTimingStrategy}.
      */
     public AdaptiveTimingStrategy withBusyThreshold(int busyThreshold) {
-        return new AdaptiveTimingStrategy(this.delta, this.defaultDelay, this.minDelay, this.maxDelay, busyThreshold, this.maxSamples, this.maxTime);
+        return new AdaptiveTimingStrategy(this.delta, this.defaultDelay, this.minDelay, this.maxDelay, busyThreshold, this.maxSamples, this.maxTime, this.loadMonitorType, this.pidGains, this.compositeLoadConfiguration);
     }
 
     /**
@@ -140,7 +161,7 @@ public class AdaptiveTimingStrategy implements TimingStrategy {
      * @return A new {@link AdaptiveTimingStrategy}.
      */
     public AdaptiveTimingStrategy withMaxSamples(int maxSamples) {
-        return new AdaptiveTimingStrategy(this.delta, this.defaultDelay, this.minDelay, this.maxDelay, this.busyThreshold, maxSamples, this.maxTime);
+        return new AdaptiveTimingStrategy(this.delta, this.defaultDelay, this.minDelay, this.maxDelay, this.busyThreshold, maxSamples, this.maxTime, this.loadMonitorType, this.pidGains, this.compositeLoadConfiguration);
     }
 
     /**
@@ -150,7 +171,44 @@ public class AdaptiveTimingStrategy implements TimingStrategy {
      * @return A new {@link AdaptiveTimingStrategy}.
      */
     public AdaptiveTimingStrategy withMaxTime(int maxTime) {
-        return new AdaptiveTimingStrategy(this.delta, this.defaultDelay, this.minDelay, this.maxDelay, this.busyThreshold, this.maxSamples, maxTime);
+        return new AdaptiveTimingStrategy(this.delta, this.defaultDelay, this.minDelay, this.maxDelay, this.busyThreshold, this.maxSamples, maxTime, this.loadMonitorType, this.pidGains, this.compositeLoadConfiguration);
+    }
+
+    /**
+     * Returns a copy of this {@link AdaptiveTimingStrategy} reconfigured to use the given type of load monitor. Note that
+     * the busy threshold is interpreted in the units of the load monitor.
+     *
+     * @param loadMonitorType The new type of load monitor to use.
+     * @return A new {@link AdaptiveTimingStrategy}.
+     */
+    public AdaptiveTimingStrategy withLoadMonitorType(DatabaseLoadMonitorType loadMonitorType) {
+        return new AdaptiveTimingStrategy(this.delta, this.defaultDelay, this.minDelay, this.maxDelay, this.busyThreshold, this.maxSamples, this.maxTime, loadMonitorType, this.pidGains, this.compositeLoadConfiguration);
+    }
+
+    /**
+     * Returns a copy of this {@link AdaptiveTimingStrategy} reconfigured to use a {@link PidDelayAdjuster} with the given
+     * gains, which aims to keep the load at the busy threshold. Delta is then not used.
+     *
+     * @param pidGains The gains to use, <code>null</code> to use {@link ConstantDeltaDelayAdjuster}.
+     * @return A new {@link AdaptiveTimingStrategy}.
+     */
+    public AdaptiveTimingStrategy withPidGains(PidGains pidGains) {
+        return new AdaptiveTimingStrategy(this.delta, this.defaultDelay, this.minDelay, this.maxDelay, this.busyThreshold, this.maxSamples, this.maxTime, this.loadMonitorType, pidGains, this.compositeLoadConfiguration);
+    }
+
+    /**
+     * Returns a copy of this {@link AdaptiveTimingStrategy} reconfigured to use the given thresholds and weights of the
+     * {@link CompositeLoadMonitor}. Only has effect with {@link DatabaseLoadMonitorType#COMPOSITE}.
+     *
+     * @param compositeLoadConfiguration The thresholds and weights to use. Must not be <code>null</code>.
+     * @return A new {@link AdaptiveTimingStrategy}.
+     */
+    public AdaptiveTimingStrategy withCompositeLoadConfiguration(CompositeLoadConfiguration compositeLoadConfiguration) {
+        if (compositeLoadConfiguration == null) {
+            throw new IllegalArgumentException("Composite load configuration must not be null");
+        }
+
+        return new AdaptiveTimingStrategy(this.delta, this.defaultDelay, this.minDelay, this.maxDelay, this.busyThreshold, this.maxSamples, this.maxTime, this.loadMonitorType, this.pidGains, compositeLoadConfiguration);
     }
 
     /**
@@ -158,8 +216,27 @@ public class AdaptiveTimingStrategy implements TimingStrategy {
      */
     @Override
     public void initialize(GraphDatabaseService database) {
-        this.delayAdjuster = new ConstantDeltaDelayAdjuster(this.delta, this.defaultDelay, this.minDelay, this.maxDelay, this.busyThreshold);
-        this.loadMonitor = new StartedTxBasedLoadMonitor(database, new RunningWindowAverage(this.maxSamples, this.maxTime));
+        this.delayAdjuster = createDelayAdjuster();
+        this.loadMonitor = createLoadMonitor(database);
+    }
+
+    private DelayAdjuster createDelayAdjuster() {
+        if (pidGains == null) {
+            return new ConstantDeltaDelayAdjuster(this.delta, this.defaultDelay, this.minDelay, this.maxDelay, this.busyThreshold);
+        }
+
+        return new PidDelayAdjuster(pidGains, this.busyThreshold, this.defaultDelay, this.minDelay, this.maxDelay);
+    }
+
+    private DatabaseLoadMonitor createLoadMonitor(GraphDatabaseService database) {
+        switch (loadMonitorType) {
+            case STARTED_TRANSACTIONS:
+                return new StartedTxBasedLoadMonitor(database, new RunningWindowAverage(this.maxSamples, this.maxTime));
+            case COMPOSITE:
+                return CompositeLoadMonitor.create(database, this.maxSamples, this.maxTime, this.compositeLoadConfiguration);
+            default:
+                throw new IllegalStateException("Unknown load monitor type " + loadMonitorType + ". This is a bug.");
+        }
     }
 
     /**
@@ -196,6 +273,9 @@ public class AdaptiveTimingStrategy implements TimingStrategy {
         if (maxSamples != that.maxSamples) return false;
         if (maxTime != that.maxTime) return false;
         if (minDelay != that.minDelay) return false;
+        if (loadMonitorType != that.loadMonitorType) return false;
+        if (pidGains != null ? !pidGains.equals(that.pidGains) : that.pidGains != null) return false;
+        if (!compositeLoadConfiguration.equals(that.compositeLoadConfiguration)) return false;
 
         return true;
     }
@@ -213,6 +293,9 @@ public class AdaptiveTimingStrategy implements TimingStrategy {
         result = 31 * result + (int) (busyThreshold ^ (busyThreshold >>> 32));
         result = 31 * result + maxSamples;
         result = 31 * result + maxTime;
+        result = 31 * result + loadMonitorType.hashCode();
+        result = 31 * result + (pidGains != null ? pidGains.hashCode() : 0);
+        result = 31 * result + compositeLoadConfiguration.hashCode();
         return result;
     }
 }
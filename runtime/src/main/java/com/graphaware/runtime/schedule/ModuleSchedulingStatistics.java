@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.schedule;
+
+/**
+ * Immutable snapshot of statistics about delegating work to a single {@link com.graphaware.runtime.module.TimerDrivenModule}.
+ */
+public final class ModuleSchedulingStatistics {
+
+    private final int share;
+    private final long invocations;
+    private final long steps;
+    private final long checkpoints;
+    private final long totalTimeNanos;
+    private final double virtualTime;
+
+    /**
+     * Construct new statistics.
+     *
+     * @param share          of the module.
+     * @param invocations    number of tasks in which the module has been delegated to.
+     * @param steps          number of times the module has been delegated to, greater than invocations for
+     *                       {@link com.graphaware.runtime.module.MultiStepTimerDrivenModule}s.
+     * @param checkpoints    number of times the module's context has been persisted.
+     * @param totalTimeNanos total time the module has spent working.
+     * @param virtualTime    total time the module has spent working, divided by its share.
+     */
+    public ModuleSchedulingStatistics(int share, long invocations, long steps, long checkpoints, long totalTimeNanos, double virtualTime) {
+        this.share = share;
+        this.invocations = invocations;
+        this.steps = steps;
+        this.checkpoints = checkpoints;
+        this.totalTimeNanos = totalTimeNanos;
+        this.virtualTime = virtualTime;
+    }
+
+    /**
+     * Get the share of the module.
+     *
+     * @return share.
+     */
+    public int getShare() {
+        return share;
+    }
+
+    /**
+     * Get the number of tasks in which the module has been delegated to.
+     *
+     * @return number of invocations.
+     */
+    public long getInvocations() {
+        return invocations;
+    }
+
+    /**
+     * Get the number of times the module has been delegated to, which is greater than the number of invocations for
+     * {@link com.graphaware.runtime.module.MultiStepTimerDrivenModule}s.
+     *
+     * @return number of steps.
+     */
+    public long getSteps() {
+        return steps;
+    }
+
+    /**
+     * Get the number of times the module's context has been persisted.
+     *
+     * @return number of checkpoints.
+     */
+    public long getCheckpoints() {
+        return checkpoints;
+    }
+
+    /**
+     * Get the total time the module has spent working.
+     *
+     * @return total time in ms.
+     */
+    public long getTotalTimeMillis() {
+        return totalTimeNanos / 1_000_000;
+    }
+
+    /**
+     * Get the average duration of a task in which the module has been delegated to.
+     *
+     * @return average time in ms, 0 if the module has not been delegated to yet.
+     */
+    public double getAverageTimeMillis() {
+        return invocations == 0 ? 0 : totalTimeNanos / 1_000_000.0 / invocations;
+    }
+
+    /**
+     * Get the virtual time of the module, used for {@link SchedulingPolicy#WEIGHTED_FAIR} scheduling. Modules with
+     * lower virtual time are preferred.
+     *
+     * @return virtual time.
+     */
+    public double getVirtualTime() {
+        return virtualTime;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "share=" + share + ", invocations=" + invocations + ", steps=" + steps + ", checkpoints=" + checkpoints + ", totalTime=" + getTotalTimeMillis() + "ms, averageTime=" + String.format("%.2f", getAverageTimeMillis()) + "ms";
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.schedule;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link DelayAdjuster} using a proportional-integral-derivative (PID) controller to keep the load of the database at
+ * a set-point. Unlike {@link ConstantDeltaDelayAdjuster}, which moves the delay by a fixed amount in one direction or
+ * the other, the size of each adjustment depends on how far the load is from the set-point (proportional term), on
+ * how long it has been off (integral term), and on how fast it is changing (derivative term). The delay thus settles
+ * at the value that fills the spare capacity with background work, rather than oscillating around it.
+ * <p/>
+ * The error is the difference between the load and the set-point as a fraction of the set-point, capped to [-1, 1] so
+ * that load spikes do not dominate. The controller output is a fraction of the range between the minimum and maximum
+ * delay, starting at the default delay, and is clamped to that range. To prevent integral wind-up, the integral is
+ * limited so that the output never goes beyond that range, which lets the controller react as soon as the error
+ * changes sign after a long period of overload (or idleness).
+ * <p/>
+ * This class is stateful and not thread-safe.
+ */
+public class PidDelayAdjuster implements DelayAdjuster {
+    private static final Logger LOG = LoggerFactory.getLogger(PidDelayAdjuster.class);
+
+    private final PidGains gains;
+    private final long setPoint;
+    private final long defaultDelay;
+    private final long minDelay;
+    private final long maxDelay;
+    private final double baseOutput;
+
+    private double integral = 0;
+    private double previousError = Double.NaN;
+
+    /**
+     * Construct a new adjuster.
+     *
+     * @param gains        of the controller.
+     * @param setPoint     The load the controller aims for, positive.
+     * @param defaultDelay The number of milliseconds to return if there is not enough information to make a better decision.
+     * @param minDelay     The lower limit to the delay that can be returned as the next delay.
+     * @param maxDelay     The upper limit to the delay that can be returned as the next delay.
+     */
+    public PidDelayAdjuster(PidGains gains, long setPoint, long defaultDelay, long minDelay, long maxDelay) {
+        if (setPoint <= 0) {
+            throw new IllegalArgumentException("Set-point must be positive");
+        }
+
+        if (minDelay > maxDelay) {
+            throw new IllegalArgumentException("Minimum delay must not be greater than maximum delay");
+        }
+
+        this.gains = gains;
+        this.setPoint = setPoint;
+        this.defaultDelay = defaultDelay;
+        this.minDelay = minDelay;
+        this.maxDelay = maxDelay;
+        this.baseOutput = maxDelay == minDelay ? 0 : clamp((double) (defaultDelay - minDelay) / (maxDelay - minDelay));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long determineNextDelay(long currentDelay, long lastTaskDuration, long load) {
+        if (currentDelay < 0) {
+            integral = 0;
+            previousError = Double.NaN;
+            return defaultDelay;
+        }
+
+        if (load < 0) {
+            //load unknown, keep the current delay
+            return currentDelay;
+        }
+
+        double error = Math.max(-1.0, Math.min(1.0, ((double) load - setPoint) / setPoint));
+        double derivative = Double.isNaN(previousError) ? 0 : error - previousError;
+        previousError = error;
+
+        integral += error;
+        double output = output(error, integral, derivative);
+        if (clamp(output) != output && gains.getIntegral() > 0) {
+            //anti-windup: limit the integral so that the output stays at the boundary it has reached
+            integral += (clamp(output) - output) / gains.getIntegral();
+            output = clamp(output);
+        }
+
+        long result = minDelay + Math.round(clamp(output) * (maxDelay - minDelay));
+        LOG.debug("Next delay updated to {} ms based on load of {}", result, load);
+        return result;
+    }
+
+    private static double clamp(double output) {
+        return Math.max(0, Math.min(1, output));
+    }
+
+    private double output(double error, double integral, double derivative) {
+        return baseOutput + gains.getProportional() * error + gains.getIntegral() * integral + gains.getDerivative() * derivative;
+    }
+}
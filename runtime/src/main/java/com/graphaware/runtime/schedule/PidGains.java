@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.schedule;
+
+/**
+ * Immutable gains of the proportional-integral-derivative controller used by {@link PidDelayAdjuster}. The gains are
+ * unit-less: they apply to the error expressed as a fraction of the set-point load, and produce a position in the
+ * range between the minimum and maximum delay.
+ */
+public final class PidGains {
+
+    private final double proportional;
+    private final double integral;
+    private final double derivative;
+
+    /**
+     * Create gains with default values, which are:
+     * <ul>
+     * <li>proportional = 0.02</li>
+     * <li>integral = 0.05</li>
+     * <li>derivative = 0</li>
+     * </ul>
+     * The derivative term is off by default, because load measurements are noisy and the term amplifies the noise.
+     *
+     * @return default gains.
+     */
+    public static PidGains defaultGains() {
+        return new PidGains(0.02, 0.05, 0);
+    }
+
+    /**
+     * Construct new gains.
+     *
+     * @param proportional gain, must not be negative.
+     * @param integral     gain, must not be negative.
+     * @param derivative   gain, must not be negative.
+     */
+    public PidGains(double proportional, double integral, double derivative) {
+        if (proportional < 0 || integral < 0 || derivative < 0) {
+            throw new IllegalArgumentException("Gains must not be negative");
+        }
+
+        this.proportional = proportional;
+        this.integral = integral;
+        this.derivative = derivative;
+    }
+
+    /**
+     * Get the proportional gain.
+     *
+     * @return proportional gain.
+     */
+    public double getProportional() {
+        return proportional;
+    }
+
+    /**
+     * Get the integral gain.
+     *
+     * @return integral gain.
+     */
+    public double getIntegral() {
+        return integral;
+    }
+
+    /**
+     * Get the derivative gain.
+     *
+     * @return derivative gain.
+     */
+    public double getDerivative() {
+        return derivative;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("RedundantIfStatement")
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        PidGains pidGains = (PidGains) o;
+
+        if (Double.compare(pidGains.derivative, derivative) != 0) return false;
+        if (Double.compare(pidGains.integral, integral) != 0) return false;
+        if (Double.compare(pidGains.proportional, proportional) != 0) return false;
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        int result;
+        long temp;
+        temp = Double.doubleToLongBits(proportional);
+        result = (int) (temp ^ (temp >>> 32));
+        temp = Double.doubleToLongBits(integral);
+        result = 31 * result + (int) (temp ^ (temp >>> 32));
+        temp = Double.doubleToLongBits(derivative);
+        result = 31 * result + (int) (temp ^ (temp >>> 32));
+        return result;
+    }
+}
@@ -16,18 +16,27 @@
 
 package com.graphaware.runtime.schedule;
 
+import com.graphaware.common.serialize.Serializer;
 import com.graphaware.common.util.Pair;
+import com.graphaware.runtime.config.CheckpointingConfiguration;
+import com.graphaware.runtime.config.TickConfiguration;
 import com.graphaware.runtime.metadata.DefaultTimerDrivenModuleMetadata;
 import com.graphaware.runtime.metadata.ModuleMetadataRepository;
 import com.graphaware.runtime.metadata.TimerDrivenModuleContext;
+import com.graphaware.runtime.module.MultiStepTimerDrivenModule;
 import com.graphaware.runtime.module.TimerDrivenModule;
+import com.graphaware.runtime.module.WeightedTimerDrivenModule;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Transaction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -37,8 +46,23 @@ import static com.graphaware.runtime.schedule.TimingStrategy.NEVER_RUN;
 import static com.graphaware.runtime.schedule.TimingStrategy.UNKNOWN;
 
 /**
- * {@link TaskScheduler} that delegates to the registered {@link TimerDrivenModule}s in round-robin fashion, in the order
- * in which the modules were registered. All work performed by this implementation is done by a single thread.
+ * {@link TaskScheduler} that delegates to the registered {@link TimerDrivenModule}s according to a {@link SchedulingPolicy}.
+ * With {@link SchedulingPolicy#ROUND_ROBIN} (the default), modules take turns in the order in which they were registered.
+ * With {@link SchedulingPolicy#WEIGHTED_FAIR}, the module that has received the least time relative to its share
+ * (see {@link WeightedTimerDrivenModule}) goes next, so that modules with expensive work do not starve those with cheap work.
+ * In both cases, modules whose context says they do not wish to be called yet are skipped.
+ * <p/>
+ * Each task runs in a single transaction. {@link MultiStepTimerDrivenModule}s are delegated to repeatedly within
+ * the task, until their {@link TickConfiguration} budget is used up; other modules are delegated to exactly once.
+ * Only the final context of the task is a candidate for persisting, which happens according to the
+ * {@link CheckpointingConfiguration}: contexts whose serialized form has not changed since they were last persisted are never persisted
+ * again, and changed contexts can be persisted in intervals rather than after every task. The latest contexts are
+ * persisted when the scheduler is stopped, if the database is still available.
+ * <p/>
+ * The work is performed by a configurable number of threads (one by default). Each thread runs its own chain of tasks,
+ * timed by the {@link TimingStrategy}, so independent modules can run in parallel. A module is, however, never delegated
+ * to by more than one thread at a time, so each module still sees its contexts sequentially. Modules that are busy
+ * are skipped when looking for the next module to delegate to.
  */
 public class RotatingTaskScheduler implements TaskScheduler {
     private static final Logger LOG = LoggerFactory.getLogger(RotatingTaskScheduler.class);
@@ -46,24 +70,79 @@ public class RotatingTaskScheduler implements TaskScheduler {
     private final GraphDatabaseService database;
     private final ModuleMetadataRepository repository;
     private final TimingStrategy timingStrategy;
+    private final int numberOfThreads;
+    private final SchedulingPolicy schedulingPolicy;
+    private final CheckpointingConfiguration checkpointingConfiguration;
 
-    //these two should be made concurrent if we use more than 1 thread for the background work
-    private final Map<TimerDrivenModule, TimerDrivenModuleContext> moduleContexts = new LinkedHashMap<>();
-    private Iterator<Map.Entry<TimerDrivenModule, TimerDrivenModuleContext>> moduleContextIterator;
+    //all guarded by modules
+    private final Map<TimerDrivenModule, ScheduledModule> modules = new LinkedHashMap<>();
+    private Iterator<ScheduledModule> moduleIterator;
+    private double virtualTime = 0;
+    private boolean started = false;
 
-    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor();
+    private final ScheduledExecutorService worker;
 
     /**
-     * Construct a new task scheduler.
+     * Construct a new single-threaded round-robin task scheduler.
      *
      * @param database       against which the modules are running.
      * @param repository     for persisting metadata.
      * @param timingStrategy strategy for timing the work delegation.
      */
     public RotatingTaskScheduler(GraphDatabaseService database, ModuleMetadataRepository repository, TimingStrategy timingStrategy) {
+        this(database, repository, timingStrategy, 1);
+    }
+
+    /**
+     * Construct a new round-robin task scheduler.
+     *
+     * @param database        against which the modules are running.
+     * @param repository      for persisting metadata.
+     * @param timingStrategy  strategy for timing the work delegation. Consulted by each thread before each of its tasks.
+     * @param numberOfThreads number of threads delegating work to modules. Only as many threads as there are registered
+     *                        modules will actually be used.
+     */
+    public RotatingTaskScheduler(GraphDatabaseService database, ModuleMetadataRepository repository, TimingStrategy timingStrategy, int numberOfThreads) {
+        this(database, repository, timingStrategy, numberOfThreads, SchedulingPolicy.ROUND_ROBIN);
+    }
+
+    /**
+     * Construct a new task scheduler that persists every changed context immediately.
+     *
+     * @param database         against which the modules are running.
+     * @param repository       for persisting metadata.
+     * @param timingStrategy   strategy for timing the work delegation. Consulted by each thread before each of its tasks.
+     * @param numberOfThreads  number of threads delegating work to modules. Only as many threads as there are registered
+     *                         modules will actually be used.
+     * @param schedulingPolicy policy deciding which module is delegated to next.
+     */
+    public RotatingTaskScheduler(GraphDatabaseService database, ModuleMetadataRepository repository, TimingStrategy timingStrategy, int numberOfThreads, SchedulingPolicy schedulingPolicy) {
+        this(database, repository, timingStrategy, numberOfThreads, schedulingPolicy, CheckpointingConfiguration.defaultConfiguration());
+    }
+
+    /**
+     * Construct a new task scheduler.
+     *
+     * @param database                   against which the modules are running.
+     * @param repository                 for persisting metadata.
+     * @param timingStrategy             strategy for timing the work delegation. Consulted by each thread before each of its tasks.
+     * @param numberOfThreads            number of threads delegating work to modules. Only as many threads as there are
+     *                                   registered modules will actually be used.
+     * @param schedulingPolicy           policy deciding which module is delegated to next.
+     * @param checkpointingConfiguration configuration deciding how often modules' contexts are persisted.
+     */
+    public RotatingTaskScheduler(GraphDatabaseService database, ModuleMetadataRepository repository, TimingStrategy timingStrategy, int numberOfThreads, SchedulingPolicy schedulingPolicy, CheckpointingConfiguration checkpointingConfiguration) {
+        if (numberOfThreads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+
         this.database = database;
         this.repository = repository;
         this.timingStrategy = timingStrategy;
+        this.numberOfThreads = numberOfThreads;
+        this.schedulingPolicy = schedulingPolicy;
+        this.checkpointingConfiguration = checkpointingConfiguration;
+        this.worker = Executors.newScheduledThreadPool(numberOfThreads);
     }
 
     /**
@@ -71,12 +150,27 @@ public class RotatingTaskScheduler implements TaskScheduler {
      */
     @Override
     public <C extends TimerDrivenModuleContext, T extends TimerDrivenModule<C>> void registerModuleAndContext(T module, C context) {
-        if (moduleContextIterator != null) {
-            throw new IllegalStateException("Task scheduler can not accept modules after it has been started. This is a bug.");
+        int share = WeightedTimerDrivenModule.DEFAULT_SHARE;
+        if (module instanceof WeightedTimerDrivenModule) {
+            share = ((WeightedTimerDrivenModule) module).getShare();
+            if (share < 1) {
+                throw new IllegalArgumentException("Share of module " + module.getId() + " must be positive");
+            }
+        }
+
+        TickConfiguration tickConfiguration = null;
+        if (module instanceof MultiStepTimerDrivenModule) {
+            tickConfiguration = ((MultiStepTimerDrivenModule) module).getTickConfiguration();
         }
 
-        LOG.info("Registering module " + module.getId() + " and its context with the task scheduler.");
-        moduleContexts.put(module, context);
+        synchronized (modules) {
+            if (started) {
+                throw new IllegalStateException("Task scheduler can not accept modules after it has been started. This is a bug.");
+            }
+
+            LOG.info("Registering module " + module.getId() + " and its context with the task scheduler.");
+            modules.put(module, new ScheduledModule(module, context, share, tickConfiguration));
+        }
     }
 
     /**
@@ -84,16 +178,27 @@ public class RotatingTaskScheduler implements TaskScheduler {
      */
     @Override
     public void start() {
-        if (moduleContexts.isEmpty()) {
+        int numberOfModules;
+
+        synchronized (modules) {
+            started = true;
+            numberOfModules = modules.size();
+        }
+
+        if (numberOfModules == 0) {
             LOG.info("There are no timer-driven runtime modules. Not scheduling any tasks.");
             return;
         }
 
-        LOG.info("There are " + moduleContexts.size() + " timer-driven runtime modules. Scheduling the first task...");
+        int chains = Math.min(numberOfThreads, numberOfModules);
+
+        LOG.info("There are " + numberOfModules + " timer-driven runtime modules. Scheduling the first task for each of " + chains + " threads using " + schedulingPolicy + " scheduling...");
 
         timingStrategy.initialize(database);
 
-        scheduleNextTask(NEVER_RUN);
+        for (int i = 0; i < chains; i++) {
+            scheduleNextTask(NEVER_RUN);
+        }
     }
 
     /**
@@ -108,16 +213,87 @@ public class RotatingTaskScheduler implements TaskScheduler {
         } catch (InterruptedException e) {
             LOG.warn("Did not manage to finish all tasks in 5 seconds.");
         }
+
+        checkpointAll();
+
+        for (Map.Entry<String, ModuleSchedulingStatistics> entry : getStatistics().entrySet()) {
+            LOG.info("Module " + entry.getKey() + ": " + entry.getValue());
+        }
+
         LOG.info("Task scheduler terminated successfully.");
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, ModuleSchedulingStatistics> getStatistics() {
+        Map<String, ModuleSchedulingStatistics> result = new LinkedHashMap<>();
+
+        synchronized (modules) {
+            for (ScheduledModule scheduledModule : modules.values()) {
+                result.put(scheduledModule.module.getId(), scheduledModule.toStatistics());
+            }
+        }
+
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Persist the latest contexts of all modules that have changed since they were last persisted, if the database is
+     * still available.
+     */
+    private void checkpointAll() {
+        List<ScheduledModule> dirty = new ArrayList<>();
+        List<TimerDrivenModuleContext> contexts = new ArrayList<>();
+        List<byte[]> serializedContexts = new ArrayList<>();
+        synchronized (modules) {
+            for (ScheduledModule scheduledModule : modules.values()) {
+                if (scheduledModule.isDirty() && !scheduledModule.busy) {
+                    dirty.add(scheduledModule);
+                    contexts.add(scheduledModule.context);
+                    serializedContexts.add(scheduledModule.serializedContext);
+                }
+            }
+        }
+
+        if (dirty.isEmpty()) {
+            return;
+        }
+
+        if (!database.isAvailable(0)) {
+            LOG.warn("Database not available, could not persist latest contexts of " + dirty.size() + " modules. They will resume from their last checkpoint.");
+            return;
+        }
+
+        try (Transaction tx = database.beginTx()) {
+            for (int i = 0; i < dirty.size(); i++) {
+                repository.persistModuleMetadata(dirty.get(i).module.getId(), new DefaultTimerDrivenModuleMetadata(contexts.get(i)));
+            }
+            tx.success();
+        } catch (Exception e) {
+            LOG.warn("Could not persist latest contexts of " + dirty.size() + " modules. They will resume from their last checkpoint.", e);
+            return;
+        }
+
+        synchronized (modules) {
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < dirty.size(); i++) {
+                dirty.get(i).checkpointed(serializedContexts.get(i), now);
+            }
+        }
+    }
+
     /**
      * Schedule next task.
      *
      * @param lastTaskDuration duration of the last task in millis, negative if unknown.
      */
     private void scheduleNextTask(long lastTaskDuration) {
-        long nextDelayMillis = timingStrategy.nextDelay(lastTaskDuration);
+        long nextDelayMillis;
+        synchronized (timingStrategy) {
+            nextDelayMillis = timingStrategy.nextDelay(lastTaskDuration);
+        }
         LOG.debug("Scheduling next task with a delay of {} ms.", nextDelayMillis);
         worker.schedule(nextTask(), nextDelayMillis, TimeUnit.MILLISECONDS);
     }
@@ -161,37 +337,97 @@ public class RotatingTaskScheduler implements TaskScheduler {
             return;
         }
 
-        Pair<T, C> moduleAndContext = findNextModuleAndContext();
+        ScheduledModule scheduledModule = claimNextModule();
 
-        if (moduleAndContext == null) {
+        if (scheduledModule == null) {
             return; //no module withes to run
         }
 
+        Pair<T, C> moduleAndContext = scheduledModule.moduleAndContext();
         T module = moduleAndContext.first();
         C context = moduleAndContext.second();
 
-        try (Transaction tx = database.beginTx()) {
-            C newContext = module.doSomeWork(context, database);
-            repository.persistModuleMetadata(module, new DefaultTimerDrivenModuleMetadata(newContext));
-            moduleContexts.put(module, newContext);
-            tx.success();
+        long startTime = System.nanoTime();
+        int steps = 0;
+        C newContext = context;
+        byte[] serializedContext;
+        boolean checkpoint = false;
+        try {
+            try (Transaction tx = database.beginTx()) {
+                do {
+                    newContext = module.doSomeWork(newContext, database);
+                    steps++;
+                } while (scheduledModule.hasBudgetFor(steps, startTime, newContext));
+
+                serializedContext = serialize(newContext);
+
+                synchronized (modules) {
+                    checkpoint = scheduledModule.update(newContext, serializedContext, checkpointingConfiguration);
+                }
+
+                if (checkpoint) {
+                    repository.persistModuleMetadata(module, new DefaultTimerDrivenModuleMetadata(newContext));
+                }
+
+                tx.success();
+            }
+
+            if (checkpoint) {
+                synchronized (modules) {
+                    scheduledModule.checkpointed(serializedContext, System.currentTimeMillis());
+                }
+            }
+        } finally {
+            synchronized (modules) {
+                scheduledModule.release(System.nanoTime() - startTime, steps);
+            }
+        }
+    }
+
+    /**
+     * Find the next module that is ready to be delegated to and is not busy, according to the {@link SchedulingPolicy}.
+     * Mark the module busy.
+     *
+     * @return module, <code>null</code> if no module is ready.
+     */
+    private ScheduledModule claimNextModule() {
+        synchronized (modules) {
+            long now = System.currentTimeMillis();
+
+            ScheduledModule next;
+            switch (schedulingPolicy) {
+                case ROUND_ROBIN:
+                    next = nextRoundRobinModule(now);
+                    break;
+                case WEIGHTED_FAIR:
+                    next = nextWeightedFairModule(now);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown scheduling policy " + schedulingPolicy + ". This is a bug.");
+            }
+
+            if (next != null) {
+                next.busy = true;
+            }
+
+            return next;
         }
     }
 
     /**
-     * Find the next module that is ready to be delegated to, and its context.
+     * Find the next ready module whose turn it is in round-robin fashion. Must be called with the lock on modules held.
      *
-     * @param <C> context type.
-     * @param <T> module type.
-     * @return module & context.
+     * @param now current time in ms.
+     * @return module, <code>null</code> if no module is ready.
      */
-    private <C extends TimerDrivenModuleContext, T extends TimerDrivenModule<C>> Pair<T, C> findNextModuleAndContext() {
-        int totalModules = moduleContexts.size();
-        long now = System.currentTimeMillis();
+    private ScheduledModule nextRoundRobinModule(long now) {
+        for (int i = 0; i < modules.size(); i++) {
+            if (moduleIterator == null || !moduleIterator.hasNext()) {
+                moduleIterator = modules.values().iterator();
+            }
 
-        for (int i = 0; i < totalModules; i++) {
-            Pair<T, C> candidate = nextModuleAndContext();
-            if (candidate.second() == null || candidate.second().earliestNextCall() <= now) {
+            ScheduledModule candidate = moduleIterator.next();
+            if (candidate.isReady(now)) {
                 return candidate;
             }
         }
@@ -200,20 +436,137 @@ public class RotatingTaskScheduler implements TaskScheduler {
     }
 
     /**
-     * Find the next module whose turn it would be and its context.
+     * Find the ready module with the lowest virtual time, preferring modules registered earlier in case of a tie.
+     * Must be called with the lock on modules held.
+     * <p/>
+     * A module's virtual time never lags behind the virtual time of the module chosen last, so that a module which has
+     * not been ready for a while does not monopolize the scheduler when it becomes ready again.
      *
-     * @param <C> context type.
-     * @param <T> module type.
-     * @return module & context.
+     * @param now current time in ms.
+     * @return module, <code>null</code> if no module is ready.
      */
-    private <C extends TimerDrivenModuleContext, T extends TimerDrivenModule<C>> Pair<T, C> nextModuleAndContext() {
-        if (moduleContextIterator == null || !moduleContextIterator.hasNext()) {
-            moduleContextIterator = moduleContexts.entrySet().iterator();
+    private ScheduledModule nextWeightedFairModule(long now) {
+        ScheduledModule next = null;
+        double nextVirtualTime = Double.MAX_VALUE;
+
+        for (ScheduledModule candidate : modules.values()) {
+            if (!candidate.isReady(now)) {
+                continue;
+            }
+
+            double candidateVirtualTime = Math.max(candidate.virtualTime, virtualTime);
+            if (candidateVirtualTime < nextVirtualTime) {
+                next = candidate;
+                nextVirtualTime = candidateVirtualTime;
+            }
         }
 
-        Map.Entry<TimerDrivenModule, TimerDrivenModuleContext> entry = moduleContextIterator.next();
+        if (next != null) {
+            next.virtualTime = nextVirtualTime;
+            virtualTime = nextVirtualTime;
+        }
+
+        return next;
+    }
 
-        //noinspection unchecked
-        return new Pair<>((T) entry.getKey(), (C) entry.getValue());
+    /**
+     * Serialize a context, so that it can be compared to other contexts regardless of how (and whether) they implement
+     * equals and whether they are mutated in place by their modules.
+     *
+     * @param context to serialize, can be <code>null</code>.
+     * @return serialized context, <code>null</code> if the context is <code>null</code>.
+     */
+    private static byte[] serialize(TimerDrivenModuleContext context) {
+        return context == null ? null : Serializer.toByteArray(context);
+    }
+
+    /**
+     * A registered module with its latest context and scheduling statistics. All mutable fields guarded by modules.
+     * Contexts are compared in their serialized form, which is also the form in which they are persisted.
+     */
+    private static class ScheduledModule {
+
+        private final TimerDrivenModule module;
+        private final int share;
+        private final TickConfiguration tickConfiguration;
+        private TimerDrivenModuleContext context;
+        private byte[] serializedContext;
+        private byte[] persistedContext;
+        private int unpersistedChanges = 0;
+        private long lastCheckpointMillis = System.currentTimeMillis();
+        private long checkpoints = 0;
+        private boolean busy = false;
+        private long invocations = 0;
+        private long steps = 0;
+        private long totalTimeNanos = 0;
+        private double virtualTime = 0;
+
+        private ScheduledModule(TimerDrivenModule module, TimerDrivenModuleContext context, int share, TickConfiguration tickConfiguration) {
+            this.module = module;
+            this.context = context;
+            this.serializedContext = serialize(context);
+            this.persistedContext = serializedContext;
+            this.share = share;
+            this.tickConfiguration = tickConfiguration;
+        }
+
+        private boolean isReady(long now) {
+            return !busy && (context == null || context.earliestNextCall() <= now);
+        }
+
+        private boolean hasBudgetFor(int stepsPerformed, long startTimeNanos, TimerDrivenModuleContext lastContext) {
+            if (tickConfiguration == null || stepsPerformed >= tickConfiguration.getMaxSteps()) {
+                return false;
+            }
+
+            if (System.nanoTime() - startTimeNanos >= TimeUnit.MILLISECONDS.toNanos(tickConfiguration.getMaxTimeMillis())) {
+                return false;
+            }
+
+            return lastContext == null || lastContext.earliestNextCall() <= System.currentTimeMillis();
+        }
+
+        private boolean update(TimerDrivenModuleContext newContext, byte[] newSerializedContext, CheckpointingConfiguration configuration) {
+            if (Arrays.equals(newSerializedContext, persistedContext)) {
+                unpersistedChanges = 0;
+            } else if (!Arrays.equals(newSerializedContext, serializedContext)) {
+                unpersistedChanges++;
+            }
+
+            context = newContext;
+            serializedContext = newSerializedContext;
+
+            return isDirty() && (unpersistedChanges >= configuration.getMaxChanges() || System.currentTimeMillis() - lastCheckpointMillis >= configuration.getIntervalMillis());
+        }
+
+        private boolean isDirty() {
+            return unpersistedChanges > 0;
+        }
+
+        private void checkpointed(byte[] persisted, long now) {
+            persistedContext = persisted;
+            if (Arrays.equals(serializedContext, persisted)) {
+                unpersistedChanges = 0;
+            }
+            lastCheckpointMillis = now;
+            checkpoints++;
+        }
+
+        private void release(long durationNanos, int stepsPerformed) {
+            busy = false;
+            invocations++;
+            steps += stepsPerformed;
+            totalTimeNanos += durationNanos;
+            virtualTime += (double) Math.max(1, durationNanos) / share;
+        }
+
+        private <C extends TimerDrivenModuleContext, T extends TimerDrivenModule<C>> Pair<T, C> moduleAndContext() {
+            //noinspection unchecked
+            return new Pair<>((T) module, (C) context);
+        }
+
+        private ModuleSchedulingStatistics toStatistics() {
+            return new ModuleSchedulingStatistics(share, invocations, steps, checkpoints, totalTimeNanos, virtualTime);
+        }
     }
 }
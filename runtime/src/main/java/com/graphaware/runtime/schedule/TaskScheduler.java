@@ -19,6 +19,8 @@ package com.graphaware.runtime.schedule;
 import com.graphaware.runtime.metadata.TimerDrivenModuleContext;
 import com.graphaware.runtime.module.TimerDrivenModule;
 
+import java.util.Map;
+
 /**
  * A component delegating to registered {@link TimerDrivenModule}s on a scheduled basis.
  */
@@ -44,4 +46,11 @@ public interface TaskScheduler {
      * Stop scheduling tasks. Perform cleanup. No other methods should be called afterwards as this object will be useless.
      */
     void stop();
+
+    /**
+     * Get statistics about delegating work to the registered modules.
+     *
+     * @return statistics keyed by module ID, in the order in which modules were registered.
+     */
+    Map<String, ModuleSchedulingStatistics> getStatistics();
 }
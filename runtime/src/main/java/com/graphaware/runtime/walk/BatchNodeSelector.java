@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.walk;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+
+import java.util.List;
+
+/**
+ * {@link NodeSelector} able to select many {@link Node}s at once, more efficiently than by selecting them one by one.
+ */
+public interface BatchNodeSelector extends NodeSelector {
+
+    /**
+     * Select nodes from the graph.
+     *
+     * @param database in which to select nodes.
+     * @param count    number of nodes to select.
+     * @return at most count nodes in the given database, fewer (possibly none) if not enough nodes can be selected, for
+     *         instance because there are not enough (matching) nodes in the database. Depending on the implementation,
+     *         the same node can be returned more than once.
+     */
+    List<Node> selectNodes(GraphDatabaseService database, int count);
+}
@@ -21,24 +21,28 @@ import com.graphaware.runtime.policy.all.IncludeAllBusinessNodes;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.NotFoundException;
-import org.neo4j.kernel.GraphDatabaseAPI;
-import org.neo4j.kernel.impl.transaction.state.NeoStoreProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * {@link com.graphaware.runtime.walk.NodeSelector} that selects a {@link org.neo4j.graphdb.Node} by finding the first
  * node matching the provided {@link NodeInclusionPolicy} with ID higher than the last one. In the beginning or when all
  * IDs are exhausted, the selector starts from 0.
+ * <p/>
+ * The highest node ID is cached in {@link StoreBounds}, which are refreshed before starting from 0, so that no nodes
+ * created in the meantime are skipped. This class is thread-safe.
  */
-public class ContinuousNodeSelector implements NodeSelector {
+public class ContinuousNodeSelector implements BatchNodeSelector {
 
     private static final Logger LOG = LoggerFactory.getLogger(ContinuousNodeSelector.class);
 
     private final NodeInclusionPolicy inclusionPolicy;
     private final AtomicLong lastId;
+    private volatile StoreBounds bounds;
 
     /**
      * Constructs a new {@link com.graphaware.runtime.walk.ContinuousNodeSelector} that selects any node which isn't a
@@ -107,14 +111,46 @@ public class ContinuousNodeSelector implements NodeSelector {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Selects the next count matching nodes, stops early if a matching node can't be found.
+     */
+    @Override
+    public List<Node> selectNodes(GraphDatabaseService database, int count) {
+        List<Node> result = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            Node node = selectNode(database);
+            if (node == null) {
+                break;
+            }
+            result.add(node);
+        }
+
+        return result;
+    }
+
     private long nextId(GraphDatabaseService database) {
-        long highestId = ((GraphDatabaseAPI) database).getDependencyResolver().resolveDependency(NeoStoreProvider.class).evaluate().getNodeStore().getHighestPossibleIdInUse();
+        StoreBounds storeBounds = bounds(database);
         long nextId = lastId.incrementAndGet();
 
-        if (nextId > highestId) {
-            lastId.set(-1);
-            nextId = lastId.incrementAndGet();
+        if (nextId > storeBounds.getHighestNodeId()) {
+            storeBounds.refresh();
+            if (nextId > storeBounds.getHighestNodeId()) {
+                lastId.set(-1);
+                nextId = lastId.incrementAndGet();
+            }
         }
         return nextId;
     }
+
+    private StoreBounds bounds(GraphDatabaseService database) {
+        StoreBounds result = bounds;
+        if (result == null || result.getDatabase() != database) {
+            result = new StoreBounds(database);
+            bounds = result;
+        }
+        return result;
+    }
 }
@@ -19,24 +19,28 @@ package com.graphaware.runtime.walk;
 import com.graphaware.common.policy.NodeInclusionPolicy;
 import com.graphaware.common.util.ReservoirSampler;
 import com.graphaware.runtime.policy.all.IncludeAllBusinessNodes;
-import org.apache.commons.math3.random.RandomDataGenerator;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.NotFoundException;
-import org.neo4j.kernel.GraphDatabaseAPI;
-import org.neo4j.kernel.impl.transaction.state.NeoStoreProvider;
 import org.neo4j.tooling.GlobalGraphOperations;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
  * {@link NodeSelector} that selects a {@link Node} at random from all {@link Node}s available in the database that match
  * the provided {@link com.graphaware.common.policy.NodeInclusionPolicy}.
+ * <p/>
+ * Random IDs are drawn from the calling thread's {@link ThreadLocalRandom}, up to the highest node ID cached in
+ * {@link StoreBounds}. This class is thread-safe.
  */
-public class RandomNodeSelector implements NodeSelector {
+public class RandomNodeSelector implements BatchNodeSelector {
 
     private static final int MAX_EFFICIENT_ATTEMPTS = 10;
 
     private final NodeInclusionPolicy inclusionPolicy;
-    private final RandomDataGenerator random = new RandomDataGenerator();
+    private volatile StoreBounds bounds;
 
     /**
      * Constructs a new {@link RandomNodeSelector} that selects any node which isn't a framework-internal node.
@@ -61,30 +65,53 @@ public class RandomNodeSelector implements NodeSelector {
      */
     @Override
     public Node selectNode(GraphDatabaseService database) {
-        Node candidate = randomNodeO1(database);
+        Node candidate = randomNodeO1(database, bounds(database).getHighestNodeId());
 
         if (candidate != null) {
             return candidate;
         }
 
-        return randomNodeON(database);
+        List<Node> sampled = randomNodesON(database, 1);
+        return sampled.isEmpty() ? null : sampled.get(0);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Nodes are selected independently, so the same node can be returned more than once. In case any single node
+     * can't be found in O(1), the missing nodes are sampled (without repetition) from all nodes in a single pass.
+     */
+    @Override
+    public List<Node> selectNodes(GraphDatabaseService database, int count) {
+        long highestId = bounds(database).getHighestNodeId();
+        List<Node> result = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            Node candidate = randomNodeO1(database, highestId);
+            if (candidate == null) {
+                result.addAll(randomNodesON(database, count - i));
+                break;
+            }
+            result.add(candidate);
+        }
+
+        return result;
     }
 
     /**
      * Get a random node in O(1), try only 10 attempts.
      *
-     * @param database in which to find a random node.
+     * @param database  in which to find a random node.
+     * @param highestId highest ID of a node possibly in use.
      * @return random node, null if not successful.
      */
-    private Node randomNodeO1(GraphDatabaseService database) {
-        long highestId = ((GraphDatabaseAPI) database).getDependencyResolver().resolveDependency(NeoStoreProvider.class).evaluate().getNodeStore().getHighestPossibleIdInUse();
-
-        if (highestId <= 0) {
+    private Node randomNodeO1(GraphDatabaseService database, long highestId) {
+        if (highestId < 0) {
             return null;
         }
 
         for (int i = 0; i < MAX_EFFICIENT_ATTEMPTS; i++) {
-            long randomId = random.nextLong(0, highestId);
+            long randomId = ThreadLocalRandom.current().nextLong(highestId + 1);
             try {
                 Node node = database.getNodeById(randomId);
                 if (inclusionPolicy.include(node)) {
@@ -99,25 +126,36 @@ public class RandomNodeSelector implements NodeSelector {
     }
 
     /**
-     * Get a random node in O(N).
+     * Get random nodes in O(N).
      *
-     * @param database in which to find a random node.
-     * @return random node, null if not successful.
+     * @param database in which to find random nodes.
+     * @param count    maximum number of nodes to find.
+     * @return random nodes, empty if not successful.
      */
-    private Node randomNodeON(GraphDatabaseService database) {
+    private List<Node> randomNodesON(GraphDatabaseService database, int count) {
         Iterable<Node> allNodes = GlobalGraphOperations.at(database).getAllNodes();
 
-        ReservoirSampler<Node> randomSampler = new ReservoirSampler<>(1);
+        ReservoirSampler<Node> randomSampler = new ReservoirSampler<>(count);
         for (Node node : allNodes) {
             if (this.inclusionPolicy.include(node)) {
                 randomSampler.sample(node);
             }
         }
 
-        if (randomSampler.isEmpty()) {
-            return null;
+        List<Node> result = new ArrayList<>(count);
+        for (Node node : randomSampler.getSamples()) {
+            result.add(node);
         }
 
-        return randomSampler.getSamples().iterator().next();
+        return result;
+    }
+
+    private StoreBounds bounds(GraphDatabaseService database) {
+        StoreBounds result = bounds;
+        if (result == null || result.getDatabase() != database) {
+            result = new StoreBounds(database);
+            bounds = result;
+        }
+        return result;
     }
 }
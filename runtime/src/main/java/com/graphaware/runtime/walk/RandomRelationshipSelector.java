@@ -17,21 +17,23 @@
 package com.graphaware.runtime.walk;
 
 import com.graphaware.common.policy.RelationshipInclusionPolicy;
-import com.graphaware.common.util.ReservoirSampler;
 import com.graphaware.runtime.policy.all.IncludeAllBusinessRelationships;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Relationship;
 
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
  * {@link RelationshipSelector} that selects a {@link org.neo4j.graphdb.Relationship} at random from all the given
  * {@link org.neo4j.graphdb.Node}'s {@link org.neo4j.graphdb.Relationship}s, such that match the selected
  * {@link org.neo4j.graphdb.Relationship} matches the provided {@link com.graphaware.common.policy.RelationshipInclusionPolicy}.
  * <p/>
- * This is an O(n) algorithm.
+ * Delegates to a {@link UniformTransitionPolicy}, using the calling thread's {@link ThreadLocalRandom}. In the worst
+ * case, this is an O(n) algorithm.
  */
 public class RandomRelationshipSelector implements RelationshipSelector {
 
-    private final RelationshipInclusionPolicy relationshipInclusionPolicy;
+    private final TransitionPolicy transitionPolicy;
 
     /**
      * Constructs a new {@link RandomRelationshipSelector} that selects any relationship that isn't
@@ -48,7 +50,7 @@ public class RandomRelationshipSelector implements RelationshipSelector {
      * @param relationshipInclusionPolicy The {@link com.graphaware.common.policy.ObjectInclusionPolicy} used to select relationships to follow.
      */
     public RandomRelationshipSelector(RelationshipInclusionPolicy relationshipInclusionPolicy) {
-        this.relationshipInclusionPolicy = relationshipInclusionPolicy;
+        this.transitionPolicy = new UniformTransitionPolicy(relationshipInclusionPolicy);
     }
 
     /**
@@ -56,18 +58,7 @@ public class RandomRelationshipSelector implements RelationshipSelector {
      */
     @Override
     public Relationship selectRelationship(Node node) {
-        ReservoirSampler<Relationship> randomSampler = new ReservoirSampler<>(1);
-        for (Relationship relationship : node.getRelationships()) {
-            if (this.relationshipInclusionPolicy.include(relationship, node)) {
-                randomSampler.sample(relationship);
-            }
-        }
-
-        if (randomSampler.isEmpty()) {
-            return null;
-        }
-
-        return randomSampler.getSamples().iterator().next();
+        return transitionPolicy.selectRelationship(node, ThreadLocalRandom.current());
     }
 
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.walk;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.kernel.GraphDatabaseAPI;
+import org.neo4j.kernel.impl.store.NeoStore;
+import org.neo4j.kernel.impl.transaction.state.NeoStoreProvider;
+
+/**
+ * Cached highest node and relationship IDs possibly in use in a database. Looking them up goes through the database's
+ * dependency resolver, which is too expensive to do for every selected node. The cached values are refreshed when
+ * they are read and have been cached for longer than a refresh interval, or when {@link #refresh()} is called
+ * explicitly. In between, entities created after the last refresh may have IDs higher than the cached ones.
+ * <p/>
+ * This class is thread-safe.
+ */
+public class StoreBounds {
+
+    public static final long DEFAULT_REFRESH_INTERVAL_MS = 1000;
+
+    private final GraphDatabaseService database;
+    private final long refreshIntervalMs;
+
+    private volatile long highestNodeId;
+    private volatile long highestRelationshipId;
+    private volatile long lastRefresh;
+
+    /**
+     * Construct new bounds refreshed every {@link #DEFAULT_REFRESH_INTERVAL_MS} ms.
+     *
+     * @param database to read bounds of.
+     */
+    public StoreBounds(GraphDatabaseService database) {
+        this(database, DEFAULT_REFRESH_INTERVAL_MS);
+    }
+
+    /**
+     * Construct new bounds.
+     *
+     * @param database          to read bounds of.
+     * @param refreshIntervalMs maximum age of the cached bounds in ms.
+     */
+    public StoreBounds(GraphDatabaseService database, long refreshIntervalMs) {
+        if (refreshIntervalMs < 0) {
+            throw new IllegalArgumentException("Refresh interval must not be negative");
+        }
+
+        this.database = database;
+        this.refreshIntervalMs = refreshIntervalMs;
+        refresh();
+    }
+
+    /**
+     * Read the bounds from the database now.
+     */
+    public void refresh() {
+        NeoStore neoStore = ((GraphDatabaseAPI) database).getDependencyResolver().resolveDependency(NeoStoreProvider.class).evaluate();
+        highestNodeId = neoStore.getNodeStore().getHighestPossibleIdInUse();
+        highestRelationshipId = neoStore.getRelationshipStore().getHighestPossibleIdInUse();
+        lastRefresh = System.currentTimeMillis();
+    }
+
+    /**
+     * Get the database these are the bounds of.
+     *
+     * @return database.
+     */
+    public GraphDatabaseService getDatabase() {
+        return database;
+    }
+
+    /**
+     * Get the highest ID of a node possibly in use.
+     *
+     * @return highest node ID, as of the last refresh.
+     */
+    public long getHighestNodeId() {
+        refreshIfStale();
+        return highestNodeId;
+    }
+
+    /**
+     * Get the highest ID of a relationship possibly in use.
+     *
+     * @return highest relationship ID, as of the last refresh.
+     */
+    public long getHighestRelationshipId() {
+        refreshIfStale();
+        return highestRelationshipId;
+    }
+
+    private void refreshIfStale() {
+        if (System.currentTimeMillis() - lastRefresh >= refreshIntervalMs) {
+            refresh();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.walk;
+
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+
+import java.util.Random;
+
+/**
+ * Policy deciding which {@link Relationship} a walker follows from the {@link Node} it is on. Unlike a
+ * {@link RelationshipSelector}, it is given a source of randomness owned by the calling thread, so that it can be
+ * shared by many walkers running in parallel without contention.
+ * <p/>
+ * Implementations must be thread-safe.
+ */
+public interface TransitionPolicy {
+
+    /**
+     * Select the relationship to follow.
+     *
+     * @param node   the walker is on.
+     * @param random generator of random numbers, only used by the calling thread.
+     * @return relationship of the given node, <code>null</code> if the walker cannot leave the node by a relationship,
+     *         in which case it jumps to another node.
+     */
+    Relationship selectRelationship(Node node, Random random);
+}
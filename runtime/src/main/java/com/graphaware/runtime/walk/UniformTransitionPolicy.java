@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.walk;
+
+import com.graphaware.common.policy.RelationshipInclusionPolicy;
+import com.graphaware.runtime.policy.all.IncludeAllBusinessRelationships;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+
+import java.util.Iterator;
+import java.util.Random;
+
+/**
+ * {@link TransitionPolicy} that selects one of the node's {@link Relationship}s matching a {@link RelationshipInclusionPolicy}
+ * uniformly at random.
+ * <p/>
+ * A few relationships are first picked at random positions, using the node's degree, and the first one that matches the
+ * policy is returned. Only if none of them matches are all the node's relationships sampled. Since the inclusion policy
+ * is only evaluated for the picked relationships, this is much cheaper than sampling all relationships when most of
+ * them match.
+ */
+public class UniformTransitionPolicy implements TransitionPolicy {
+
+    private static final int MAX_EFFICIENT_ATTEMPTS = 3;
+
+    private final RelationshipInclusionPolicy inclusionPolicy;
+
+    /**
+     * Construct a new policy that follows any relationship that isn't framework-internal and doesn't link to a
+     * framework-internal node.
+     */
+    public UniformTransitionPolicy() {
+        this(IncludeAllBusinessRelationships.getInstance());
+    }
+
+    /**
+     * Construct a new policy that follows relationships matching the given policy.
+     *
+     * @param inclusionPolicy of relationships to follow.
+     */
+    public UniformTransitionPolicy(RelationshipInclusionPolicy inclusionPolicy) {
+        this.inclusionPolicy = inclusionPolicy;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Relationship selectRelationship(Node node, Random random) {
+        int degree = node.getDegree();
+
+        if (degree == 0) {
+            return null;
+        }
+
+        for (int i = 0; i < MAX_EFFICIENT_ATTEMPTS; i++) {
+            Relationship candidate = relationshipAt(node, random.nextInt(degree));
+            if (candidate != null && inclusionPolicy.include(candidate, node)) {
+                return candidate;
+            }
+        }
+
+        return sampleAll(node, random);
+    }
+
+    /**
+     * Get the relationship at the given position among the node's relationships.
+     *
+     * @param node     node.
+     * @param position of the relationship.
+     * @return relationship, <code>null</code> if the node has fewer relationships than expected.
+     */
+    private Relationship relationshipAt(Node node, int position) {
+        Iterator<Relationship> relationships = node.getRelationships().iterator();
+        for (int i = 0; i < position && relationships.hasNext(); i++) {
+            relationships.next();
+        }
+        return relationships.hasNext() ? relationships.next() : null;
+    }
+
+    /**
+     * Select one of all the node's matching relationships by reservoir sampling.
+     *
+     * @param node   node.
+     * @param random generator of random numbers.
+     * @return relationship, <code>null</code> if there is no matching relationship.
+     */
+    private Relationship sampleAll(Node node, Random random) {
+        Relationship result = null;
+        int seen = 0;
+
+        for (Relationship relationship : node.getRelationships()) {
+            if (inclusionPolicy.include(relationship, node) && random.nextInt(++seen) == 0) {
+                result = relationship;
+            }
+        }
+
+        return result;
+    }
+}
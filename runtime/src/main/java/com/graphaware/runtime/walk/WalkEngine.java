@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.walk;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.NotFoundException;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Engine running many independent random walkers over the graph in parallel.
+ * <p/>
+ * Each of a fixed number of threads moves its own walkers in turns, taking a number of steps in a single transaction.
+ * In every step, the walker follows the relationship chosen by a {@link TransitionPolicy}, which is given the thread's
+ * {@link ThreadLocalRandom}, so that walkers never contend for a shared source of randomness. When the policy chooses
+ * no relationship, or when a walker hasn't started yet, the walker jumps to a node chosen by a {@link NodeSelector}.
+ * Nodes to jump to are selected in batches, efficiently so if the selector is a {@link BatchNodeSelector}. Every node a
+ * walker arrives at is handed to a {@link WalkVisitor}.
+ * <p/>
+ * Walkers keep their positions between calls of {@link #walk(long, WalkVisitor)}, so the engine can be used to walk
+ * the graph a little at a time, e.g. from a {@link com.graphaware.runtime.module.TimerDrivenModule}.
+ */
+public class WalkEngine {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WalkEngine.class);
+
+    private static final long SHUTDOWN_TIMEOUT_MS = 10_000;
+
+    private final GraphDatabaseService database;
+    private final NodeSelector nodeSelector;
+    private final TransitionPolicy transitionPolicy;
+    private final WalkEngineConfiguration configuration;
+    private final ExecutorService executor;
+    private final long[][] positions;
+
+    private final AtomicLong totalSteps = new AtomicLong(0);
+    private volatile double stepsPerSecond = 0;
+
+    /**
+     * Construct a new engine with {@link WalkEngineConfiguration#defaultConfiguration()}.
+     *
+     * @param database         to walk.
+     * @param nodeSelector     selecting nodes to jump to. Must be thread-safe.
+     * @param transitionPolicy choosing relationships to follow.
+     */
+    public WalkEngine(GraphDatabaseService database, NodeSelector nodeSelector, TransitionPolicy transitionPolicy) {
+        this(database, nodeSelector, transitionPolicy, WalkEngineConfiguration.defaultConfiguration());
+    }
+
+    /**
+     * Construct a new engine.
+     *
+     * @param database         to walk.
+     * @param nodeSelector     selecting nodes to jump to. Must be thread-safe.
+     * @param transitionPolicy choosing relationships to follow.
+     * @param configuration    of the engine.
+     */
+    public WalkEngine(GraphDatabaseService database, NodeSelector nodeSelector, TransitionPolicy transitionPolicy, WalkEngineConfiguration configuration) {
+        this.database = database;
+        this.nodeSelector = nodeSelector;
+        this.transitionPolicy = transitionPolicy;
+        this.configuration = configuration;
+        this.executor = createPool(configuration.getThreads());
+
+        this.positions = new long[configuration.getThreads()][configuration.getWalkersPerThread()];
+        for (long[] walkers : positions) {
+            Arrays.fill(walkers, -1);
+        }
+    }
+
+    /**
+     * Take steps, spread over all walkers, and block until they have been taken. Must not be called concurrently.
+     *
+     * @param steps   total number of steps to take.
+     * @param visitor to hand the nodes walkers arrive at to.
+     * @return number of steps taken, fewer than requested only if there are no nodes to jump to.
+     * @throws RuntimeException the first exception thrown by the visitor, the node selector, or the transition policy,
+     *                          after the walkers have stopped.
+     */
+    public synchronized long walk(long steps, WalkVisitor visitor) {
+        if (steps < 0) {
+            throw new IllegalArgumentException("Number of steps must not be negative");
+        }
+
+        AtomicLong remaining = new AtomicLong(steps);
+        List<Future<Long>> futures = new ArrayList<>();
+
+        long start = System.nanoTime();
+
+        for (long[] walkers : positions) {
+            futures.add(executor.submit(new Walk(walkers, remaining, visitor)));
+        }
+
+        long taken = 0;
+        RuntimeException failure = null;
+
+        for (Future<Long> future : futures) {
+            try {
+                taken += future.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new RuntimeException(e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                remaining.set(0);
+                throw new RuntimeException("Interrupted while walking the graph.", e);
+            }
+        }
+
+        long nanos = System.nanoTime() - start;
+        totalSteps.addAndGet(taken);
+        stepsPerSecond = nanos > 0 ? taken * (double) TimeUnit.SECONDS.toNanos(1) / nanos : 0;
+
+        if (failure != null) {
+            throw failure;
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Took " + taken + " steps in " + TimeUnit.NANOSECONDS.toMillis(nanos) + " ms (" + (long) stepsPerSecond + " steps per second).");
+        }
+
+        return taken;
+    }
+
+    /**
+     * Get the throughput of the last call of {@link #walk(long, WalkVisitor)}.
+     *
+     * @return number of steps taken per second, 0 if the engine hasn't walked yet.
+     */
+    public double getStepsPerSecond() {
+        return stepsPerSecond;
+    }
+
+    /**
+     * Get the total number of steps taken by all walkers.
+     *
+     * @return number of steps.
+     */
+    public long getTotalSteps() {
+        return totalSteps.get();
+    }
+
+    /**
+     * Get the configuration of this engine.
+     *
+     * @return configuration.
+     */
+    public WalkEngineConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * Stop the threads of this engine, waiting (for a limited time) for a walk in progress to finish.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                LOG.warn("Walkers did not stop in " + SHUTDOWN_TIMEOUT_MS + " ms.");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            LOG.warn("Interrupted while waiting for walkers to stop.");
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ExecutorService createPool(int poolSize) {
+        final AtomicInteger threadNumber = new AtomicInteger(0);
+        return Executors.newFixedThreadPool(poolSize, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "GraphAware-Walker-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Walk of a single thread's walkers, taking steps until the shared budget is exhausted.
+     */
+    private class Walk implements Callable<Long> {
+
+        private final long[] walkers;
+        private final AtomicLong remaining;
+        private final WalkVisitor visitor;
+        private final Deque<Long> jumpTargets = new ArrayDeque<>();
+        private int next = 0;
+
+        private Walk(long[] walkers, AtomicLong remaining, WalkVisitor visitor) {
+            this.walkers = walkers;
+            this.remaining = remaining;
+            this.visitor = visitor;
+        }
+
+        @Override
+        public Long call() {
+            Random random = ThreadLocalRandom.current();
+            long taken = 0;
+
+            try {
+                long claimed;
+                while ((claimed = claim()) > 0) {
+                    boolean exhausted = false;
+
+                    try (Transaction tx = database.beginTx()) {
+                        for (long i = 0; i < claimed; i++) {
+                            if (!step(random)) {
+                                exhausted = true;
+                                break;
+                            }
+                            taken++;
+                        }
+                        tx.success();
+                    }
+
+                    if (exhausted) {
+                        break;
+                    }
+                }
+            } catch (RuntimeException e) {
+                remaining.set(0); //stop the other threads
+                throw e;
+            }
+
+            return taken;
+        }
+
+        /**
+         * Claim a number of steps from the shared budget.
+         *
+         * @return number of steps to take, 0 if the budget is exhausted.
+         */
+        private long claim() {
+            int batch = configuration.getStepsPerTransaction();
+            long before = remaining.getAndAdd(-batch);
+            return before <= 0 ? 0 : Math.min(before, batch);
+        }
+
+        /**
+         * Move the next walker by one step.
+         *
+         * @param random generator of random numbers.
+         * @return false iff the walker could not move, because there is no node to jump to.
+         */
+        private boolean step(Random random) {
+            int walker = next;
+            next = (next + 1) % walkers.length;
+
+            Node current = node(walkers[walker]);
+            Relationship relationship = current == null ? null : transitionPolicy.selectRelationship(current, random);
+
+            Node target;
+            if (relationship != null) {
+                target = relationship.getOtherNode(current);
+            } else {
+                target = jumpTarget();
+                if (target == null) {
+                    return false;
+                }
+            }
+
+            visitor.visit(target, relationship);
+            walkers[walker] = target.getId();
+            return true;
+        }
+
+        /**
+         * Get a node to jump to, selecting a batch of nodes if none are left.
+         *
+         * @return node, <code>null</code> if no node could be selected.
+         */
+        private Node jumpTarget() {
+            while (true) {
+                if (jumpTargets.isEmpty()) {
+                    for (Node node : selectNodes(walkers.length)) {
+                        jumpTargets.add(node.getId());
+                    }
+
+                    if (jumpTargets.isEmpty()) {
+                        return null;
+                    }
+                }
+
+                Node node = node(jumpTargets.poll());
+                if (node != null) {
+                    return node;
+                }
+            }
+        }
+
+        private List<Node> selectNodes(int count) {
+            if (nodeSelector instanceof BatchNodeSelector) {
+                return ((BatchNodeSelector) nodeSelector).selectNodes(database, count);
+            }
+
+            List<Node> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Node node = nodeSelector.selectNode(database);
+                if (node == null) {
+                    break;
+                }
+                result.add(node);
+            }
+            return result;
+        }
+
+        private Node node(long id) {
+            if (id < 0) {
+                return null;
+            }
+
+            try {
+                return database.getNodeById(id);
+            } catch (NotFoundException e) {
+                return null;
+            }
+        }
+    }
+}
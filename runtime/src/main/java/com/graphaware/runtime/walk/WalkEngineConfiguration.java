@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.walk;
+
+/**
+ * Immutable configuration of a {@link WalkEngine}.
+ */
+public final class WalkEngineConfiguration {
+
+    private final int threads;
+    private final int walkersPerThread;
+    private final int stepsPerTransaction;
+
+    /**
+     * Create a new instance of this configuration with default values, which are:
+     * <ul>
+     * <li>threads = number of available processors</li>
+     * <li>walkers per thread = 16</li>
+     * <li>steps per transaction = 1000</li>
+     * </ul>
+     *
+     * @return default configuration.
+     */
+    public static WalkEngineConfiguration defaultConfiguration() {
+        return new WalkEngineConfiguration(Runtime.getRuntime().availableProcessors(), 16, 1000);
+    }
+
+    /**
+     * Construct a new configuration.
+     *
+     * @param threads             number of threads walking the graph.
+     * @param walkersPerThread    number of independent walkers each thread moves in turns.
+     * @param stepsPerTransaction number of steps each thread takes in a single transaction.
+     */
+    private WalkEngineConfiguration(int threads, int walkersPerThread, int stepsPerTransaction) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+
+        if (walkersPerThread < 1) {
+            throw new IllegalArgumentException("Number of walkers per thread must be positive");
+        }
+
+        if (stepsPerTransaction < 1) {
+            throw new IllegalArgumentException("Number of steps per transaction must be positive");
+        }
+
+        this.threads = threads;
+        this.walkersPerThread = walkersPerThread;
+        this.stepsPerTransaction = stepsPerTransaction;
+    }
+
+    /**
+     * Returns a copy of this configuration with the given number of threads.
+     *
+     * @param threads number of threads walking the graph.
+     * @return A new {@link WalkEngineConfiguration}.
+     */
+    public WalkEngineConfiguration withThreads(int threads) {
+        return new WalkEngineConfiguration(threads, walkersPerThread, stepsPerTransaction);
+    }
+
+    /**
+     * Returns a copy of this configuration with the given number of walkers per thread.
+     *
+     * @param walkersPerThread number of independent walkers each thread moves in turns. Also the number of nodes
+     *                         selected at once when walkers need to jump.
+     * @return A new {@link WalkEngineConfiguration}.
+     */
+    public WalkEngineConfiguration withWalkersPerThread(int walkersPerThread) {
+        return new WalkEngineConfiguration(threads, walkersPerThread, stepsPerTransaction);
+    }
+
+    /**
+     * Returns a copy of this configuration with the given number of steps per transaction.
+     *
+     * @param stepsPerTransaction number of steps each thread takes in a single transaction.
+     * @return A new {@link WalkEngineConfiguration}.
+     */
+    public WalkEngineConfiguration withStepsPerTransaction(int stepsPerTransaction) {
+        return new WalkEngineConfiguration(threads, walkersPerThread, stepsPerTransaction);
+    }
+
+    /**
+     * Get the number of threads.
+     *
+     * @return number of threads walking the graph.
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Get the number of walkers per thread.
+     *
+     * @return number of independent walkers each thread moves in turns.
+     */
+    public int getWalkersPerThread() {
+        return walkersPerThread;
+    }
+
+    /**
+     * Get the number of steps per transaction.
+     *
+     * @return number of steps each thread takes in a single transaction.
+     */
+    public int getStepsPerTransaction() {
+        return stepsPerTransaction;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("RedundantIfStatement")
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        WalkEngineConfiguration that = (WalkEngineConfiguration) o;
+
+        if (threads != that.threads) return false;
+        if (walkersPerThread != that.walkersPerThread) return false;
+        if (stepsPerTransaction != that.stepsPerTransaction) return false;
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        int result = threads;
+        result = 31 * result + walkersPerThread;
+        result = 31 * result + stepsPerTransaction;
+        return result;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.walk;
+
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+
+/**
+ * Visitor of the {@link Node}s that walkers run by a {@link WalkEngine} arrive at.
+ * <p/>
+ * Nodes are visited within transactions, by many threads concurrently. Implementations must therefore be thread-safe.
+ */
+public interface WalkVisitor {
+
+    /**
+     * Visit a node a walker has arrived at.
+     *
+     * @param node         the walker has arrived at.
+     * @param relationship the walker has followed to arrive at the node, <code>null</code> if the walker has jumped to
+     *                     the node (including its very first node).
+     */
+    void visit(Node node, Relationship relationship);
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime;
+
+import com.graphaware.runtime.config.FluentRuntimeConfiguration;
+import com.graphaware.runtime.module.BaseTxDrivenModule;
+import com.graphaware.runtime.module.DeliberateTransactionRollbackException;
+import com.graphaware.tx.event.improved.api.Change;
+import com.graphaware.tx.event.improved.api.ImprovedTransactionData;
+import org.junit.Test;
+import org.neo4j.graphdb.DynamicLabel;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.graphaware.runtime.GraphAwareRuntimeFactory.createRuntime;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Integration test for runtimes configured to hold data about large transactions in compact structures and off the
+ * heap (see {@link com.graphaware.runtime.config.RuntimeConfiguration#getTransactionDataSpillThreshold()}), verifying
+ * that modules see the same data as with the default configuration.
+ */
+public class LargeTransactionIntegrationTest {
+
+    @Test
+    public void modulesShouldSeeSameDataWhenTransactionDataIsSpilled() {
+        List<String> onHeap = recordMutations(FluentRuntimeConfiguration.defaultConfiguration());
+        List<String> spilled = recordMutations(FluentRuntimeConfiguration.defaultConfiguration().withTransactionDataSpillThreshold(100));
+
+        assertTrue(onHeap.size() > 1000);
+        assertEquals(onHeap, spilled);
+    }
+
+    private List<String> recordMutations(FluentRuntimeConfiguration configuration) {
+        GraphDatabaseService database = new TestGraphDatabaseFactory().newImpermanentDatabase();
+
+        try {
+            GraphAwareRuntime runtime = createRuntime(database, configuration);
+            RecordingModule module = new RecordingModule();
+            runtime.registerModule(module);
+            runtime.start();
+
+            database.execute("UNWIND range(1,300) AS i CREATE (:Person {name:'Person '+i, age:i})-[:KNOWS {since:i}]->(:Person {name:'Friend '+i})");
+            database.execute("MATCH (p:Person)-[r:KNOWS]->(f) SET p.age=p.age+1, p:Adult, r.weight=1.5 REMOVE r.since, f.name, f:Person");
+            database.execute("MATCH (p:Person)-[r:KNOWS]->(f) WHERE p.age % 2 = 0 DELETE r, f");
+
+            return module.getMutations();
+        } finally {
+            database.shutdown();
+        }
+    }
+
+    private static class RecordingModule extends BaseTxDrivenModule<Void> {
+
+        private final List<String> mutations = new ArrayList<>();
+
+        private RecordingModule() {
+            super("recording");
+        }
+
+        @Override
+        public Void beforeCommit(ImprovedTransactionData transactionData) throws DeliberateTransactionRollbackException {
+            mutations.addAll(transactionData.mutationsToStrings());
+
+            for (Change<Node> change : transactionData.getNodesWithAssignedLabel(DynamicLabel.label("Adult"))) {
+                mutations.add("assigned Adult to " + change.getCurrent().getId());
+            }
+
+            for (Node deleted : transactionData.getAllDeletedNodes()) {
+                for (Label label : transactionData.getDeleted(deleted).getLabels()) {
+                    mutations.add("deleted " + deleted.getId() + " with label " + label.name());
+                }
+            }
+
+            return null;
+        }
+
+        public List<String> getMutations() {
+            List<String> result = new ArrayList<>(mutations);
+            Collections.sort(result);
+            return result;
+        }
+    }
+}
@@ -16,8 +16,12 @@
 
 package com.graphaware.runtime.config;
 
+import com.graphaware.runtime.monitor.CompositeLoadConfiguration;
+import com.graphaware.runtime.monitor.DatabaseLoadMonitorType;
 import com.graphaware.runtime.schedule.AdaptiveTimingStrategy;
 import com.graphaware.runtime.schedule.FixedDelayTimingStrategy;
+import com.graphaware.runtime.schedule.PidGains;
+import com.graphaware.runtime.schedule.SchedulingPolicy;
 import com.graphaware.runtime.schedule.TimingStrategy;
 import org.junit.Test;
 import org.neo4j.kernel.configuration.Config;
@@ -26,6 +30,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 public class Neo4jConfigBasedRuntimeConfigurationTest {
 
@@ -53,6 +58,105 @@ public class Neo4jConfigBasedRuntimeConfigurationTest {
         assertEquals(expected, new Neo4jConfigBasedRuntimeConfiguration(config).getTimingStrategy());
     }
 
+    @Test
+    public void shouldUseCompositeLoadMonitorWhenSpecifiedInConfig() {
+        Map<String, String> parameterMap = new HashMap<>();
+        parameterMap.put("com.graphaware.runtime.timing.strategy", "composite");
+        parameterMap.put("com.graphaware.runtime.timing.busyThreshold", "150");
+        Config config = new Config(parameterMap);
+
+        TimingStrategy expected = AdaptiveTimingStrategy
+                .defaultConfiguration()
+                .withLoadMonitorType(DatabaseLoadMonitorType.COMPOSITE)
+                .withBusyThreshold(150);
+
+        assertEquals(expected, new Neo4jConfigBasedRuntimeConfiguration(config).getTimingStrategy());
+    }
+
+    @Test
+    public void shouldUseCompositeThresholdsAndWeightsWhenSpecifiedInConfig() {
+        Map<String, String> parameterMap = new HashMap<>();
+        parameterMap.put("com.graphaware.runtime.timing.strategy", "composite");
+        parameterMap.put("com.graphaware.runtime.timing.cpuThreshold", "90");
+        parameterMap.put("com.graphaware.runtime.timing.gcThreshold", "50");
+        parameterMap.put("com.graphaware.runtime.timing.pageFaultThreshold", "2000");
+        parameterMap.put("com.graphaware.runtime.timing.commitThreshold", "500");
+        parameterMap.put("com.graphaware.runtime.timing.activeTxThreshold", "20");
+        parameterMap.put("com.graphaware.runtime.timing.cpuWeight", "0.5");
+        parameterMap.put("com.graphaware.runtime.timing.gcWeight", "2");
+        parameterMap.put("com.graphaware.runtime.timing.pageFaultWeight", "1.5");
+        parameterMap.put("com.graphaware.runtime.timing.commitWeight", "0.25");
+        parameterMap.put("com.graphaware.runtime.timing.activeTxWeight", "3");
+        Config config = new Config(parameterMap);
+
+        TimingStrategy expected = AdaptiveTimingStrategy
+                .defaultConfiguration()
+                .withLoadMonitorType(DatabaseLoadMonitorType.COMPOSITE)
+                .withCompositeLoadConfiguration(CompositeLoadConfiguration
+                        .defaultConfiguration()
+                        .withCpuThreshold(90)
+                        .withGcThreshold(50)
+                        .withPageFaultThreshold(2000)
+                        .withCommitThreshold(500)
+                        .withActiveTxThreshold(20)
+                        .withCpuWeight(0.5)
+                        .withGcWeight(2)
+                        .withPageFaultWeight(1.5)
+                        .withCommitWeight(0.25)
+                        .withActiveTxWeight(3));
+
+        assertEquals(expected, new Neo4jConfigBasedRuntimeConfiguration(config).getTimingStrategy());
+    }
+
+    @Test
+    public void shouldUsePidDelayAdjusterWhenSpecifiedInConfig() {
+        Map<String, String> parameterMap = new HashMap<>();
+        parameterMap.put("com.graphaware.runtime.timing.strategy", "adaptive");
+        parameterMap.put("com.graphaware.runtime.timing.adjuster", "pid");
+        Config config = new Config(parameterMap);
+
+        TimingStrategy expected = AdaptiveTimingStrategy
+                .defaultConfiguration()
+                .withPidGains(PidGains.defaultGains());
+
+        assertEquals(expected, new Neo4jConfigBasedRuntimeConfiguration(config).getTimingStrategy());
+        assertFalse(AdaptiveTimingStrategy.defaultConfiguration().equals(new Neo4jConfigBasedRuntimeConfiguration(config).getTimingStrategy()));
+    }
+
+    @Test
+    public void shouldUseProfilingConfigurationSpecifiedInConfig() {
+        Map<String, String> parameterMap = new HashMap<>();
+        parameterMap.put("com.graphaware.runtime.profiling.samplingRate", "100");
+        parameterMap.put("com.graphaware.runtime.profiling.jmx", "false");
+        Config config = new Config(parameterMap);
+
+        assertEquals(ProfilingConfiguration.defaultConfiguration().withSamplingRate(100).withJmxEnabled(false), new Neo4jConfigBasedRuntimeConfiguration(config).getProfilingConfiguration());
+        assertEquals(ProfilingConfiguration.defaultConfiguration(), new Neo4jConfigBasedRuntimeConfiguration(new Config(new HashMap<String, String>())).getProfilingConfiguration());
+    }
+
+    @Test
+    public void shouldUseInitializationConfigurationSpecifiedInConfig() {
+        Map<String, String> parameterMap = new HashMap<>();
+        parameterMap.put("com.graphaware.runtime.initialization.threads", "3");
+        parameterMap.put("com.graphaware.runtime.initialization.batchSize", "500");
+        parameterMap.put("com.graphaware.runtime.initialization.background", "true");
+        parameterMap.put("com.graphaware.runtime.initialization.replayBufferSize", "200");
+        Config config = new Config(parameterMap);
+
+        assertEquals(InitializationConfiguration.defaultConfiguration().withThreads(3).withBatchSize(500).withBackground(true).withReplayBufferSize(200), new Neo4jConfigBasedRuntimeConfiguration(config).getInitializationConfiguration());
+        assertEquals(InitializationConfiguration.defaultConfiguration(), new Neo4jConfigBasedRuntimeConfiguration(new Config(new HashMap<String, String>())).getInitializationConfiguration());
+    }
+
+    @Test
+    public void shouldUseSpillThresholdSpecifiedInConfig() {
+        Map<String, String> parameterMap = new HashMap<>();
+        parameterMap.put("com.graphaware.runtime.tx.spillThreshold", "100000");
+        Config config = new Config(parameterMap);
+
+        assertEquals(100000, new Neo4jConfigBasedRuntimeConfiguration(config).getTransactionDataSpillThreshold());
+        assertEquals(Long.MAX_VALUE, new Neo4jConfigBasedRuntimeConfiguration(new Config(new HashMap<String, String>())).getTransactionDataSpillThreshold());
+    }
+
     @Test
     public void shouldUseValuesSpecifiedInConfig2() {
         Map<String, String> parameterMap = new HashMap<>();
@@ -69,6 +173,34 @@ public class Neo4jConfigBasedRuntimeConfigurationTest {
         assertEquals(expected, new Neo4jConfigBasedRuntimeConfiguration(config).getTimingStrategy());
     }
 
+    @Test
+    public void shouldUseNumberOfThreadsSpecifiedInConfig() {
+        Map<String, String> parameterMap = new HashMap<>();
+        assertEquals(1, new Neo4jConfigBasedRuntimeConfiguration(new Config(parameterMap)).getTimerDrivenModuleThreads());
+
+        parameterMap.put("com.graphaware.runtime.timing.threads", "4");
+        assertEquals(4, new Neo4jConfigBasedRuntimeConfiguration(new Config(parameterMap)).getTimerDrivenModuleThreads());
+    }
+
+    @Test
+    public void shouldUseSchedulingPolicySpecifiedInConfig() {
+        Map<String, String> parameterMap = new HashMap<>();
+        assertEquals(SchedulingPolicy.ROUND_ROBIN, new Neo4jConfigBasedRuntimeConfiguration(new Config(parameterMap)).getSchedulingPolicy());
+
+        parameterMap.put("com.graphaware.runtime.timing.policy", "weightedFair");
+        assertEquals(SchedulingPolicy.WEIGHTED_FAIR, new Neo4jConfigBasedRuntimeConfiguration(new Config(parameterMap)).getSchedulingPolicy());
+    }
+
+    @Test
+    public void shouldUseCheckpointingSpecifiedInConfig() {
+        Map<String, String> parameterMap = new HashMap<>();
+        assertEquals(CheckpointingConfiguration.defaultConfiguration(), new Neo4jConfigBasedRuntimeConfiguration(new Config(parameterMap)).getCheckpointingConfiguration());
+
+        parameterMap.put("com.graphaware.runtime.checkpoint.changes", "100");
+        parameterMap.put("com.graphaware.runtime.checkpoint.interval", "2000");
+        assertEquals(CheckpointingConfiguration.defaultConfiguration().withMaxChanges(100).withIntervalMillis(2000), new Neo4jConfigBasedRuntimeConfiguration(new Config(parameterMap)).getCheckpointingConfiguration());
+    }
+
     @Test
     public void shouldFallBackToValueDefaultConfigurationIfValueIsNotFoundInConfig() {
         Map<String, String> parameterMap = new HashMap<>();
@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.manager;
+
+import com.graphaware.runtime.GraphAwareRuntime;
+import com.graphaware.runtime.config.AsyncAfterCommitConfiguration;
+import com.graphaware.runtime.module.AsyncTxDrivenModule;
+import com.graphaware.runtime.module.BaseTxDrivenModule;
+import com.graphaware.tx.event.improved.api.ImprovedTransactionData;
+import org.junit.Test;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.graphaware.runtime.GraphAwareRuntimeFactory.createRuntime;
+import static com.graphaware.runtime.config.AsyncAfterCommitConfiguration.Ordering.STRICT;
+import static com.graphaware.runtime.config.AsyncAfterCommitConfiguration.Ordering.UNORDERED;
+import static com.graphaware.runtime.config.AsyncAfterCommitConfiguration.OverflowPolicy.BLOCK;
+import static com.graphaware.runtime.config.AsyncAfterCommitConfiguration.OverflowPolicy.DISCARD;
+import static com.graphaware.runtime.config.AsyncAfterCommitConfiguration.OverflowPolicy.RUN_SYNCHRONOUSLY;
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link AsyncAfterCommitExecutor} and asynchronous after-commit execution of {@link AsyncTxDrivenModule}s.
+ */
+public class AsyncAfterCommitExecutorTest {
+
+    @Test
+    public void strictOrderingShouldBeHonoured() {
+        AsyncModule module = new AsyncModule(AsyncAfterCommitConfiguration.defaultConfiguration().withQueueCapacity(10));
+        AsyncAfterCommitExecutor<Integer> executor = new AsyncAfterCommitExecutor<>(module);
+
+        for (int i = 0; i < 1000; i++) {
+            executor.submit(i);
+        }
+        executor.shutdown();
+
+        assertEquals(1000, module.getStates().size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, (int) module.getStates().get(i));
+        }
+
+        assertEquals(1000, executor.getSubmittedCount());
+        assertEquals(1000, executor.getCompletedCount());
+        assertEquals(0, executor.getDiscardedCount());
+        assertEquals(0, executor.getFailedCount());
+        assertEquals(0, executor.getQueueSize());
+        assertTrue(executor.getMaxLagMillis() >= executor.getAverageLagMillis());
+    }
+
+    @Test
+    public void workShouldBeDiscardedWhenQueueIsFull() throws InterruptedException {
+        AsyncModule module = new AsyncModule(AsyncAfterCommitConfiguration.defaultConfiguration().withQueueCapacity(1).withOverflowPolicy(DISCARD));
+        AsyncAfterCommitExecutor<Integer> executor = new AsyncAfterCommitExecutor<>(module);
+
+        module.block();
+        executor.submit(1);
+        module.awaitBlocked();
+        executor.submit(2);
+        executor.submit(3);
+
+        assertEquals(1, executor.getDiscardedCount());
+        assertEquals(1, executor.getQueueSize());
+
+        module.unblock();
+        executor.shutdown();
+
+        assertEquals(2, module.getStates().size());
+        assertEquals(3, executor.getSubmittedCount());
+        assertEquals(2, executor.getCompletedCount());
+    }
+
+    @Test
+    public void workShouldRunSynchronouslyWhenQueueIsFull() throws InterruptedException {
+        AsyncModule module = new AsyncModule(AsyncAfterCommitConfiguration.defaultConfiguration()
+                .withQueueCapacity(1)
+                .withOrdering(UNORDERED)
+                .withOverflowPolicy(RUN_SYNCHRONOUSLY));
+        AsyncAfterCommitExecutor<Integer> executor = new AsyncAfterCommitExecutor<>(module);
+
+        module.block();
+        executor.submit(1);
+        module.awaitBlocked();
+        module.unblockLater();
+        executor.submit(2);
+        executor.submit(3);
+
+        executor.shutdown();
+
+        assertEquals(3, module.getStates().size());
+        assertEquals(0, executor.getDiscardedCount());
+    }
+
+    @Test
+    public void blockedSubmissionShouldBeDiscardedWhenExecutorShutsDown() throws InterruptedException {
+        AsyncModule module = new AsyncModule(AsyncAfterCommitConfiguration.defaultConfiguration().withQueueCapacity(1).withOverflowPolicy(BLOCK));
+        final AsyncAfterCommitExecutor<Integer> executor = new AsyncAfterCommitExecutor<>(module);
+
+        module.block();
+        executor.submit(1);
+        module.awaitBlocked();
+        executor.submit(2);
+
+        Thread submitter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                executor.submit(3);
+            }
+        });
+        submitter.start();
+        submitter.join(200);
+        assertTrue(submitter.isAlive());
+
+        Thread shutdown = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                executor.shutdown();
+            }
+        });
+        shutdown.start();
+
+        submitter.join(5_000);
+        assertFalse(submitter.isAlive());
+        assertEquals(1, executor.getDiscardedCount());
+
+        module.unblock();
+        shutdown.join(5_000);
+
+        assertEquals(2, module.getStates().size());
+        assertEquals(3, executor.getSubmittedCount());
+        assertEquals(2, executor.getCompletedCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void strictOrderingCannotBeCombinedWithSynchronousOverflow() {
+        new AsyncAfterCommitExecutor<>(new AsyncModule(AsyncAfterCommitConfiguration.defaultConfiguration().withOrdering(STRICT).withOverflowPolicy(RUN_SYNCHRONOUSLY)));
+    }
+
+    @Test
+    public void failuresShouldBeCounted() {
+        AsyncModule module = new AsyncModule(AsyncAfterCommitConfiguration.defaultConfiguration());
+        AsyncAfterCommitExecutor<Integer> executor = new AsyncAfterCommitExecutor<>(module);
+
+        executor.submit(-1);
+        executor.submit(1);
+        executor.shutdown();
+
+        assertEquals(1, executor.getFailedCount());
+        assertEquals(2, executor.getCompletedCount());
+        assertEquals(1, module.getStates().size());
+    }
+
+    @Test
+    public void runtimeShouldExecuteAfterCommitAsynchronously() throws InterruptedException {
+        GraphDatabaseService database = new TestGraphDatabaseFactory().newImpermanentDatabase();
+
+        try {
+            GraphAwareRuntime runtime = createRuntime(database);
+            AsyncModule module = new AsyncModule(AsyncAfterCommitConfiguration.defaultConfiguration());
+            runtime.registerModule(module);
+            runtime.start();
+
+            module.block();
+
+            try (Transaction tx = database.beginTx()) {
+                database.createNode();
+                tx.success();
+            }
+
+            //the commit has returned even though the module is still blocked
+            module.awaitBlocked();
+            assertTrue(module.getStates().isEmpty());
+
+            module.unblock();
+            database.shutdown();
+
+            assertEquals(1, module.getStates().size());
+        } finally {
+            database.shutdown();
+        }
+    }
+
+    private class AsyncModule extends BaseTxDrivenModule<Integer> implements AsyncTxDrivenModule<Integer> {
+
+        private final AsyncAfterCommitConfiguration configuration;
+        private final List<Integer> states = new CopyOnWriteArrayList<>();
+        private volatile CountDownLatch blocked = new CountDownLatch(0);
+        private volatile CountDownLatch block = new CountDownLatch(0);
+
+        private AsyncModule(AsyncAfterCommitConfiguration configuration) {
+            super("ASYNC");
+            this.configuration = configuration;
+        }
+
+        @Override
+        public AsyncAfterCommitConfiguration getAsyncAfterCommitConfiguration() {
+            return configuration;
+        }
+
+        @Override
+        public Integer beforeCommit(ImprovedTransactionData transactionData) {
+            return 42;
+        }
+
+        @Override
+        public void afterCommit(Integer state) {
+            blocked.countDown();
+            try {
+                block.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+
+            if (state < 0) {
+                throw new RuntimeException("Deliberate testing exception");
+            }
+
+            states.add(state);
+        }
+
+        public void block() {
+            blocked = new CountDownLatch(1);
+            block = new CountDownLatch(1);
+        }
+
+        public void awaitBlocked() throws InterruptedException {
+            assertTrue(blocked.await(10, TimeUnit.SECONDS));
+        }
+
+        public void unblock() {
+            block.countDown();
+        }
+
+        public void unblockLater() {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        Thread.sleep(100);
+                    } catch (InterruptedException e) {
+                        //ignore
+                    }
+                    unblock();
+                }
+            }).start();
+        }
+
+        public List<Integer> getStates() {
+            return states;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.manager;
+
+import com.graphaware.runtime.TxDrivenRuntime;
+import com.graphaware.runtime.config.InitializationConfiguration;
+import com.graphaware.runtime.metadata.GraphPropertiesMetadataRepository;
+import com.graphaware.runtime.metadata.TxDrivenModuleMetadata;
+import com.graphaware.runtime.module.BackgroundInitializedTxDrivenModule;
+import com.graphaware.runtime.module.BaseTxDrivenModule;
+import com.graphaware.tx.event.improved.api.ImprovedTransactionData;
+import com.graphaware.tx.event.improved.detached.DetachedTransactionData;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.graphaware.runtime.GraphAwareRuntimeFactory.createRuntime;
+import static com.graphaware.runtime.config.FluentRuntimeConfiguration.defaultConfiguration;
+import static com.graphaware.runtime.config.RuntimeConfiguration.TX_MODULES_PROPERTY_PREFIX;
+import static com.graphaware.runtime.manager.ModuleReadiness.*;
+import static org.junit.Assert.*;
+
+/**
+ * Test for initialization of {@link BackgroundInitializedTxDrivenModule}s in the background.
+ */
+public class BackgroundInitializationTest {
+
+    private GraphDatabaseService database;
+    private TxDrivenRuntime<?> runtime;
+    private SlowModule module;
+    private final AtomicInteger foregroundCalls = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        database = new TestGraphDatabaseFactory().newImpermanentDatabase();
+        module = new SlowModule("SM");
+    }
+
+    @After
+    public void tearDown() {
+        module.release.countDown();
+        database.shutdown();
+    }
+
+    @Test
+    public void runtimeShouldStartBeforeModuleIsInitializedAndChangesShouldBeReplayed() throws InterruptedException {
+        start(InitializationConfiguration.defaultConfiguration().withBackground(true));
+
+        assertTrue(module.initializing.await(5, TimeUnit.SECONDS));
+        assertEquals(INITIALIZING, runtime.getReadiness("SM"));
+
+        createNode();
+        createNode();
+
+        assertEquals(0, module.beforeCommitCalls.get());
+        assertTrue(module.replayed.isEmpty());
+
+        module.release.countDown();
+        waitUntilFinished("SM");
+
+        assertEquals(READY, runtime.getReadiness("SM"));
+        assertEquals(2, module.replayed.size());
+        assertEquals(1, module.replayed.get(0).getAllCreatedNodes().size());
+
+        createNode();
+
+        assertEquals(1, module.beforeCommitCalls.get());
+        assertEquals(2, module.replayed.size());
+    }
+
+    @Test
+    public void moduleShouldBeBypassedWhenTooManyTransactionsCommitDuringInitialization() throws InterruptedException {
+        start(InitializationConfiguration.defaultConfiguration().withBackground(true).withReplayBufferSize(1));
+
+        assertTrue(module.initializing.await(5, TimeUnit.SECONDS));
+
+        createNode();
+        createNode();
+
+        module.release.countDown();
+        waitUntilFinished("SM");
+
+        assertEquals(FAILED, runtime.getReadiness("SM"));
+        assertTrue(module.replayed.isEmpty());
+        assertFalse(module.started.get());
+
+        try (Transaction tx = database.beginTx()) {
+            TxDrivenModuleMetadata metadata = new GraphPropertiesMetadataRepository(database, defaultConfiguration(), TX_MODULES_PROPERTY_PREFIX).getModuleMetadata(module);
+            assertTrue(metadata.needsInitialization());
+            tx.success();
+        }
+
+        createNode();
+
+        assertEquals(0, module.beforeCommitCalls.get());
+    }
+
+    @Test
+    public void transactionsOfModuleBeingInitializedShouldOnlyBeHiddenFromThatModule() throws InterruptedException {
+        module.writeOnInitialize = true;
+
+        runtime = (TxDrivenRuntime<?>) createRuntime(database, defaultConfiguration().withInitializationConfiguration(InitializationConfiguration.defaultConfiguration().withBackground(true)));
+        runtime.registerModule(new BaseTxDrivenModule<Void>("FOREGROUND") {
+            @Override
+            public Void beforeCommit(ImprovedTransactionData transactionData) {
+                foregroundCalls.incrementAndGet();
+                return null;
+            }
+        });
+        runtime.registerModule(module);
+        runtime.start();
+
+        assertTrue(module.initializing.await(5, TimeUnit.SECONDS));
+        module.release.countDown();
+        waitUntilFinished("SM");
+
+        assertEquals(READY, runtime.getReadiness("SM"));
+        assertTrue(module.replayed.isEmpty());
+        assertEquals(0, module.beforeCommitCalls.get());
+        assertEquals(1, foregroundCalls.get());
+    }
+
+    @Test
+    public void moduleShouldBeInitializedBeforeStartWhenBackgroundInitializationIsDisabled() {
+        module.release.countDown();
+
+        start(InitializationConfiguration.defaultConfiguration());
+
+        assertEquals(READY, runtime.getReadiness("SM"));
+
+        createNode();
+
+        assertEquals(1, module.beforeCommitCalls.get());
+        assertTrue(module.replayed.isEmpty());
+    }
+
+    private void start(InitializationConfiguration initializationConfiguration) {
+        runtime = (TxDrivenRuntime<?>) createRuntime(database, defaultConfiguration().withInitializationConfiguration(initializationConfiguration));
+        runtime.registerModule(module);
+        runtime.start();
+    }
+
+    private void createNode() {
+        try (Transaction tx = database.beginTx()) {
+            database.createNode();
+            tx.success();
+        }
+    }
+
+    private void waitUntilFinished(String moduleId) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            ModuleReadiness readiness = runtime.getReadiness(moduleId);
+            if (READY.equals(readiness) || FAILED.equals(readiness)) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("Module " + moduleId + " has not finished initializing");
+    }
+
+    private static class SlowModule extends BaseTxDrivenModule<Void> implements BackgroundInitializedTxDrivenModule<Void> {
+
+        private final CountDownLatch initializing = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger beforeCommitCalls = new AtomicInteger();
+        private final List<DetachedTransactionData> replayed = new CopyOnWriteArrayList<>();
+        private final AtomicBoolean started = new AtomicBoolean(false);
+        private volatile boolean writeOnInitialize = false;
+
+        private SlowModule(String moduleId) {
+            super(moduleId);
+        }
+
+        @Override
+        public void start(GraphDatabaseService database) {
+            started.set(true);
+        }
+
+        @Override
+        public void initialize(GraphDatabaseService database) {
+            initializing.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+
+            if (writeOnInitialize) {
+                try (Transaction tx = database.beginTx()) {
+                    database.createNode();
+                    tx.success();
+                }
+            }
+        }
+
+        @Override
+        public Void beforeCommit(ImprovedTransactionData transactionData) {
+            beforeCommitCalls.incrementAndGet();
+            return null;
+        }
+
+        @Override
+        public void replay(DetachedTransactionData changes) {
+            replayed.add(changes);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.manager;
+
+import com.graphaware.runtime.GraphAwareRuntime;
+import com.graphaware.runtime.config.BatchingConfiguration;
+import com.graphaware.runtime.config.FluentRuntimeConfiguration;
+import com.graphaware.runtime.module.BaseBatchingTxDrivenModule;
+import com.graphaware.runtime.module.BatchingTxDrivenModule;
+import com.graphaware.runtime.write.DatabaseWriterType;
+import com.graphaware.runtime.write.FluentWritingConfig;
+import com.graphaware.tx.event.improved.api.LazyTransactionData;
+import com.graphaware.tx.event.improved.detached.DetachedNode;
+import com.graphaware.tx.event.improved.detached.DetachedTransactionData;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.DynamicLabel;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.event.TransactionData;
+import org.neo4j.graphdb.event.TransactionEventHandler;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.graphaware.runtime.GraphAwareRuntimeFactory.createRuntime;
+import static org.junit.Assert.*;
+import static org.neo4j.helpers.collection.IteratorUtil.count;
+
+/**
+ * Test for {@link BatchingExecutor} and batched processing of {@link BatchingTxDrivenModule}s.
+ */
+public class BatchingExecutorTest {
+
+    private static final Label BATCH = DynamicLabel.label("Batch");
+
+    private GraphDatabaseService database;
+
+    @Before
+    public void setUp() {
+        database = new TestGraphDatabaseFactory().newImpermanentDatabase();
+    }
+
+    @After
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    public void transactionsWithinWindowShouldBeMergedIntoOneBatch() throws InterruptedException {
+        BatchingModule module = startModule(BatchingConfiguration.defaultConfiguration().withWindowMillis(60_000).withMaxTransactions(3));
+
+        database.execute("CREATE (:Counter {count:1})");
+        database.execute("MATCH (c:Counter) SET c.count = 2");
+        Thread.sleep(100);
+        assertTrue(module.getBatches().isEmpty());
+
+        database.execute("MATCH (c:Counter) SET c.count = 3");
+        waitForBatches(module, 1);
+
+        assertEquals(1, module.getBatches().size());
+        DetachedTransactionData batch = module.getBatches().get(0);
+        assertEquals(1, batch.getAllCreatedNodes().size());
+        assertEquals(3L, batch.getAllCreatedNodes().get(0).getProperty("count"));
+        assertTrue(batch.getAllChangedNodes().isEmpty());
+    }
+
+    @Test
+    public void batchShouldBeDeliveredWhenMaximumNumberOfTransactionsIsReached() throws InterruptedException {
+        BatchingModule module = startModule(BatchingConfiguration.defaultConfiguration().withWindowMillis(60_000).withMaxTransactions(10));
+
+        createNodes(30);
+        waitForBatches(module, 3);
+
+        assertEquals(3, module.getBatches().size());
+        for (DetachedTransactionData batch : module.getBatches()) {
+            assertEquals(10, batch.getAllCreatedNodes().size());
+        }
+    }
+
+    @Test
+    public void batchShouldBeDeliveredWhenWindowCloses() throws InterruptedException {
+        BatchingModule module = startModule(BatchingConfiguration.defaultConfiguration().withWindowMillis(50).withMaxTransactions(1_000));
+
+        createNodes(5);
+        waitForBatches(module, 1);
+
+        assertEquals(1, module.getBatches().size());
+        assertEquals(5, module.getBatches().get(0).getAllCreatedNodes().size());
+    }
+
+    @Test
+    public void changesSubmittedAfterShutdownShouldBeDeliveredInline() {
+        BatchingModule module = new BatchingModule(BatchingConfiguration.defaultConfiguration().withWindowMillis(60_000).withMaxTransactions(1_000));
+        module.writeBatchSizes();
+
+        BatchingExecutor executor = new BatchingExecutor(module, database);
+        executor.shutdown();
+        submitCommittedChanges(module, executor);
+
+        createNodes(1);
+
+        assertEquals(1, module.getBatches().size());
+        assertEquals(1, countBatchNodes());
+        assertEquals(1, module.getBatches().get(0).getAllCreatedNodes().size());
+        assertEquals(1, executor.getTransactionCount());
+        assertEquals(1, executor.getBatchCount());
+        assertEquals(0, executor.getFailedBatchCount());
+
+        createNodes(1);
+
+        assertEquals(2, module.getBatches().size());
+        assertEquals(2, countBatchNodes());
+        assertEquals(2, executor.getBatchCount());
+        assertNotSame(Thread.currentThread(), module.getThreads().get(0));
+        assertSame(module.getThreads().get(0), module.getThreads().get(1));
+    }
+
+    @Test
+    public void failedBatchesShouldBeRolledBackAndCounted() throws InterruptedException {
+        BatchingModule module = new BatchingModule(BatchingConfiguration.defaultConfiguration().withWindowMillis(60_000).withMaxTransactions(1));
+        module.writeBatchSizes();
+        module.fail();
+
+        BatchingExecutor executor = new BatchingExecutor(module, database);
+        submitCommittedChanges(module, executor);
+
+        createNodes(1);
+        executor.shutdown();
+
+        assertEquals(1, executor.getBatchCount());
+        assertEquals(1, executor.getFailedBatchCount());
+        assertEquals(0, countBatchNodes());
+    }
+
+    @Test
+    public void batchesShouldBeProcessedInTheirOwnTransactionWhenRuntimeWriterIsAsynchronous() throws InterruptedException {
+        GraphAwareRuntime runtime = createRuntime(database, FluentRuntimeConfiguration.defaultConfiguration().withWritingConfig(FluentWritingConfig.defaultConfiguration().withWriterType(DatabaseWriterType.SINGLE_THREADED)));
+        BatchingModule module = new BatchingModule(BatchingConfiguration.defaultConfiguration().withWindowMillis(60_000).withMaxTransactions(1));
+        module.writeBatchSizes();
+        runtime.registerModule(module);
+        runtime.start();
+
+        createNodes(1);
+        for (int i = 0; i < 100 && countBatchNodes() < 1; i++) {
+            Thread.sleep(50);
+        }
+
+        assertEquals(1, module.getBatches().size());
+        assertEquals(1, countBatchNodes());
+    }
+
+    private BatchingModule startModule(BatchingConfiguration configuration) {
+        GraphAwareRuntime runtime = createRuntime(database);
+        BatchingModule module = new BatchingModule(configuration);
+        runtime.registerModule(module);
+        runtime.start();
+        return module;
+    }
+
+    private void submitCommittedChanges(final BatchingModule module, final BatchingExecutor executor) {
+        database.registerTransactionEventHandler(new TransactionEventHandler.Adapter<DetachedTransactionData>() {
+            @Override
+            public DetachedTransactionData beforeCommit(TransactionData data) throws Exception {
+                LazyTransactionData transactionData = new LazyTransactionData(data);
+                for (Node node : transactionData.getAllCreatedNodes()) {
+                    if (node.hasLabel(BATCH)) {
+                        return null; //written by the module itself
+                    }
+                }
+                return module.beforeCommit(transactionData);
+            }
+
+            @Override
+            public void afterCommit(TransactionData data, DetachedTransactionData state) {
+                executor.submit(state);
+            }
+        });
+    }
+
+    private int countBatchNodes() {
+        try (Transaction tx = database.beginTx()) {
+            int count = count(database.findNodes(BATCH));
+            tx.success();
+            return count;
+        }
+    }
+
+    private void createNodes(int count) {
+        for (int i = 0; i < count; i++) {
+            try (Transaction tx = database.beginTx()) {
+                database.createNode();
+                tx.success();
+            }
+        }
+    }
+
+    private void waitForBatches(BatchingModule module, int count) throws InterruptedException {
+        for (int i = 0; i < 100 && module.getBatches().size() < count; i++) {
+            Thread.sleep(50);
+        }
+    }
+
+    private class BatchingModule extends BaseBatchingTxDrivenModule {
+
+        private final BatchingConfiguration configuration;
+        private final List<DetachedTransactionData> batches = new CopyOnWriteArrayList<>();
+        private final List<Thread> threads = new CopyOnWriteArrayList<>();
+        private volatile boolean writing = false;
+        private volatile boolean failing = false;
+
+        private BatchingModule(BatchingConfiguration configuration) {
+            super("BATCH");
+            this.configuration = configuration;
+        }
+
+        @Override
+        public BatchingConfiguration getBatchingConfiguration() {
+            return configuration;
+        }
+
+        @Override
+        public void processBatch(DetachedTransactionData batch) {
+            for (DetachedNode node : batch.getAllCreatedNodes()) {
+                if (node.hasLabel(BATCH)) {
+                    return; //written by this module
+                }
+            }
+
+            batches.add(batch);
+            threads.add(Thread.currentThread());
+            if (writing) {
+                database.createNode(BATCH).setProperty("nodes", batch.getAllCreatedNodes().size());
+            }
+            if (failing) {
+                throw new RuntimeException("Deliberate failure");
+            }
+        }
+
+        public void writeBatchSizes() {
+            writing = true;
+        }
+
+        public void fail() {
+            failing = true;
+        }
+
+        public List<Thread> getThreads() {
+            return threads;
+        }
+
+        public List<DetachedTransactionData> getBatches() {
+            return batches;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.manager;
+
+import com.graphaware.runtime.GraphAwareRuntime;
+import com.graphaware.runtime.config.TimeBudgetConfiguration;
+import com.graphaware.runtime.metadata.GraphPropertiesMetadataRepository;
+import com.graphaware.runtime.metadata.TxDrivenModuleMetadata;
+import com.graphaware.runtime.module.BaseTxDrivenModule;
+import com.graphaware.runtime.module.DeliberateTransactionRollbackException;
+import com.graphaware.runtime.module.TimeBudgetedTxDrivenModule;
+import com.graphaware.runtime.monitor.DatabaseLoadMonitor;
+import com.graphaware.tx.event.improved.api.ImprovedTransactionData;
+import org.junit.Test;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.graphaware.runtime.GraphAwareRuntimeFactory.createRuntime;
+import static com.graphaware.runtime.config.FluentRuntimeConfiguration.defaultConfiguration;
+import static com.graphaware.runtime.config.RuntimeConfiguration.TX_MODULES_PROPERTY_PREFIX;
+import static com.graphaware.runtime.manager.ModuleCircuitBreaker.State.*;
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link ModuleCircuitBreaker} and time budgets of {@link TimeBudgetedTxDrivenModule}s.
+ */
+public class ModuleCircuitBreakerTest {
+
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(20);
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void breakerShouldOpenAfterRepeatedViolationsWithinWindow() {
+        ModuleCircuitBreaker breaker = new ModuleCircuitBreaker("test", budget().withMaxViolations(3), null);
+
+        assertFalse(breaker.record(SLOW));
+        assertFalse(breaker.record(FAST));
+        assertFalse(breaker.record(SLOW));
+        assertTrue(breaker.allows());
+        assertEquals(CLOSED, breaker.getState());
+
+        assertTrue(breaker.record(SLOW));
+        assertEquals(OPEN, breaker.getState());
+        assertFalse(breaker.allows());
+        assertEquals(1, breaker.getTrips());
+    }
+
+    @Test
+    public void violationsOutsideWindowShouldNotOpenBreaker() throws InterruptedException {
+        ModuleCircuitBreaker breaker = new ModuleCircuitBreaker("test", budget().withMaxViolations(2).withWindowMillis(50), null);
+
+        assertFalse(breaker.record(SLOW));
+        Thread.sleep(100);
+        assertFalse(breaker.record(SLOW));
+        assertEquals(CLOSED, breaker.getState());
+
+        assertTrue(breaker.record(SLOW));
+        assertEquals(OPEN, breaker.getState());
+    }
+
+    @Test
+    public void breakerShouldCloseAfterSuccessfulTrial() throws InterruptedException {
+        ModuleCircuitBreaker breaker = new ModuleCircuitBreaker("test", budget().withMaxViolations(1).withCooldownMillis(50), null);
+
+        assertTrue(breaker.record(SLOW));
+        assertFalse(breaker.allows());
+
+        Thread.sleep(100);
+        assertTrue(breaker.allows());
+        assertEquals(HALF_OPEN, breaker.getState());
+
+        assertFalse(breaker.record(FAST));
+        assertEquals(CLOSED, breaker.getState());
+        assertTrue(breaker.allows());
+    }
+
+    @Test
+    public void breakerShouldReopenAfterUnsuccessfulTrial() throws InterruptedException {
+        ModuleCircuitBreaker breaker = new ModuleCircuitBreaker("test", budget().withMaxViolations(1).withCooldownMillis(50), null);
+
+        assertTrue(breaker.record(SLOW));
+        Thread.sleep(100);
+        assertTrue(breaker.allows());
+
+        assertFalse(breaker.record(SLOW));
+        assertEquals(OPEN, breaker.getState());
+        assertFalse(breaker.allows());
+        assertEquals(1, breaker.getTrips());
+    }
+
+    @Test
+    public void moduleShouldNotBeReenabledUnderLoad() throws InterruptedException {
+        final AtomicInteger load = new AtomicInteger(500);
+        ModuleCircuitBreaker breaker = new ModuleCircuitBreaker("test", budget().withMaxViolations(1).withCooldownMillis(50).withReenableLoadThreshold(100), new DatabaseLoadMonitor() {
+            @Override
+            public long getLoad() {
+                return load.get();
+            }
+        });
+
+        assertTrue(breaker.record(SLOW));
+        Thread.sleep(100);
+        assertFalse(breaker.allows());
+        assertEquals(OPEN, breaker.getState());
+
+        load.set(50);
+        assertTrue(breaker.allows());
+        assertEquals(HALF_OPEN, breaker.getState());
+    }
+
+    @Test
+    public void slowModuleShouldBeBypassedAndMarkedForReinitialization() throws InterruptedException {
+        GraphDatabaseService database = new TestGraphDatabaseFactory().newImpermanentDatabase();
+
+        try {
+            GraphAwareRuntime runtime = createRuntime(database);
+            SlowModule module = new SlowModule(budget().withMaxViolations(2).withCooldownMillis(200));
+            runtime.registerModule(module);
+            runtime.start();
+
+            createNode(database, 50);
+            createNode(database, 50);
+            assertEquals(2, module.invocations.get());
+
+            createNode(database, 0);
+            createNode(database, 0);
+            assertEquals(2, module.invocations.get());
+
+            assertTrue(eventuallyNeedsInitialization(database, module));
+
+            Thread.sleep(300);
+
+            createNode(database, 0);
+            createNode(database, 0);
+            assertEquals(4, module.invocations.get());
+        } finally {
+            database.shutdown();
+        }
+    }
+
+    @Test
+    public void slowModuleShouldBeMarkedForReinitializationEvenIfTransactionRollsBack() throws InterruptedException {
+        GraphDatabaseService database = new TestGraphDatabaseFactory().newImpermanentDatabase();
+
+        try {
+            GraphAwareRuntime runtime = createRuntime(database);
+            SlowModule module = new SlowModule(budget().withMaxViolations(2).withCooldownMillis(60_000));
+            runtime.registerModule(module);
+            runtime.registerModule(new RollbackModule());
+            runtime.start();
+
+            createNode(database, 50);
+            try {
+                createNode(database, 50, true);
+                fail();
+            } catch (RuntimeException e) {
+                //expected
+            }
+
+            assertEquals(2, module.invocations.get());
+            assertTrue(eventuallyNeedsInitialization(database, module));
+        } finally {
+            database.shutdown();
+        }
+    }
+
+    private static boolean eventuallyNeedsInitialization(GraphDatabaseService database, SlowModule module) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            try (Transaction tx = database.beginTx()) {
+                TxDrivenModuleMetadata metadata = new GraphPropertiesMetadataRepository(database, defaultConfiguration(), TX_MODULES_PROPERTY_PREFIX).getModuleMetadata(module);
+                tx.success();
+                if (metadata.needsInitialization()) {
+                    return true;
+                }
+            }
+            Thread.sleep(50);
+        }
+        return false;
+    }
+
+    private static TimeBudgetConfiguration budget() {
+        return TimeBudgetConfiguration.defaultConfiguration().withBudgetMillis(10).withReenableLoadThreshold(Long.MAX_VALUE);
+    }
+
+    private static void createNode(GraphDatabaseService database, long sleep) {
+        createNode(database, sleep, false);
+    }
+
+    private static void createNode(GraphDatabaseService database, long sleep, boolean rollback) {
+        try (Transaction tx = database.beginTx()) {
+            Node node = database.createNode();
+            node.setProperty("sleep", sleep);
+            node.setProperty("rollback", rollback);
+            tx.success();
+        }
+    }
+
+    private static class RollbackModule extends BaseTxDrivenModule<Void> {
+
+        private RollbackModule() {
+            super("rollback");
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void beforeCommit(ImprovedTransactionData transactionData) throws DeliberateTransactionRollbackException {
+            for (Node node : transactionData.getAllCreatedNodes()) {
+                if ((Boolean) node.getProperty("rollback")) {
+                    throw new DeliberateTransactionRollbackException("Deliberate testing rollback");
+                }
+            }
+            return null;
+        }
+    }
+
+    private static class SlowModule extends BaseTxDrivenModule<Void> implements TimeBudgetedTxDrivenModule<Void> {
+
+        private final TimeBudgetConfiguration configuration;
+        private final AtomicInteger invocations = new AtomicInteger(0);
+
+        private SlowModule(TimeBudgetConfiguration configuration) {
+            super("slow");
+            this.configuration = configuration;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public TimeBudgetConfiguration getTimeBudgetConfiguration() {
+            return configuration;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void beforeCommit(ImprovedTransactionData transactionData) {
+            invocations.incrementAndGet();
+            for (Node node : transactionData.getAllCreatedNodes()) {
+                try {
+                    Thread.sleep((Long) node.getProperty("sleep"));
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            return null;
+        }
+    }
+}
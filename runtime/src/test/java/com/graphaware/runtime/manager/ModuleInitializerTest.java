@@ -0,0 +1,417 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.manager;
+
+import com.graphaware.runtime.GraphAwareRuntime;
+import com.graphaware.runtime.TxDrivenRuntime;
+import com.graphaware.runtime.config.InitializationConfiguration;
+import com.graphaware.runtime.module.BaseTxDrivenModule;
+import com.graphaware.runtime.module.DependentModule;
+import com.graphaware.tx.event.improved.api.ImprovedTransactionData;
+import org.junit.Test;
+import org.neo4j.graphdb.DynamicLabel;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.graphaware.runtime.GraphAwareRuntimeFactory.createRuntime;
+import static com.graphaware.runtime.config.FluentRuntimeConfiguration.defaultConfiguration;
+import static com.graphaware.runtime.manager.ModuleReadiness.*;
+import static org.neo4j.helpers.collection.IteratorUtil.count;
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link ModuleInitializer} and parallel initialization of modules when the runtime starts.
+ */
+public class ModuleInitializerTest {
+
+    private final Map<String, ModuleReadiness> readiness = new ConcurrentHashMap<>();
+    private final List<String> log = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void independentModulesShouldBeInitializedConcurrently() {
+        ModuleInitializer initializer = new ModuleInitializer(2, readiness);
+        CountDownLatch latch = new CountDownLatch(2);
+
+        initializer.schedule("M1", Collections.<String>emptySet(), new Barrier("M1", latch));
+        initializer.schedule("M2", Collections.<String>emptySet(), new Barrier("M2", latch));
+        initializer.initialize();
+
+        assertEquals(0, latch.getCount());
+        assertEquals(READY, readiness.get("M1"));
+        assertEquals(READY, readiness.get("M2"));
+    }
+
+    @Test
+    public void dependentModuleShouldBeInitializedAfterItsDependencies() {
+        ModuleInitializer initializer = new ModuleInitializer(4, readiness);
+
+        initializer.schedule("M3", set("M1", "M2"), new Logging("M3", 0));
+        initializer.schedule("M1", Collections.<String>emptySet(), new Logging("M1", 50));
+        initializer.schedule("M2", set("M1"), new Logging("M2", 10));
+        initializer.schedule("M4", set("M0"), new Logging("M4", 0)); //M0 doesn't need initializing
+        initializer.initialize();
+
+        assertTrue(log.indexOf("M1") < log.indexOf("M2"));
+        assertTrue(log.indexOf("M2") < log.indexOf("M3"));
+        assertEquals(4, log.size());
+        assertEquals(READY, readiness.get("M3"));
+    }
+
+    @Test
+    public void singleThreadShouldInitializeModulesInDependencyOrder() {
+        ModuleInitializer initializer = new ModuleInitializer(1, readiness);
+
+        initializer.schedule("M2", set("M1"), new Logging("M2", 0));
+        initializer.schedule("M1", Collections.<String>emptySet(), new Logging("M1", 0));
+        initializer.initialize();
+
+        assertEquals(Arrays.asList("M1", "M2"), log);
+    }
+
+    @Test
+    public void mergedWorkShouldInitializeAllItsModulesAtOnce() {
+        ModuleInitializer initializer = new ModuleInitializer(2, readiness);
+
+        initializer.schedule("M1", Collections.<String>emptySet(), new Logging("M1", 0));
+        initializer.schedule("M2", set("M1", "M0"), new Logging("M2", 0));
+        initializer.schedule("M0", Collections.<String>emptySet(), new Logging("M0", 50));
+        initializer.schedule("M3", set("M2"), new Logging("M3", 0));
+        initializer.merge(set("M1", "M2"), new Logging("M1+M2", 0));
+        initializer.initialize();
+
+        assertEquals(Arrays.asList("M0", "M1+M2", "M3"), log);
+        assertEquals(READY, readiness.get("M1"));
+        assertEquals(READY, readiness.get("M2"));
+    }
+
+    @Test
+    public void failureShouldPreventInitializationOfDependentModulesOnly() {
+        ModuleInitializer initializer = new ModuleInitializer(2, readiness);
+
+        initializer.schedule("M1", Collections.<String>emptySet(), new Runnable() {
+            @Override
+            public void run() {
+                throw new IllegalArgumentException("Deliberate");
+            }
+        });
+        initializer.schedule("M2", set("M1"), new Logging("M2", 0));
+        initializer.schedule("M3", set("M2"), new Logging("M3", 0));
+        initializer.schedule("M4", Collections.<String>emptySet(), new Logging("M4", 0));
+
+        try {
+            initializer.initialize();
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Deliberate", e.getMessage());
+        }
+
+        assertEquals(Collections.singletonList("M4"), log);
+        assertEquals(FAILED, readiness.get("M1"));
+        assertEquals(FAILED, readiness.get("M2"));
+        assertEquals(FAILED, readiness.get("M3"));
+        assertEquals(READY, readiness.get("M4"));
+    }
+
+    @Test
+    public void circularDependenciesShouldBeDetected() {
+        ModuleInitializer initializer = new ModuleInitializer(2, readiness);
+
+        initializer.schedule("M1", set("M2"), new Logging("M1", 0));
+        initializer.schedule("M2", set("M1"), new Logging("M2", 0));
+        initializer.schedule("M3", Collections.<String>emptySet(), new Logging("M3", 0));
+
+        try {
+            initializer.initialize();
+            fail();
+        } catch (IllegalStateException e) {
+            //ok
+        }
+
+        assertEquals(Collections.singletonList("M3"), log);
+        assertEquals(FAILED, readiness.get("M1"));
+    }
+
+    @Test
+    public void splitWorkShouldBeInitializedSeparately() {
+        ModuleInitializer initializer = new ModuleInitializer(2, readiness);
+
+        initializer.schedule("M1", Collections.<String>emptySet(), new Logging("M1", 0));
+        initializer.schedule("M2", set("M1"), new Logging("M2", 0));
+        initializer.schedule("M3", Collections.<String>emptySet(), new Logging("M3", 0));
+        initializer.schedule("M4", Collections.<String>emptySet(), new Logging("M4", 0));
+        initializer.merge(set("M3", "M4"), new Logging("M3+M4", 0));
+
+        ModuleInitializer split = initializer.split(set("M2", "M3"));
+        assertTrue(split.isScheduled("M2"));
+        assertFalse(split.isScheduled("M3"));
+        assertFalse(initializer.isScheduled("M2"));
+
+        initializer.initialize();
+        assertEquals(WAITING, readiness.get("M2"));
+
+        split.initialize(new ModuleInitializer.Listener() {
+            @Override
+            public void initialized(Set<String> moduleIds) {
+                assertEquals(INITIALIZING, readiness.get("M2"));
+                log.add("listener" + moduleIds);
+            }
+        });
+
+        assertEquals("M2", log.get(2));
+        assertEquals("listener[M2]", log.get(3));
+        assertEquals(READY, readiness.get("M2"));
+    }
+
+    @Test
+    public void modulesShouldBeInitializedConcurrentlyWhenRuntimeStarts() {
+        GraphDatabaseService database = new TestGraphDatabaseFactory().newImpermanentDatabase();
+
+        GraphAwareRuntime runtime = createRuntime(database, defaultConfiguration().withInitializationConfiguration(InitializationConfiguration.defaultConfiguration().withThreads(2)));
+        CountDownLatch latch = new CountDownLatch(2);
+        InitializingModule m1 = new InitializingModule("M1", latch);
+        InitializingModule m2 = new InitializingModule("M2", latch);
+        DependentInitializingModule m3 = new DependentInitializingModule("M3", null, "M1", "M2");
+        runtime.registerModule(m3);
+        runtime.registerModule(m1);
+        runtime.registerModule(m2);
+
+        runtime.start();
+
+        assertEquals(0, latch.getCount());
+        assertTrue(m3.initializedAfter(m1));
+        assertTrue(m3.initializedAfter(m2));
+
+        try (Transaction tx = database.beginTx()) {
+            assertEquals(3, count(database.findNodes(DynamicLabel.label("Initialized"))));
+            tx.success();
+        }
+
+        database.shutdown();
+    }
+
+    @Test
+    public void modulesShouldBeReadyAfterStart() {
+        GraphDatabaseService database = new TestGraphDatabaseFactory().newImpermanentDatabase();
+
+        TxDrivenRuntime<?> runtime = (TxDrivenRuntime<?>) createRuntime(database);
+        runtime.registerModule(new InitializingModule("M1", new CountDownLatch(0)));
+        assertEquals(PENDING, runtime.getReadiness("M1"));
+        assertNull(runtime.getReadiness("unknown"));
+
+        runtime.start();
+        assertEquals(READY, runtime.getReadiness("M1"));
+
+        database.shutdown();
+    }
+
+    @Test
+    public void onlyPoolThreadsShouldBeRecognizedAsInitializationThreads() {
+        ModuleInitializer initializer = new ModuleInitializer(2, readiness);
+        final List<Boolean> poolThreads = new CopyOnWriteArrayList<>();
+        final List<Boolean> spawnedThreads = new CopyOnWriteArrayList<>();
+
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                poolThreads.add(ModuleInitializer.isInitializationThread());
+                Thread spawned = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        spawnedThreads.add(ModuleInitializer.isInitializationThread());
+                    }
+                });
+                spawned.start();
+                try {
+                    spawned.join();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+
+        initializer.schedule("M1", Collections.<String>emptySet(), task);
+        initializer.schedule("M2", Collections.<String>emptySet(), task);
+        initializer.initialize();
+
+        assertEquals(Arrays.asList(true, true), poolThreads);
+        assertEquals(Arrays.asList(false, false), spawnedThreads);
+        assertFalse(ModuleInitializer.isInitializationThread());
+    }
+
+    @Test
+    public void threadsSpawnedWhileStartingShouldWaitForRuntimeToStart() throws InterruptedException {
+        final GraphDatabaseService database = new TestGraphDatabaseFactory().newImpermanentDatabase();
+        final CountDownLatch committed = new CountDownLatch(1);
+        final Thread[] spawned = new Thread[1];
+
+        GraphAwareRuntime runtime = createRuntime(database);
+        runtime.registerModule(new InitializingModule("M1", new CountDownLatch(0)) {
+            @Override
+            public void initialize(GraphDatabaseService database) {
+                super.initialize(database);
+                spawned[0] = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try (Transaction tx = database.beginTx()) {
+                            database.createNode();
+                            tx.success();
+                        }
+                        committed.countDown();
+                    }
+                });
+                spawned[0].start();
+                try {
+                    assertFalse("Thread spawned while starting did not wait for the runtime to start", committed.await(500, TimeUnit.MILLISECONDS));
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+
+        runtime.start();
+
+        assertTrue(committed.await(5, TimeUnit.SECONDS));
+        spawned[0].join();
+
+        database.shutdown();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void dependencyOnUnknownModuleShouldFailStart() {
+        GraphDatabaseService database = new TestGraphDatabaseFactory().newImpermanentDatabase();
+
+        try {
+            GraphAwareRuntime runtime = createRuntime(database);
+            runtime.registerModule(new DependentInitializingModule("M1", null, "unknown"));
+            runtime.start();
+        } finally {
+            database.shutdown();
+        }
+    }
+
+    private static Set<String> set(String... ids) {
+        return new HashSet<>(Arrays.asList(ids));
+    }
+
+    private class Logging implements Runnable {
+
+        private final String id;
+        private final long sleep;
+
+        private Logging(String id, long sleep) {
+            this.id = id;
+            this.sleep = sleep;
+        }
+
+        @Override
+        public void run() {
+            try {
+                Thread.sleep(sleep);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            log.add(id);
+        }
+    }
+
+    private class Barrier implements Runnable {
+
+        private final String id;
+        private final CountDownLatch latch;
+
+        private Barrier(String id, CountDownLatch latch) {
+            this.id = id;
+            this.latch = latch;
+        }
+
+        @Override
+        public void run() {
+            assertEquals(INITIALIZING, readiness.get(id));
+            latch.countDown();
+            try {
+                assertTrue("Modules have not been initialized concurrently", latch.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private static class InitializingModule extends BaseTxDrivenModule<Void> {
+
+        private final CountDownLatch latch;
+        private volatile long initialized = 0;
+
+        private InitializingModule(String moduleId, CountDownLatch latch) {
+            super(moduleId);
+            this.latch = latch;
+        }
+
+        @Override
+        public void initialize(GraphDatabaseService database) {
+            //writes in a transaction of its own, must not wait for the runtime to start
+            try (Transaction tx = database.beginTx()) {
+                database.createNode(DynamicLabel.label("Initialized"));
+                tx.success();
+            }
+
+            latch.countDown();
+            try {
+                latch.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+
+            initialized = System.nanoTime();
+        }
+
+        boolean initializedAfter(InitializingModule other) {
+            return other.initialized > 0 && initialized > other.initialized;
+        }
+
+        @Override
+        public Void beforeCommit(ImprovedTransactionData transactionData) {
+            return null;
+        }
+    }
+
+    private static class DependentInitializingModule extends InitializingModule implements DependentModule {
+
+        private final Set<String> dependencies;
+
+        private DependentInitializingModule(String moduleId, CountDownLatch latch, String... dependencies) {
+            super(moduleId, latch == null ? new CountDownLatch(0) : latch);
+            this.dependencies = set(dependencies);
+        }
+
+        @Override
+        public Set<String> getDependencies() {
+            return dependencies;
+        }
+    }
+}
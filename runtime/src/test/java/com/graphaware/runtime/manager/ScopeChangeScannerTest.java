@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.manager;
+
+import com.graphaware.common.policy.InclusionPolicies;
+import com.graphaware.common.policy.all.IncludeAllNodes;
+import com.graphaware.common.policy.composite.CompositeNodeInclusionPolicy;
+import com.graphaware.common.policy.fluent.IncludeNodes;
+import com.graphaware.common.policy.fluent.IncludeRelationships;
+import com.graphaware.common.policy.none.IncludeNoNodes;
+import com.graphaware.common.policy.spel.SpelNodeInclusionPolicy;
+import com.graphaware.runtime.GraphAwareRuntime;
+import com.graphaware.runtime.config.FluentTxDrivenModuleConfiguration;
+import com.graphaware.runtime.config.TxDrivenModuleConfiguration;
+import com.graphaware.runtime.metadata.DefaultTxDrivenModuleMetadata;
+import com.graphaware.runtime.metadata.GraphPropertiesMetadataRepository;
+import com.graphaware.runtime.metadata.TxDrivenModuleMetadata;
+import com.graphaware.runtime.module.BaseTxDrivenModule;
+import com.graphaware.runtime.module.IncrementallyReinitializedTxDrivenModule;
+import com.graphaware.runtime.module.ScopeChangeVisitor;
+import com.graphaware.tx.event.improved.api.ImprovedTransactionData;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.DynamicLabel;
+import org.neo4j.graphdb.DynamicRelationshipType;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.graphaware.runtime.GraphAwareRuntimeFactory.createRuntime;
+import static com.graphaware.runtime.config.FluentRuntimeConfiguration.defaultConfiguration;
+import static com.graphaware.runtime.config.RuntimeConfiguration.TX_MODULES_PROPERTY_PREFIX;
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link ScopeChangeScanner} and incremental re-initialization of modules.
+ */
+public class ScopeChangeScannerTest {
+
+    private GraphDatabaseService database;
+
+    @Before
+    public void setUp() {
+        database = new TestGraphDatabaseFactory().newImpermanentDatabase();
+
+        Label a = DynamicLabel.label("A");
+        Label b = DynamicLabel.label("B");
+        Label c = DynamicLabel.label("C");
+
+        try (Transaction tx = database.beginTx()) {
+            Node previous = database.createNode(a, b);
+            for (int i = 0; i < 10; i++) {
+                Node node = database.createNode(i < 5 ? a : i < 8 ? b : c);
+                previous.createRelationshipTo(node, DynamicRelationshipType.withName(i % 2 == 0 ? "R1" : "R2"));
+                previous = node;
+            }
+            tx.success();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    public void labelScansShouldFindNodesEnteringAndLeavingScope() {
+        CountingVisitor visitor = scan(InclusionPolicies.all().with(IncludeNodes.all().with("A")), InclusionPolicies.all().with(IncludeNodes.all().with("B")));
+
+        assertEquals(3, visitor.nodesEntered.get());
+        assertEquals(5, visitor.nodesLeft.get());
+        assertEquals(0, visitor.relationshipsEntered.get() + visitor.relationshipsLeft.get());
+        assertEquals(2, visitor.callbacks.get());
+    }
+
+    @Test
+    public void nodesShouldBeScannedWhenPolicyIsNotLabelBased() {
+        CountingVisitor visitor = scan(InclusionPolicies.all().with(IncludeNodes.all().with("A")), InclusionPolicies.all().with(new SpelNodeInclusionPolicy("hasLabel('A') || getDegree() == 1")));
+
+        assertEquals(1, visitor.nodesEntered.get());
+        assertEquals(0, visitor.nodesLeft.get());
+    }
+
+    @Test
+    public void labelScansShouldFindNodesWhenWideningFromOneLabelToTwo() {
+        CountingVisitor visitor = scan(InclusionPolicies.all().with(new SpelNodeInclusionPolicy("hasLabel('A')")), InclusionPolicies.all().with(new SpelNodeInclusionPolicy("hasLabel('A') || hasLabel('B')")));
+
+        assertEquals(3, visitor.nodesEntered.get());
+        assertEquals(0, visitor.nodesLeft.get());
+    }
+
+    @Test
+    public void candidateLabelsShouldBeDeterminedForLabelBasedPolicies() {
+        ScopeChangeScanner scanner = new ScopeChangeScanner(database, 1, 1);
+
+        assertEquals(labels("A"), scanner.candidateLabels(IncludeNodes.all().with("A")));
+        assertEquals(labels("A", "B"), scanner.candidateLabels(new SpelNodeInclusionPolicy("hasLabel('A') || hasLabel('B')")));
+        assertEquals(labels("A"), scanner.candidateLabels(CompositeNodeInclusionPolicy.of(new SpelNodeInclusionPolicy("hasLabel('A') || hasLabel('B')"), IncludeNodes.all().with("A"))));
+        assertEquals(labels("B"), scanner.candidateLabels(CompositeNodeInclusionPolicy.of(new SpelNodeInclusionPolicy("getDegree() > 1"), new SpelNodeInclusionPolicy("hasLabel('B')"))));
+        assertEquals(labels(), scanner.candidateLabels(IncludeNoNodes.getInstance()));
+
+        assertNull(scanner.candidateLabels(IncludeAllNodes.getInstance()));
+        assertNull(scanner.candidateLabels(new SpelNodeInclusionPolicy("hasLabel('A') || getDegree() > 1")));
+        assertNull(scanner.candidateLabels(CompositeNodeInclusionPolicy.of(IncludeAllNodes.getInstance(), new SpelNodeInclusionPolicy("getDegree() > 1"))));
+    }
+
+    @Test
+    public void relationshipsShouldOnlyBeScannedWhenTheirPolicyChanges() {
+        CountingVisitor visitor = scan(InclusionPolicies.all().with(IncludeRelationships.all().with("R1")), InclusionPolicies.all().with(IncludeRelationships.all().with("R1", "R2")));
+
+        assertEquals(5, visitor.relationshipsEntered.get());
+        assertEquals(0, visitor.relationshipsLeft.get());
+        assertEquals(0, visitor.nodesEntered.get() + visitor.nodesLeft.get());
+    }
+
+    @Test
+    public void moduleWithOnlyChangedPoliciesShouldBeReinitializedIncrementally() {
+        TxDrivenModuleConfiguration oldConfiguration = FluentTxDrivenModuleConfiguration.defaultConfiguration().with(IncludeNodes.all().with("A"));
+        ScopeChangingModule module = new ScopeChangingModule(FluentTxDrivenModuleConfiguration.defaultConfiguration().with(IncludeNodes.all().with("B")));
+
+        GraphPropertiesMetadataRepository repository = new GraphPropertiesMetadataRepository(database, defaultConfiguration(), TX_MODULES_PROPERTY_PREFIX);
+        try (Transaction tx = database.beginTx()) {
+            repository.persistModuleMetadata(module, new DefaultTxDrivenModuleMetadata(oldConfiguration));
+            tx.success();
+        }
+
+        GraphAwareRuntime runtime = createRuntime(database);
+        runtime.registerModule(module);
+        runtime.start();
+
+        assertFalse(module.reinitialized);
+        assertEquals(3, module.visitor.nodesEntered.get());
+        assertEquals(5, module.visitor.nodesLeft.get());
+
+        try (Transaction tx = database.beginTx()) {
+            TxDrivenModuleMetadata metadata = repository.getModuleMetadata(module);
+            assertEquals(module.getConfiguration(), metadata.getConfig());
+            tx.success();
+        }
+    }
+
+    private static Set<Label> labels(String... names) {
+        Set<Label> result = new HashSet<>();
+        for (String name : names) {
+            result.add(DynamicLabel.label(name));
+        }
+        return result;
+    }
+
+    private CountingVisitor scan(InclusionPolicies oldPolicies, InclusionPolicies newPolicies) {
+        CountingVisitor visitor = new CountingVisitor();
+        new ScopeChangeScanner(database, 2, 3).scan(oldPolicies, newPolicies, visitor);
+        return visitor;
+    }
+
+    private static class CountingVisitor implements ScopeChangeVisitor {
+
+        private final AtomicInteger nodesEntered = new AtomicInteger();
+        private final AtomicInteger nodesLeft = new AtomicInteger();
+        private final AtomicInteger relationshipsEntered = new AtomicInteger();
+        private final AtomicInteger relationshipsLeft = new AtomicInteger();
+        private final AtomicInteger callbacks = new AtomicInteger();
+
+        @Override
+        public void beforeScan() {
+            callbacks.incrementAndGet();
+        }
+
+        @Override
+        public void nodeEntered(Node node) {
+            nodesEntered.incrementAndGet();
+        }
+
+        @Override
+        public void nodeLeft(Node node) {
+            nodesLeft.incrementAndGet();
+        }
+
+        @Override
+        public void relationshipEntered(Relationship relationship) {
+            relationshipsEntered.incrementAndGet();
+        }
+
+        @Override
+        public void relationshipLeft(Relationship relationship) {
+            relationshipsLeft.incrementAndGet();
+        }
+
+        @Override
+        public void afterScan() {
+            callbacks.incrementAndGet();
+        }
+    }
+
+    private static class ScopeChangingModule extends BaseTxDrivenModule<Void> implements IncrementallyReinitializedTxDrivenModule<Void> {
+
+        private final TxDrivenModuleConfiguration configuration;
+        private final CountingVisitor visitor = new CountingVisitor();
+        private volatile boolean reinitialized = false;
+
+        private ScopeChangingModule(TxDrivenModuleConfiguration configuration) {
+            super("SCM");
+            this.configuration = configuration;
+        }
+
+        @Override
+        public TxDrivenModuleConfiguration getConfiguration() {
+            return configuration;
+        }
+
+        @Override
+        public ScopeChangeVisitor createScopeChangeVisitor(GraphDatabaseService database, TxDrivenModuleConfiguration oldConfiguration) {
+            assertEquals(FluentTxDrivenModuleConfiguration.defaultConfiguration().with(IncludeNodes.all().with("A")), oldConfiguration);
+            return visitor;
+        }
+
+        @Override
+        public void reinitialize(GraphDatabaseService database, TxDrivenModuleMetadata oldMetadata) {
+            reinitialized = true;
+        }
+
+        @Override
+        public Void beforeCommit(ImprovedTransactionData transactionData) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.manager;
+
+import com.graphaware.common.policy.NodeInclusionPolicy;
+import com.graphaware.common.policy.RelationshipInclusionPolicy;
+import com.graphaware.runtime.GraphAwareRuntime;
+import com.graphaware.runtime.TxDrivenRuntime;
+import com.graphaware.runtime.config.FluentTxDrivenModuleConfiguration;
+import com.graphaware.runtime.config.InitializationConfiguration;
+import com.graphaware.runtime.config.TxDrivenModuleConfiguration;
+import com.graphaware.runtime.metadata.TxDrivenModuleMetadata;
+import com.graphaware.runtime.module.BaseInitializationVisitor;
+import com.graphaware.runtime.module.BaseTxDrivenModule;
+import com.graphaware.runtime.module.InitializationVisitor;
+import com.graphaware.runtime.module.ScanInitializedTxDrivenModule;
+import com.graphaware.tx.event.improved.api.ImprovedTransactionData;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.DynamicLabel;
+import org.neo4j.graphdb.DynamicRelationshipType;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.graphaware.runtime.GraphAwareRuntimeFactory.createRuntime;
+import static com.graphaware.runtime.config.FluentRuntimeConfiguration.defaultConfiguration;
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link StoreScanner} and initialization of {@link ScanInitializedTxDrivenModule}s.
+ */
+public class StoreScannerTest {
+
+    private GraphDatabaseService database;
+    private final List<String> events = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() {
+        database = new TestGraphDatabaseFactory().newImpermanentDatabase();
+
+        //people in a chain of friendships, every other one is a Customer, with a few deleted to leave holes in the stores
+        try (Transaction tx = database.beginTx()) {
+            Node previous = null;
+            for (int i = 0; i < 2500; i++) {
+                Node person = database.createNode(DynamicLabel.label("Person"));
+                if (i % 2 == 0) {
+                    person.addLabel(DynamicLabel.label("Customer"));
+                }
+                if (previous != null) {
+                    previous.createRelationshipTo(person, DynamicRelationshipType.withName(i % 2 == 0 ? "FRIEND_OF" : "KNOWS"));
+                }
+                previous = person;
+            }
+            tx.success();
+        }
+
+        try (Transaction tx = database.beginTx()) {
+            for (long id = 100; id < 110; id++) {
+                Node node = database.getNodeById(id);
+                for (Relationship relationship : node.getRelationships()) {
+                    relationship.delete();
+                }
+                node.delete();
+            }
+            tx.success();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    public void eachEntityShouldBeVisitedOnceByEachInterestedModule() {
+        ScanModule all = new ScanModule("all", FluentTxDrivenModuleConfiguration.defaultConfiguration(), true, true);
+        ScanModule customers = new ScanModule("customers", FluentTxDrivenModuleConfiguration.defaultConfiguration().with(customers()).with(friendships()), true, true);
+        ScanModule noRelationships = new ScanModule("nodes", FluentTxDrivenModuleConfiguration.defaultConfiguration(), true, false);
+
+        Map<ScanModule, InitializationVisitor> visitors = new LinkedHashMap<>();
+        for (ScanModule module : new ScanModule[]{all, customers, noRelationships}) {
+            visitors.put(module, module.createInitializationVisitor(database, null));
+        }
+
+        new StoreScanner(database, 4, 100).scan(visitors);
+
+        assertEquals(2490, all.nodes.size());
+        assertEquals(2488, all.relationships.size());
+        assertEquals(1245, customers.nodes.size());
+        assertEquals(1243, customers.relationships.size());
+        assertEquals(2490, noRelationships.nodes.size());
+        assertEquals(0, noRelationships.relationships.size());
+
+        assertEquals(1, all.visits.get(0L).intValue());
+        assertEquals(1, customers.visits.get(0L).intValue());
+        for (int count : all.visits.values()) {
+            assertEquals(1, count);
+        }
+
+        assertEquals("all-before", events.get(0));
+        assertEquals("nodes-before", events.get(2));
+        assertEquals("nodes-after", events.get(events.size() - 1));
+    }
+
+    @Test
+    public void exceptionInVisitorShouldStopScan() {
+        ScanModule failing = new ScanModule("failing", FluentTxDrivenModuleConfiguration.defaultConfiguration(), true, true) {
+            @Override
+            protected void visited(Node node) {
+                if (node.getId() == 1000) {
+                    throw new IllegalStateException("Deliberate");
+                }
+            }
+        };
+
+        Map<ScanModule, InitializationVisitor> visitors = new LinkedHashMap<>();
+        visitors.put(failing, failing.createInitializationVisitor(database, null));
+
+        try {
+            new StoreScanner(database, 4, 100).scan(visitors);
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("Deliberate", e.getMessage());
+        }
+
+        assertFalse(events.contains("failing-after"));
+        assertTrue(failing.relationships.isEmpty());
+    }
+
+    @Test
+    public void modulesShouldShareSingleScanWhenRuntimeStarts() {
+        GraphAwareRuntime runtime = createRuntime(database, defaultConfiguration().withInitializationConfiguration(InitializationConfiguration.defaultConfiguration().withThreads(1).withBatchSize(100)));
+        ScanModule m1 = new ScanModule("M1", FluentTxDrivenModuleConfiguration.defaultConfiguration(), true, true);
+        ScanModule m2 = new ScanModule("M2", FluentTxDrivenModuleConfiguration.defaultConfiguration().with(customers()), true, false);
+        runtime.registerModule(m1);
+        runtime.registerModule(m2);
+
+        runtime.start();
+
+        //with a single thread, separate scans would have run one after the other
+        assertEquals("M1-before", events.get(0));
+        assertEquals("M2-before", events.get(1));
+        assertEquals("M1-after", events.get(events.size() - 2));
+        assertEquals("M2-after", events.get(events.size() - 1));
+
+        assertEquals(2490, m1.nodes.size());
+        assertEquals(2488, m1.relationships.size());
+        assertEquals(1245, m2.nodes.size());
+
+        assertEquals(ModuleReadiness.READY, ((TxDrivenRuntime<?>) runtime).getReadiness("M1"));
+        assertEquals(ModuleReadiness.READY, ((TxDrivenRuntime<?>) runtime).getReadiness("M2"));
+    }
+
+    private static NodeInclusionPolicy customers() {
+        return new NodeInclusionPolicy() {
+            @Override
+            public boolean include(Node node) {
+                return node.hasLabel(DynamicLabel.label("Customer"));
+            }
+        };
+    }
+
+    private static RelationshipInclusionPolicy friendships() {
+        return new RelationshipInclusionPolicy.Adapter() {
+            @Override
+            public boolean include(Relationship relationship) {
+                return relationship.isType(DynamicRelationshipType.withName("FRIEND_OF"));
+            }
+        };
+    }
+
+    private class ScanModule extends BaseTxDrivenModule<Void> implements ScanInitializedTxDrivenModule<Void> {
+
+        private final TxDrivenModuleConfiguration configuration;
+        private final boolean visitsNodes;
+        private final boolean visitsRelationships;
+        private final Set<Long> nodes = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+        private final Set<Long> relationships = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+        private final Map<Long, Integer> visits = new ConcurrentHashMap<>();
+
+        private ScanModule(String moduleId, TxDrivenModuleConfiguration configuration, boolean visitsNodes, boolean visitsRelationships) {
+            super(moduleId);
+            this.configuration = configuration;
+            this.visitsNodes = visitsNodes;
+            this.visitsRelationships = visitsRelationships;
+        }
+
+        @Override
+        public TxDrivenModuleConfiguration getConfiguration() {
+            return configuration;
+        }
+
+        @Override
+        public InitializationVisitor createInitializationVisitor(GraphDatabaseService database, TxDrivenModuleMetadata oldMetadata) {
+            return new BaseInitializationVisitor() {
+                @Override
+                public void beforeScan() {
+                    events.add(getId() + "-before");
+                }
+
+                @Override
+                public boolean visitsNodes() {
+                    return visitsNodes;
+                }
+
+                @Override
+                public boolean visitsRelationships() {
+                    return visitsRelationships;
+                }
+
+                @Override
+                public void visit(Node node) {
+                    visited(node);
+                    nodes.add(node.getId());
+                    synchronized (visits) {
+                        Integer count = visits.get(node.getId());
+                        visits.put(node.getId(), count == null ? 1 : count + 1);
+                    }
+                }
+
+                @Override
+                public void visit(Relationship relationship) {
+                    relationships.add(relationship.getId());
+                }
+
+                @Override
+                public void afterScan() {
+                    events.add(getId() + "-after");
+                }
+            };
+        }
+
+        protected void visited(Node node) {
+        }
+
+        @Override
+        public Void beforeCommit(ImprovedTransactionData transactionData) {
+            return null;
+        }
+    }
+}
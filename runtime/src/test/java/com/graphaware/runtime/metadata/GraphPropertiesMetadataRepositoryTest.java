@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.metadata;
+
+import com.graphaware.runtime.config.FluentRuntimeConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static com.graphaware.runtime.config.RuntimeConfiguration.TIMER_MODULES_PROPERTY_PREFIX;
+import static com.graphaware.runtime.config.RuntimeConfiguration.TX_MODULES_PROPERTY_PREFIX;
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link GraphPropertiesMetadataRepository}.
+ */
+public class GraphPropertiesMetadataRepositoryTest {
+
+    private GraphDatabaseService database;
+    private GraphPropertiesMetadataRepository repository;
+
+    @Before
+    public void setUp() {
+        database = new TestGraphDatabaseFactory().newImpermanentDatabase();
+        repository = new GraphPropertiesMetadataRepository(database, FluentRuntimeConfiguration.defaultConfiguration(), TIMER_MODULES_PROPERTY_PREFIX);
+    }
+
+    @After
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    public void persistedMetadataShouldBeReturned() {
+        TimerDrivenModuleMetadata metadata = new DefaultTimerDrivenModuleMetadata(new NodeBasedContext(5));
+
+        try (Transaction tx = database.beginTx()) {
+            assertNull(repository.getModuleMetadata("M1"));
+            repository.persistModuleMetadata("M1", metadata);
+            tx.success();
+        }
+
+        try (Transaction tx = database.beginTx()) {
+            assertEquals(metadata, repository.getModuleMetadata("M1"));
+            tx.success();
+        }
+
+        GraphPropertiesMetadataRepository other = new GraphPropertiesMetadataRepository(database, FluentRuntimeConfiguration.defaultConfiguration(), TIMER_MODULES_PROPERTY_PREFIX);
+        try (Transaction tx = database.beginTx()) {
+            assertEquals(metadata, other.getModuleMetadata("M1"));
+            tx.success();
+        }
+    }
+
+    @Test
+    public void metadataPersistedInRolledBackTransactionShouldNotBeReturned() {
+        TimerDrivenModuleMetadata metadata = new DefaultTimerDrivenModuleMetadata(new NodeBasedContext(5));
+
+        try (Transaction tx = database.beginTx()) {
+            repository.persistModuleMetadata("M1", metadata);
+            tx.success();
+        }
+
+        try (Transaction tx = database.beginTx()) {
+            repository.persistModuleMetadata("M1", new DefaultTimerDrivenModuleMetadata(new NodeBasedContext(6)));
+            tx.failure();
+        }
+
+        try (Transaction tx = database.beginTx()) {
+            assertEquals(metadata, repository.getModuleMetadata("M1"));
+            tx.success();
+        }
+    }
+
+    @Test
+    public void metadataChangedByAnotherRepositoryShouldBeReturned() {
+        GraphPropertiesMetadataRepository other = new GraphPropertiesMetadataRepository(database, FluentRuntimeConfiguration.defaultConfiguration(), TIMER_MODULES_PROPERTY_PREFIX);
+        TimerDrivenModuleMetadata changed = new DefaultTimerDrivenModuleMetadata(new NodeBasedContext(6));
+
+        try (Transaction tx = database.beginTx()) {
+            repository.persistModuleMetadata("M1", new DefaultTimerDrivenModuleMetadata(new NodeBasedContext(5)));
+            other.persistModuleMetadata("M1", changed);
+            tx.success();
+        }
+
+        try (Transaction tx = database.beginTx()) {
+            assertEquals(changed, repository.getModuleMetadata("M1"));
+            tx.success();
+        }
+    }
+
+    @Test
+    public void mutatingPersistedInstanceShouldNotChangeReturnedMetadata() {
+        MutableMetadata metadata = new MutableMetadata(5);
+
+        try (Transaction tx = database.beginTx()) {
+            repository.persistModuleMetadata("M1", metadata);
+            tx.success();
+        }
+
+        metadata.setValue(6);
+
+        try (Transaction tx = database.beginTx()) {
+            MutableMetadata returned = repository.getModuleMetadata("M1");
+            assertNotSame(metadata, returned);
+            assertEquals(5, returned.getValue());
+            tx.success();
+        }
+    }
+
+    @Test
+    public void shouldReturnOnlyOwnModuleIdsAndForgetRemovedModules() {
+        GraphPropertiesMetadataRepository txRepository = new GraphPropertiesMetadataRepository(database, FluentRuntimeConfiguration.defaultConfiguration(), TX_MODULES_PROPERTY_PREFIX);
+
+        try (Transaction tx = database.beginTx()) {
+            repository.persistModuleMetadata("M1", new DefaultTimerDrivenModuleMetadata(new NodeBasedContext(1)));
+            repository.persistModuleMetadata("M2", new DefaultTimerDrivenModuleMetadata(new NodeBasedContext(2)));
+            txRepository.persistModuleMetadata("M3", new DefaultTimerDrivenModuleMetadata(new NodeBasedContext(3)));
+            tx.success();
+        }
+
+        try (Transaction tx = database.beginTx()) {
+            assertEquals(new HashSet<>(Arrays.asList("M1", "M2")), repository.getAllModuleIds());
+            assertEquals(Collections.singleton("M3"), txRepository.getAllModuleIds());
+
+            repository.removeModuleMetadata("M1");
+            assertNull(repository.getModuleMetadata("M1"));
+            assertEquals(Collections.singleton("M2"), repository.getAllModuleIds());
+            tx.success();
+        }
+    }
+
+    private static class MutableMetadata implements ModuleMetadata {
+
+        private int value;
+
+        private MutableMetadata(int value) {
+            this.value = value;
+        }
+
+        public int getValue() {
+            return value;
+        }
+
+        public void setValue(int value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.monitor;
+
+import com.graphaware.runtime.schedule.TimingStrategy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import static com.graphaware.common.util.DatabaseUtils.registerShutdownHook;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for {@link CompositeLoadMonitor} and the monitors it uses by default.
+ */
+public class CompositeLoadMonitorTest {
+
+    private GraphDatabaseService database;
+
+    @Before
+    public void setUp() {
+        database = new TestGraphDatabaseFactory().newImpermanentDatabase();
+        registerShutdownHook(database);
+    }
+
+    @After
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    public void loadShouldBeHighestWeightedPercentageOfThreshold() {
+        CompositeLoadMonitor monitor = new CompositeLoadMonitor()
+                .withMonitor(new FixedLoadMonitor(50), 100, 1)     //50
+                .withMonitor(new FixedLoadMonitor(3), 2, 1)        //150
+                .withMonitor(new FixedLoadMonitor(100), 1000, 2);  //20
+
+        assertEquals(150, monitor.getLoad());
+    }
+
+    @Test
+    public void unknownLoadsShouldBeIgnored() {
+        assertEquals(TimingStrategy.UNKNOWN, new CompositeLoadMonitor().getLoad());
+
+        CompositeLoadMonitor monitor = new CompositeLoadMonitor()
+                .withMonitor(new FixedLoadMonitor(TimingStrategy.UNKNOWN), 1, 1);
+        assertEquals(TimingStrategy.UNKNOWN, monitor.getLoad());
+
+        monitor = monitor.withMonitor(new FixedLoadMonitor(0), 10, 1);
+        assertEquals(0, monitor.getLoad());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void thresholdMustBePositive() {
+        new CompositeLoadMonitor().withMonitor(new FixedLoadMonitor(1), 0, 1);
+    }
+
+    @Test
+    public void defaultMonitorsShouldMeasureLoad() throws InterruptedException {
+        DatabaseLoadMonitor cpu = new ProcessCpuLoadMonitor();
+        DatabaseLoadMonitor gc = new GcPauseBasedLoadMonitor(new RunningWindowAverage(200, 2000));
+        DatabaseLoadMonitor pageCache = new PageCacheFaultBasedLoadMonitor(database, new RunningWindowAverage(200, 2000));
+        DatabaseLoadMonitor committed = new CommittedTxBasedLoadMonitor(database, new RunningWindowAverage(200, 2000));
+        DatabaseLoadMonitor active = new ActiveTxBasedLoadMonitor(database);
+        DatabaseLoadMonitor composite = CompositeLoadMonitor.defaultConfiguration(database, 200, 2000);
+
+        assertEquals(TimingStrategy.UNKNOWN, committed.getLoad());
+        assertEquals(TimingStrategy.UNKNOWN, gc.getLoad());
+        assertEquals(TimingStrategy.UNKNOWN, pageCache.getLoad());
+        composite.getLoad();
+
+        try (Transaction tx = database.beginTx()) {
+            assertEquals(1, active.getLoad());
+            for (int i = 0; i < 100; i++) {
+                database.createNode();
+            }
+            tx.success();
+        }
+
+        Thread.sleep(5);
+
+        assertEquals(0, active.getLoad());
+        assertTrue(committed.getLoad() > 0);
+        assertTrue(gc.getLoad() >= 0);
+        assertTrue(pageCache.getLoad() >= 0);
+        assertTrue(cpu.getLoad() <= 100);
+        assertTrue(composite.getLoad() > 0);
+    }
+
+    @Test
+    public void configuredThresholdsAndWeightsShouldBeUsed() {
+        DatabaseLoadMonitor composite = CompositeLoadMonitor.create(database, 200, 2000, CompositeLoadConfiguration
+                .defaultConfiguration()
+                .withActiveTxThreshold(1)
+                .withActiveTxWeight(2));
+
+        try (Transaction tx = database.beginTx()) {
+            assertTrue(composite.getLoad() >= 200);
+            tx.success();
+        }
+    }
+
+    @Test
+    public void compositeLoadConfigurationsWithSameValuesShouldBeEqual() {
+        assertEquals(CompositeLoadConfiguration.defaultConfiguration(), CompositeLoadConfiguration.defaultConfiguration().withCpuThreshold(80).withGcWeight(1));
+        assertEquals(CompositeLoadConfiguration.defaultConfiguration().hashCode(), CompositeLoadConfiguration.defaultConfiguration().withCpuThreshold(80).hashCode());
+        assertNotEquals(CompositeLoadConfiguration.defaultConfiguration(), CompositeLoadConfiguration.defaultConfiguration().withCommitWeight(0.5));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void configuredThresholdsMustBePositive() {
+        CompositeLoadConfiguration.defaultConfiguration().withPageFaultThreshold(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void configuredWeightsMustBePositive() {
+        CompositeLoadConfiguration.defaultConfiguration().withCpuWeight(-1);
+    }
+
+    private static class FixedLoadMonitor implements DatabaseLoadMonitor {
+
+        private final long load;
+
+        private FixedLoadMonitor(long load) {
+            this.load = load;
+        }
+
+        @Override
+        public long getLoad() {
+            return load;
+        }
+    }
+}
@@ -54,4 +54,37 @@ public class RunningWindowAverageTest {
         average.sample(14_000L, 82);
         assertEquals(32, average.getAverage()); // 32/1 (5 samples max)
     }
+
+    @Test
+    public void shouldReturnUnknownWhenPreviousSampleIsTooOld() {
+        RunningWindowAverage average = new RunningWindowAverage(5, 2000);
+
+        average.sample(10_000L, 10);
+        average.sample(15_000L, 20);
+        assertEquals(TimingStrategy.UNKNOWN, average.getAverage());
+
+        average.sample(16_000L, 30);
+        assertEquals(10, average.getAverage());
+    }
+
+    @Test
+    public void shouldReturnCorrectExponentialAverage() {
+        RunningWindowAverage average = new RunningWindowAverage(5, 1000);
+        assertEquals(TimingStrategy.UNKNOWN, average.getExponentialAverage());
+
+        average.sample(10_000L, 10);
+        assertEquals(TimingStrategy.UNKNOWN, average.getExponentialAverage());
+
+        average.sample(11_000L, 20);
+        assertEquals(10, average.getExponentialAverage());
+
+        average.sample(12_000L, 120);
+        assertEquals(66, average.getExponentialAverage()); // 10 + 90 * (1 - 1/e)
+
+        average.sample(12_000L, 130);
+        assertEquals(66, average.getExponentialAverage());
+
+        average.sample(22_000L, 130);
+        assertEquals(1, average.getExponentialAverage());
+    }
 }
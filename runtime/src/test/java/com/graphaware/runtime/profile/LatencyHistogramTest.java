@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.profile;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link LatencyHistogram}.
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsShouldCoverAllValues() {
+        long previousUpperBound = -1;
+        for (int bucket = 0; bucket <= LatencyHistogram.bucket(Long.MAX_VALUE); bucket++) {
+            assertTrue(LatencyHistogram.upperBound(bucket) > previousUpperBound);
+            previousUpperBound = LatencyHistogram.upperBound(bucket);
+        }
+        assertEquals(Long.MAX_VALUE, previousUpperBound);
+
+        for (long value : new long[]{0, 1, 7, 8, 9, 15, 16, 1000, 123_456_789, Long.MAX_VALUE}) {
+            int bucket = LatencyHistogram.bucket(value);
+            assertTrue(value <= LatencyHistogram.upperBound(bucket));
+            assertTrue(bucket == 0 || value > LatencyHistogram.upperBound(bucket - 1));
+        }
+    }
+
+    @Test
+    public void emptyHistogramShouldHaveEmptyStatistics() {
+        LatencyStatistics statistics = new LatencyHistogram().getStatistics();
+
+        assertEquals(0, statistics.getCount());
+        assertEquals(0, statistics.getMaxMicros());
+    }
+
+    @Test
+    public void shouldComputeStatisticsWithBoundedError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        LatencyStatistics statistics = histogram.getStatistics();
+        assertEquals(1000, statistics.getCount());
+        assertEquals(500, statistics.getMeanMicros());
+        assertEquals(1000, statistics.getMaxMicros());
+        assertTrue(statistics.getMedianMicros() >= 500 && statistics.getMedianMicros() <= 500 * 1.125);
+        assertTrue(statistics.getP99Micros() >= 990 && statistics.getP99Micros() <= 1000);
+
+        histogram.reset();
+        assertEquals(0, histogram.getStatistics().getCount());
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.profile;
+
+import com.graphaware.common.policy.InclusionPolicies;
+import com.graphaware.common.policy.fluent.IncludeNodes;
+import com.graphaware.runtime.GraphAwareRuntime;
+import com.graphaware.runtime.TxDrivenRuntime;
+import com.graphaware.runtime.config.FluentRuntimeConfiguration;
+import com.graphaware.runtime.config.FluentTxDrivenModuleConfiguration;
+import com.graphaware.runtime.config.ProfilingConfiguration;
+import com.graphaware.runtime.config.TxDrivenModuleConfiguration;
+import com.graphaware.runtime.module.BaseTxDrivenModule;
+import com.graphaware.runtime.module.DeliberateTransactionRollbackException;
+import com.graphaware.tx.event.improved.api.ImprovedTransactionData;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.DynamicLabel;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.TransactionFailureException;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+
+import static com.graphaware.runtime.GraphAwareRuntimeFactory.createRuntime;
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link TxDrivenProfiler} and profiling of {@link com.graphaware.runtime.module.TxDrivenModule}s.
+ */
+public class TxDrivenProfilerTest {
+
+    private static final String MODULE_ID = "profiled";
+
+    private GraphDatabaseService database;
+
+    @Before
+    public void setUp() {
+        database = new TestGraphDatabaseFactory().newImpermanentDatabase();
+    }
+
+    @After
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    public void invocationsSkipsAndFailuresShouldBeCountedAndPublished() throws Exception {
+        GraphAwareRuntime runtime = createRuntime(database);
+        runtime.registerModule(new ProfiledModule());
+        runtime.start();
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName moduleName = moduleName(runtime);
+        ObjectName runtimeName = new ObjectName("com.graphaware.runtime:instance=" + profiler(runtime).getInstance() + ",type=TxDrivenRuntime,name=Overhead");
+
+        //create labels and property keys up front, their creation involves transactions of its own
+        try (Transaction tx = database.beginTx()) {
+            Node node = database.createNode(DynamicLabel.label("Other"), DynamicLabel.label("Included"));
+            node.setProperty("fail", false);
+            node.setProperty("rollback", false);
+            node.delete();
+            tx.success();
+        }
+
+        server.invoke(moduleName, "reset", new Object[0], new String[0]);
+        server.invoke(runtimeName, "reset", new Object[0], new String[0]);
+
+        createNode("Included", null);
+        createNode("Included", "fail");
+        createNode("Other", null);
+        try {
+            createNode("Included", "rollback");
+            fail();
+        } catch (TransactionFailureException e) {
+            //expected
+        }
+
+        assertEquals(3L, server.getAttribute(moduleName, "InvokedCount"));
+        assertEquals(1L, server.getAttribute(moduleName, "SkippedCount"));
+        assertEquals(1L, server.getAttribute(moduleName, "ExceptionCount"));
+        assertEquals(1L, server.getAttribute(moduleName, "RollbackCount"));
+        assertEquals(3L, ((CompositeData) server.getAttribute(moduleName, "BeforeCommitLatency")).get("count"));
+        assertEquals(2L, ((CompositeData) server.getAttribute(moduleName, "AfterCommitLatency")).get("count"));
+        assertEquals(1L, ((CompositeData) server.getAttribute(moduleName, "AfterRollbackLatency")).get("count"));
+        assertEquals(4L, ((CompositeData) server.getAttribute(moduleName, "FilteringLatency")).get("count"));
+
+        assertEquals(4L, server.getAttribute(runtimeName, "TransactionCount"));
+        assertEquals(4L, ((CompositeData) server.getAttribute(runtimeName, "BeforeCommitLatency")).get("count"));
+
+        server.invoke(moduleName, "reset", new Object[0], new String[0]);
+        assertEquals(0L, server.getAttribute(moduleName, "InvokedCount"));
+        assertEquals(0L, ((CompositeData) server.getAttribute(moduleName, "BeforeCommitLatency")).get("count"));
+
+        database.shutdown();
+
+        assertFalse(server.isRegistered(moduleName));
+        assertFalse(server.isRegistered(runtimeName));
+    }
+
+    @Test
+    public void latenciesShouldOnlyBeMeasuredWhenSampled() {
+        GraphAwareRuntime runtime = createRuntime(database, FluentRuntimeConfiguration.defaultConfiguration()
+                .withProfilingConfiguration(ProfilingConfiguration.defaultConfiguration().withSamplingRate(0).withJmxEnabled(false)));
+        runtime.registerModule(new ProfiledModule());
+        runtime.start();
+        profile(runtime).reset();
+
+        for (int i = 0; i < 10; i++) {
+            createNode("Included", null);
+        }
+
+        TxDrivenModuleProfile profile = profile(runtime);
+        assertEquals(10, profile.getInvokedCount());
+        assertEquals(0, profile.getBeforeCommitLatency().getCount());
+        assertEquals(0, profile.getFilteringLatency().getCount());
+
+        assertFalse(ManagementFactory.getPlatformMBeanServer().queryNames(null, null).toString().contains("name=" + MODULE_ID));
+    }
+
+    @Test
+    public void latenciesShouldBeMeasuredInSampleOfTransactions() {
+        GraphAwareRuntime runtime = createRuntime(database, FluentRuntimeConfiguration.defaultConfiguration()
+                .withProfilingConfiguration(ProfilingConfiguration.defaultConfiguration().withSamplingRate(10)));
+        runtime.registerModule(new ProfiledModule());
+        runtime.start();
+        profile(runtime).reset();
+
+        for (int i = 0; i < 200; i++) {
+            createNode("Included", null);
+        }
+
+        TxDrivenModuleProfile profile = profile(runtime);
+        assertEquals(200, profile.getInvokedCount());
+        assertTrue(profile.getBeforeCommitLatency().getCount() > 0);
+        assertTrue(profile.getBeforeCommitLatency().getCount() < 100);
+    }
+
+    @Test
+    public void runtimesOfDifferentDatabasesShouldPublishSeparateMBeans() throws Exception {
+        GraphDatabaseService otherDatabase = new TestGraphDatabaseFactory().newImpermanentDatabase();
+
+        try {
+            GraphAwareRuntime runtime = createRuntime(database);
+            runtime.registerModule(new ProfiledModule());
+            runtime.start();
+
+            GraphAwareRuntime otherRuntime = createRuntime(otherDatabase);
+            otherRuntime.registerModule(new ProfiledModule());
+            otherRuntime.start();
+
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName moduleName = moduleName(runtime);
+            ObjectName otherModuleName = moduleName(otherRuntime);
+            assertNotEquals(moduleName, otherModuleName);
+
+            createNode("Included", null);
+            assertEquals(profile(runtime).getInvokedCount(), server.getAttribute(moduleName, "InvokedCount"));
+            assertEquals(0L, server.getAttribute(otherModuleName, "InvokedCount"));
+
+            otherDatabase.shutdown();
+
+            assertTrue(server.isRegistered(moduleName));
+            assertFalse(server.isRegistered(otherModuleName));
+        } finally {
+            otherDatabase.shutdown();
+        }
+    }
+
+    private TxDrivenProfiler profiler(GraphAwareRuntime runtime) {
+        return ((TxDrivenRuntime<?>) runtime).getProfiler();
+    }
+
+    private ObjectName moduleName(GraphAwareRuntime runtime) throws Exception {
+        return new ObjectName("com.graphaware.runtime:instance=" + profiler(runtime).getInstance() + ",type=TxDrivenModule,name=" + MODULE_ID);
+    }
+
+    private TxDrivenModuleProfile profile(GraphAwareRuntime runtime) {
+        return profiler(runtime).getModuleProfile(MODULE_ID);
+    }
+
+    private void createNode(String label, String property) {
+        try (Transaction tx = database.beginTx()) {
+            Node node = database.createNode(DynamicLabel.label(label));
+            if (property != null) {
+                node.setProperty(property, true);
+            }
+            tx.success();
+        }
+    }
+
+    private static class ProfiledModule extends BaseTxDrivenModule<Void> {
+
+        private ProfiledModule() {
+            super(MODULE_ID);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public TxDrivenModuleConfiguration getConfiguration() {
+            return FluentTxDrivenModuleConfiguration.defaultConfiguration().with(InclusionPolicies.all().with(IncludeNodes.all().with("Included")));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void beforeCommit(ImprovedTransactionData transactionData) throws DeliberateTransactionRollbackException {
+            for (Node node : transactionData.getAllCreatedNodes()) {
+                if (node.hasProperty("fail")) {
+                    throw new RuntimeException("Deliberate failure");
+                }
+                if (node.hasProperty("rollback")) {
+                    throw new DeliberateTransactionRollbackException("Deliberate rollback");
+                }
+            }
+            return null;
+        }
+    }
+}
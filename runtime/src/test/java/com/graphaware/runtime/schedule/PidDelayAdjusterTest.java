@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.schedule;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link PidDelayAdjuster}, comparing it with {@link ConstantDeltaDelayAdjuster} in a simulation of a database
+ * whose load consists of foreground load plus the load produced by background work, which is inversely proportional
+ * to the delay between background tasks.
+ */
+public class PidDelayAdjusterTest {
+
+    private static final long SET_POINT = 100;
+    private static final long DEFAULT_DELAY = 2_000;
+    private static final long MIN_DELAY = 5;
+    private static final long MAX_DELAY = 5_000;
+    private static final long DELTA = 100;
+
+    @Test
+    public void shouldReturnDefaultDelayInitiallyAndKeepDelayWhenLoadIsUnknown() {
+        DelayAdjuster adjuster = pid();
+
+        assertEquals(DEFAULT_DELAY, adjuster.determineNextDelay(TimingStrategy.UNKNOWN, TimingStrategy.UNKNOWN, 50));
+        assertEquals(1234, adjuster.determineNextDelay(1234, 10, TimingStrategy.UNKNOWN));
+    }
+
+    @Test
+    public void shouldStayWithinBounds() {
+        DelayAdjuster adjuster = pid();
+
+        long delay = adjuster.determineNextDelay(TimingStrategy.UNKNOWN, TimingStrategy.UNKNOWN, 0);
+        for (int i = 0; i < 100; i++) {
+            delay = adjuster.determineNextDelay(delay, 10, 100_000);
+            assertTrue(delay <= MAX_DELAY);
+        }
+        assertTrue(delay > MAX_DELAY * 0.99);
+
+        for (int i = 0; i < 200; i++) {
+            delay = adjuster.determineNextDelay(delay, 10, 0);
+            assertTrue(delay >= MIN_DELAY);
+        }
+        assertTrue(delay < MIN_DELAY + (MAX_DELAY - MIN_DELAY) * 0.01);
+    }
+
+    @Test
+    public void shouldConvergeToSetPointWhereConstantDeltaOscillates() {
+        Simulation pid = new Simulation(pid()).run(constantForeground(40, 100));
+        Simulation constant = new Simulation(constantDelta()).run(constantForeground(40, 100));
+
+        for (int i = 50; i < 100; i++) {
+            assertEquals(SET_POINT, pid.loads[i], SET_POINT * 0.02);
+        }
+        assertTrue(pid.delayRange(50, 100) <= 5);
+
+        assertTrue(constant.delayRange(50, 100) >= DELTA);
+        assertTrue(constant.meanAbsoluteError(50, 100) > 5 * pid.meanAbsoluteError(50, 100));
+    }
+
+    @Test
+    public void shouldBeMoreStableUnderFluctuatingLoad() {
+        Random random = new Random(42);
+        double[] foreground = new double[300];
+        for (int i = 0; i < foreground.length; i++) {
+            foreground[i] = 40 + random.nextGaussian() * 5;
+        }
+
+        Simulation pid = new Simulation(pid()).run(foreground);
+        Simulation constant = new Simulation(constantDelta()).run(foreground);
+
+        assertTrue(pid.delayStandardDeviation(100, 300) < constant.delayStandardDeviation(100, 300) / 2);
+        assertTrue(pid.meanAbsoluteError(100, 300) < constant.meanAbsoluteError(100, 300));
+        assertEquals(SET_POINT, pid.meanLoad(100, 300), SET_POINT * 0.05);
+    }
+
+    @Test
+    public void shouldBackOffUnderOverloadAndRecoverWithoutWindup() {
+        double[] foreground = new double[250];
+        for (int i = 0; i < foreground.length; i++) {
+            foreground[i] = i < 50 ? 40 : (i < 100 ? 300 : 40);
+        }
+
+        Simulation pid = new Simulation(pid()).run(foreground);
+
+        assertEquals(SET_POINT, pid.loads[49], SET_POINT * 0.02);
+        assertTrue(pid.delays[99] > MAX_DELAY * 0.9);
+
+        //the integral has not wound up during overload, so the delay starts decreasing immediately
+        assertTrue(pid.delays[102] < pid.delays[100]);
+
+        for (int i = 200; i < 250; i++) {
+            assertEquals(SET_POINT, pid.loads[i], SET_POINT * 0.02);
+        }
+    }
+
+    private static double[] constantForeground(double load, int steps) {
+        double[] result = new double[steps];
+        for (int i = 0; i < steps; i++) {
+            result[i] = load;
+        }
+        return result;
+    }
+
+    private static DelayAdjuster pid() {
+        return new PidDelayAdjuster(PidGains.defaultGains(), SET_POINT, DEFAULT_DELAY, MIN_DELAY, MAX_DELAY);
+    }
+
+    private static DelayAdjuster constantDelta() {
+        return new ConstantDeltaDelayAdjuster(DELTA, DEFAULT_DELAY, MIN_DELAY, MAX_DELAY, SET_POINT);
+    }
+
+    /**
+     * Simulation of a database, in which each background task takes 10 ms and produces 20 transactions.
+     */
+    private static class Simulation {
+
+        private static final long TASK_DURATION = 10;
+        private static final double TX_PER_TASK = 20;
+
+        private final DelayAdjuster adjuster;
+        private long[] delays;
+        private double[] loads;
+
+        private Simulation(DelayAdjuster adjuster) {
+            this.adjuster = adjuster;
+        }
+
+        private Simulation run(double[] foreground) {
+            delays = new long[foreground.length];
+            loads = new double[foreground.length];
+
+            long delay = adjuster.determineNextDelay(TimingStrategy.UNKNOWN, TimingStrategy.UNKNOWN, TimingStrategy.UNKNOWN);
+            for (int i = 0; i < foreground.length; i++) {
+                delays[i] = delay;
+                loads[i] = foreground[i] + TX_PER_TASK * 1000 / (delay + TASK_DURATION);
+                delay = adjuster.determineNextDelay(delay, TASK_DURATION, Math.round(loads[i]));
+            }
+
+            return this;
+        }
+
+        private long delayRange(int from, int to) {
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (int i = from; i < to; i++) {
+                min = Math.min(min, delays[i]);
+                max = Math.max(max, delays[i]);
+            }
+            return max - min;
+        }
+
+        private double delayStandardDeviation(int from, int to) {
+            double mean = 0;
+            for (int i = from; i < to; i++) {
+                mean += delays[i];
+            }
+            mean /= (to - from);
+
+            double variance = 0;
+            for (int i = from; i < to; i++) {
+                variance += (delays[i] - mean) * (delays[i] - mean);
+            }
+            return Math.sqrt(variance / (to - from));
+        }
+
+        private double meanLoad(int from, int to) {
+            double sum = 0;
+            for (int i = from; i < to; i++) {
+                sum += loads[i];
+            }
+            return sum / (to - from);
+        }
+
+        private double meanAbsoluteError(int from, int to) {
+            double sum = 0;
+            for (int i = from; i < to; i++) {
+                sum += Math.abs(loads[i] - SET_POINT);
+            }
+            return sum / (to - from);
+        }
+    }
+}
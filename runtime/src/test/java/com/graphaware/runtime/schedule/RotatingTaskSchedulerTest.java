@@ -0,0 +1,490 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.schedule;
+
+import com.graphaware.runtime.config.CheckpointingConfiguration;
+import com.graphaware.runtime.config.FluentRuntimeConfiguration;
+import com.graphaware.runtime.config.TickConfiguration;
+import com.graphaware.runtime.metadata.BaseTimerDrivenModuleContext;
+import com.graphaware.runtime.metadata.EmptyContext;
+import com.graphaware.runtime.metadata.GraphPropertiesMetadataRepository;
+import com.graphaware.runtime.metadata.NodeBasedContext;
+import com.graphaware.runtime.metadata.TimerDrivenModuleContext;
+import com.graphaware.runtime.metadata.TimerDrivenModuleMetadata;
+import com.graphaware.runtime.module.MultiStepTimerDrivenModule;
+import com.graphaware.runtime.module.TimerDrivenModule;
+import com.graphaware.runtime.module.WeightedTimerDrivenModule;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.graphaware.runtime.config.RuntimeConfiguration.TIMER_MODULES_PROPERTY_PREFIX;
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link RotatingTaskScheduler}.
+ */
+public class RotatingTaskSchedulerTest {
+
+    private GraphDatabaseService database;
+    private GraphPropertiesMetadataRepository repository;
+
+    @Before
+    public void setUp() {
+        database = new TestGraphDatabaseFactory().newImpermanentDatabase();
+        repository = new GraphPropertiesMetadataRepository(database, FluentRuntimeConfiguration.defaultConfiguration(), TIMER_MODULES_PROPERTY_PREFIX);
+    }
+
+    @After
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    public void independentModulesShouldRunInParallelButEachModuleSequentially() throws InterruptedException {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        SlowModule module1 = new SlowModule("M1", running, maxRunning);
+        SlowModule module2 = new SlowModule("M2", running, maxRunning);
+        SlowModule module3 = new SlowModule("M3", running, maxRunning);
+
+        TaskScheduler scheduler = new RotatingTaskScheduler(database, repository, FixedDelayTimingStrategy.getInstance().withInitialDelay(0).withDelay(1), 3);
+        scheduler.registerModuleAndContext(module1, null);
+        scheduler.registerModuleAndContext(module2, null);
+        scheduler.registerModuleAndContext(module3, null);
+        scheduler.start();
+
+        Thread.sleep(1000);
+        scheduler.stop();
+
+        assertTrue(maxRunning.get() > 1);
+        for (SlowModule module : new SlowModule[]{module1, module2, module3}) {
+            assertTrue(module.getInvocations() > 0);
+            assertEquals(1, module.getMaxConcurrentInvocations());
+        }
+    }
+
+    @Test
+    public void singleModuleShouldNeverRunConcurrently() throws InterruptedException {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        SlowModule module = new SlowModule("M1", running, maxRunning);
+
+        TaskScheduler scheduler = new RotatingTaskScheduler(database, repository, FixedDelayTimingStrategy.getInstance().withInitialDelay(0).withDelay(1), 4);
+        scheduler.registerModuleAndContext(module, null);
+        scheduler.start();
+
+        Thread.sleep(500);
+        scheduler.stop();
+
+        assertTrue(module.getInvocations() > 0);
+        assertEquals(1, maxRunning.get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void modulesCannotBeRegisteredAfterStart() {
+        TaskScheduler scheduler = new RotatingTaskScheduler(database, repository, FixedDelayTimingStrategy.getInstance(), 2);
+        scheduler.start();
+        scheduler.registerModuleAndContext(new SlowModule("M1", new AtomicInteger(), new AtomicInteger()), null);
+    }
+
+    @Test
+    public void weightedFairSchedulingShouldGiveCheapModulesMoreTurns() throws InterruptedException {
+        SlowModule cheap = new SlowModule("CHEAP", new AtomicInteger(), new AtomicInteger(), 2);
+        SlowModule expensive = new SlowModule("EXPENSIVE", new AtomicInteger(), new AtomicInteger(), 40);
+
+        TaskScheduler scheduler = new RotatingTaskScheduler(database, repository, FixedDelayTimingStrategy.getInstance().withInitialDelay(0).withDelay(1), 1, SchedulingPolicy.WEIGHTED_FAIR);
+        scheduler.registerModuleAndContext(expensive, null);
+        scheduler.registerModuleAndContext(cheap, null);
+        scheduler.start();
+
+        Thread.sleep(1000);
+        scheduler.stop();
+
+        assertTrue(expensive.getInvocations() > 0);
+        assertTrue(cheap.getInvocations() > 5 * expensive.getInvocations());
+
+        Map<String, ModuleSchedulingStatistics> statistics = scheduler.getStatistics();
+        assertEquals(cheap.getInvocations(), statistics.get("CHEAP").getInvocations());
+        assertEquals(expensive.getInvocations(), statistics.get("EXPENSIVE").getInvocations());
+        assertEquals(WeightedTimerDrivenModule.DEFAULT_SHARE, statistics.get("CHEAP").getShare());
+    }
+
+    @Test
+    public void roundRobinSchedulingShouldGiveModulesEqualTurns() throws InterruptedException {
+        SlowModule cheap = new SlowModule("CHEAP", new AtomicInteger(), new AtomicInteger(), 2);
+        SlowModule expensive = new SlowModule("EXPENSIVE", new AtomicInteger(), new AtomicInteger(), 40);
+
+        TaskScheduler scheduler = new RotatingTaskScheduler(database, repository, FixedDelayTimingStrategy.getInstance().withInitialDelay(0).withDelay(1), 1, SchedulingPolicy.ROUND_ROBIN);
+        scheduler.registerModuleAndContext(expensive, null);
+        scheduler.registerModuleAndContext(cheap, null);
+        scheduler.start();
+
+        Thread.sleep(500);
+        scheduler.stop();
+
+        assertTrue(Math.abs(cheap.getInvocations() - expensive.getInvocations()) <= 1);
+    }
+
+    @Test
+    public void weightedFairSchedulingShouldHonourShares() throws InterruptedException {
+        SlowModule small = new WeightedSlowModule("SMALL", 10, 1);
+        SlowModule big = new WeightedSlowModule("BIG", 10, 3);
+
+        TaskScheduler scheduler = new RotatingTaskScheduler(database, repository, FixedDelayTimingStrategy.getInstance().withInitialDelay(0).withDelay(1), 1, SchedulingPolicy.WEIGHTED_FAIR);
+        scheduler.registerModuleAndContext(small, null);
+        scheduler.registerModuleAndContext(big, null);
+        scheduler.start();
+
+        Thread.sleep(1000);
+        scheduler.stop();
+
+        assertTrue(small.getInvocations() > 0);
+        double ratio = (double) big.getInvocations() / small.getInvocations();
+        assertTrue("Ratio was " + ratio, ratio > 2 && ratio < 4);
+        assertEquals(3, scheduler.getStatistics().get("BIG").getShare());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sharesMustBePositive() {
+        TaskScheduler scheduler = new RotatingTaskScheduler(database, repository, FixedDelayTimingStrategy.getInstance(), 1, SchedulingPolicy.WEIGHTED_FAIR);
+        scheduler.registerModuleAndContext(new WeightedSlowModule("M1", 10, 0), null);
+    }
+
+    @Test
+    public void multiStepModulesShouldPerformStepsUntilBudgetIsUsedUp() throws InterruptedException {
+        MultiStepModule module = new MultiStepModule("MS", TickConfiguration.defaultConfiguration().withMaxSteps(10).withMaxTimeMillis(10_000), Integer.MAX_VALUE);
+
+        TaskScheduler scheduler = new RotatingTaskScheduler(database, repository, FixedDelayTimingStrategy.getInstance().withInitialDelay(0).withDelay(5));
+        scheduler.registerModuleAndContext(module, null);
+        scheduler.start();
+
+        Thread.sleep(300);
+        scheduler.stop();
+
+        ModuleSchedulingStatistics statistics = scheduler.getStatistics().get("MS");
+        assertTrue(statistics.getInvocations() > 0);
+        assertEquals(10 * statistics.getInvocations(), statistics.getSteps());
+        assertEquals(statistics.getSteps(), module.getSteps());
+    }
+
+    @Test
+    public void multiStepModulesShouldStopWhenTheyDoNotWishToBeCalledAndOnlyPersistFinalContext() throws InterruptedException {
+        MultiStepModule module = new MultiStepModule("MS", TickConfiguration.defaultConfiguration().withMaxSteps(10).withMaxTimeMillis(10_000), 3);
+
+        TaskScheduler scheduler = new RotatingTaskScheduler(database, repository, FixedDelayTimingStrategy.getInstance().withInitialDelay(0).withDelay(5));
+        scheduler.registerModuleAndContext(module, null);
+        scheduler.start();
+
+        Thread.sleep(300);
+        scheduler.stop();
+
+        assertEquals(1, scheduler.getStatistics().get("MS").getInvocations());
+        assertEquals(3, module.getSteps());
+
+        try (Transaction tx = database.beginTx()) {
+            TimerDrivenModuleMetadata metadata = repository.getModuleMetadata(module);
+            assertTrue(metadata.lastContext().earliestNextCall() > System.currentTimeMillis());
+            tx.success();
+        }
+    }
+
+    @Test
+    public void unchangedContextsShouldNotBePersisted() throws InterruptedException {
+        CountingModule module = new CountingModule("CM", false);
+
+        TaskScheduler scheduler = new RotatingTaskScheduler(database, repository, FixedDelayTimingStrategy.getInstance().withInitialDelay(0).withDelay(5));
+        scheduler.registerModuleAndContext(module, new NodeBasedContext(0));
+        scheduler.start();
+
+        Thread.sleep(300);
+        scheduler.stop();
+
+        ModuleSchedulingStatistics statistics = scheduler.getStatistics().get("CM");
+        assertTrue(statistics.getInvocations() > 5);
+        assertEquals(0, statistics.getCheckpoints());
+    }
+
+    @Test
+    public void changedContextsShouldBeCheckpointedPeriodicallyAndFlushedOnStop() throws InterruptedException {
+        CountingModule module = new CountingModule("CM", true);
+
+        TaskScheduler scheduler = new RotatingTaskScheduler(database, repository, FixedDelayTimingStrategy.getInstance().withInitialDelay(0).withDelay(5), 1, SchedulingPolicy.ROUND_ROBIN,
+                CheckpointingConfiguration.defaultConfiguration().withMaxChanges(5).withIntervalMillis(100_000));
+        scheduler.registerModuleAndContext(module, new NodeBasedContext(0));
+        scheduler.start();
+
+        Thread.sleep(300);
+        scheduler.stop();
+
+        ModuleSchedulingStatistics statistics = scheduler.getStatistics().get("CM");
+        assertTrue(statistics.getInvocations() > 10);
+        assertEquals(statistics.getInvocations() / 5 + (statistics.getInvocations() % 5 == 0 ? 0 : 1), statistics.getCheckpoints());
+
+        try (Transaction tx = database.beginTx()) {
+            TimerDrivenModuleMetadata metadata = repository.getModuleMetadata(module);
+            assertEquals(new NodeBasedContext(module.getInvocations()), metadata.lastContext());
+            tx.success();
+        }
+    }
+
+    @Test
+    public void contextsMutatedInPlaceShouldBePersistedEvenIfEqualToPreviousOnes() throws InterruptedException {
+        MutatingModule module = new MutatingModule("MM");
+
+        TaskScheduler scheduler = new RotatingTaskScheduler(database, repository, FixedDelayTimingStrategy.getInstance().withInitialDelay(0).withDelay(5));
+        scheduler.registerModuleAndContext(module, new MutableContext());
+        scheduler.start();
+
+        Thread.sleep(300);
+        scheduler.stop();
+
+        ModuleSchedulingStatistics statistics = scheduler.getStatistics().get("MM");
+        assertTrue(statistics.getInvocations() > 5);
+        assertEquals(statistics.getInvocations(), statistics.getCheckpoints());
+
+        try (Transaction tx = database.beginTx()) {
+            TimerDrivenModuleMetadata metadata = repository.getModuleMetadata(module);
+            assertEquals(module.getInvocations(), ((MutableContext) metadata.lastContext()).getCounter());
+            tx.success();
+        }
+    }
+
+    private static class MutableContext extends BaseTimerDrivenModuleContext<Integer> {
+
+        private int counter;
+
+        public void increment() {
+            counter++;
+        }
+
+        public int getCounter() {
+            return counter;
+        }
+
+        @Override
+        public Integer find(GraphDatabaseService database) {
+            return counter;
+        }
+    }
+
+    private static class MutatingModule implements TimerDrivenModule<MutableContext> {
+
+        private final String id;
+        private final AtomicInteger invocations = new AtomicInteger();
+
+        private MutatingModule(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public MutableContext createInitialContext(GraphDatabaseService database) {
+            return new MutableContext();
+        }
+
+        @Override
+        public MutableContext doSomeWork(MutableContext lastContext, GraphDatabaseService database) {
+            invocations.incrementAndGet();
+            lastContext.increment();
+            return lastContext;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        public int getInvocations() {
+            return invocations.get();
+        }
+    }
+
+    private static class CountingModule implements TimerDrivenModule<NodeBasedContext> {
+
+        private final String id;
+        private final boolean changeContext;
+        private final AtomicInteger invocations = new AtomicInteger();
+
+        private CountingModule(String id, boolean changeContext) {
+            this.id = id;
+            this.changeContext = changeContext;
+        }
+
+        @Override
+        public NodeBasedContext createInitialContext(GraphDatabaseService database) {
+            return new NodeBasedContext(0);
+        }
+
+        @Override
+        public NodeBasedContext doSomeWork(NodeBasedContext lastContext, GraphDatabaseService database) {
+            int invocation = invocations.incrementAndGet();
+            return new NodeBasedContext(changeContext ? invocation : 0);
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        public int getInvocations() {
+            return invocations.get();
+        }
+    }
+
+    private static class MultiStepModule implements MultiStepTimerDrivenModule<EmptyContext> {
+
+        private final String id;
+        private final TickConfiguration tickConfiguration;
+        private final int stepsBeforeDone;
+        private final AtomicInteger steps = new AtomicInteger();
+
+        private MultiStepModule(String id, TickConfiguration tickConfiguration, int stepsBeforeDone) {
+            this.id = id;
+            this.tickConfiguration = tickConfiguration;
+            this.stepsBeforeDone = stepsBeforeDone;
+        }
+
+        @Override
+        public TickConfiguration getTickConfiguration() {
+            return tickConfiguration;
+        }
+
+        @Override
+        public EmptyContext createInitialContext(GraphDatabaseService database) {
+            return null;
+        }
+
+        @Override
+        public EmptyContext doSomeWork(EmptyContext lastContext, GraphDatabaseService database) {
+            if (steps.incrementAndGet() >= stepsBeforeDone) {
+                return new EmptyContext(System.currentTimeMillis() + 100_000);
+            }
+            return new EmptyContext();
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        public int getSteps() {
+            return steps.get();
+        }
+    }
+
+    private static class WeightedSlowModule extends SlowModule implements WeightedTimerDrivenModule<TimerDrivenModuleContext> {
+
+        private final int share;
+
+        private WeightedSlowModule(String id, long sleepMillis, int share) {
+            super(id, new AtomicInteger(), new AtomicInteger(), sleepMillis);
+            this.share = share;
+        }
+
+        @Override
+        public int getShare() {
+            return share;
+        }
+    }
+
+    private static class SlowModule implements TimerDrivenModule<TimerDrivenModuleContext> {
+
+        private final String id;
+        private final AtomicInteger running;
+        private final AtomicInteger maxRunning;
+        private final AtomicInteger concurrentInvocations = new AtomicInteger();
+        private final AtomicInteger maxConcurrentInvocations = new AtomicInteger();
+        private final AtomicInteger invocations = new AtomicInteger();
+        private final long sleepMillis;
+
+        private SlowModule(String id, AtomicInteger running, AtomicInteger maxRunning) {
+            this(id, running, maxRunning, 50);
+        }
+
+        private SlowModule(String id, AtomicInteger running, AtomicInteger maxRunning, long sleepMillis) {
+            this.id = id;
+            this.running = running;
+            this.maxRunning = maxRunning;
+            this.sleepMillis = sleepMillis;
+        }
+
+        @Override
+        public TimerDrivenModuleContext createInitialContext(GraphDatabaseService database) {
+            return null;
+        }
+
+        @Override
+        public TimerDrivenModuleContext doSomeWork(TimerDrivenModuleContext lastContext, GraphDatabaseService database) {
+            invocations.incrementAndGet();
+            updateMax(maxRunning, running.incrementAndGet());
+            updateMax(maxConcurrentInvocations, concurrentInvocations.incrementAndGet());
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrentInvocations.decrementAndGet();
+                running.decrementAndGet();
+            }
+            return null;
+        }
+
+        private void updateMax(AtomicInteger max, int value) {
+            int current;
+            while ((current = max.get()) < value && !max.compareAndSet(current, value)) {
+                //retry
+            }
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        public int getInvocations() {
+            return invocations.get();
+        }
+
+        public int getMaxConcurrentInvocations() {
+            return maxConcurrentInvocations.get();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.runtime.walk;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.DynamicRelationshipType;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.graphaware.common.util.DatabaseUtils.registerShutdownHook;
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link WalkEngine}.
+ */
+public class WalkEngineTest {
+
+    private GraphDatabaseService database;
+    private WalkEngine engine;
+
+    @Before
+    public void setUp() {
+        database = new TestGraphDatabaseFactory().newImpermanentDatabase();
+        registerShutdownHook(database);
+    }
+
+    @After
+    public void tearDown() {
+        if (engine != null) {
+            engine.shutdown();
+        }
+        database.shutdown();
+    }
+
+    @Test
+    public void shouldTakeRequestedNumberOfSteps() {
+        createRing(100);
+
+        engine = new WalkEngine(database, new RandomNodeSelector(), new UniformTransitionPolicy(), WalkEngineConfiguration.defaultConfiguration().withThreads(2).withStepsPerTransaction(100));
+
+        final AtomicLong visits = new AtomicLong(0);
+        final AtomicLong jumps = new AtomicLong(0);
+
+        long taken = engine.walk(10_000, new WalkVisitor() {
+            @Override
+            public void visit(Node node, Relationship relationship) {
+                visits.incrementAndGet();
+                if (relationship == null) {
+                    jumps.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(10_000, taken);
+        assertEquals(10_000, visits.get());
+        assertTrue(jumps.get() <= 2 * WalkEngineConfiguration.defaultConfiguration().getWalkersPerThread()); //only initial jumps on a ring
+        assertEquals(10_000, engine.getTotalSteps());
+        assertTrue(engine.getStepsPerSecond() > 0);
+
+        assertEquals(500, engine.walk(500, new CountingVisitor()));
+        assertEquals(10_500, engine.getTotalSteps());
+    }
+
+    @Test
+    public void shouldTakeNoStepsOnEmptyDatabase() {
+        engine = new WalkEngine(database, new RandomNodeSelector(), new UniformTransitionPolicy());
+
+        CountingVisitor visitor = new CountingVisitor();
+        assertEquals(0, engine.walk(1000, visitor));
+        assertEquals(0, visitor.count);
+    }
+
+    @Test
+    public void shouldJumpWhenPolicyChoosesNoRelationship() {
+        createRing(10);
+
+        engine = new WalkEngine(database, new ContinuousNodeSelector(), new TransitionPolicy() {
+            @Override
+            public Relationship selectRelationship(Node node, Random random) {
+                return null;
+            }
+        }, WalkEngineConfiguration.defaultConfiguration().withThreads(1));
+
+        final AtomicLong jumps = new AtomicLong(0);
+
+        assertEquals(1000, engine.walk(1000, new WalkVisitor() {
+            @Override
+            public void visit(Node node, Relationship relationship) {
+                assertNull(relationship);
+                jumps.incrementAndGet();
+            }
+        }));
+
+        assertEquals(1000, jumps.get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void exceptionFromVisitorShouldBePropagated() {
+        createRing(10);
+
+        engine = new WalkEngine(database, new RandomNodeSelector(), new UniformTransitionPolicy());
+
+        engine.walk(1000, new WalkVisitor() {
+            @Override
+            public void visit(Node node, Relationship relationship) {
+                throw new IllegalStateException("Deliberate testing exception");
+            }
+        });
+    }
+
+    private void createRing(int size) {
+        try (Transaction tx = database.beginTx()) {
+            Node first = database.createNode();
+            Node previous = first;
+            for (int i = 1; i < size; i++) {
+                Node node = database.createNode();
+                previous.createRelationshipTo(node, DynamicRelationshipType.withName("NEXT"));
+                previous = node;
+            }
+            previous.createRelationshipTo(first, DynamicRelationshipType.withName("NEXT"));
+            tx.success();
+        }
+    }
+
+    private static class CountingVisitor implements WalkVisitor {
+
+        private volatile long count = 0;
+
+        @Override
+        public synchronized void visit(Node node, Relationship relationship) {
+            count++;
+        }
+    }
+}
@@ -27,6 +27,8 @@ import com.graphaware.tx.event.improved.data.RelationshipTransactionData;
 import com.graphaware.tx.event.improved.data.TransactionDataContainer;
 import com.graphaware.tx.event.improved.data.filtered.FilteredNodeTransactionData;
 import com.graphaware.tx.event.improved.data.filtered.FilteredRelationshipTransactionData;
+import com.graphaware.tx.event.improved.data.filtered.KeyCachingNodePropertyInclusionPolicy;
+import com.graphaware.tx.event.improved.data.filtered.KeyCachingRelationshipPropertyInclusionPolicy;
 
 /**
  * {@link ImprovedTransactionData} with filtering capabilities defined by {@link com.graphaware.common.policy.InclusionPolicies}, delegating to
@@ -56,11 +58,33 @@ public class FilteredTransactionData extends BaseImprovedTransactionData impleme
      * @param inclusionPolicies      policies for filtering.
      */
     public FilteredTransactionData(TransactionDataContainer transactionDataContainer, InclusionPolicies inclusionPolicies) {
+        inclusionPolicies = cacheKeyOnlyDecisions(inclusionPolicies);
         this.inclusionPolicies = inclusionPolicies;
         nodeTransactionData = new FilteredNodeTransactionData(transactionDataContainer.getNodeTransactionData(), inclusionPolicies);
         relationshipTransactionData = new FilteredRelationshipTransactionData(transactionDataContainer.getRelationshipTransactionData(), inclusionPolicies);
     }
 
+    /**
+     * Wrap property inclusion policies that decide by property key only in decorators memoizing their decisions for the
+     * lifetime of this object, so that each such policy is evaluated at most once per property key and transaction.
+     *
+     * @param inclusionPolicies to wrap.
+     * @return policies with caching property inclusion policies where applicable.
+     */
+    private static InclusionPolicies cacheKeyOnlyDecisions(InclusionPolicies inclusionPolicies) {
+        InclusionPolicies result = inclusionPolicies;
+
+        if (KeyCachingNodePropertyInclusionPolicy.shouldCache(result.getNodePropertyInclusionPolicy())) {
+            result = result.with(new KeyCachingNodePropertyInclusionPolicy(result.getNodePropertyInclusionPolicy()));
+        }
+
+        if (KeyCachingRelationshipPropertyInclusionPolicy.shouldCache(result.getRelationshipPropertyInclusionPolicy())) {
+            result = result.with(new KeyCachingRelationshipPropertyInclusionPolicy(result.getRelationshipPropertyInclusionPolicy()));
+        }
+
+        return result;
+    }
+
     /**
      * {@inheritDoc}
      */
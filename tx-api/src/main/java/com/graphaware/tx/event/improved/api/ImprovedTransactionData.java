@@ -232,6 +232,40 @@ public interface ImprovedTransactionData {
      */
     Set<Label> removedLabels(Node node);
 
+    /**
+     * Get all nodes created in the transaction that have the given label.
+     *
+     * @param label to look for.
+     * @return read-only collection of created nodes with the label.
+     */
+    Collection<Node> getCreatedNodesWithLabel(Label label);
+
+    /**
+     * Get all nodes deleted in the transaction that had the given label before the transaction started.
+     *
+     * @param label to look for.
+     * @return read-only collection of deleted nodes with the label, as they were before the transaction started (snapshots).
+     */
+    Collection<Node> getDeletedNodesWithLabel(Label label);
+
+    /**
+     * Get all changed nodes that have been assigned the given label in the transaction.
+     *
+     * @param label to look for.
+     * @return read-only collection of changed nodes that have been assigned the label, as they were before the
+     *         transaction started and as they are now.
+     */
+    Collection<Change<Node>> getNodesWithAssignedLabel(Label label);
+
+    /**
+     * Get all changed nodes that have had the given label removed in the transaction.
+     *
+     * @param label to look for.
+     * @return read-only collection of changed nodes that have had the label removed, as they were before the
+     *         transaction started and as they are now.
+     */
+    Collection<Change<Node>> getNodesWithRemovedLabel(Label label);
+
     /**
      * Check whether the given relationship has been created in the transaction.
      *
@@ -247,6 +281,26 @@ public interface ImprovedTransactionData {
      */
     Collection<Relationship> getAllCreatedRelationships();
 
+    /**
+     * Get all relationships for the given node and of the given types, which have been created in the transaction.
+     *
+     * @param node  for which to get created relationships.
+     * @param types of the created relationships. If no types are provided, all types are returned.
+     * @return read-only collection of all created relationships for the given node of the given types.
+     */
+    Collection<Relationship> getCreatedRelationships(Node node, RelationshipType... types);
+
+    /**
+     * Get all relationships for the given node and of the given directions and types, which have been created in the
+     * transaction.
+     *
+     * @param node      for which to get created relationships.
+     * @param direction of the created relationships
+     * @param types     of the created relationships. If no types are provided, all types are returned.
+     * @return read-only collection of all created relationships for the given node of the given direction and types.
+     */
+    Collection<Relationship> getCreatedRelationships(Node node, Direction direction, RelationshipType... types);
+
     /**
      * Check whether the given relationship has been deleted in the transaction.
      *
@@ -317,6 +371,26 @@ public interface ImprovedTransactionData {
      */
     Collection<Change<Relationship>> getAllChangedRelationships();
 
+    /**
+     * Get all relationships for the given node and of the given types, which have been changed in the transaction.
+     *
+     * @param node  for which to get changed relationships.
+     * @param types of the changed relationships. If no types are provided, all types are returned.
+     * @return read-only collection of all changed relationships for the given node of the given types.
+     */
+    Collection<Change<Relationship>> getChangedRelationships(Node node, RelationshipType... types);
+
+    /**
+     * Get all relationships for the given node and of the given directions and types, which have been changed in the
+     * transaction.
+     *
+     * @param node      for which to get changed relationships.
+     * @param direction of the changed relationships
+     * @param types     of the changed relationships. If no types are provided, all types are returned.
+     * @return read-only collection of all changed relationships for the given node of the given direction and types.
+     */
+    Collection<Change<Relationship>> getChangedRelationships(Node node, Direction direction, RelationshipType... types);
+
     /**
      * Check whether a property has been created in the transaction.
      *
@@ -385,4 +459,12 @@ public interface ImprovedTransactionData {
      * @return human-readable Strings.
      */
     Set<String> mutationsToStrings();
+
+    /**
+     * Stream all mutations in the transaction to the given visitor. This is a cheaper alternative to the methods
+     * returning {@link java.util.Collection}s and {@link java.util.Map}s, as no intermediate collections are built.
+     *
+     * @param visitor to receive all created, deleted, and changed nodes and relationships, and their property changes.
+     */
+    void accept(TransactionDataVisitor visitor);
 }
@@ -30,8 +30,14 @@ import org.neo4j.graphdb.event.TransactionData;
  */
 public class LazyTransactionData extends BaseImprovedTransactionData implements ImprovedTransactionData, TransactionDataContainer {
 
-    private final NodeTransactionData nodeTransactionData;
-    private final RelationshipTransactionData relationshipTransactionData;
+    /**
+     * Default number of changes a transaction must exceed for its data to be held in compact structures and spilled
+     * off the heap.
+     */
+    public static final long DEFAULT_SPILL_THRESHOLD = 1_000_000;
+
+    private final LazyNodeTransactionData nodeTransactionData;
+    private final LazyRelationshipTransactionData relationshipTransactionData;
 
     /**
      * Create an instance from Neo4j {@link org.neo4j.graphdb.event.TransactionData}.
@@ -43,6 +49,34 @@ public class LazyTransactionData extends BaseImprovedTransactionData implements
         relationshipTransactionData = new LazyRelationshipTransactionData(transactionData, this);
     }
 
+    /**
+     * Create an instance from Neo4j {@link org.neo4j.graphdb.event.TransactionData}, which uses compact structures
+     * for indexing created, deleted, and changed nodes and relationships, creating their snapshots on demand, once the
+     * transaction has more than the given number of changes, and moves captured property changes (old and new values)
+     * to memory-mapped temporary files once there are more than the given number of them. Useful for very large
+     * transactions, such as bulk imports, at the cost of slower access to the data.
+     *
+     * @param transactionData data about the transaction.
+     * @param spillThreshold  maximum number of changes for which all data is kept on the heap, for nodes and
+     *                        relationships separately. Use {@link #DEFAULT_SPILL_THRESHOLD} for a sensible default,
+     *                        {@link Long#MAX_VALUE} for keeping all data on the heap.
+     */
+    public LazyTransactionData(TransactionData transactionData, long spillThreshold) {
+        nodeTransactionData = new LazyNodeTransactionData(transactionData, this, spillThreshold);
+        relationshipTransactionData = new LazyRelationshipTransactionData(transactionData, this, spillThreshold);
+    }
+
+    /**
+     * Release the resources held outside of the Java heap, i.e. the memory-mapped files holding property changes of
+     * very large transactions, rather than waiting for them to be garbage collected. Should be called once the
+     * transaction has been committed or rolled back, when it has been created with a spill threshold. Property changes
+     * must not be accessed afterwards.
+     */
+    public void close() {
+        nodeTransactionData.close();
+        relationshipTransactionData.close();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.tx.event.improved.api;
+
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+
+/**
+ * Callback-style alternative to the collection-returning methods of {@link ImprovedTransactionData}. Passed to
+ * {@link ImprovedTransactionData#accept(TransactionDataVisitor)}, it receives all created, deleted, and changed
+ * {@link org.neo4j.graphdb.Node}s and {@link org.neo4j.graphdb.Relationship}s, as well as all created, deleted, and
+ * changed properties of the changed ones, streamed directly from the underlying indexed transaction data.
+ * <p/>
+ * For each changed {@link org.neo4j.graphdb.PropertyContainer}, the container-level callback is invoked first, followed
+ * by callbacks for its individual property changes. The order of containers is otherwise undefined.
+ * <p/>
+ * Implementations that are only interested in some of the events should extend {@link Adapter}.
+ */
+public interface TransactionDataVisitor {
+
+    /**
+     * Visit a node created in the transaction.
+     *
+     * @param node created node.
+     */
+    void visitCreatedNode(Node node);
+
+    /**
+     * Visit a node deleted in the transaction.
+     *
+     * @param node snapshot of the deleted node as it was before the transaction started.
+     */
+    void visitDeletedNode(Node node);
+
+    /**
+     * Visit a node changed in the transaction.
+     *
+     * @param change node as it was before the transaction started and as it is now.
+     */
+    void visitChangedNode(Change<Node> change);
+
+    /**
+     * Visit a property created in the transaction on a changed node.
+     *
+     * @param node  current version of the changed node.
+     * @param key   of the created property.
+     * @param value of the created property.
+     */
+    void visitCreatedNodeProperty(Node node, String key, Object value);
+
+    /**
+     * Visit a property deleted in the transaction from a changed node.
+     *
+     * @param node          current version of the changed node.
+     * @param key           of the deleted property.
+     * @param previousValue of the deleted property before the transaction started.
+     */
+    void visitDeletedNodeProperty(Node node, String key, Object previousValue);
+
+    /**
+     * Visit a property changed in the transaction on a changed node.
+     *
+     * @param node   current version of the changed node.
+     * @param key    of the changed property.
+     * @param change property value before the transaction started and as it is now.
+     */
+    void visitChangedNodeProperty(Node node, String key, Change<Object> change);
+
+    /**
+     * Visit a relationship created in the transaction.
+     *
+     * @param relationship created relationship.
+     */
+    void visitCreatedRelationship(Relationship relationship);
+
+    /**
+     * Visit a relationship deleted in the transaction.
+     *
+     * @param relationship snapshot of the deleted relationship as it was before the transaction started.
+     */
+    void visitDeletedRelationship(Relationship relationship);
+
+    /**
+     * Visit a relationship changed in the transaction.
+     *
+     * @param change relationship as it was before the transaction started and as it is now.
+     */
+    void visitChangedRelationship(Change<Relationship> change);
+
+    /**
+     * Visit a property created in the transaction on a changed relationship.
+     *
+     * @param relationship current version of the changed relationship.
+     * @param key          of the created property.
+     * @param value        of the created property.
+     */
+    void visitCreatedRelationshipProperty(Relationship relationship, String key, Object value);
+
+    /**
+     * Visit a property deleted in the transaction from a changed relationship.
+     *
+     * @param relationship  current version of the changed relationship.
+     * @param key           of the deleted property.
+     * @param previousValue of the deleted property before the transaction started.
+     */
+    void visitDeletedRelationshipProperty(Relationship relationship, String key, Object previousValue);
+
+    /**
+     * Visit a property changed in the transaction on a changed relationship.
+     *
+     * @param relationship current version of the changed relationship.
+     * @param key          of the changed property.
+     * @param change       property value before the transaction started and as it is now.
+     */
+    void visitChangedRelationshipProperty(Relationship relationship, String key, Change<Object> change);
+
+    /**
+     * Adapter for implementations that are only interested in some of the events. All methods do nothing.
+     */
+    public abstract class Adapter implements TransactionDataVisitor {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void visitCreatedNode(Node node) {
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void visitDeletedNode(Node node) {
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void visitChangedNode(Change<Node> change) {
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void visitCreatedNodeProperty(Node node, String key, Object value) {
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void visitDeletedNodeProperty(Node node, String key, Object previousValue) {
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void visitChangedNodeProperty(Node node, String key, Change<Object> change) {
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void visitCreatedRelationship(Relationship relationship) {
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void visitDeletedRelationship(Relationship relationship) {
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void visitChangedRelationship(Change<Relationship> change) {
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void visitCreatedRelationshipProperty(Relationship relationship, String key, Object value) {
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void visitDeletedRelationshipProperty(Relationship relationship, String key, Object previousValue) {
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void visitChangedRelationshipProperty(Relationship relationship, String key, Change<Object> change) {
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package com.graphaware.tx.event.improved.data;
 
 import com.graphaware.tx.event.improved.api.Change;
+import com.graphaware.tx.event.improved.api.TransactionDataVisitor;
 import org.neo4j.graphdb.*;
 
 import java.util.Collection;
@@ -173,6 +174,34 @@ public abstract class BaseImprovedTransactionData {
         return getNodeTransactionData().removedLabels(node);
     }
 
+    /**
+     * @see com.graphaware.tx.event.improved.api.ImprovedTransactionData#getCreatedNodesWithLabel(org.neo4j.graphdb.Label)
+     */
+    public Collection<Node> getCreatedNodesWithLabel(Label label) {
+        return getNodeTransactionData().getCreatedWithLabel(label);
+    }
+
+    /**
+     * @see com.graphaware.tx.event.improved.api.ImprovedTransactionData#getDeletedNodesWithLabel(org.neo4j.graphdb.Label)
+     */
+    public Collection<Node> getDeletedNodesWithLabel(Label label) {
+        return getNodeTransactionData().getDeletedWithLabel(label);
+    }
+
+    /**
+     * @see com.graphaware.tx.event.improved.api.ImprovedTransactionData#getNodesWithAssignedLabel(org.neo4j.graphdb.Label)
+     */
+    public Collection<Change<Node>> getNodesWithAssignedLabel(Label label) {
+        return getNodeTransactionData().getChangedWithAssignedLabel(label);
+    }
+
+    /**
+     * @see com.graphaware.tx.event.improved.api.ImprovedTransactionData#getNodesWithRemovedLabel(org.neo4j.graphdb.Label)
+     */
+    public Collection<Change<Node>> getNodesWithRemovedLabel(Label label) {
+        return getNodeTransactionData().getChangedWithRemovedLabel(label);
+    }
+
     /**
      * @see com.graphaware.tx.event.improved.api.ImprovedTransactionData#hasBeenCreated(org.neo4j.graphdb.Relationship)
      */
@@ -187,6 +216,20 @@ public abstract class BaseImprovedTransactionData {
         return getRelationshipTransactionData().getAllCreated();
     }
 
+    /**
+     * @see com.graphaware.tx.event.improved.api.ImprovedTransactionData#getCreatedRelationships(org.neo4j.graphdb.Node, org.neo4j.graphdb.RelationshipType...)
+     */
+    public Collection<Relationship> getCreatedRelationships(Node node, RelationshipType... types) {
+        return getRelationshipTransactionData().getCreated(node, types);
+    }
+
+    /**
+     * @see com.graphaware.tx.event.improved.api.ImprovedTransactionData#getCreatedRelationships(org.neo4j.graphdb.Node, org.neo4j.graphdb.Direction, org.neo4j.graphdb.RelationshipType...)
+     */
+    public Collection<Relationship> getCreatedRelationships(Node node, Direction direction, RelationshipType... types) {
+        return getRelationshipTransactionData().getCreated(node, direction, types);
+    }
+
     /**
      * @see com.graphaware.tx.event.improved.api.ImprovedTransactionData#hasBeenDeleted(org.neo4j.graphdb.Relationship)
      */
@@ -243,6 +286,20 @@ public abstract class BaseImprovedTransactionData {
         return getRelationshipTransactionData().getAllChanged();
     }
 
+    /**
+     * @see com.graphaware.tx.event.improved.api.ImprovedTransactionData#getChangedRelationships(org.neo4j.graphdb.Node, org.neo4j.graphdb.RelationshipType...)
+     */
+    public Collection<Change<Relationship>> getChangedRelationships(Node node, RelationshipType... types) {
+        return getRelationshipTransactionData().getChanged(node, types);
+    }
+
+    /**
+     * @see com.graphaware.tx.event.improved.api.ImprovedTransactionData#getChangedRelationships(org.neo4j.graphdb.Node, org.neo4j.graphdb.Direction, org.neo4j.graphdb.RelationshipType...)
+     */
+    public Collection<Change<Relationship>> getChangedRelationships(Node node, Direction direction, RelationshipType... types) {
+        return getRelationshipTransactionData().getChanged(node, direction, types);
+    }
+
     /**
      * @see com.graphaware.tx.event.improved.api.ImprovedTransactionData#hasPropertyBeenCreated(org.neo4j.graphdb.Relationship, String)
      */
@@ -329,4 +386,65 @@ public abstract class BaseImprovedTransactionData {
 
         return result;
     }
+
+    /**
+     * @see com.graphaware.tx.event.improved.api.ImprovedTransactionData#accept(com.graphaware.tx.event.improved.api.TransactionDataVisitor)
+     */
+    public void accept(final TransactionDataVisitor visitor) {
+        getNodeTransactionData().accept(new PropertyContainerTransactionDataVisitor<Node>() {
+            @Override
+            public void visitCreated(Node created) {
+                visitor.visitCreatedNode(created);
+            }
+
+            @Override
+            public void visitDeleted(Node deleted) {
+                visitor.visitDeletedNode(deleted);
+            }
+
+            @Override
+            public void visitChanged(Change<Node> changed, Map<String, Object> createdProperties, Map<String, Object> deletedProperties, Map<String, Change<Object>> changedProperties) {
+                visitor.visitChangedNode(changed);
+
+                Node current = changed.getCurrent();
+                for (Map.Entry<String, Object> entry : createdProperties.entrySet()) {
+                    visitor.visitCreatedNodeProperty(current, entry.getKey(), entry.getValue());
+                }
+                for (Map.Entry<String, Object> entry : deletedProperties.entrySet()) {
+                    visitor.visitDeletedNodeProperty(current, entry.getKey(), entry.getValue());
+                }
+                for (Map.Entry<String, Change<Object>> entry : changedProperties.entrySet()) {
+                    visitor.visitChangedNodeProperty(current, entry.getKey(), entry.getValue());
+                }
+            }
+        });
+
+        getRelationshipTransactionData().accept(new PropertyContainerTransactionDataVisitor<Relationship>() {
+            @Override
+            public void visitCreated(Relationship created) {
+                visitor.visitCreatedRelationship(created);
+            }
+
+            @Override
+            public void visitDeleted(Relationship deleted) {
+                visitor.visitDeletedRelationship(deleted);
+            }
+
+            @Override
+            public void visitChanged(Change<Relationship> changed, Map<String, Object> createdProperties, Map<String, Object> deletedProperties, Map<String, Change<Object>> changedProperties) {
+                visitor.visitChangedRelationship(changed);
+
+                Relationship current = changed.getCurrent();
+                for (Map.Entry<String, Object> entry : createdProperties.entrySet()) {
+                    visitor.visitCreatedRelationshipProperty(current, entry.getKey(), entry.getValue());
+                }
+                for (Map.Entry<String, Object> entry : deletedProperties.entrySet()) {
+                    visitor.visitDeletedRelationshipProperty(current, entry.getKey(), entry.getValue());
+                }
+                for (Map.Entry<String, Change<Object>> entry : changedProperties.entrySet()) {
+                    visitor.visitChangedRelationshipProperty(current, entry.getKey(), entry.getValue());
+                }
+            }
+        });
+    }
 }
@@ -16,9 +16,11 @@
 
 package com.graphaware.tx.event.improved.data;
 
+import com.graphaware.tx.event.improved.api.Change;
 import org.neo4j.graphdb.Label;
 import org.neo4j.graphdb.Node;
 
+import java.util.Collection;
 import java.util.Set;
 
 /**
@@ -67,4 +69,36 @@ public interface NodeTransactionData extends PropertyContainerTransactionData<No
      * @return read-only labels of the deleted node.
      */
     Set<Label> labelsOfDeletedNode(Node node);
+
+    /**
+     * Get all nodes created in the transaction that have the given label.
+     *
+     * @param label to look for.
+     * @return read-only collection of created nodes with the label.
+     */
+    Collection<Node> getCreatedWithLabel(Label label);
+
+    /**
+     * Get all nodes deleted in the transaction that had the given label before the transaction started.
+     *
+     * @param label to look for.
+     * @return read-only collection of deleted nodes with the label, as they were before the transaction started (snapshots).
+     */
+    Collection<Node> getDeletedWithLabel(Label label);
+
+    /**
+     * Get all changed nodes that have been assigned the given label in the transaction.
+     *
+     * @param label to look for.
+     * @return read-only collection of changed nodes that have been assigned the label.
+     */
+    Collection<Change<Node>> getChangedWithAssignedLabel(Label label);
+
+    /**
+     * Get all changed nodes that have had the given label removed in the transaction.
+     *
+     * @param label to look for.
+     * @return read-only collection of changed nodes that have had the label removed.
+     */
+    Collection<Change<Node>> getChangedWithRemovedLabel(Label label);
 }
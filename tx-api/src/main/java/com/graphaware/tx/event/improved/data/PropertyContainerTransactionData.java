@@ -153,4 +153,12 @@ public interface PropertyContainerTransactionData<T extends PropertyContainer> {
      *         after the transaction started, respectively.
      */
     Map<String, Change<Object>> changedProperties(T container);
+
+    /**
+     * Stream all created, deleted, and changed property containers (including their property changes) to the given
+     * visitor, without building any intermediate collections.
+     *
+     * @param visitor to receive the contents of this transaction data.
+     */
+    void accept(PropertyContainerTransactionDataVisitor<T> visitor);
 }
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.tx.event.improved.data;
+
+import com.graphaware.tx.event.improved.api.Change;
+import org.neo4j.graphdb.PropertyContainer;
+
+import java.util.Map;
+
+/**
+ * Callback receiving the contents of a {@link PropertyContainerTransactionData} as it is being streamed by
+ * {@link PropertyContainerTransactionData#accept(PropertyContainerTransactionDataVisitor)}.
+ * <p/>
+ * Property maps passed to {@link #visitChanged(com.graphaware.tx.event.improved.api.Change, java.util.Map, java.util.Map, java.util.Map)}
+ * are the internal indexes of the transaction data (or a filtered copy thereof) and must be treated as read-only.
+ *
+ * @param <T> type of the property container.
+ */
+public interface PropertyContainerTransactionDataVisitor<T extends PropertyContainer> {
+
+    /**
+     * Visit a property container created in the transaction.
+     *
+     * @param created container.
+     */
+    void visitCreated(T created);
+
+    /**
+     * Visit a property container deleted in the transaction.
+     *
+     * @param deleted snapshot of the container as it was before the transaction started.
+     */
+    void visitDeleted(T deleted);
+
+    /**
+     * Visit a property container changed in the transaction, together with all its property changes.
+     *
+     * @param changed           container as it was before the transaction started and as it is now.
+     * @param createdProperties read-only properties created in the transaction, never <code>null</code>.
+     * @param deletedProperties read-only properties deleted in the transaction (values before the transaction started), never <code>null</code>.
+     * @param changedProperties read-only properties changed in the transaction, never <code>null</code>.
+     */
+    void visitChanged(Change<T> changed, Map<String, Object> createdProperties, Map<String, Object> deletedProperties, Map<String, Change<Object>> changedProperties);
+}
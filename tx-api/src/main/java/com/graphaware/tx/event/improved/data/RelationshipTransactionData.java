@@ -16,6 +16,7 @@
 
 package com.graphaware.tx.event.improved.data;
 
+import com.graphaware.tx.event.improved.api.Change;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Relationship;
@@ -69,4 +70,24 @@ public interface RelationshipTransactionData extends PropertyContainerTransactio
      *         before the transaction started.
      */
     Collection<Relationship> getDeleted(Node node, Direction direction, RelationshipType... types);
+
+    /**
+     * Get all relationships for the given node and of the given types, which have been changed in the transaction.
+     *
+     * @param node  for which to get changed relationships.
+     * @param types of the changed relationships. If no types are provided, all types are returned.
+     * @return all changed relationships for the given node of the given types.
+     */
+    Collection<Change<Relationship>> getChanged(Node node, RelationshipType... types);
+
+    /**
+     * Get all relationships for the given node and of the given directions and types, which have been changed in the
+     * transaction.
+     *
+     * @param node      for which to get changed relationships.
+     * @param direction of the changed relationships
+     * @param types     of the changed relationships. If no types are provided, all types are returned.
+     * @return all changed relationships for the given node of the given direction and types.
+     */
+    Collection<Change<Relationship>> getChanged(Node node, Direction direction, RelationshipType... types);
 }
@@ -19,11 +19,16 @@ package com.graphaware.tx.event.improved.data.filtered;
 import com.graphaware.common.policy.InclusionPolicies;
 import com.graphaware.common.policy.PropertyContainerInclusionPolicy;
 import com.graphaware.common.policy.PropertyInclusionPolicy;
+import com.graphaware.common.policy.none.IncludeNone;
+import com.graphaware.tx.event.improved.api.Change;
 import com.graphaware.tx.event.improved.data.NodeTransactionData;
 import com.graphaware.tx.event.improved.propertycontainer.filtered.FilteredNode;
 import org.neo4j.graphdb.Label;
 import org.neo4j.graphdb.Node;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Set;
 
 /**
@@ -115,4 +120,64 @@ public class FilteredNodeTransactionData extends FilteredPropertyContainerTransa
     public Set<Label> labelsOfDeletedNode(Node node) {
         return getWrapped().labelsOfDeletedNode(node);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<Node> getCreatedWithLabel(Label label) {
+        if (getPropertyContainerInclusionPolicy() instanceof IncludeNone) {
+            return Collections.emptySet();
+        }
+        return filterPropertyContainers(getWrapped().getCreatedWithLabel(label));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<Node> getDeletedWithLabel(Label label) {
+        if (getPropertyContainerInclusionPolicy() instanceof IncludeNone) {
+            return Collections.emptySet();
+        }
+        return filterPropertyContainers(getWrapped().getDeletedWithLabel(label));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<Change<Node>> getChangedWithAssignedLabel(Label label) {
+        return filterLabelChanges(getWrapped().getChangedWithAssignedLabel(label));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<Change<Node>> getChangedWithRemovedLabel(Label label) {
+        return filterLabelChanges(getWrapped().getChangedWithRemovedLabel(label));
+    }
+
+    /**
+     * Filter nodes with changed labels according to provided {@link com.graphaware.common.policy.NodeInclusionPolicy}.
+     * In contrast to {@link #filterChangedPropertyContainers(java.util.Collection)}, property changes are not required,
+     * since a label change is a change in its own right.
+     *
+     * @param toFilter changed nodes to filter.
+     * @return filtered changed nodes.
+     */
+    private Collection<Change<Node>> filterLabelChanges(Collection<Change<Node>> toFilter) {
+        if (getPropertyContainerInclusionPolicy() instanceof IncludeNone) {
+            return Collections.emptySet();
+        }
+
+        Collection<Change<Node>> result = new HashSet<>();
+        for (Change<Node> candidate : toFilter) {
+            if (isIncluded(candidate)) {
+                result.add(filteredChange(candidate));
+            }
+        }
+        return Collections.unmodifiableCollection(result);
+    }
 }
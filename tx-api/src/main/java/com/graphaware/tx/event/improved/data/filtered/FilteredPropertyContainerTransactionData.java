@@ -23,10 +23,16 @@ import com.graphaware.common.policy.none.IncludeNoProperties;
 import com.graphaware.common.policy.none.IncludeNone;
 import com.graphaware.tx.event.improved.api.Change;
 import com.graphaware.tx.event.improved.data.PropertyContainerTransactionData;
+import com.graphaware.tx.event.improved.data.PropertyContainerTransactionDataVisitor;
+import com.graphaware.tx.event.improved.data.lazy.LazyPropertyContainerTransactionData;
+import org.neo4j.collection.primitive.Primitive;
+import org.neo4j.collection.primitive.PrimitiveLongObjectMap;
 import org.neo4j.graphdb.PropertyContainer;
 
 import java.util.*;
 
+import static com.graphaware.common.util.PropertyContainerUtils.id;
+
 /**
  * Decorator of {@link com.graphaware.tx.event.improved.data.PropertyContainerTransactionData} that filters out {@link org.neo4j.graphdb.PropertyContainer}s and properties
  * based on provided {@link com.graphaware.common.policy.PropertyContainerInclusionPolicy} and {@link com.graphaware.common.policy.PropertyInclusionPolicy}.
@@ -45,11 +51,29 @@ import java.util.*;
  * nodes, properties, and relationships not included by the {@link com.graphaware.common.policy.InclusionPolicies} will be excluded. The only exception
  * to this are relationship start and end nodes - they are returned even if they would normally be filtered out. This is
  * a design decision in order to honor the requirement that relationships must have start and end node.
+ * <p/>
+ * Policy decisions are evaluated lazily, at most once per property container ID (and state before or after the
+ * transaction) for the lifetime of this object, so they are remembered even when the underlying transaction data
+ * creates new snapshots on every access. Unless the underlying transaction data is compact (see
+ * {@link LazyPropertyContainerTransactionData#isCompact()}), the results of {@link #getAllCreated()},
+ * {@link #getAllDeleted()}, and {@link #getAllChanged()} are memoized as well, so repeated calls cost nothing extra.
+ * The underlying transaction data must therefore not change while this object is in use, which holds for
+ * {@link org.neo4j.graphdb.event.TransactionData}.
  */
 public abstract class FilteredPropertyContainerTransactionData<T extends PropertyContainer> {
 
     protected final InclusionPolicies policies;
 
+    //decisions about containers as they are after the transaction, or were before it if they have been deleted
+    private final PrimitiveLongObjectMap<Boolean> containerDecisions = Primitive.longObjectMap();
+    //decisions about changed containers as they were before the transaction
+    private final PrimitiveLongObjectMap<Boolean> previousDecisions = Primitive.longObjectMap();
+    private final PrimitiveLongObjectMap<Boolean> changeDecisions = Primitive.longObjectMap();
+
+    private Collection<T> allCreated;
+    private Collection<T> allDeleted;
+    private Collection<Change<T>> allChanged;
+
     /**
      * Construct filtered property container transaction data.
      *
@@ -107,7 +131,13 @@ public abstract class FilteredPropertyContainerTransactionData<T extends Propert
         if (getPropertyContainerInclusionPolicy() instanceof IncludeNone) {
             return Collections.emptySet();
         }
-        return filterPropertyContainers(getWrapped().getAllCreated());
+        if (!memoize()) {
+            return filterPropertyContainers(getWrapped().getAllCreated());
+        }
+        if (allCreated == null) {
+            allCreated = filterPropertyContainers(getWrapped().getAllCreated());
+        }
+        return allCreated;
     }
 
     /**
@@ -143,7 +173,13 @@ public abstract class FilteredPropertyContainerTransactionData<T extends Propert
         if (getPropertyContainerInclusionPolicy() instanceof IncludeNone) {
             return Collections.emptySet();
         }
-        return filterPropertyContainers(getWrapped().getAllDeleted());
+        if (!memoize()) {
+            return filterPropertyContainers(getWrapped().getAllDeleted());
+        }
+        if (allDeleted == null) {
+            allDeleted = filterPropertyContainers(getWrapped().getAllDeleted());
+        }
+        return allDeleted;
     }
 
     /**
@@ -179,7 +215,24 @@ public abstract class FilteredPropertyContainerTransactionData<T extends Propert
         if (getPropertyContainerInclusionPolicy() instanceof IncludeNone) {
             return Collections.emptySet();
         }
-        return filterChangedPropertyContainers(getWrapped().getAllChanged());
+        if (!memoize()) {
+            return filterChangedPropertyContainers(getWrapped().getAllChanged());
+        }
+        if (allChanged == null) {
+            allChanged = filterChangedPropertyContainers(getWrapped().getAllChanged());
+        }
+        return allChanged;
+    }
+
+    /**
+     * Decide whether filtered collections of all created, deleted, and changed containers should be memoized. They are
+     * not memoized when the underlying transaction data is compact, since that would keep all the snapshots the
+     * compact structures avoid keeping on the heap.
+     *
+     * @return true iff the collections should be memoized.
+     */
+    private boolean memoize() {
+        return !(getWrapped() instanceof LazyPropertyContainerTransactionData) || !((LazyPropertyContainerTransactionData<T>) getWrapped()).isCompact();
     }
 
     /**
@@ -277,20 +330,178 @@ public abstract class FilteredPropertyContainerTransactionData<T extends Propert
         return filterProperties(getWrapped().changedProperties(container), container);
     }
 
+    /**
+     * Stream all created, deleted, and changed property containers (including their property changes) to the given
+     * visitor. Filtered according to provided policies, with the same semantics as {@link #getAllCreated()},
+     * {@link #getAllDeleted()}, {@link #getAllChanged()}, and the property-returning methods.
+     * <p/>
+     * Policies are evaluated before anything is wrapped, so no filtering decorators or intermediate collections are
+     * created for excluded property containers.
+     *
+     * @param visitor to receive the filtered contents of this transaction data.
+     */
+    public void accept(final PropertyContainerTransactionDataVisitor<T> visitor) {
+        if (getPropertyContainerInclusionPolicy() instanceof IncludeNone) {
+            return;
+        }
+
+        final boolean includeNoProperties = getPropertyInclusionPolicy() instanceof IncludeNoProperties;
+
+        getWrapped().accept(new PropertyContainerTransactionDataVisitor<T>() {
+            @Override
+            public void visitCreated(T created) {
+                if (isIncluded(created)) {
+                    visitor.visitCreated(filtered(created));
+                }
+            }
+
+            @Override
+            public void visitDeleted(T deleted) {
+                if (isIncluded(deleted)) {
+                    visitor.visitDeleted(filtered(deleted));
+                }
+            }
+
+            @Override
+            public void visitChanged(Change<T> changed, Map<String, Object> createdProperties, Map<String, Object> deletedProperties, Map<String, Change<Object>> changedProperties) {
+                if (includeNoProperties) {
+                    return;
+                }
+
+                if (!isIncluded(changed)) {
+                    return;
+                }
+
+                T container = changed.getPrevious();
+                int created = countIncluded(createdProperties, container);
+                int deleted = countIncluded(deletedProperties, container);
+                int changedCount = countIncluded(changedProperties, container);
+
+                if (created + deleted + changedCount == 0) {
+                    return;
+                }
+
+                visitor.visitChanged(filteredChange(changed),
+                        created == createdProperties.size() ? createdProperties : filterProperties(createdProperties, container),
+                        deleted == deletedProperties.size() ? deletedProperties : filterProperties(deletedProperties, container),
+                        changedCount == changedProperties.size() ? changedProperties : filterProperties(changedProperties, container));
+            }
+        });
+    }
+
+    /**
+     * Count properties included by the provided {@link com.graphaware.common.policy.PropertyInclusionPolicy}, without
+     * copying them.
+     *
+     * @param properties to count.
+     * @param container  to which the properties belong.
+     * @return number of included properties.
+     */
+    private int countIncluded(Map<String, ?> properties, T container) {
+        int result = 0;
+        for (String key : properties.keySet()) {
+            if (getPropertyInclusionPolicy().include(key, container)) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Check whether a created property container, or a deleted property container as it was before the transaction,
+     * is included by the provided {@link com.graphaware.common.policy.PropertyContainerInclusionPolicy}. The decision
+     * is only made once per property container ID.
+     *
+     * @param container to check.
+     * @return true iff the container is included.
+     */
+    protected final boolean isIncluded(T container) {
+        return isIncluded(container, containerDecisions);
+    }
+
+    /**
+     * Check whether a changed property container is included by the provided
+     * {@link com.graphaware.common.policy.PropertyContainerInclusionPolicy} before or after the transaction. The
+     * decisions are only made once per property container ID.
+     *
+     * @param change to check.
+     * @return true iff the container is included before or after the transaction.
+     */
+    protected final boolean isIncluded(Change<T> change) {
+        return isIncluded(change.getPrevious(), previousDecisions) || isIncluded(change.getCurrent(), containerDecisions);
+    }
+
+    private boolean isIncluded(T container, PrimitiveLongObjectMap<Boolean> decisions) {
+        long id = id(container);
+        Boolean decision = decisions.get(id);
+
+        if (decision == null) {
+            decision = getPropertyContainerInclusionPolicy().include(container);
+            decisions.put(id, decision);
+        }
+
+        return decision;
+    }
+
+    /**
+     * Check whether a change is included by the provided policies, i.e. whether the changed property container complies
+     * with the provided {@link com.graphaware.common.policy.PropertyContainerInclusionPolicy} before or after the
+     * transaction and has at least one property created, deleted, or changed that complies with the provided
+     * {@link com.graphaware.common.policy.PropertyInclusionPolicy}. The decision is only made once per changed
+     * property container ID.
+     *
+     * @param change to check.
+     * @return true iff the change is included.
+     */
+    private boolean isIncludedWithProperties(Change<T> change) {
+        long id = id(change.getPrevious());
+        Boolean decision = changeDecisions.get(id);
+
+        if (decision == null) {
+            T container = change.getPrevious();
+            decision = isIncluded(change)
+                    && !(getPropertyInclusionPolicy() instanceof IncludeNoProperties)
+                    && (hasIncluded(getWrapped().createdProperties(container), container)
+                    || hasIncluded(getWrapped().deletedProperties(container), container)
+                    || hasIncluded(getWrapped().changedProperties(container), container));
+
+            changeDecisions.put(id, decision);
+        }
+
+        return decision;
+    }
+
+    /**
+     * Check whether at least one of the given properties is included by the provided
+     * {@link com.graphaware.common.policy.PropertyInclusionPolicy}, without copying them.
+     *
+     * @param properties to check.
+     * @param container  to which the properties belong.
+     * @return true iff at least one property is included.
+     */
+    private boolean hasIncluded(Map<String, ?> properties, T container) {
+        for (String key : properties.keySet()) {
+            if (getPropertyInclusionPolicy().include(key, container)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Filter property containers according to provided {@link com.graphaware.common.policy.PropertyContainerInclusionPolicy}.
      *
      * @param toFilter property containers to filter.
-     * @return filtered property containers.
+     * @return read-only filtered property containers.
      */
     protected final Collection<T> filterPropertyContainers(Collection<T> toFilter) {
         Collection<T> result = new HashSet<>();
         for (T candidate : toFilter) {
-            if (getPropertyContainerInclusionPolicy().include(candidate)) {
+            if (isIncluded(candidate)) {
                 result.add(filtered(candidate));
             }
         }
-        return result;
+        return Collections.unmodifiableCollection(result);
     }
 
     /**
@@ -299,21 +510,16 @@ public abstract class FilteredPropertyContainerTransactionData<T extends Propert
      * with the provided {@link com.graphaware.common.policy.PropertyInclusionPolicy} will be returned.
      *
      * @param toFilter changed property containers to filter.
-     * @return filtered changed property containers.
+     * @return read-only filtered changed property containers.
      */
     protected final Collection<Change<T>> filterChangedPropertyContainers(Collection<Change<T>> toFilter) {
         Collection<Change<T>> result = new HashSet<>();
         for (Change<T> candidate : toFilter) {
-            if (getPropertyContainerInclusionPolicy().include(candidate.getPrevious()) || getPropertyContainerInclusionPolicy().include(candidate.getCurrent())) {
-                if (!createdProperties(candidate.getPrevious()).isEmpty()
-                        || !deletedProperties(candidate.getPrevious()).isEmpty()
-                        || !changedProperties(candidate.getPrevious()).isEmpty()) {
-
-                    result.add(filteredChange(candidate));
-                }
+            if (isIncludedWithProperties(candidate)) {
+                result.add(filteredChange(candidate));
             }
         }
-        return result;
+        return Collections.unmodifiableCollection(result);
     }
 
     /**
@@ -19,6 +19,7 @@ package com.graphaware.tx.event.improved.data.filtered;
 import com.graphaware.common.policy.InclusionPolicies;
 import com.graphaware.common.policy.PropertyContainerInclusionPolicy;
 import com.graphaware.common.policy.PropertyInclusionPolicy;
+import com.graphaware.tx.event.improved.api.Change;
 import com.graphaware.tx.event.improved.data.PropertyContainerTransactionData;
 import com.graphaware.tx.event.improved.data.RelationshipTransactionData;
 import com.graphaware.tx.event.improved.propertycontainer.filtered.FilteredRelationship;
@@ -95,6 +96,22 @@ public class FilteredRelationshipTransactionData extends FilteredPropertyContain
         return filterPropertyContainers(wrapped.getDeleted(node, direction, types));
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<Change<Relationship>> getChanged(Node node, RelationshipType... types) {
+        return filterChangedPropertyContainers(wrapped.getChanged(node, types));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<Change<Relationship>> getChanged(Node node, Direction direction, RelationshipType... types) {
+        return filterChangedPropertyContainers(wrapped.getChanged(node, direction, types));
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.tx.event.improved.data.filtered;
+
+import com.graphaware.common.policy.PropertyInclusionPolicy;
+import com.graphaware.common.policy.PropertyKeyInclusionPolicy;
+import com.graphaware.common.policy.all.IncludeAllProperties;
+import com.graphaware.common.policy.fluent.BaseIncludeProperties;
+import com.graphaware.common.policy.none.IncludeNoProperties;
+import org.neo4j.graphdb.PropertyContainer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link PropertyInclusionPolicy} decorator that memoizes the decisions of a wrapped policy per property key. Only
+ * applicable to policies that {@link PropertyKeyInclusionPolicy#decidesByKeyOnly() decide by key only}.
+ * <p/>
+ * Intended to live for the duration of a single transaction's filtering, where the same handful of property keys are
+ * typically evaluated over and over again. Not thread-safe.
+ *
+ * @param <T> type of the property container.
+ */
+public abstract class KeyCachingPropertyInclusionPolicy<T extends PropertyContainer> implements PropertyInclusionPolicy<T> {
+
+    private final PropertyInclusionPolicy<T> wrapped;
+    private final Map<String, Boolean> decisions = new HashMap<>();
+
+    /**
+     * Should the given policy be wrapped in a {@link KeyCachingPropertyInclusionPolicy}? That is the case iff it decides
+     * by key only and its evaluation is more expensive than a map lookup.
+     *
+     * @param policy to check.
+     * @return true iff it is worth caching the policy's decisions.
+     */
+    public static boolean shouldCache(PropertyInclusionPolicy<?> policy) {
+        if (policy instanceof KeyCachingPropertyInclusionPolicy
+                || policy instanceof IncludeAllProperties
+                || policy instanceof IncludeNoProperties
+                || policy instanceof BaseIncludeProperties) {
+            return false;
+        }
+
+        return policy instanceof PropertyKeyInclusionPolicy && ((PropertyKeyInclusionPolicy) policy).decidesByKeyOnly();
+    }
+
+    /**
+     * Construct a new caching policy.
+     *
+     * @param wrapped policy, must decide by key only.
+     */
+    protected KeyCachingPropertyInclusionPolicy(PropertyInclusionPolicy<T> wrapped) {
+        if (!(wrapped instanceof PropertyKeyInclusionPolicy) || !((PropertyKeyInclusionPolicy) wrapped).decidesByKeyOnly()) {
+            throw new IllegalArgumentException("Only policies deciding by key only can be cached, " + wrapped + " does not");
+        }
+        this.wrapped = wrapped;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean include(String key, T propertyContainer) {
+        Boolean decision = decisions.get(key);
+
+        if (decision == null) {
+            decision = wrapped.include(key, propertyContainer);
+            decisions.put(key, decision);
+        }
+
+        return decision;
+    }
+
+    /**
+     * Get the wrapped policy.
+     *
+     * @return wrapped policy.
+     */
+    public PropertyInclusionPolicy<T> getWrapped() {
+        return wrapped;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        KeyCachingPropertyInclusionPolicy that = (KeyCachingPropertyInclusionPolicy) o;
+
+        if (!wrapped.equals(that.wrapped)) return false;
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return wrapped.hashCode();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return wrapped.toString();
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.tx.event.improved.data.lazy;
+
+import org.neo4j.collection.primitive.Primitive;
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.collection.primitive.PrimitiveLongObjectMap;
+import org.neo4j.graphdb.PropertyContainer;
+import org.neo4j.helpers.Function;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+
+import static com.graphaware.common.util.PropertyContainerUtils.id;
+
+/**
+ * {@link ContainerIndex} that only holds the indexed property containers themselves, keyed by primitive IDs, and
+ * derives values from them every time they are requested. This avoids keeping a boxed key, a map entry, and a derived
+ * value (such as a snapshot) on the heap for every container, so it should be used for very large transactions.
+ * <p/>
+ * Note that values are not cached, so two calls for the same container return equal, but not identical objects.
+ *
+ * @param <T> type of the property container.
+ * @param <V> type of the indexed value.
+ */
+class CompactContainerIndex<T extends PropertyContainer, V> implements ContainerIndex<T, V> {
+
+    private final Function<T, V> function;
+    private final PrimitiveLongObjectMap<T> containers = Primitive.longObjectMap();
+
+    /**
+     * Construct a new index.
+     *
+     * @param function deriving values from property containers.
+     */
+    CompactContainerIndex(Function<T, V> function) {
+        this.function = function;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(T container) {
+        containers.put(id(container), container);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(long id) {
+        return containers.containsKey(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V get(long id) {
+        T container = containers.get(id);
+        if (container == null) {
+            return null;
+        }
+        return function.apply(container);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                final PrimitiveLongIterator ids = containers.iterator();
+
+                return new Iterator<V>() {
+                    @Override
+                    public boolean hasNext() {
+                        return ids.hasNext();
+                    }
+
+                    @Override
+                    public V next() {
+                        return function.apply(containers.get(ids.next()));
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return containers.size();
+            }
+        };
+    }
+}
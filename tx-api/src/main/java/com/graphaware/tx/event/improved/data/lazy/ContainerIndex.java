@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.tx.event.improved.data.lazy;
+
+import org.neo4j.graphdb.PropertyContainer;
+
+import java.util.Collection;
+
+/**
+ * Index of values derived from property containers (e.g. snapshots of created, deleted, or changed containers) by the
+ * ID of the container.
+ *
+ * @param <T> type of the property container.
+ * @param <V> type of the indexed value.
+ */
+interface ContainerIndex<T extends PropertyContainer, V> {
+
+    /**
+     * Index a property container.
+     *
+     * @param container to index.
+     */
+    void put(T container);
+
+    /**
+     * Check whether a property container has been indexed.
+     *
+     * @param id of the property container.
+     * @return true iff indexed.
+     */
+    boolean containsKey(long id);
+
+    /**
+     * Get the value derived from an indexed property container.
+     *
+     * @param id of the property container.
+     * @return value, <code>null</code> if no such container has been indexed.
+     */
+    V get(long id);
+
+    /**
+     * Get the values derived from all indexed property containers.
+     *
+     * @return values. Must be treated as read-only.
+     */
+    Collection<V> values();
+}
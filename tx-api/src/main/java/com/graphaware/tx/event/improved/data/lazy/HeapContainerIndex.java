@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.tx.event.improved.data.lazy;
+
+import org.neo4j.graphdb.PropertyContainer;
+import org.neo4j.helpers.Function;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.graphaware.common.util.PropertyContainerUtils.id;
+
+/**
+ * {@link ContainerIndex} that derives values from property containers as they are indexed and holds them in a
+ * {@link java.util.HashMap} on the heap.
+ *
+ * @param <T> type of the property container.
+ * @param <V> type of the indexed value.
+ */
+class HeapContainerIndex<T extends PropertyContainer, V> implements ContainerIndex<T, V> {
+
+    private final Function<T, V> function;
+    private final Map<Long, V> values = new HashMap<>();
+
+    /**
+     * Construct a new index.
+     *
+     * @param function deriving values from property containers.
+     */
+    HeapContainerIndex(Function<T, V> function) {
+        this.function = function;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(T container) {
+        values.put(id(container), function.apply(container));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(long id) {
+        return values.containsKey(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V get(long id) {
+        return values.get(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<V> values() {
+        return values.values();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.tx.event.improved.data.lazy;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link PropertyChanges} held in nested {@link java.util.HashMap}s on the heap.
+ *
+ * @param <V> type of the indexed value.
+ */
+class HeapPropertyChanges<V> implements PropertyChanges<V> {
+
+    private final Map<Long, Map<String, V>> changes = new HashMap<>();
+    private long size = 0;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(long id, String key, V value) {
+        Map<String, V> containerChanges = changes.get(id);
+        if (containerChanges == null) {
+            containerChanges = new HashMap<>();
+            changes.put(id, containerChanges);
+        }
+
+        if (containerChanges.put(key, value) == null) {
+            size++;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(long id) {
+        return changes.containsKey(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, V> get(long id) {
+        return changes.get(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long size() {
+        return size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        //nothing to release, all changes are on the heap
+    }
+
+    /**
+     * Copy all recorded changes to another instance.
+     *
+     * @param target to copy to.
+     */
+    void copyTo(PropertyChanges<V> target) {
+        for (Map.Entry<Long, Map<String, V>> containerChanges : changes.entrySet()) {
+            for (Map.Entry<String, V> change : containerChanges.getValue().entrySet()) {
+                target.put(containerChanges.getKey(), change.getKey(), change.getValue());
+            }
+        }
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.graphaware.tx.event.improved.data.lazy;
 
+import com.graphaware.tx.event.improved.api.Change;
 import com.graphaware.tx.event.improved.data.NodeTransactionData;
 import com.graphaware.tx.event.improved.data.TransactionDataContainer;
 import com.graphaware.tx.event.improved.propertycontainer.snapshot.NodeSnapshot;
@@ -29,6 +30,8 @@ import org.slf4j.LoggerFactory;
 
 import java.util.*;
 
+import static org.neo4j.helpers.collection.IteratorUtil.count;
+
 /**
  * {@link LazyPropertyContainerTransactionData} for {@link org.neo4j.graphdb.Node}s.
  */
@@ -42,6 +45,11 @@ public class LazyNodeTransactionData extends LazyPropertyContainerTransactionDat
     private Map<Long, Set<Label>> removedLabels = null;
     private Map<Long, Set<Label>> deletedNodeLabels = null;
 
+    private Map<String, List<Node>> createdWithLabel = null;
+    private Map<String, List<Node>> deletedWithLabel = null;
+    private Map<String, List<Change<Node>>> changedWithAssignedLabel = null;
+    private Map<String, List<Change<Node>>> changedWithRemovedLabel = null;
+
     /**
      * Construct node transaction data from Neo4j {@link org.neo4j.graphdb.event.TransactionData}.
      *
@@ -49,6 +57,19 @@ public class LazyNodeTransactionData extends LazyPropertyContainerTransactionDat
      * @param transactionDataContainer containing {@link com.graphaware.tx.event.improved.data.PropertyContainerTransactionData}..
      */
     public LazyNodeTransactionData(TransactionData transactionData, TransactionDataContainer transactionDataContainer) {
+        this(transactionData, transactionDataContainer, Long.MAX_VALUE);
+    }
+
+    /**
+     * Construct node transaction data from Neo4j {@link org.neo4j.graphdb.event.TransactionData}, using compact internal
+     * structures and moving captured property changes off the heap once there are more than the given number of changes.
+     *
+     * @param transactionData          provided by Neo4j.
+     * @param transactionDataContainer containing {@link com.graphaware.tx.event.improved.data.PropertyContainerTransactionData}.
+     * @param spillThreshold           maximum number of changes for which all internal structures are kept on the heap.
+     */
+    public LazyNodeTransactionData(TransactionData transactionData, TransactionDataContainer transactionDataContainer, long spillThreshold) {
+        super(spillThreshold);
         this.transactionData = transactionData;
         this.transactionDataContainer = transactionDataContainer;
     }
@@ -196,6 +217,116 @@ public class LazyNodeTransactionData extends LazyPropertyContainerTransactionDat
         return Collections.unmodifiableSet(deletedNodeLabels.get(node.getId()));
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<Node> getCreatedWithLabel(Label label) {
+        initializeLabelIndexes();
+        return valuesForLabel(createdWithLabel, label);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<Node> getDeletedWithLabel(Label label) {
+        initializeLabelIndexes();
+        return valuesForLabel(deletedWithLabel, label);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<Change<Node>> getChangedWithAssignedLabel(Label label) {
+        initializeLabelIndexes();
+        return valuesForLabel(changedWithAssignedLabel, label);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<Change<Node>> getChangedWithRemovedLabel(Label label) {
+        initializeLabelIndexes();
+        return valuesForLabel(changedWithRemovedLabel, label);
+    }
+
+    /**
+     * Build reverse indexes from label (name) to nodes that have been created with, deleted with, assigned, or had
+     * removed the label, so that per-label queries do not need to scan all nodes in the transaction.
+     */
+    private void initializeLabelIndexes() {
+        if (createdWithLabel != null) {
+            assert deletedWithLabel != null;
+            assert changedWithAssignedLabel != null;
+            assert changedWithRemovedLabel != null;
+
+            return;
+        }
+
+        initializeChanged();
+
+        createdWithLabel = new HashMap<>();
+        deletedWithLabel = new HashMap<>();
+        changedWithAssignedLabel = new HashMap<>();
+        changedWithRemovedLabel = new HashMap<>();
+
+        for (Node created : getAllCreated()) {
+            for (Label label : created.getLabels()) {
+                indexByLabel(createdWithLabel, label, created);
+            }
+        }
+
+        for (Node deleted : getAllDeleted()) {
+            Set<Label> labels = deletedNodeLabels.get(deleted.getId());
+            if (labels != null) {
+                for (Label label : labels) {
+                    indexByLabel(deletedWithLabel, label, deleted);
+                }
+            }
+        }
+
+        for (Change<Node> changed : getAllChanged()) {
+            long id = changed.getPrevious().getId();
+
+            if (assignedLabels.containsKey(id)) {
+                for (Label label : assignedLabels.get(id)) {
+                    indexByLabel(changedWithAssignedLabel, label, changed);
+                }
+            }
+
+            if (removedLabels.containsKey(id)) {
+                for (Label label : removedLabels.get(id)) {
+                    indexByLabel(changedWithRemovedLabel, label, changed);
+                }
+            }
+        }
+    }
+
+    private <V> void indexByLabel(Map<String, List<V>> index, Label label, V value) {
+        if (!index.containsKey(label.name())) {
+            index.put(label.name(), new ArrayList<V>());
+        }
+        index.get(label.name()).add(value);
+    }
+
+    private <V> Collection<V> valuesForLabel(Map<String, List<V>> index, Label label) {
+        if (!index.containsKey(label.name())) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(index.get(label.name()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected long countChanges() {
+        return super.countChanges() + count(transactionData.assignedLabels()) + count(transactionData.removedLabels());
+    }
+
     @Override
     protected void doInitializeChanged() {
         assignedLabels = new HashMap<>();
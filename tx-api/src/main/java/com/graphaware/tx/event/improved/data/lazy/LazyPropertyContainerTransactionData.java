@@ -19,17 +19,19 @@ package com.graphaware.tx.event.improved.data.lazy;
 
 import com.graphaware.tx.event.improved.api.Change;
 import com.graphaware.tx.event.improved.data.PropertyContainerTransactionData;
+import com.graphaware.tx.event.improved.data.PropertyContainerTransactionDataVisitor;
 import org.neo4j.graphdb.PropertyContainer;
 import org.neo4j.graphdb.event.PropertyEntry;
+import org.neo4j.helpers.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
 
 import static com.graphaware.common.util.PropertyContainerUtils.id;
+import static org.neo4j.helpers.collection.IteratorUtil.count;
 
 /**
  * {@link com.graphaware.tx.event.improved.data.PropertyContainerTransactionData} that lazily initializes its internal structures (indexed transaction data)
@@ -40,26 +42,48 @@ import static com.graphaware.common.util.PropertyContainerUtils.id;
 public abstract class LazyPropertyContainerTransactionData<T extends PropertyContainer> implements PropertyContainerTransactionData<T> {
     private static final Logger LOG = LoggerFactory.getLogger(LazyPropertyContainerTransactionData.class);
 
-    private Map<Long, T> created = null;
-    private Map<Long, T> deleted = null;
-    private Map<Long, Change<T>> changed = null;
+    private ContainerIndex<T, T> created = null;
+    private ContainerIndex<T, T> deleted = null;
+    private ContainerIndex<T, Change<T>> changed = null;
 
     /**
      * <ID, <key, new value>>
      */
-    private Map<Long, Map<String, Object>> createdProperties = null;
+    private PropertyChanges<Object> createdProperties = null;
     /**
      * <ID, <key, old value>>
      */
-    private Map<Long, Map<String, Object>> deletedProperties = null;
+    private PropertyChanges<Object> deletedProperties = null;
     /**
      * <ID, <key, old and new value>>
      */
-    private Map<Long, Map<String, Change<Object>>> changedProperties = null;
+    private PropertyChanges<Change<Object>> changedProperties = null;
     /**
      * <ID, <key, old value>> of properties of deleted property containers
      */
-    private Map<Long, Map<String, Object>> deletedContainersProperties = null;
+    private PropertyChanges<Object> deletedContainersProperties = null;
+
+    private final long spillThreshold;
+    private Boolean large = null;
+
+    /**
+     * Construct transaction data that keeps all its internal structures on the heap.
+     */
+    protected LazyPropertyContainerTransactionData() {
+        this(Long.MAX_VALUE);
+    }
+
+    /**
+     * Construct transaction data for potentially very large transactions. When the transaction has more than the given
+     * number of changes, created, deleted, and changed property containers are indexed in compact structures, which
+     * create snapshots on demand. Independently of that, captured property changes of each kind (created, deleted,
+     * changed) are moved off the heap once there are more than the given number of them.
+     *
+     * @param spillThreshold maximum number of changes for which all internal structures are kept on the heap.
+     */
+    protected LazyPropertyContainerTransactionData(long spillThreshold) {
+        this.spillThreshold = spillThreshold;
+    }
 
     /**
      * Create an old snapshot of an original property container.
@@ -98,10 +122,15 @@ public abstract class LazyPropertyContainerTransactionData<T extends PropertyCon
     private void initializeCreated() {
         if (created == null) {
 
-            created = new HashMap<>();
+            created = newContainerIndex(new Function<T, T>() {
+                @Override
+                public T apply(T original) {
+                    return newSnapshot(original);
+                }
+            });
 
             for (T created : created()) {
-                this.created.put(id(created), newSnapshot(created));
+                this.created.put(created);
             }
         }
     }
@@ -148,10 +177,15 @@ public abstract class LazyPropertyContainerTransactionData<T extends PropertyCon
     private void initializeDeleted() {
         if (deleted == null) {
 
-            deleted = new HashMap<>();
+            deleted = newContainerIndex(new Function<T, T>() {
+                @Override
+                public T apply(T original) {
+                    return oldSnapshot(original);
+                }
+            });
 
             for (T deleted : deleted()) {
-                this.deleted.put(id(deleted), oldSnapshot(deleted));
+                this.deleted.put(deleted);
             }
         }
     }
@@ -200,7 +234,12 @@ public abstract class LazyPropertyContainerTransactionData<T extends PropertyCon
         initializeDeleted();
 
         if (changed == null) {
-            changed = new HashMap<>();
+            changed = newContainerIndex(new Function<T, Change<T>>() {
+                @Override
+                public Change<T> apply(T original) {
+                    return new Change<>(oldSnapshot(original), newSnapshot(original));
+                }
+            });
 
             for (PropertyEntry<T> propertyEntry : assignedProperties()) {
                 if (hasNotActuallyChanged(propertyEntry)) {
@@ -230,8 +269,7 @@ public abstract class LazyPropertyContainerTransactionData<T extends PropertyCon
 
     protected void registerChange(T candidate) {
         if (!changedContainsKey(candidate)) {
-            Change<T> change = new Change<>(oldSnapshot(candidate), newSnapshot(candidate));
-            changed.put(id(candidate), change);
+            changed.put(candidate);
         }
     }
 
@@ -386,6 +424,34 @@ public abstract class LazyPropertyContainerTransactionData<T extends PropertyCon
         return Collections.unmodifiableMap(changedProperties.get(id(container)));
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void accept(PropertyContainerTransactionDataVisitor<T> visitor) {
+        initializeProperties();
+
+        for (T container : created.values()) {
+            visitor.visitCreated(container);
+        }
+
+        for (T container : deleted.values()) {
+            visitor.visitDeleted(container);
+        }
+
+        for (Change<T> change : changed.values()) {
+            long id = id(change.getPrevious());
+            visitor.visitChanged(change, orEmpty(createdProperties.get(id)), orEmpty(deletedProperties.get(id)), orEmpty(changedProperties.get(id)));
+        }
+    }
+
+    private <V> Map<String, V> orEmpty(Map<String, V> properties) {
+        if (properties == null) {
+            return Collections.emptyMap();
+        }
+        return properties;
+    }
+
     private void initializeProperties() {
         if (createdProperties != null) {
             assert changedProperties != null;
@@ -399,10 +465,10 @@ public abstract class LazyPropertyContainerTransactionData<T extends PropertyCon
         //initializeDeleted(); // - called by initializeChanged()
         initializeChanged();
 
-        createdProperties = new HashMap<>();
-        deletedProperties = new HashMap<>();
-        changedProperties = new HashMap<>();
-        deletedContainersProperties = new HashMap<>();
+        createdProperties = newPropertyChanges();
+        deletedProperties = newPropertyChanges();
+        changedProperties = newPropertyChanges();
+        deletedContainersProperties = newPropertyChanges();
 
         for (PropertyEntry<T> propertyEntry : assignedProperties()) {
             T container = propertyEntry.entity();
@@ -416,15 +482,9 @@ public abstract class LazyPropertyContainerTransactionData<T extends PropertyCon
             }
 
             if (propertyEntry.previouslyCommitedValue() == null) {
-                if (!createdProperties.containsKey(id(container))) {
-                    createdProperties.put(id(container), new HashMap<String, Object>());
-                }
-                createdProperties.get(id(container)).put(propertyEntry.key(), propertyEntry.value());
+                createdProperties.put(id(container), propertyEntry.key(), propertyEntry.value());
             } else {
-                if (!changedProperties.containsKey(id(container))) {
-                    changedProperties.put(id(container), new HashMap<String, Change<Object>>());
-                }
-                changedProperties.get(id(container)).put(propertyEntry.key(), new Change<>(propertyEntry.previouslyCommitedValue(), propertyEntry.value()));
+                changedProperties.put(id(container), propertyEntry.key(), new Change<>(propertyEntry.previouslyCommitedValue(), propertyEntry.value()));
             }
         }
 
@@ -432,10 +492,7 @@ public abstract class LazyPropertyContainerTransactionData<T extends PropertyCon
             T container = propertyEntry.entity();
 
             if (deleted.containsKey(id(container))) {
-                if (!deletedContainersProperties.containsKey(id(container))) {
-                    deletedContainersProperties.put(id(container), new HashMap<String, Object>());
-                }
-                deletedContainersProperties.get(id(container)).put(propertyEntry.key(), propertyEntry.previouslyCommitedValue());
+                deletedContainersProperties.put(id(container), propertyEntry.key(), propertyEntry.previouslyCommitedValue());
                 continue;
             }
 
@@ -445,12 +502,66 @@ public abstract class LazyPropertyContainerTransactionData<T extends PropertyCon
 
             assert changedContainsKey(container);
 
-            if (!deletedProperties.containsKey(id(container))) {
-                deletedProperties.put(id(container), new HashMap<String, Object>());
+            deletedProperties.put(id(container), propertyEntry.key(), propertyEntry.previouslyCommitedValue());
+        }
+    }
+
+    /**
+     * Release the resources held outside of the Java heap, i.e. the memory-mapped files holding property changes of
+     * very large transactions. Should be called once the transaction has been committed or rolled back; property
+     * changes must not be accessed afterwards.
+     */
+    public void close() {
+        close(createdProperties);
+        close(deletedProperties);
+        close(changedProperties);
+        close(deletedContainersProperties);
+    }
+
+    private void close(PropertyChanges<?> propertyChanges) {
+        if (propertyChanges != null) {
+            propertyChanges.close();
+        }
+    }
+
+    private <V> ContainerIndex<T, V> newContainerIndex(Function<T, V> function) {
+        if (isCompact()) {
+            return new CompactContainerIndex<>(function);
+        }
+        return new HeapContainerIndex<>(function);
+    }
+
+    /**
+     * Check whether created, deleted, and changed property containers are indexed in compact structures, which create
+     * new snapshots every time they are accessed, because the transaction has more changes than the spill threshold.
+     *
+     * @return true iff the structures are compact.
+     */
+    public boolean isCompact() {
+        if (large == null) {
+            large = spillThreshold != Long.MAX_VALUE && countChanges() > spillThreshold;
+            if (large) {
+                LOG.info("Transaction has more than " + spillThreshold + " changes, indexing changed property containers in compact structures");
             }
+        }
+        return large;
+    }
+
+    /**
+     * Count the changes in the transaction, in order to find out whether it is very large. Only called when a spill
+     * threshold has been set.
+     *
+     * @return number of changes.
+     */
+    protected long countChanges() {
+        return (long) count(created()) + count(deleted()) + count(assignedProperties()) + count(removedProperties());
+    }
 
-            deletedProperties.get(id(container)).put(propertyEntry.key(), propertyEntry.previouslyCommitedValue());
+    private <V> PropertyChanges<V> newPropertyChanges() {
+        if (spillThreshold == Long.MAX_VALUE) {
+            return new HeapPropertyChanges<>();
         }
+        return new SpillingPropertyChanges<>(spillThreshold);
     }
 
     private boolean hasNotActuallyChanged(PropertyEntry<T> propertyEntry) {
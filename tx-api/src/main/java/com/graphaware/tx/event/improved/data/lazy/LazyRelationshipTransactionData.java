@@ -16,6 +16,7 @@
 
 package com.graphaware.tx.event.improved.data.lazy;
 
+import com.graphaware.tx.event.improved.api.Change;
 import com.graphaware.tx.event.improved.data.RelationshipTransactionData;
 import com.graphaware.tx.event.improved.data.TransactionDataContainer;
 import com.graphaware.tx.event.improved.propertycontainer.snapshot.RelationshipSnapshot;
@@ -27,10 +28,7 @@ import org.neo4j.graphdb.event.PropertyEntry;
 import org.neo4j.graphdb.event.TransactionData;
 
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
 
-import static com.graphaware.common.util.DirectionUtils.matches;
 import static org.neo4j.graphdb.Direction.BOTH;
 
 /**
@@ -41,6 +39,10 @@ public class LazyRelationshipTransactionData extends LazyPropertyContainerTransa
     private final TransactionData transactionData;
     private final TransactionDataContainer transactionDataContainer;
 
+    private RelationshipAdjacencyIndex<Relationship> createdIndex = null;
+    private RelationshipAdjacencyIndex<Relationship> deletedIndex = null;
+    private RelationshipAdjacencyIndex<Change<Relationship>> changedIndex = null;
+
     /**
      * Construct relationship transaction data from Neo4j {@link org.neo4j.graphdb.event.TransactionData}.
      *
@@ -48,6 +50,19 @@ public class LazyRelationshipTransactionData extends LazyPropertyContainerTransa
      * @param transactionDataContainer containing {@link com.graphaware.tx.event.improved.data.PropertyContainerTransactionData}.
      */
     public LazyRelationshipTransactionData(TransactionData transactionData, TransactionDataContainer transactionDataContainer) {
+        this(transactionData, transactionDataContainer, Long.MAX_VALUE);
+    }
+
+    /**
+     * Construct relationship transaction data from Neo4j {@link org.neo4j.graphdb.event.TransactionData}, using compact internal
+     * structures and moving captured property changes off the heap once there are more than the given number of changes.
+     *
+     * @param transactionData          provided by Neo4j.
+     * @param transactionDataContainer containing {@link com.graphaware.tx.event.improved.data.PropertyContainerTransactionData}.
+     * @param spillThreshold           maximum number of changes for which all internal structures are kept on the heap.
+     */
+    public LazyRelationshipTransactionData(TransactionData transactionData, TransactionDataContainer transactionDataContainer, long spillThreshold) {
+        super(spillThreshold);
         this.transactionData = transactionData;
         this.transactionDataContainer = transactionDataContainer;
     }
@@ -113,7 +128,14 @@ public class LazyRelationshipTransactionData extends LazyPropertyContainerTransa
      */
     @Override
     public Collection<Relationship> getCreated(Node node, Direction direction, RelationshipType... types) {
-        return filterRelationships(getAllCreated(), node, direction, types);
+        if (createdIndex == null) {
+            createdIndex = new RelationshipAdjacencyIndex<>();
+            for (Relationship relationship : getAllCreated()) {
+                createdIndex.add(relationship, relationship);
+            }
+        }
+
+        return createdIndex.get(node.getId(), direction, types);
     }
 
     /**
@@ -129,32 +151,36 @@ public class LazyRelationshipTransactionData extends LazyPropertyContainerTransa
      */
     @Override
     public Collection<Relationship> getDeleted(Node node, Direction direction, RelationshipType... types) {
-        return filterRelationships(getAllDeleted(), node, direction, types);
+        if (deletedIndex == null) {
+            deletedIndex = new RelationshipAdjacencyIndex<>();
+            for (Relationship relationship : getAllDeleted()) {
+                deletedIndex.add(relationship, relationship);
+            }
+        }
+
+        return deletedIndex.get(node.getId(), direction, types);
     }
 
     /**
-     * Filter relationships based on type and direction.
-     *
-     * @param node      whose point of view we're looking.
-     * @param direction of the relationships to be incuded.
-     * @param types     of the relationships to be included.
-     * @return filtered relationships.
+     * {@inheritDoc}
      */
-    private Collection<Relationship> filterRelationships(Iterable<Relationship> relationships, Node node, Direction direction, RelationshipType[] types) {
-        Set<String> typeNames = new HashSet<>();
-        for (RelationshipType type : types) {
-            typeNames.add(type.name());
-        }
+    @Override
+    public Collection<Change<Relationship>> getChanged(Node node, RelationshipType... types) {
+        return getChanged(node, BOTH, types);
+    }
 
-        Set<Relationship> result = new HashSet<>();
-        for (Relationship r : relationships) {
-            if ((typeNames.isEmpty() || typeNames.contains(r.getType().name())) &&
-                    ((r.getStartNode().getId() == node.getId() && matches(r, r.getStartNode(), direction))
-                            || (r.getEndNode().getId() == node.getId() && matches(r, r.getEndNode(), direction)))) {
-                result.add(r);
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<Change<Relationship>> getChanged(Node node, Direction direction, RelationshipType... types) {
+        if (changedIndex == null) {
+            changedIndex = new RelationshipAdjacencyIndex<>();
+            for (Change<Relationship> change : getAllChanged()) {
+                changedIndex.add(change.getCurrent(), change);
             }
         }
 
-        return result;
+        return changedIndex.get(node.getId(), direction, types);
     }
 }
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.tx.event.improved.data.lazy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only store of linked binary records, held in memory-mapped temporary files rather than on the Java heap.
+ * <p/>
+ * Each record holds the address of a previous record (or {@link #NO_RECORD}) and a payload, so that callers can build
+ * linked lists of records. The address of a record encodes the index of the segment (file) it lives in and its
+ * position within that segment. Segments start small and double in size, up to a maximum, as records are appended.
+ * <p/>
+ * Temporary files are deleted as soon as they have been mapped, where the platform allows it (i.e. not on Windows).
+ * Segments are unmapped and the remaining files deleted when the store is {@link #close()}d, or, failing that, when it
+ * is garbage collected. Not thread-safe.
+ */
+final class MappedSpillFile {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MappedSpillFile.class);
+
+    static final long NO_RECORD = -1;
+
+    private static final int INITIAL_SEGMENT_SIZE = 1024 * 1024;
+    private static final int MAX_SEGMENT_SIZE = 16 * 1024 * 1024;
+    private static final int HEADER_SIZE = 8 + 4;
+
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final List<File> undeletedFiles = new ArrayList<>();
+    private MappedByteBuffer current;
+    private int nextSegmentSize = INITIAL_SEGMENT_SIZE;
+    private boolean closed = false;
+
+    /**
+     * Append a record.
+     *
+     * @param previous address of the previous record, or {@link #NO_RECORD}.
+     * @param payload  of the record.
+     * @return address of the appended record.
+     */
+    long append(long previous, byte[] payload) {
+        checkNotClosed();
+
+        int recordSize = HEADER_SIZE + payload.length;
+
+        if (current == null || current.remaining() < recordSize) {
+            current = newSegment(Math.max(nextSegmentSize, recordSize));
+            nextSegmentSize = Math.min(nextSegmentSize * 2, MAX_SEGMENT_SIZE);
+            segments.add(current);
+        }
+
+        long address = ((long) (segments.size() - 1) << 32) | current.position();
+
+        current.putLong(previous);
+        current.putInt(payload.length);
+        current.put(payload);
+
+        return address;
+    }
+
+    /**
+     * Read the address of the previous record.
+     *
+     * @param address of the record.
+     * @return address of the previous record, or {@link #NO_RECORD}.
+     */
+    long previous(long address) {
+        return segment(address).getLong(position(address));
+    }
+
+    /**
+     * Read the payload of a record.
+     *
+     * @param address of the record.
+     * @return payload.
+     */
+    byte[] payload(long address) {
+        ByteBuffer segment = segment(address).duplicate();
+        int position = position(address);
+
+        byte[] payload = new byte[segment.getInt(position + 8)];
+        segment.position(position + HEADER_SIZE);
+        segment.get(payload);
+
+        return payload;
+    }
+
+    /**
+     * Unmap all segments and delete the files that could not be deleted when they were mapped. The store must not be
+     * used afterwards. Calling this method more than once has no effect.
+     */
+    void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        current = null;
+
+        for (MappedByteBuffer segment : segments) {
+            unmap(segment);
+        }
+        segments.clear();
+
+        for (File file : undeletedFiles) {
+            if (!file.delete()) {
+                LOG.warn("Unable to delete spill file " + file.getAbsolutePath() + ", it will be deleted on exit");
+                file.deleteOnExit();
+            }
+        }
+        undeletedFiles.clear();
+    }
+
+    private MappedByteBuffer segment(long address) {
+        checkNotClosed();
+        return segments.get((int) (address >>> 32));
+    }
+
+    private void checkNotClosed() {
+        if (closed) {
+            throw new IllegalStateException("Spill file has been closed");
+        }
+    }
+
+    private int position(long address) {
+        return (int) address;
+    }
+
+    private MappedByteBuffer newSegment(int size) {
+        File file = null;
+        try {
+            file = File.createTempFile("graphaware-tx-", ".spill");
+            try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+                 FileChannel channel = randomAccessFile.getChannel()) {
+                return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to create a spill file for a large transaction", e);
+        } finally {
+            if (file != null && !file.delete()) {
+                undeletedFiles.add(file);
+            }
+        }
+    }
+
+    /**
+     * Release the memory mapping of a segment immediately, rather than when the buffer is garbage collected. There is
+     * no public API for that, so the cleaner of the buffer is invoked reflectively; if that isn't possible, the mapping
+     * is left to the garbage collector.
+     *
+     * @param segment to unmap.
+     */
+    private static void unmap(MappedByteBuffer segment) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner;
+            try {
+                invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            } catch (NoSuchMethodException e) {
+                //Java 7 and 8
+                Method cleanerMethod = segment.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(segment);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+                return;
+            }
+
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), segment);
+        } catch (Exception e) {
+            LOG.debug("Unable to unmap a spill file segment, it will be unmapped when garbage collected", e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.tx.event.improved.data.lazy;
+
+import java.util.Map;
+
+/**
+ * Index of property changes (created, deleted, or changed properties) grouped by the ID of the
+ * {@link org.neo4j.graphdb.PropertyContainer} they belong to.
+ *
+ * @param <V> type of the indexed value.
+ */
+interface PropertyChanges<V> {
+
+    /**
+     * Record a property change.
+     *
+     * @param id    of the property container.
+     * @param key   of the property.
+     * @param value to record.
+     */
+    void put(long id, String key, V value);
+
+    /**
+     * Check whether any property changes have been recorded for a property container.
+     *
+     * @param id of the property container.
+     * @return true iff at least one change has been recorded.
+     */
+    boolean containsKey(long id);
+
+    /**
+     * Get all property changes recorded for a property container.
+     *
+     * @param id of the property container.
+     * @return changes keyed by property key, <code>null</code> if no changes have been recorded. Must be treated as read-only.
+     */
+    Map<String, V> get(long id);
+
+    /**
+     * Get the total number of recorded property changes.
+     *
+     * @return number of changes.
+     */
+    long size();
+
+    /**
+     * Release resources held outside of the Java heap, if any. Changes must not be accessed afterwards.
+     */
+    void close();
+}
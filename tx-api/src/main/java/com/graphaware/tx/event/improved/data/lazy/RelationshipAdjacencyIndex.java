@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.tx.event.improved.data.lazy;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of values related to {@link org.neo4j.graphdb.Relationship}s (e.g. created relationships or changes of
+ * relationships), keyed by the IDs of the relationships' start and end nodes, and split by relationship type and direction
+ * (from the node's point of view). Allows for retrieving the values related to a single node in time proportional to
+ * the number of returned values.
+ * <p/>
+ * A relationship whose start and end node is the same node is indexed as both {@link org.neo4j.graphdb.Direction#OUTGOING}
+ * and {@link org.neo4j.graphdb.Direction#INCOMING}, which is consistent with {@link com.graphaware.common.util.DirectionUtils#matches(org.neo4j.graphdb.Relationship, org.neo4j.graphdb.Node, org.neo4j.graphdb.Direction)}.
+ *
+ * @param <V> type of the indexed value.
+ */
+class RelationshipAdjacencyIndex<V> {
+
+    private final Map<Long, Map<String, List<V>>> outgoing = new HashMap<>();
+    private final Map<Long, Map<String, List<V>>> incoming = new HashMap<>();
+
+    /**
+     * Index a value.
+     *
+     * @param relationship the value relates to. Its start node, end node, and type are used for indexing.
+     * @param value        to index.
+     */
+    void add(Relationship relationship, V value) {
+        String type = relationship.getType().name();
+        add(outgoing, relationship.getStartNode().getId(), type, value);
+        add(incoming, relationship.getEndNode().getId(), type, value);
+    }
+
+    /**
+     * Get indexed values for a node.
+     *
+     * @param nodeId    ID of the node.
+     * @param direction of the relationships from the node's point of view.
+     * @param types     of the relationships. If no types are provided, all types are returned.
+     * @return read-only collection of indexed values, each value at most once.
+     */
+    Collection<V> get(long nodeId, Direction direction, RelationshipType... types) {
+        Set<V> result = new LinkedHashSet<>();
+
+        if (!Direction.INCOMING.equals(direction)) {
+            collect(outgoing.get(nodeId), types, result);
+        }
+
+        if (!Direction.OUTGOING.equals(direction)) {
+            collect(incoming.get(nodeId), types, result);
+        }
+
+        return Collections.unmodifiableSet(result);
+    }
+
+    private void add(Map<Long, Map<String, List<V>>> index, long nodeId, String type, V value) {
+        Map<String, List<V>> byType = index.get(nodeId);
+        if (byType == null) {
+            byType = new HashMap<>();
+            index.put(nodeId, byType);
+        }
+
+        List<V> values = byType.get(type);
+        if (values == null) {
+            values = new ArrayList<>();
+            byType.put(type, values);
+        }
+
+        values.add(value);
+    }
+
+    private void collect(Map<String, List<V>> byType, RelationshipType[] types, Set<V> result) {
+        if (byType == null) {
+            return;
+        }
+
+        if (types.length == 0) {
+            for (List<V> values : byType.values()) {
+                result.addAll(values);
+            }
+            return;
+        }
+
+        for (RelationshipType type : types) {
+            List<V> values = byType.get(type.name());
+            if (values != null) {
+                result.addAll(values);
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.tx.event.improved.data.lazy;
+
+import com.graphaware.common.serialize.Serializer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link PropertyChanges} whose keys and values are serialized into a {@link MappedSpillFile}, i.e. kept off the Java
+ * heap. For every property container, only the address of its most recent change is kept on the heap, in a compact
+ * primitive open-addressing table; the remaining changes are reached by following the chain of records in the spill file.
+ * <p/>
+ * Changes are deserialized when {@link #get(long)} is called; only the changes of the container requested last are kept
+ * on the heap, since callers typically ask for the changes of the same container several times in a row. This
+ * implementation thus trades CPU for memory and should only be used for very large transactions. The spill file is
+ * released by {@link #close()}.
+ *
+ * @param <V> type of the indexed value.
+ */
+class SpilledPropertyChanges<V> implements PropertyChanges<V> {
+
+    private static final long EMPTY = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final MappedSpillFile spillFile = new MappedSpillFile();
+
+    private long[] ids = newIds(INITIAL_CAPACITY);
+    private long[] heads = new long[INITIAL_CAPACITY];
+    private int containers = 0;
+    private long size = 0;
+
+    private long lastHead = MappedSpillFile.NO_RECORD;
+    private Map<String, V> lastChanges;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(long id, String key, V value) {
+        int slot = slot(id);
+
+        long previous = ids[slot] == EMPTY ? MappedSpillFile.NO_RECORD : heads[slot];
+        long address = spillFile.append(previous, Serializer.toByteArray(new Object[]{key, value}));
+
+        if (ids[slot] == EMPTY) {
+            ids[slot] = id;
+            containers++;
+        }
+        heads[slot] = address;
+        size++;
+
+        if (containers * 2 > ids.length) {
+            grow();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(long id) {
+        return ids[slot(id)] != EMPTY;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, V> get(long id) {
+        int slot = slot(id);
+        if (ids[slot] == EMPTY) {
+            return null;
+        }
+
+        //the head changes with every put, so it identifies both the container and the state of its chain
+        if (lastChanges != null && lastHead == heads[slot]) {
+            return lastChanges;
+        }
+
+        Map<String, V> result = new HashMap<>();
+        for (long address = heads[slot]; address != MappedSpillFile.NO_RECORD; address = spillFile.previous(address)) {
+            Object[] change = Serializer.fromByteArray(spillFile.payload(address));
+            //the chain is walked from the newest change, so the first value seen for a key is the one that counts
+            if (!result.containsKey(change[0])) {
+                result.put((String) change[0], (V) change[1]);
+            }
+        }
+
+        lastHead = heads[slot];
+        lastChanges = result;
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Note that in this implementation, the same property of the same container recorded twice is counted twice.
+     */
+    @Override
+    public long size() {
+        return size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        lastChanges = null;
+        spillFile.close();
+    }
+
+    private int slot(long id) {
+        int mask = ids.length - 1;
+        int slot = hash(id) & mask;
+        while (ids[slot] != EMPTY && ids[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldIds = ids;
+        long[] oldHeads = heads;
+
+        ids = newIds(oldIds.length * 2);
+        heads = new long[oldIds.length * 2];
+
+        for (int i = 0; i < oldIds.length; i++) {
+            if (oldIds[i] != EMPTY) {
+                int slot = slot(oldIds[i]);
+                ids[slot] = oldIds[i];
+                heads[slot] = oldHeads[i];
+            }
+        }
+    }
+
+    private static long[] newIds(int capacity) {
+        long[] ids = new long[capacity];
+        Arrays.fill(ids, EMPTY);
+        return ids;
+    }
+
+    private static int hash(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
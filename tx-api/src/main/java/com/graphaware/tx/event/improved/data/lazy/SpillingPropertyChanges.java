@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.tx.event.improved.data.lazy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+
+/**
+ * {@link PropertyChanges} that start on the heap and move to a {@link SpilledPropertyChanges} once the number of
+ * recorded changes exceeds a threshold. Small transactions therefore pay no extra price, whilst very large transactions
+ * do not exhaust the heap with captured property values.
+ *
+ * @param <V> type of the indexed value.
+ */
+class SpillingPropertyChanges<V> implements PropertyChanges<V> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SpillingPropertyChanges.class);
+
+    private final long threshold;
+    private HeapPropertyChanges<V> heap = new HeapPropertyChanges<>();
+    private PropertyChanges<V> delegate = heap;
+
+    /**
+     * Construct new property changes.
+     *
+     * @param threshold maximum number of changes kept on the heap, before all changes are spilled. Must not be negative.
+     */
+    SpillingPropertyChanges(long threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Spill threshold must not be negative");
+        }
+
+        this.threshold = threshold;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(long id, String key, V value) {
+        delegate.put(id, key, value);
+
+        if (heap != null && heap.size() > threshold) {
+            spill();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(long id) {
+        return delegate.containsKey(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, V> get(long id) {
+        return delegate.get(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long size() {
+        return delegate.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * Has this instance spilled its changes off the heap?
+     *
+     * @return true iff spilled.
+     */
+    boolean hasSpilled() {
+        return heap == null;
+    }
+
+    private void spill() {
+        LOG.info("Transaction has more than " + threshold + " property changes, spilling them off the heap");
+
+        SpilledPropertyChanges<V> spilled = new SpilledPropertyChanges<>();
+        heap.copyTo(spilled);
+
+        delegate = spilled;
+        heap = null;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.tx.event.improved.detached;
+
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * {@link DetachedPropertyContainer} representing a {@link org.neo4j.graphdb.Node}, including its labels.
+ */
+public class DetachedNode extends DetachedPropertyContainer {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String[] labels;
+
+    /**
+     * Construct a detached copy of a node. Must be called within a transaction.
+     *
+     * @param node to copy. Can be a snapshot or a filtering decorator.
+     */
+    public DetachedNode(Node node) {
+        super(node);
+
+        List<String> labels = new ArrayList<>();
+        for (Label label : node.getLabels()) {
+            labels.add(label.name());
+        }
+        this.labels = labels.toArray(new String[labels.size()]);
+    }
+
+    /**
+     * Get the names of the node's labels.
+     *
+     * @return read-only label names.
+     */
+    public List<String> getLabels() {
+        return Collections.unmodifiableList(Arrays.asList(labels));
+    }
+
+    /**
+     * Check whether the node had a label.
+     *
+     * @param label to check.
+     * @return true iff the node had the label.
+     */
+    public boolean hasLabel(Label label) {
+        return hasLabel(label.name());
+    }
+
+    /**
+     * Check whether the node had a label.
+     *
+     * @param label name of the label to check.
+     * @return true iff the node had the label.
+     */
+    public boolean hasLabel(String label) {
+        for (String candidate : labels) {
+            if (candidate.equals(label)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("RedundantIfStatement")
+    @Override
+    public boolean equals(Object o) {
+        if (!super.equals(o)) return false;
+
+        DetachedNode that = (DetachedNode) o;
+
+        if (!new HashSet<>(Arrays.asList(labels)).equals(new HashSet<>(Arrays.asList(that.labels)))) return false;
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "DetachedNode[" + getId() + "]";
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.tx.event.improved.detached;
+
+import org.neo4j.graphdb.PropertyContainer;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.graphaware.common.util.ArrayUtils.arrayFriendlyMapEquals;
+import static com.graphaware.common.util.PropertyContainerUtils.id;
+
+/**
+ * An immutable, serializable copy of a {@link org.neo4j.graphdb.PropertyContainer}'s ID and properties, which can be used
+ * outside of the transaction the original was read in.
+ * <p/>
+ * Properties are held in two parallel arrays (keys and values), so look-ups are linear in the number of properties.
+ * This keeps the representation compact, as {@link org.neo4j.graphdb.PropertyContainer}s typically only have a handful
+ * of properties.
+ */
+public abstract class DetachedPropertyContainer implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long id;
+    private final String[] keys;
+    private final Object[] values;
+
+    /**
+     * Construct a detached copy of a property container. Must be called within a transaction.
+     *
+     * @param propertyContainer to copy. If it is a filtering decorator, only included properties will be copied.
+     */
+    protected DetachedPropertyContainer(PropertyContainer propertyContainer) {
+        this.id = id(propertyContainer);
+
+        List<String> keys = new ArrayList<>();
+        for (String key : propertyContainer.getPropertyKeys()) {
+            keys.add(key);
+        }
+
+        this.keys = keys.toArray(new String[keys.size()]);
+        this.values = new Object[this.keys.length];
+        for (int i = 0; i < this.keys.length; i++) {
+            values[i] = propertyContainer.getProperty(this.keys[i]);
+        }
+    }
+
+    /**
+     * Get the ID of the original property container.
+     *
+     * @return ID.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Check whether the property container had a property with the given key.
+     *
+     * @param key to check.
+     * @return true iff the property existed.
+     */
+    public boolean hasProperty(String key) {
+        return indexOf(key) != -1;
+    }
+
+    /**
+     * Get the value of a property.
+     *
+     * @param key of the property.
+     * @return value of the property, <code>null</code> if there was no such property.
+     */
+    public Object getProperty(String key) {
+        return getProperty(key, null);
+    }
+
+    /**
+     * Get the value of a property.
+     *
+     * @param key          of the property.
+     * @param defaultValue to return if there was no such property.
+     * @return value of the property, default value if there was no such property.
+     */
+    public Object getProperty(String key, Object defaultValue) {
+        int index = indexOf(key);
+        if (index == -1) {
+            return defaultValue;
+        }
+        return values[index];
+    }
+
+    /**
+     * Get all property keys.
+     *
+     * @return read-only property keys.
+     */
+    public List<String> getPropertyKeys() {
+        return Collections.unmodifiableList(Arrays.asList(keys));
+    }
+
+    /**
+     * Get all properties as a map. A new map is created on every call.
+     *
+     * @return properties.
+     */
+    public Map<String, Object> getProperties() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            result.put(keys[i], values[i]);
+        }
+        return result;
+    }
+
+    private int indexOf(String key) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("RedundantIfStatement")
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        DetachedPropertyContainer that = (DetachedPropertyContainer) o;
+
+        if (id != that.id) return false;
+        if (!arrayFriendlyMapEquals(getProperties(), that.getProperties())) return false;
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return (int) (id ^ (id >>> 32));
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.tx.event.improved.detached;
+
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+
+/**
+ * {@link DetachedPropertyContainer} representing a {@link org.neo4j.graphdb.Relationship}, including its type and the
+ * IDs of its start and end nodes.
+ */
+public class DetachedRelationship extends DetachedPropertyContainer {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String type;
+    private final long startNodeId;
+    private final long endNodeId;
+
+    /**
+     * Construct a detached copy of a relationship. Must be called within a transaction.
+     *
+     * @param relationship to copy. Can be a snapshot or a filtering decorator.
+     */
+    public DetachedRelationship(Relationship relationship) {
+        super(relationship);
+        this.type = relationship.getType().name();
+        this.startNodeId = relationship.getStartNode().getId();
+        this.endNodeId = relationship.getEndNode().getId();
+    }
+
+    /**
+     * Get the name of the relationship's type.
+     *
+     * @return type name.
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Check whether the relationship is of the given type.
+     *
+     * @param type to check.
+     * @return true iff the relationship is of the given type.
+     */
+    public boolean isType(RelationshipType type) {
+        return this.type.equals(type.name());
+    }
+
+    /**
+     * Get the ID of the start node.
+     *
+     * @return start node ID.
+     */
+    public long getStartNodeId() {
+        return startNodeId;
+    }
+
+    /**
+     * Get the ID of the end node.
+     *
+     * @return end node ID.
+     */
+    public long getEndNodeId() {
+        return endNodeId;
+    }
+
+    /**
+     * Get the ID of the other node of the relationship.
+     *
+     * @param nodeId ID of one of the relationship's nodes.
+     * @return ID of the other node.
+     * @throws IllegalArgumentException if the given node ID does not belong to one of the relationship's nodes.
+     */
+    public long getOtherNodeId(long nodeId) {
+        if (nodeId == startNodeId) {
+            return endNodeId;
+        }
+        if (nodeId == endNodeId) {
+            return startNodeId;
+        }
+        throw new IllegalArgumentException("Node with ID " + nodeId + " does not belong to " + this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("RedundantIfStatement")
+    @Override
+    public boolean equals(Object o) {
+        if (!super.equals(o)) return false;
+
+        DetachedRelationship that = (DetachedRelationship) o;
+
+        if (endNodeId != that.endNodeId) return false;
+        if (startNodeId != that.startNodeId) return false;
+        if (!type.equals(that.type)) return false;
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "DetachedRelationship[" + getId() + "](" + startNodeId + ")-[:" + type + "]->(" + endNodeId + ")";
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.tx.event.improved.detached;
+
+import com.graphaware.common.serialize.Serializer;
+import com.graphaware.tx.event.improved.api.Change;
+import com.graphaware.tx.event.improved.api.ImprovedTransactionData;
+import com.graphaware.tx.event.improved.api.TransactionDataVisitor;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable, serializable change-set capturing all mutations of an {@link ImprovedTransactionData} (which may be filtered)
+ * as {@link DetachedNode}s and {@link DetachedRelationship}s, i.e. IDs, labels, types, and property values before
+ * and after the transaction.
+ * <p/>
+ * As opposed to {@link ImprovedTransactionData}, which is only valid within the committing transaction, instances of
+ * this class can be used after the transaction has finished, from any thread. A typical use is to create the change-set
+ * in a module's <code>beforeCommit</code>, return it as the state, and hand it over to a background executor in
+ * <code>afterCommit</code>, thus moving expensive work off the commit path.
+ * <p/>
+ * Containers are held in plain arrays; changed containers are held as two parallel arrays of previous and current versions.
+ */
+public final class DetachedTransactionData implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final DetachedNode[] NO_NODES = new DetachedNode[0];
+    private static final DetachedRelationship[] NO_RELATIONSHIPS = new DetachedRelationship[0];
+
+    private final DetachedNode[] createdNodes;
+    private final DetachedNode[] deletedNodes;
+    private final DetachedNode[] previousChangedNodes;
+    private final DetachedNode[] currentChangedNodes;
+
+    private final DetachedRelationship[] createdRelationships;
+    private final DetachedRelationship[] deletedRelationships;
+    private final DetachedRelationship[] previousChangedRelationships;
+    private final DetachedRelationship[] currentChangedRelationships;
+
+    /**
+     * Create a detached change-set from transaction data. Must be called within the transaction the data belongs to.
+     *
+     * @param transactionData to detach. If it is filtered, only included containers and properties will be captured.
+     * @return detached change-set.
+     */
+    public static DetachedTransactionData of(ImprovedTransactionData transactionData) {
+        DetachingVisitor visitor = new DetachingVisitor();
+        transactionData.accept(visitor);
+        return new DetachedTransactionData(visitor);
+    }
+
+    /**
+     * Read a detached change-set from a byte array produced by {@link #toByteArray()}.
+     *
+     * @param bytes to read.
+     * @return detached change-set.
+     */
+    public static DetachedTransactionData fromByteArray(byte[] bytes) {
+        return Serializer.fromByteArray(bytes);
+    }
+
+    private DetachedTransactionData(DetachingVisitor visitor) {
+        this(visitor.createdNodes, visitor.deletedNodes, visitor.previousChangedNodes, visitor.currentChangedNodes,
+                visitor.createdRelationships, visitor.deletedRelationships, visitor.previousChangedRelationships, visitor.currentChangedRelationships);
+    }
+
+    /**
+     * Construct a change-set from its parts. Previous and current versions of changed containers are matched by position.
+     */
+    DetachedTransactionData(Collection<DetachedNode> createdNodes, Collection<DetachedNode> deletedNodes,
+                            Collection<DetachedNode> previousChangedNodes, Collection<DetachedNode> currentChangedNodes,
+                            Collection<DetachedRelationship> createdRelationships, Collection<DetachedRelationship> deletedRelationships,
+                            Collection<DetachedRelationship> previousChangedRelationships, Collection<DetachedRelationship> currentChangedRelationships) {
+        this.createdNodes = createdNodes.toArray(NO_NODES);
+        this.deletedNodes = deletedNodes.toArray(NO_NODES);
+        this.previousChangedNodes = previousChangedNodes.toArray(NO_NODES);
+        this.currentChangedNodes = currentChangedNodes.toArray(NO_NODES);
+
+        this.createdRelationships = createdRelationships.toArray(NO_RELATIONSHIPS);
+        this.deletedRelationships = deletedRelationships.toArray(NO_RELATIONSHIPS);
+        this.previousChangedRelationships = previousChangedRelationships.toArray(NO_RELATIONSHIPS);
+        this.currentChangedRelationships = currentChangedRelationships.toArray(NO_RELATIONSHIPS);
+    }
+
+    /**
+     * Get all nodes created in the transaction.
+     *
+     * @return read-only created nodes.
+     */
+    public List<DetachedNode> getAllCreatedNodes() {
+        return readOnly(createdNodes);
+    }
+
+    /**
+     * Get all nodes deleted in the transaction, as they were before the transaction started.
+     *
+     * @return read-only deleted nodes.
+     */
+    public List<DetachedNode> getAllDeletedNodes() {
+        return readOnly(deletedNodes);
+    }
+
+    /**
+     * Get all nodes changed in the transaction, as they were before the transaction started and as they were when it committed.
+     *
+     * @return read-only changed nodes.
+     */
+    public List<Change<DetachedNode>> getAllChangedNodes() {
+        return changes(previousChangedNodes, currentChangedNodes);
+    }
+
+    /**
+     * Get all relationships created in the transaction.
+     *
+     * @return read-only created relationships.
+     */
+    public List<DetachedRelationship> getAllCreatedRelationships() {
+        return readOnly(createdRelationships);
+    }
+
+    /**
+     * Get all relationships deleted in the transaction, as they were before the transaction started.
+     *
+     * @return read-only deleted relationships.
+     */
+    public List<DetachedRelationship> getAllDeletedRelationships() {
+        return readOnly(deletedRelationships);
+    }
+
+    /**
+     * Get all relationships changed in the transaction, as they were before the transaction started and as they were when it committed.
+     *
+     * @return read-only changed relationships.
+     */
+    public List<Change<DetachedRelationship>> getAllChangedRelationships() {
+        return changes(previousChangedRelationships, currentChangedRelationships);
+    }
+
+    /**
+     * Check whether this change-set contains any mutations.
+     *
+     * @return true iff at least one container has been created, deleted, or changed.
+     */
+    public boolean mutationsOccurred() {
+        return createdNodes.length > 0
+                || deletedNodes.length > 0
+                || previousChangedNodes.length > 0
+                || createdRelationships.length > 0
+                || deletedRelationships.length > 0
+                || previousChangedRelationships.length > 0;
+    }
+
+    /**
+     * Serialize this change-set to a compact binary form, readable by {@link #fromByteArray(byte[])}.
+     *
+     * @return byte array.
+     */
+    public byte[] toByteArray() {
+        return Serializer.toByteArray(this);
+    }
+
+    private static <T> List<T> readOnly(T[] array) {
+        return Collections.unmodifiableList(Arrays.asList(array));
+    }
+
+    private static <T> List<Change<T>> changes(T[] previous, T[] current) {
+        List<Change<T>> result = new ArrayList<>(previous.length);
+        for (int i = 0; i < previous.length; i++) {
+            result.add(new Change<>(previous[i], current[i]));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * {@link TransactionDataVisitor} collecting detached copies of all visited containers.
+     */
+    private static class DetachingVisitor extends TransactionDataVisitor.Adapter {
+
+        private final List<DetachedNode> createdNodes = new ArrayList<>();
+        private final List<DetachedNode> deletedNodes = new ArrayList<>();
+        private final List<DetachedNode> previousChangedNodes = new ArrayList<>();
+        private final List<DetachedNode> currentChangedNodes = new ArrayList<>();
+
+        private final List<DetachedRelationship> createdRelationships = new ArrayList<>();
+        private final List<DetachedRelationship> deletedRelationships = new ArrayList<>();
+        private final List<DetachedRelationship> previousChangedRelationships = new ArrayList<>();
+        private final List<DetachedRelationship> currentChangedRelationships = new ArrayList<>();
+
+        @Override
+        public void visitCreatedNode(Node node) {
+            createdNodes.add(new DetachedNode(node));
+        }
+
+        @Override
+        public void visitDeletedNode(Node node) {
+            deletedNodes.add(new DetachedNode(node));
+        }
+
+        @Override
+        public void visitChangedNode(Change<Node> change) {
+            previousChangedNodes.add(new DetachedNode(change.getPrevious()));
+            currentChangedNodes.add(new DetachedNode(change.getCurrent()));
+        }
+
+        @Override
+        public void visitCreatedRelationship(Relationship relationship) {
+            createdRelationships.add(new DetachedRelationship(relationship));
+        }
+
+        @Override
+        public void visitDeletedRelationship(Relationship relationship) {
+            deletedRelationships.add(new DetachedRelationship(relationship));
+        }
+
+        @Override
+        public void visitChangedRelationship(Change<Relationship> change) {
+            previousChangedRelationships.add(new DetachedRelationship(change.getPrevious()));
+            currentChangedRelationships.add(new DetachedRelationship(change.getCurrent()));
+        }
+    }
+}
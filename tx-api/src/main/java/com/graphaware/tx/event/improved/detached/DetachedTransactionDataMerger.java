@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.tx.event.improved.detached;
+
+import com.graphaware.tx.event.improved.api.Change;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Accumulator merging {@link DetachedTransactionData} change-sets of consecutively committed transactions into a
+ * single change-set, as if all mutations happened in one transaction:
+ * <ul>
+ * <li>a container created and later changed is reported as created, in its latest version,</li>
+ * <li>a container created and later deleted is not reported at all,</li>
+ * <li>a container changed multiple times is reported as changed once, from its very first to its very last version,</li>
+ * <li>a container changed and later deleted is reported as deleted, in its version before the first change.</li>
+ * </ul>
+ * Change-sets must be added in commit order. Not thread-safe.
+ */
+public class DetachedTransactionDataMerger {
+
+    private final Merged<DetachedNode> nodes = new Merged<>();
+    private final Merged<DetachedRelationship> relationships = new Merged<>();
+    private int numberOfMerged = 0;
+
+    /**
+     * Add a change-set to be merged.
+     *
+     * @param changeSet to add. Must have been committed after all previously added change-sets.
+     */
+    public void add(DetachedTransactionData changeSet) {
+        for (DetachedNode created : changeSet.getAllCreatedNodes()) {
+            nodes.created(created);
+        }
+        for (Change<DetachedNode> changed : changeSet.getAllChangedNodes()) {
+            nodes.changed(changed);
+        }
+        for (DetachedNode deleted : changeSet.getAllDeletedNodes()) {
+            nodes.deleted(deleted);
+        }
+
+        for (DetachedRelationship created : changeSet.getAllCreatedRelationships()) {
+            relationships.created(created);
+        }
+        for (Change<DetachedRelationship> changed : changeSet.getAllChangedRelationships()) {
+            relationships.changed(changed);
+        }
+        for (DetachedRelationship deleted : changeSet.getAllDeletedRelationships()) {
+            relationships.deleted(deleted);
+        }
+
+        numberOfMerged++;
+    }
+
+    /**
+     * Get the number of change-sets added so far.
+     *
+     * @return number of added change-sets.
+     */
+    public int getNumberOfMerged() {
+        return numberOfMerged;
+    }
+
+    /**
+     * Check whether no change-sets have been added yet.
+     *
+     * @return true iff nothing has been added.
+     */
+    public boolean isEmpty() {
+        return numberOfMerged == 0;
+    }
+
+    /**
+     * Produce the merged change-set of all change-sets added so far.
+     *
+     * @return merged change-set.
+     */
+    public DetachedTransactionData merge() {
+        return new DetachedTransactionData(
+                nodes.created.values(), nodes.deleted.values(), nodes.previousChanged(), nodes.currentChanged(),
+                relationships.created.values(), relationships.deleted.values(), relationships.previousChanged(), relationships.currentChanged());
+    }
+
+    /**
+     * Merged created, deleted, and changed containers of one kind, keyed by ID, in order of first appearance.
+     * <p/>
+     * Note that an ID can be present in both the deleted and the created containers, since Neo4j may re-use the ID of
+     * a deleted container for a container created later.
+     */
+    private static class Merged<T extends DetachedPropertyContainer> {
+
+        private final Map<Long, T> created = new LinkedHashMap<>();
+        private final Map<Long, T> deleted = new LinkedHashMap<>();
+        private final Map<Long, Change<T>> changed = new LinkedHashMap<>();
+
+        private void created(T container) {
+            created.put(container.getId(), container);
+        }
+
+        private void changed(Change<T> change) {
+            long id = change.getCurrent().getId();
+
+            if (created.containsKey(id)) {
+                created.put(id, change.getCurrent());
+                return;
+            }
+
+            Change<T> existing = changed.get(id);
+            changed.put(id, existing == null ? change : new Change<>(existing.getPrevious(), change.getCurrent()));
+        }
+
+        private void deleted(T container) {
+            long id = container.getId();
+
+            if (created.remove(id) != null) {
+                return;
+            }
+
+            Change<T> existing = changed.remove(id);
+            deleted.put(id, existing == null ? container : existing.getPrevious());
+        }
+
+        private List<T> previousChanged() {
+            List<T> result = new ArrayList<>(changed.size());
+            for (Change<T> change : changed.values()) {
+                result.add(change.getPrevious());
+            }
+            return result;
+        }
+
+        private List<T> currentChanged() {
+            List<T> result = new ArrayList<>(changed.size());
+            for (Change<T> change : changed.values()) {
+                result.add(change.getCurrent());
+            }
+            return result;
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package com.graphaware.tx.event.improved.propertycontainer.snapshot;
 
 import com.graphaware.common.wrapper.BasePropertyContainerWrapper;
+import com.graphaware.tx.event.improved.api.Change;
 import com.graphaware.tx.event.improved.data.PropertyContainerTransactionData;
 import com.graphaware.tx.event.improved.data.TransactionDataContainer;
 import org.neo4j.graphdb.NotFoundException;
@@ -24,8 +25,9 @@ import org.neo4j.graphdb.PropertyContainer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Collection;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 /**
  * A decorator of a {@link org.neo4j.graphdb.PropertyContainer} that represents a snapshot of a {@link org.neo4j.graphdb.PropertyContainer} before a
@@ -42,6 +44,9 @@ public abstract class PropertyContainerSnapshot<T extends PropertyContainer> ext
     protected final T wrapped;
     protected final TransactionDataContainer transactionDataContainer;
 
+    private SnapshotProperties properties;
+    private boolean propertiesMaterialized = false;
+
     /**
      * Construct a new snapshot.
      *
@@ -73,26 +78,13 @@ public abstract class PropertyContainerSnapshot<T extends PropertyContainer> ext
      */
     @Override
     public boolean hasProperty(String key) {
-        if (transactionData().hasBeenDeleted(wrapped)) {
-            return transactionData().propertiesOfDeletedContainer(wrapped).containsKey(key);
-        }
+        SnapshotProperties properties = properties();
 
-        if (transactionData().hasBeenChanged(wrapped)) {
-            if (transactionData().hasPropertyBeenCreated(wrapped, key)) {
-                return false;  //has been created in the transaction = wasn't there before
-            }
-            if (transactionData().hasPropertyBeenDeleted(wrapped, key)) {
-                return true;   //has been deleted in the transaction = was there before
-            }
+        if (properties == null) {
+            return super.hasProperty(key);
         }
 
-        //at this point, we know that either of the following is the case:
-        //- the container has not been changed by the tx
-        //- the container has been changed and the property we're looking for has not
-        //- the container has been changed and the property we're looking for has been changed
-        // In either case, we can find out whether it was there by delegating to the wrapped one (its current version).
-
-        return super.hasProperty(key);
+        return properties.containsKey(key);
     }
 
     /**
@@ -100,25 +92,17 @@ public abstract class PropertyContainerSnapshot<T extends PropertyContainer> ext
      */
     @Override
     public Object getProperty(String key) {
-        if (!hasProperty(key)) {
-            throw new NotFoundException("Snapshot of " + wrapped.toString() + " did not have a property with key " + key);
-        }
+        SnapshotProperties properties = properties();
 
-        if (transactionData().hasBeenDeleted(wrapped)) {
-            return transactionData().propertiesOfDeletedContainer(wrapped).get(key);
+        if (properties == null) {
+            return super.getProperty(key);
         }
 
-        if (transactionData().hasBeenChanged(wrapped)) {
-            if (transactionData().hasPropertyBeenChanged(wrapped, key)) {
-                return transactionData().changedProperties(wrapped).get(key).getPrevious();
-            }
-
-            if (transactionData().hasPropertyBeenDeleted(wrapped, key)) {
-                return transactionData().deletedProperties(wrapped).get(key);
-            }
+        if (!properties.containsKey(key)) {
+            throw new NotFoundException("Snapshot of " + wrapped.toString() + " did not have a property with key " + key);
         }
 
-        return super.getProperty(key);
+        return properties.get(key);
     }
 
     /**
@@ -128,6 +112,7 @@ public abstract class PropertyContainerSnapshot<T extends PropertyContainer> ext
     public void setProperty(String key, Object value) {
         checkCanBeMutated();
         super.setProperty(key, value);
+        invalidateProperties();
     }
 
     /**
@@ -136,7 +121,9 @@ public abstract class PropertyContainerSnapshot<T extends PropertyContainer> ext
     @Override
     public Object removeProperty(String key) {
         checkCanBeMutated();
-        return super.removeProperty(key);
+        Object result = super.removeProperty(key);
+        invalidateProperties();
+        return result;
     }
 
     /**
@@ -155,24 +142,76 @@ public abstract class PropertyContainerSnapshot<T extends PropertyContainer> ext
      */
     @Override
     public Iterable<String> getPropertyKeys() {
+        SnapshotProperties properties = properties();
+
+        if (properties == null) {
+            return super.getPropertyKeys();
+        }
+
+        return properties.keys();
+    }
+
+    /**
+     * Get all properties of the wrapped property container as they were before the transaction started. These are
+     * materialized once, when first needed, so that repeated reads of the same snapshot do not have to consult
+     * transaction data again.
+     *
+     * @return properties, <code>null</code> if the property container has neither been deleted nor changed, in which
+     *         case its current properties are the same as before the transaction started.
+     */
+    private SnapshotProperties properties() {
+        if (!propertiesMaterialized) {
+            properties = materializeProperties();
+            propertiesMaterialized = true;
+        }
+
+        return properties;
+    }
+
+    private SnapshotProperties materializeProperties() {
         if (transactionData().hasBeenDeleted(wrapped)) {
-            return transactionData().propertiesOfDeletedContainer(wrapped).keySet();
+            Map<String, Object> deleted = transactionData().propertiesOfDeletedContainer(wrapped);
+
+            SnapshotProperties result = new SnapshotProperties(deleted.size());
+            for (Map.Entry<String, Object> property : deleted.entrySet()) {
+                result.add(property.getKey(), property.getValue());
+            }
+            return result;
         }
 
         if (!transactionData().hasBeenChanged(wrapped)) {
-            return super.getPropertyKeys();
+            return null;
         }
 
-        Collection<String> result = new HashSet<>();
+        Map<String, Object> created = transactionData().createdProperties(wrapped);
+        Map<String, Object> deleted = transactionData().deletedProperties(wrapped);
+        Map<String, Change<Object>> changed = transactionData().changedProperties(wrapped);
 
-        for (String key : super.getPropertyKeys()) {
-            if (!transactionData().hasPropertyBeenCreated(wrapped, key)) {
-                result.add(key);
+        List<String> currentKeys = new ArrayList<>();
+        for (String key : wrapped.getPropertyKeys()) {
+            if (!created.containsKey(key)) {
+                currentKeys.add(key);
             }
         }
 
-        result.addAll(transactionData().deletedProperties(wrapped).keySet());
+        SnapshotProperties result = new SnapshotProperties(currentKeys.size() + deleted.size());
+
+        for (String key : currentKeys) {
+            Change<Object> change = changed.get(key);
+            result.add(key, change != null ? change.getPrevious() : wrapped.getProperty(key));
+        }
+
+        for (Map.Entry<String, Object> property : deleted.entrySet()) {
+            if (!result.containsKey(property.getKey())) {
+                result.add(property.getKey(), property.getValue());
+            }
+        }
 
         return result;
     }
+
+    private void invalidateProperties() {
+        properties = null;
+        propertiesMaterialized = false;
+    }
 }
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.tx.event.improved.propertycontainer.snapshot;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compact, array-backed, read-only map of property keys to values, representing all properties of a
+ * {@link PropertyContainerSnapshot} as they were before the transaction started. Lookups compare cached key hash codes
+ * before comparing keys, which is cheap for the numbers of properties typically found on a property container.
+ */
+final class SnapshotProperties {
+
+    private final String[] keys;
+    private final int[] hashes;
+    private final Object[] values;
+    private int size = 0;
+
+    /**
+     * Construct empty properties.
+     *
+     * @param capacity maximum number of properties that will be added.
+     */
+    SnapshotProperties(int capacity) {
+        keys = new String[capacity];
+        hashes = new int[capacity];
+        values = new Object[capacity];
+    }
+
+    /**
+     * Add a property. Must only be called during construction and at most once for each key.
+     *
+     * @param key   of the property.
+     * @param value of the property.
+     */
+    void add(String key, Object value) {
+        keys[size] = key;
+        hashes[size] = key.hashCode();
+        values[size] = value;
+        size++;
+    }
+
+    /**
+     * Check whether a property is present.
+     *
+     * @param key of the property.
+     * @return true iff present.
+     */
+    boolean containsKey(String key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Get the value of a property.
+     *
+     * @param key of the property.
+     * @return value, <code>null</code> if not present.
+     */
+    Object get(String key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        return values[index];
+    }
+
+    /**
+     * Get all property keys.
+     *
+     * @return read-only property keys.
+     */
+    List<String> keys() {
+        return Collections.unmodifiableList(Arrays.asList(keys).subList(0, size));
+    }
+
+    private int indexOf(String key) {
+        int hash = key.hashCode();
+        for (int i = 0; i < size; i++) {
+            if (hashes[i] == hash && keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -22,6 +22,7 @@ import com.graphaware.tx.event.improved.api.Change;
 import com.graphaware.tx.event.improved.api.FilteredTransactionData;
 import com.graphaware.tx.event.improved.api.ImprovedTransactionData;
 import com.graphaware.tx.event.improved.api.LazyTransactionData;
+import com.graphaware.tx.event.improved.api.TransactionDataVisitor;
 import com.graphaware.tx.executor.single.*;
 import org.junit.After;
 import org.junit.Test;
@@ -78,6 +79,34 @@ public class FilteredLazyTransactionDataIntegrationTest {
         });
     }
 
+    @Test
+    public void labelTransitionsOfExcludedNodesShouldNotBeReturned() {
+        createTestDatabase();
+        mutateGraph(new VoidReturningCallback() {
+                        @Override
+                        protected void doInTx(GraphDatabaseService database) {
+                            database.getNodeById(3).addLabel(DynamicLabel.label("Label"));
+                            database.getNodeById(4).addLabel(DynamicLabel.label("Label"));
+                            database.createNode(DynamicLabel.label("Label")).setProperty("name", "Four");
+                            database.createNode(DynamicLabel.label("Label"));
+                        }
+                    }, new BeforeCommitCallback() {
+                        @Override
+                        public void doBeforeCommit(ImprovedTransactionData transactionData) {
+                            if (!transactionData.mutationsOccurred()) {
+                                return; //label token creation
+                            }
+
+                            assertEquals(1, transactionData.getNodesWithAssignedLabel(DynamicLabel.label("Label")).size());
+                            assertEquals("Three", transactionData.getNodesWithAssignedLabel(DynamicLabel.label("Label")).iterator().next().getCurrent().getProperty("name"));
+                            assertFalse(transactionData.getNodesWithAssignedLabel(DynamicLabel.label("Label")).iterator().next().getCurrent().hasProperty("place")); //filtered
+                            assertEquals(1, transactionData.getCreatedNodesWithLabel(DynamicLabel.label("Label")).size());
+                            assertTrue(transactionData.getNodesWithRemovedLabel(DynamicLabel.label("Label")).isEmpty());
+                        }
+                    }
+        );
+    }
+
     @Test
     public void changeOfPropertyToNonInternalOnRelationshipShouldBePickedUp() {
         createTestDatabaseForInternalTest();
@@ -129,6 +158,115 @@ public class FilteredLazyTransactionDataIntegrationTest {
 
     }
 
+    @Test
+    public void policiesShouldBeEvaluatedOncePerEntityAndResultsMemoized() {
+        createTestDatabase();
+
+        final AtomicLong nodeEvaluations = new AtomicLong();
+        final AtomicBoolean verified = new AtomicBoolean(false);
+
+        database.registerTransactionEventHandler(new TransactionEventHandler.Adapter<Void>() {
+            @Override
+            public Void beforeCommit(TransactionData data) throws Exception {
+                ImprovedTransactionData improvedTransactionData = new FilteredTransactionData(new LazyTransactionData(data), InclusionPolicies.all().with(new NodeInclusionPolicy() {
+                    @Override
+                    public boolean include(Node node) {
+                        nodeEvaluations.incrementAndGet();
+                        return true;
+                    }
+                }));
+
+                if (!improvedTransactionData.mutationsOccurred()) {
+                    return null;
+                }
+
+                improvedTransactionData.getAllCreatedNodes();
+                improvedTransactionData.getAllDeletedNodes();
+                improvedTransactionData.getAllChangedNodes();
+                long afterFirstUse = nodeEvaluations.get();
+
+                for (int i = 0; i < 5; i++) {
+                    assertSame(improvedTransactionData.getAllCreatedNodes(), improvedTransactionData.getAllCreatedNodes());
+                    assertSame(improvedTransactionData.getAllDeletedNodes(), improvedTransactionData.getAllDeletedNodes());
+                    assertSame(improvedTransactionData.getAllChangedNodes(), improvedTransactionData.getAllChangedNodes());
+                }
+
+                assertEquals(afterFirstUse, nodeEvaluations.get());
+                verified.set(true);
+                return null;
+            }
+        });
+        new SimpleTransactionExecutor(database).executeInTransaction(new TestGraphMutation());
+
+        assertTrue(verified.get());
+    }
+
+    @Test
+    public void policyDecisionsShouldBeRememberedPerEntityForCompactTransactionData() {
+        createTestDatabase();
+
+        final AtomicLong nodeEvaluations = new AtomicLong();
+        final AtomicBoolean verified = new AtomicBoolean(false);
+
+        database.registerTransactionEventHandler(new TransactionEventHandler.Adapter<Void>() {
+            @Override
+            public Void beforeCommit(TransactionData data) throws Exception {
+                ImprovedTransactionData improvedTransactionData = new FilteredTransactionData(new LazyTransactionData(data, 1), InclusionPolicies.all().with(new NodeInclusionPolicy() {
+                    @Override
+                    public boolean include(Node node) {
+                        nodeEvaluations.incrementAndGet();
+                        return !node.hasProperty("name") || !"Three".equals(node.getProperty("name"));
+                    }
+                }));
+
+                if (!improvedTransactionData.mutationsOccurred()) {
+                    return null;
+                }
+
+                int created = improvedTransactionData.getAllCreatedNodes().size();
+                int deleted = improvedTransactionData.getAllDeletedNodes().size();
+                int changed = improvedTransactionData.getAllChangedNodes().size();
+                long afterFirstUse = nodeEvaluations.get();
+
+                for (int i = 0; i < 5; i++) {
+                    assertEquals(created, improvedTransactionData.getAllCreatedNodes().size());
+                    assertEquals(deleted, improvedTransactionData.getAllDeletedNodes().size());
+                    assertEquals(changed, improvedTransactionData.getAllChangedNodes().size());
+                }
+
+                final AtomicLong visitedCreated = new AtomicLong();
+                final AtomicLong visitedDeleted = new AtomicLong();
+                final AtomicLong visitedChanged = new AtomicLong();
+                improvedTransactionData.accept(new TransactionDataVisitor.Adapter() {
+                    @Override
+                    public void visitCreatedNode(Node node) {
+                        visitedCreated.incrementAndGet();
+                    }
+
+                    @Override
+                    public void visitDeletedNode(Node node) {
+                        visitedDeleted.incrementAndGet();
+                    }
+
+                    @Override
+                    public void visitChangedNode(Change<Node> change) {
+                        visitedChanged.incrementAndGet();
+                    }
+                });
+
+                assertEquals(created, visitedCreated.get());
+                assertEquals(deleted, visitedDeleted.get());
+                assertEquals(changed, visitedChanged.get());
+                assertEquals(afterFirstUse, nodeEvaluations.get());
+                verified.set(true);
+                return null;
+            }
+        });
+        new SimpleTransactionExecutor(database).executeInTransaction(new TestGraphMutation());
+
+        assertTrue(verified.get());
+    }
+
     @Test
     public void createdRelationshipsShouldBeCorrectlyIdentified() {
         createTestDatabase();
@@ -157,6 +295,10 @@ public class FilteredLazyTransactionDataIntegrationTest {
                         assertFalse(r2.getEndNode().hasProperty("place"));  //filtered out
                         assertEquals(4, r2.getEndNode().getSingleRelationship(withName("R1"), OUTGOING).getEndNode().getId()); //node filtered out but when accessed as a relationship end node it is present
                         assertNull(r2.getEndNode().getSingleRelationship(withName("R3"), OUTGOING)); //filtered out
+
+                        assertEquals(1, transactionData.getCreatedRelationships(database.getNodeById(1), OUTGOING).size());
+                        assertEquals(0, transactionData.getCreatedRelationships(database.getNodeById(1), INCOMING).size());
+                        assertFalse(transactionData.getCreatedRelationships(database.getNodeById(5), withName("R2")).iterator().next().hasProperty("time")); //filtered out
                     }
                 }
         );
@@ -204,6 +346,7 @@ public class FilteredLazyTransactionDataIntegrationTest {
 
                         Map<Long, Change<Relationship>> changed = changesToMap(transactionData.getAllChangedRelationships());
                         assertEquals(0, changed.size()); //R3 filtered out
+                        assertEquals(0, transactionData.getChangedRelationships(database.getNodeById(3)).size()); //R3 filtered out
                         assertTrue(transactionData.hasBeenChanged(database.getRelationshipById(changedRelId.get())));
                         assertFalse(transactionData.getChanged(database.getRelationshipById(changedRelId.get())).getCurrent().hasProperty("time")); //filtered
                         assertTrue(transactionData.getChanged(database.getRelationshipById(changedRelId.get())).getCurrent().hasProperty("tags"));
@@ -133,6 +133,15 @@ public class LazyTransactionDataComprehensiveTest {
                         //in contrast to filtered version:
                         assertTrue(r2.getEndNode().hasProperty(PLACE));
                         assertNotNull(r2.getEndNode().getSingleRelationship(R3, OUTGOING));
+
+                        assertEquals(2, td.getCreatedRelationships(db.getNodeById(3)).size());
+                        assertEquals(1, td.getCreatedRelationships(db.getNodeById(3), INCOMING, R1).size());
+                        assertEquals(2, td.getCreatedRelationships(db.getNodeById(3), INCOMING, R1, R2, R1).size());
+                        assertEquals(0, td.getCreatedRelationships(db.getNodeById(3), OUTGOING).size());
+                        assertEquals(r1, td.getCreatedRelationships(db.getNodeById(7), OUTGOING, R2).iterator().next());
+                        assertEquals(r2, td.getCreatedRelationships(db.getNodeById(1), R1).iterator().next());
+                        assertEquals(0, td.getCreatedRelationships(db.getNodeById(1), R2).size());
+                        assertEquals(0, td.getCreatedRelationships(db.getNodeById(4)).size());
                     }
                 }
         );
@@ -190,6 +199,12 @@ public class LazyTransactionDataComprehensiveTest {
                         assertTrue(td.hasBeenChanged(previous));
                         assertTrue(td.hasBeenChanged(current));
                         assertFalse(td.hasBeenChanged(db.getNodeById(3).getSingleRelationship(R1, OUTGOING)));
+
+                        assertEquals(1, td.getChangedRelationships(db.getNodeById(3)).size());
+                        assertEquals(current.getId(), td.getChangedRelationships(db.getNodeById(3), OUTGOING, R3).iterator().next().getCurrent().getId());
+                        assertEquals(1, td.getChangedRelationships(db.getNodeById(1), INCOMING, R3).size());
+                        assertEquals(0, td.getChangedRelationships(db.getNodeById(1), OUTGOING).size());
+                        assertEquals(0, td.getChangedRelationships(db.getNodeById(1), R1).size());
                     }
                 }
         );
@@ -1046,6 +1061,33 @@ public class LazyTransactionDataComprehensiveTest {
 
     //mutations
 
+
+    @Test
+    public void labelTransitionsShouldBeCorrectlyIndexed() {
+        createTestDatabase();
+        mutateGraph(
+                new BeforeCommitCallback.RememberingAdapter() {
+                    @Override
+                    public void doBeforeCommit(ImprovedTransactionData td) {
+                        assertEquals(1, td.getNodesWithAssignedLabel(label("NewOne")).size());
+                        assertEquals(1L, td.getNodesWithAssignedLabel(label("NewOne")).iterator().next().getCurrent().getId());
+                        assertEquals(5L, getSingleOrNull(td.getNodesWithAssignedLabel(label("NewLabel"))).getPrevious().getId());
+                        assertTrue(td.getNodesWithAssignedLabel(label("SomeLabel")).isEmpty());
+                        assertTrue(td.getNodesWithAssignedLabel(label("ToBeRemoved")).isEmpty());
+
+                        assertEquals(1L, getSingleOrNull(td.getNodesWithRemovedLabel(label("One"))).getCurrent().getId());
+                        assertEquals(6L, getSingleOrNull(td.getNodesWithRemovedLabel(label("ToBeRemoved"))).getCurrent().getId());
+                        assertTrue(td.getNodesWithRemovedLabel(label("NewOne")).isEmpty());
+
+                        assertEquals(7L, getSingleOrNull(td.getCreatedNodesWithLabel(label("SomeLabel"))).getId());
+                        assertTrue(td.getCreatedNodesWithLabel(label("NewLabel")).isEmpty());
+
+                        assertTrue(td.getDeletedNodesWithLabel(label("SomeLabel")).isEmpty());
+                        assertTrue(td.getDeletedNodesWithLabel(label("TestLabel")).isEmpty());
+                    }
+                }
+        );
+    }
     @Test
     public void shouldBeAbleToChangeCreatedRelationshipBeforeCommit() {
         createTestDatabase();
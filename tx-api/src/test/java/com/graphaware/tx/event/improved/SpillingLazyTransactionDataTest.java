@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.tx.event.improved;
+
+import com.graphaware.tx.event.improved.api.Change;
+import com.graphaware.tx.event.improved.api.ImprovedTransactionData;
+import com.graphaware.tx.event.improved.api.LazyTransactionData;
+import com.graphaware.tx.event.improved.api.TransactionDataVisitor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.event.TransactionData;
+import org.neo4j.graphdb.event.TransactionEventHandler;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.graphaware.common.util.DatabaseUtils.registerShutdownHook;
+import static com.graphaware.common.util.PropertyContainerUtils.nodeToString;
+import static com.graphaware.common.util.PropertyContainerUtils.relationshipToString;
+import static com.graphaware.common.util.PropertyContainerUtils.valueToString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for {@link com.graphaware.tx.event.improved.api.LazyTransactionData} that spills property changes off the heap,
+ * verifying it behaves the same as the default one.
+ */
+public class SpillingLazyTransactionDataTest {
+
+    private GraphDatabaseService database;
+    private ComparingEventHandler eventHandler;
+
+    @Before
+    public void setUp() {
+        database = new TestGraphDatabaseFactory().newImpermanentDatabase();
+        registerShutdownHook(database);
+
+        eventHandler = new ComparingEventHandler();
+        database.registerTransactionEventHandler(eventHandler);
+    }
+
+    @After
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    public void spillingTransactionDataShouldBeSameAsHeapTransactionData() {
+        database.execute("UNWIND range(1,500) AS i CREATE (:Person {name:'Person '+i, age:i})-[:KNOWS {since:i}]->(:Person {name:'Friend '+i})");
+        database.execute("MATCH (p:Person)-[r:KNOWS]->(f) SET p.age=p.age+1, p.location='London', r.weight=1.5, f.tags=['a','b'] REMOVE r.since, f.name");
+        database.execute("MATCH (p:Person)-[r:KNOWS]->(f) WHERE p.age % 2 = 0 DELETE r, f");
+
+        assertTrue(eventHandler.getComparedMutations() >= 5000);
+    }
+
+    private class ComparingEventHandler extends TransactionEventHandler.Adapter<Void> {
+
+        private int comparedMutations = 0;
+
+        @Override
+        public Void beforeCommit(TransactionData data) throws Exception {
+            List<String> onHeap = describe(new LazyTransactionData(data));
+            List<String> spilled = describe(new LazyTransactionData(data, 0));
+
+            assertEquals(onHeap, spilled);
+            comparedMutations += onHeap.size();
+
+            return null;
+        }
+
+        public int getComparedMutations() {
+            return comparedMutations;
+        }
+
+        private List<String> describe(final ImprovedTransactionData transactionData) {
+            final List<String> result = new ArrayList<>();
+
+            transactionData.accept(new TransactionDataVisitor.Adapter() {
+                @Override
+                public void visitCreatedNode(Node node) {
+                    result.add("created " + nodeToString(node));
+                }
+
+                @Override
+                public void visitDeletedNode(Node node) {
+                    result.add("deleted " + nodeToString(node));
+                }
+
+                @Override
+                public void visitCreatedNodeProperty(Node node, String key, Object value) {
+                    result.add("created " + node.getId() + "." + key + "=" + valueToString(value));
+                }
+
+                @Override
+                public void visitDeletedNodeProperty(Node node, String key, Object previousValue) {
+                    result.add("deleted " + node.getId() + "." + key + "=" + valueToString(previousValue));
+                }
+
+                @Override
+                public void visitChangedNodeProperty(Node node, String key, Change<Object> change) {
+                    result.add("changed " + node.getId() + "." + key + "=" + valueToString(change.getPrevious()) + "->" + valueToString(change.getCurrent()));
+                }
+
+                @Override
+                public void visitCreatedRelationship(Relationship relationship) {
+                    result.add("created " + relationshipToString(relationship));
+                }
+
+                @Override
+                public void visitDeletedRelationship(Relationship relationship) {
+                    result.add("deleted " + relationshipToString(relationship));
+                }
+
+                @Override
+                public void visitCreatedRelationshipProperty(Relationship relationship, String key, Object value) {
+                    result.add("created " + relationship.getId() + "." + key + "=" + valueToString(value));
+                }
+
+                @Override
+                public void visitDeletedRelationshipProperty(Relationship relationship, String key, Object previousValue) {
+                    result.add("deleted " + relationship.getId() + "." + key + "=" + valueToString(previousValue));
+                }
+
+                @Override
+                public void visitChangedRelationshipProperty(Relationship relationship, String key, Change<Object> change) {
+                    result.add("changed " + relationship.getId() + "." + key + "=" + valueToString(change.getPrevious()) + "->" + valueToString(change.getCurrent()));
+                }
+            });
+
+            Collections.sort(result);
+            return result;
+        }
+    }
+}
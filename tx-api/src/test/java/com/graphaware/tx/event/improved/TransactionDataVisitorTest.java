@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.tx.event.improved;
+
+import com.graphaware.common.policy.InclusionPolicies;
+import com.graphaware.common.policy.NodeInclusionPolicy;
+import com.graphaware.common.policy.NodePropertyInclusionPolicy;
+import com.graphaware.tx.event.improved.api.Change;
+import com.graphaware.tx.event.improved.api.FilteredTransactionData;
+import com.graphaware.tx.event.improved.api.ImprovedTransactionData;
+import com.graphaware.tx.event.improved.api.LazyTransactionData;
+import com.graphaware.tx.event.improved.api.TransactionDataVisitor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.event.TransactionData;
+import org.neo4j.graphdb.event.TransactionEventHandler;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static com.graphaware.common.util.DatabaseUtils.registerShutdownHook;
+import static com.graphaware.common.util.PropertyContainerUtils.nodeToString;
+import static com.graphaware.common.util.PropertyContainerUtils.relationshipToString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for {@link com.graphaware.tx.event.improved.api.ImprovedTransactionData#accept(com.graphaware.tx.event.improved.api.TransactionDataVisitor)},
+ * verifying that visited mutations are the same as those returned by the collection-returning methods.
+ */
+public class TransactionDataVisitorTest {
+
+    private GraphDatabaseService database;
+    private ConsistencyVerifyingEventHandler eventHandler;
+
+    @Before
+    public void setUp() {
+        database = new TestGraphDatabaseFactory().newImpermanentDatabase();
+        registerShutdownHook(database);
+
+        eventHandler = new ConsistencyVerifyingEventHandler();
+        database.registerTransactionEventHandler(eventHandler);
+    }
+
+    @After
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    public void visitorShouldReceiveAllMutations() {
+        execute("CREATE (p:Person {name:'Michal', age:30})-[:WORKS_FOR {since:2013, role:'MD'}]->(c:Company {name:'GraphAware', place:'London'})");
+        execute("CREATE (p:Person {name:'Daniela'})-[:FRIEND_OF]->(:Person {name:'Adam'})");
+
+        execute("MATCH (p:Person {name:'Michal'})-[r:WORKS_FOR]->(c) SET p.age=31, p.location='London', r.since=2014 REMOVE r.role, c.place");
+        execute("MATCH (p:Person {name:'Daniela'})-[r:FRIEND_OF]->() DELETE r SET p:Female");
+        execute("MATCH (p:Person {name:'Adam'}) DELETE p");
+
+        assertTrue(eventHandler.getVerifiedTransactions() >= 5);
+        assertTrue(eventHandler.getVisitedEvents() > 0);
+    }
+
+    @Test
+    public void visitorShouldNotBeCalledWhenNothingChanged() {
+        execute("CREATE (p:Person {name:'Michal'})");
+
+        eventHandler.reset();
+        execute("MATCH (p:Person {name:'Michal'}) SET p.name='Michal'");
+
+        assertTrue(eventHandler.getVerifiedTransactions() > 0);
+        assertEquals(0, eventHandler.getVisitedEvents());
+    }
+
+    private void execute(String cypher) {
+        database.execute(cypher);
+    }
+
+    private class ConsistencyVerifyingEventHandler extends TransactionEventHandler.Adapter<Void> {
+
+        private int verifiedTransactions = 0;
+        private int visitedEvents = 0;
+
+        @Override
+        public Void beforeCommit(TransactionData data) throws Exception {
+            LazyTransactionData lazyTransactionData = new LazyTransactionData(data);
+            verify(lazyTransactionData);
+
+            verify(new FilteredTransactionData(lazyTransactionData, InclusionPolicies.all()));
+
+            verify(new FilteredTransactionData(lazyTransactionData, InclusionPolicies.all()
+                    .with(new NodeInclusionPolicy() {
+                        @Override
+                        public boolean include(Node node) {
+                            return !node.getProperty("name", "").equals("Adam");
+                        }
+                    })
+                    .with(new NodePropertyInclusionPolicy() {
+                        @Override
+                        public boolean include(String key, Node node) {
+                            return !"place".equals(key) && !"location".equals(key);
+                        }
+                    })));
+
+            ImprovedTransactionData none = new FilteredTransactionData(lazyTransactionData, InclusionPolicies.none());
+            assertTrue(visit(none).isEmpty());
+
+            verifiedTransactions++;
+            return null;
+        }
+
+        private void verify(ImprovedTransactionData transactionData) {
+            Set<String> visited = visit(transactionData);
+            assertEquals(expected(transactionData), visited);
+            assertEquals(!visited.isEmpty(), transactionData.mutationsOccurred());
+            visitedEvents += visited.size();
+        }
+
+        private Set<String> visit(ImprovedTransactionData transactionData) {
+            final Set<String> result = new HashSet<>();
+
+            transactionData.accept(new TransactionDataVisitor() {
+                @Override
+                public void visitCreatedNode(Node node) {
+                    result.add("Created node " + nodeToString(node));
+                }
+
+                @Override
+                public void visitDeletedNode(Node node) {
+                    result.add("Deleted node " + nodeToString(node));
+                }
+
+                @Override
+                public void visitChangedNode(Change<Node> change) {
+                    result.add("Changed node " + nodeToString(change.getPrevious()) + " to " + nodeToString(change.getCurrent()));
+                }
+
+                @Override
+                public void visitCreatedNodeProperty(Node node, String key, Object value) {
+                    result.add("Created property " + key + "=" + value + " of node " + node.getId());
+                }
+
+                @Override
+                public void visitDeletedNodeProperty(Node node, String key, Object previousValue) {
+                    result.add("Deleted property " + key + "=" + previousValue + " of node " + node.getId());
+                }
+
+                @Override
+                public void visitChangedNodeProperty(Node node, String key, Change<Object> change) {
+                    result.add("Changed property " + key + "=" + change.getPrevious() + "->" + change.getCurrent() + " of node " + node.getId());
+                }
+
+                @Override
+                public void visitCreatedRelationship(Relationship relationship) {
+                    result.add("Created relationship " + relationshipToString(relationship));
+                }
+
+                @Override
+                public void visitDeletedRelationship(Relationship relationship) {
+                    result.add("Deleted relationship " + relationshipToString(relationship));
+                }
+
+                @Override
+                public void visitChangedRelationship(Change<Relationship> change) {
+                    result.add("Changed relationship " + relationshipToString(change.getPrevious()) + " to " + relationshipToString(change.getCurrent()));
+                }
+
+                @Override
+                public void visitCreatedRelationshipProperty(Relationship relationship, String key, Object value) {
+                    result.add("Created property " + key + "=" + value + " of relationship " + relationship.getId());
+                }
+
+                @Override
+                public void visitDeletedRelationshipProperty(Relationship relationship, String key, Object previousValue) {
+                    result.add("Deleted property " + key + "=" + previousValue + " of relationship " + relationship.getId());
+                }
+
+                @Override
+                public void visitChangedRelationshipProperty(Relationship relationship, String key, Change<Object> change) {
+                    result.add("Changed property " + key + "=" + change.getPrevious() + "->" + change.getCurrent() + " of relationship " + relationship.getId());
+                }
+            });
+
+            return result;
+        }
+
+        private Set<String> expected(ImprovedTransactionData transactionData) {
+            Set<String> result = new HashSet<>(transactionData.mutationsToStrings());
+
+            for (Change<Node> change : transactionData.getAllChangedNodes()) {
+                Node node = change.getCurrent();
+                for (Map.Entry<String, Object> entry : transactionData.createdProperties(node).entrySet()) {
+                    result.add("Created property " + entry.getKey() + "=" + entry.getValue() + " of node " + node.getId());
+                }
+                for (Map.Entry<String, Object> entry : transactionData.deletedProperties(node).entrySet()) {
+                    result.add("Deleted property " + entry.getKey() + "=" + entry.getValue() + " of node " + node.getId());
+                }
+                for (Map.Entry<String, Change<Object>> entry : transactionData.changedProperties(node).entrySet()) {
+                    result.add("Changed property " + entry.getKey() + "=" + entry.getValue().getPrevious() + "->" + entry.getValue().getCurrent() + " of node " + node.getId());
+                }
+            }
+
+            for (Change<Relationship> change : transactionData.getAllChangedRelationships()) {
+                Relationship relationship = change.getCurrent();
+                for (Map.Entry<String, Object> entry : transactionData.createdProperties(relationship).entrySet()) {
+                    result.add("Created property " + entry.getKey() + "=" + entry.getValue() + " of relationship " + relationship.getId());
+                }
+                for (Map.Entry<String, Object> entry : transactionData.deletedProperties(relationship).entrySet()) {
+                    result.add("Deleted property " + entry.getKey() + "=" + entry.getValue() + " of relationship " + relationship.getId());
+                }
+                for (Map.Entry<String, Change<Object>> entry : transactionData.changedProperties(relationship).entrySet()) {
+                    result.add("Changed property " + entry.getKey() + "=" + entry.getValue().getPrevious() + "->" + entry.getValue().getCurrent() + " of relationship " + relationship.getId());
+                }
+            }
+
+            return result;
+        }
+
+        public void reset() {
+            verifiedTransactions = 0;
+            visitedEvents = 0;
+        }
+
+        public int getVerifiedTransactions() {
+            return verifiedTransactions;
+        }
+
+        public int getVisitedEvents() {
+            return visitedEvents;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.tx.event.improved.data.filtered;
+
+import com.graphaware.common.policy.NodePropertyInclusionPolicy;
+import com.graphaware.common.policy.PropertyKeyInclusionPolicy;
+import com.graphaware.common.policy.all.IncludeAllNodeProperties;
+import com.graphaware.common.policy.fluent.IncludeNodeProperties;
+import com.graphaware.common.policy.none.IncludeNoNodeProperties;
+import com.graphaware.common.policy.spel.SpelNodePropertyInclusionPolicy;
+import org.junit.Test;
+import org.neo4j.graphdb.Node;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link KeyCachingPropertyInclusionPolicy}.
+ */
+public class KeyCachingPropertyInclusionPolicyTest {
+
+    @Test
+    public void decisionsShouldBeEvaluatedOncePerKey() {
+        CountingPolicy counting = new CountingPolicy();
+        NodePropertyInclusionPolicy policy = new KeyCachingNodePropertyInclusionPolicy(counting);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(policy.include("name", null));
+            assertFalse(policy.include("_internal", null));
+        }
+
+        assertEquals(2, counting.evaluations);
+    }
+
+    @Test
+    public void onlyExpensiveKeyOnlyPoliciesShouldBeCached() {
+        assertTrue(KeyCachingPropertyInclusionPolicy.shouldCache(new SpelNodePropertyInclusionPolicy("key != 'name'")));
+
+        assertFalse(KeyCachingPropertyInclusionPolicy.shouldCache(new SpelNodePropertyInclusionPolicy("node.hasLabel('Employee')")));
+        assertFalse(KeyCachingPropertyInclusionPolicy.shouldCache(IncludeAllNodeProperties.getInstance()));
+        assertFalse(KeyCachingPropertyInclusionPolicy.shouldCache(IncludeNoNodeProperties.getInstance()));
+        assertFalse(KeyCachingPropertyInclusionPolicy.shouldCache(IncludeNodeProperties.all().with("name")));
+        assertFalse(KeyCachingPropertyInclusionPolicy.shouldCache(new KeyCachingNodePropertyInclusionPolicy(new CountingPolicy())));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void policiesNotDecidingByKeyOnlyCannotBeCached() {
+        new KeyCachingNodePropertyInclusionPolicy(new SpelNodePropertyInclusionPolicy("node.hasLabel('Employee')"));
+    }
+
+    private static class CountingPolicy implements NodePropertyInclusionPolicy, PropertyKeyInclusionPolicy {
+
+        private int evaluations = 0;
+
+        @Override
+        public boolean include(String key, Node node) {
+            evaluations++;
+            return !key.startsWith("_");
+        }
+
+        @Override
+        public boolean decidesByKeyOnly() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.tx.event.improved.data.lazy;
+
+import com.graphaware.tx.event.improved.api.Change;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link SpilledPropertyChanges} and {@link SpillingPropertyChanges}.
+ */
+public class SpillingPropertyChangesTest {
+
+    @Test
+    public void spilledChangesShouldBeRetrievable() {
+        SpilledPropertyChanges<Object> changes = new SpilledPropertyChanges<>();
+
+        for (long id = 0; id < 10_000; id++) {
+            changes.put(id, "name", "Node " + id);
+            changes.put(id, "numbers", new int[]{(int) id, 2});
+        }
+
+        assertFalse(changes.containsKey(10_000));
+        assertNull(changes.get(10_001));
+
+        for (long id = 0; id < 10_000; id++) {
+            assertTrue(changes.containsKey(id));
+
+            Map<String, Object> properties = changes.get(id);
+            assertEquals(2, properties.size());
+            assertEquals("Node " + id, properties.get("name"));
+            assertArrayEquals(new int[]{(int) id, 2}, (int[]) properties.get("numbers"));
+        }
+    }
+
+    @Test
+    public void latestChangeOfSamePropertyShouldWin() {
+        SpilledPropertyChanges<Change<Object>> changes = new SpilledPropertyChanges<>();
+
+        changes.put(-5, "age", new Change<Object>(29L, 30L));
+        changes.put(-5, "age", new Change<Object>(30L, 31L));
+
+        assertEquals(1, changes.get(-5).size());
+        assertEquals(new Change<Object>(30L, 31L), changes.get(-5).get("age"));
+    }
+
+    @Test
+    public void changesShouldBeSpilledOnlyAboveThreshold() {
+        SpillingPropertyChanges<Object> changes = new SpillingPropertyChanges<>(2);
+
+        changes.put(1, "a", 1);
+        changes.put(1, "b", 2);
+        changes.put(1, "b", 3);
+        assertFalse(changes.hasSpilled());
+
+        changes.put(2, "a", 4);
+        assertTrue(changes.hasSpilled());
+
+        assertEquals(2, changes.get(1).size());
+        assertEquals(1, changes.get(1).get("a"));
+        assertEquals(3, changes.get(1).get("b"));
+        assertEquals(4, changes.get(2).get("a"));
+        assertFalse(changes.containsKey(3));
+    }
+
+    @Test
+    public void changesOfLastRequestedContainerShouldBeDecodedOnlyOnce() {
+        SpilledPropertyChanges<Object> changes = new SpilledPropertyChanges<>();
+
+        changes.put(1, "a", 1);
+        changes.put(2, "a", 2);
+
+        Map<String, Object> first = changes.get(1);
+        assertSame(first, changes.get(1));
+
+        changes.put(1, "b", 3);
+        Map<String, Object> second = changes.get(1);
+        assertNotSame(first, second);
+        assertEquals(2, second.size());
+        assertEquals(3, second.get("b"));
+
+        assertEquals(2, changes.get(2).get("a"));
+        assertNotSame(second, changes.get(1));
+        assertEquals(second, changes.get(1));
+    }
+
+    @Test
+    public void closedChangesShouldNotBeAccessible() {
+        SpillingPropertyChanges<Object> changes = new SpillingPropertyChanges<>(0);
+        changes.put(1, "a", 1);
+        assertTrue(changes.hasSpilled());
+
+        changes.close();
+        changes.close();
+
+        try {
+            changes.get(1);
+            fail();
+        } catch (IllegalStateException e) {
+            //ok
+        }
+    }
+}
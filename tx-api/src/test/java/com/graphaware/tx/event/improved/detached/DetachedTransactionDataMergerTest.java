@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.tx.event.improved.detached;
+
+import com.graphaware.common.policy.InclusionPolicies;
+import com.graphaware.tx.event.improved.api.Change;
+import com.graphaware.tx.event.improved.api.FilteredTransactionData;
+import com.graphaware.tx.event.improved.api.LazyTransactionData;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.event.TransactionData;
+import org.neo4j.graphdb.event.TransactionEventHandler;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.graphaware.common.util.DatabaseUtils.registerShutdownHook;
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link DetachedTransactionDataMerger}.
+ */
+public class DetachedTransactionDataMergerTest {
+
+    private GraphDatabaseService database;
+    private final List<DetachedTransactionData> changeSets = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() {
+        database = new TestGraphDatabaseFactory().newImpermanentDatabase();
+        registerShutdownHook(database);
+
+        database.execute("CREATE (:Person {name:'Michal', age:30}), (:Person {name:'Vojta', age:25}), (:Person {name:'Adam', age:20})");
+
+        database.registerTransactionEventHandler(new TransactionEventHandler.Adapter<Void>() {
+            @Override
+            public Void beforeCommit(TransactionData data) throws Exception {
+                DetachedTransactionData detached = DetachedTransactionData.of(new FilteredTransactionData(new LazyTransactionData(data), InclusionPolicies.all()));
+                if (detached.mutationsOccurred()) {
+                    changeSets.add(detached);
+                }
+                return null;
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    public void changeSetsShouldBeMergedAsIfInOneTransaction() {
+        database.execute("MATCH (p {name:'Michal'}) SET p.age = 31");
+        database.execute("MATCH (p {name:'Michal'}) SET p.age = 32");
+        database.execute("CREATE (:Person {name:'Luanne', age:40})");
+        database.execute("MATCH (p {name:'Luanne'}) SET p.age = 41");
+        database.execute("CREATE (:Person {name:'Temp'})");
+        database.execute("MATCH (p {name:'Temp'}) DELETE p");
+        database.execute("MATCH (p {name:'Vojta'}) SET p.age = 26");
+        database.execute("MATCH (p {name:'Vojta'}) DELETE p");
+        database.execute("MATCH (p {name:'Adam'}) DELETE p");
+
+        assertEquals(9, changeSets.size());
+
+        DetachedTransactionDataMerger merger = new DetachedTransactionDataMerger();
+        assertTrue(merger.isEmpty());
+        for (DetachedTransactionData changeSet : changeSets) {
+            merger.add(changeSet);
+        }
+        assertEquals(9, merger.getNumberOfMerged());
+
+        DetachedTransactionData merged = merger.merge();
+
+        assertEquals(1, merged.getAllCreatedNodes().size());
+        assertEquals("Luanne", merged.getAllCreatedNodes().get(0).getProperty("name"));
+        assertEquals(41L, merged.getAllCreatedNodes().get(0).getProperty("age"));
+
+        assertEquals(1, merged.getAllChangedNodes().size());
+        Change<DetachedNode> michal = merged.getAllChangedNodes().get(0);
+        assertEquals(30L, michal.getPrevious().getProperty("age"));
+        assertEquals(32L, michal.getCurrent().getProperty("age"));
+
+        assertEquals(2, merged.getAllDeletedNodes().size());
+        for (DetachedNode deleted : merged.getAllDeletedNodes()) {
+            if ("Vojta".equals(deleted.getProperty("name"))) {
+                assertEquals(25L, deleted.getProperty("age"));
+            } else {
+                assertEquals("Adam", deleted.getProperty("name"));
+            }
+        }
+    }
+
+    @Test
+    public void createdAndDeletedContainersShouldCancelOut() {
+        database.execute("CREATE (a:Temp)-[:R]->(b:Temp)");
+        database.execute("MATCH (a:Temp)-[r:R]->(b:Temp) SET r.weight = 5");
+        database.execute("MATCH (t:Temp) OPTIONAL MATCH (t)-[r]-() DELETE t, r");
+
+        DetachedTransactionDataMerger merger = new DetachedTransactionDataMerger();
+        for (DetachedTransactionData changeSet : changeSets) {
+            merger.add(changeSet);
+        }
+
+        assertFalse(merger.merge().mutationsOccurred());
+    }
+}
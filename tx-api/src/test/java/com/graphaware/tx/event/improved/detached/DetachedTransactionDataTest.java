@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.tx.event.improved.detached;
+
+import com.graphaware.common.policy.InclusionPolicies;
+import com.graphaware.common.policy.NodePropertyInclusionPolicy;
+import com.graphaware.tx.event.improved.api.Change;
+import com.graphaware.tx.event.improved.api.FilteredTransactionData;
+import com.graphaware.tx.event.improved.api.LazyTransactionData;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.event.TransactionData;
+import org.neo4j.graphdb.event.TransactionEventHandler;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+
+import static com.graphaware.common.util.DatabaseUtils.registerShutdownHook;
+import static org.junit.Assert.*;
+import static org.neo4j.graphdb.DynamicLabel.label;
+import static org.neo4j.graphdb.DynamicRelationshipType.withName;
+
+/**
+ * Test for {@link DetachedTransactionData}.
+ */
+public class DetachedTransactionDataTest {
+
+    private GraphDatabaseService database;
+    private DetachingEventHandler eventHandler;
+
+    @Before
+    public void setUp() {
+        database = new TestGraphDatabaseFactory().newImpermanentDatabase();
+        registerShutdownHook(database);
+
+        eventHandler = new DetachingEventHandler();
+        database.registerTransactionEventHandler(eventHandler);
+    }
+
+    @After
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    public void createdContainersShouldBeDetached() {
+        database.execute("CREATE (p:Person {name:'Michal', tags:['a','b']})-[:WORKS_FOR {since:2013}]->(c:Company {name:'GraphAware'})");
+
+        DetachedTransactionData data = eventHandler.getLast();
+
+        assertTrue(data.mutationsOccurred());
+        assertEquals(2, data.getAllCreatedNodes().size());
+        assertEquals(1, data.getAllCreatedRelationships().size());
+        assertTrue(data.getAllDeletedNodes().isEmpty());
+        assertTrue(data.getAllChangedNodes().isEmpty());
+
+        DetachedNode michal = findByName(data.getAllCreatedNodes(), "Michal");
+        assertTrue(michal.hasLabel(label("Person")));
+        assertFalse(michal.hasLabel("Company"));
+        assertTrue(Arrays.equals(new String[]{"a", "b"}, (String[]) michal.getProperty("tags")));
+
+        DetachedRelationship worksFor = data.getAllCreatedRelationships().get(0);
+        assertTrue(worksFor.isType(withName("WORKS_FOR")));
+        assertEquals(2013L, worksFor.getProperty("since"));
+        assertEquals(michal.getId(), worksFor.getStartNodeId());
+        assertEquals(worksFor.getEndNodeId(), worksFor.getOtherNodeId(michal.getId()));
+    }
+
+    @Test
+    public void changedAndDeletedContainersShouldBeDetachedWithBeforeAndAfterState() {
+        database.execute("CREATE (p:Person {name:'Michal', age:30})-[:WORKS_FOR {since:2013}]->(c:Company {name:'GraphAware'})");
+        database.execute("MATCH (p:Person {name:'Michal'})-[r:WORKS_FOR]->(c) SET p.age=31, p:Boss DELETE r, c");
+
+        DetachedTransactionData data = eventHandler.getLast();
+
+        assertEquals(1, data.getAllChangedNodes().size());
+        Change<DetachedNode> michal = data.getAllChangedNodes().get(0);
+        assertEquals(30L, michal.getPrevious().getProperty("age"));
+        assertEquals(31L, michal.getCurrent().getProperty("age"));
+        assertFalse(michal.getPrevious().hasLabel("Boss"));
+        assertTrue(michal.getCurrent().hasLabel("Boss"));
+
+        assertEquals(1, data.getAllDeletedNodes().size());
+        assertEquals("GraphAware", data.getAllDeletedNodes().get(0).getProperty("name"));
+        assertTrue(data.getAllDeletedNodes().get(0).hasLabel("Company"));
+
+        assertEquals(1, data.getAllDeletedRelationships().size());
+        assertEquals(2013L, data.getAllDeletedRelationships().get(0).getProperty("since"));
+    }
+
+    @Test
+    public void filteredDataShouldBeDetachedWithoutExcludedProperties() {
+        eventHandler.setPolicies(InclusionPolicies.all().with(new NodePropertyInclusionPolicy() {
+            @Override
+            public boolean include(String key, Node node) {
+                return !"age".equals(key);
+            }
+        }));
+
+        database.execute("CREATE (p:Person {name:'Michal', age:30})");
+
+        DetachedNode michal = eventHandler.getLast().getAllCreatedNodes().get(0);
+        assertEquals("Michal", michal.getProperty("name"));
+        assertFalse(michal.hasProperty("age"));
+        assertEquals(1, michal.getPropertyKeys().size());
+    }
+
+    @Test
+    public void detachedDataShouldSurviveSerialization() throws Exception {
+        database.execute("CREATE (p:Person {name:'Michal', age:30})-[:WORKS_FOR {since:2013}]->(c:Company {name:'GraphAware'})");
+        database.execute("MATCH (p:Person {name:'Michal'})-[r:WORKS_FOR]->(c) SET p.age=31, r.since=2014");
+
+        DetachedTransactionData original = eventHandler.getLast();
+
+        DetachedTransactionData kryo = DetachedTransactionData.fromByteArray(original.toByteArray());
+        assertSame(original, kryo);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(original);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertSame(original, (DetachedTransactionData) in.readObject());
+        }
+    }
+
+    private void assertSame(DetachedTransactionData expected, DetachedTransactionData actual) {
+        assertEquals(expected.getAllCreatedNodes(), actual.getAllCreatedNodes());
+        assertEquals(expected.getAllDeletedNodes(), actual.getAllDeletedNodes());
+        assertEquals(expected.getAllChangedNodes(), actual.getAllChangedNodes());
+        assertEquals(expected.getAllCreatedRelationships(), actual.getAllCreatedRelationships());
+        assertEquals(expected.getAllDeletedRelationships(), actual.getAllDeletedRelationships());
+        assertEquals(expected.getAllChangedRelationships(), actual.getAllChangedRelationships());
+        assertEquals(1, actual.getAllChangedNodes().size());
+        assertEquals(1, actual.getAllChangedRelationships().size());
+    }
+
+    private DetachedNode findByName(Iterable<DetachedNode> nodes, String name) {
+        for (DetachedNode node : nodes) {
+            if (name.equals(node.getProperty("name"))) {
+                return node;
+            }
+        }
+        throw new IllegalStateException("No node named " + name);
+    }
+
+    private class DetachingEventHandler extends TransactionEventHandler.Adapter<Void> {
+
+        private InclusionPolicies policies = InclusionPolicies.all();
+        private DetachedTransactionData last;
+
+        @Override
+        public Void beforeCommit(TransactionData data) throws Exception {
+            DetachedTransactionData detached = DetachedTransactionData.of(new FilteredTransactionData(new LazyTransactionData(data), policies));
+            if (detached.mutationsOccurred()) {
+                last = detached;
+            }
+            return null;
+        }
+
+        public void setPolicies(InclusionPolicies policies) {
+            this.policies = policies;
+        }
+
+        public DetachedTransactionData getLast() {
+            return last;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2015 GraphAware
+ *
+ * This file is part of GraphAware.
+ *
+ * GraphAware is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received a copy of
+ * the GNU General Public License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+package com.graphaware.tx.event.improved.performance;
+
+import com.graphaware.test.performance.LinearParameter;
+import com.graphaware.test.performance.Parameter;
+import com.graphaware.test.performance.PerformanceTest;
+import com.graphaware.tx.event.improved.api.Change;
+import com.graphaware.tx.event.improved.api.LazyTransactionData;
+import com.graphaware.tx.executor.NullItem;
+import com.graphaware.tx.executor.batch.NoInputBatchTransactionExecutor;
+import com.graphaware.tx.executor.batch.UnitOfWork;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.event.TransactionData;
+import org.neo4j.graphdb.event.TransactionEventHandler;
+import org.neo4j.tooling.GlobalGraphOperations;
+
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link PerformanceTest} measuring the time it takes to repeatedly read all properties of previous versions
+ * ({@link com.graphaware.tx.event.improved.propertycontainer.snapshot.NodeSnapshot}s) of changed nodes, for nodes with
+ * different numbers of properties.
+ */
+public class SnapshotReadPerformanceTest implements PerformanceTest {
+
+    private static final String PROPERTIES = "properties";
+    private static final String READS = "reads";
+    private static final int NUMBER_OF_NODES = 100;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String shortName() {
+        return "snapshot-reads";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String longName() {
+        return "Reads of Changed Node Snapshots";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Parameter> parameters() {
+        List<Parameter> result = new LinkedList<>();
+
+        result.add(new LinearParameter(PROPERTIES, 10, 100, 30));
+        result.add(new LinearParameter(READS, 1, 10, 3));
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int dryRuns(Map<String, Object> params) {
+        return 20;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int measuredRuns() {
+        return 100;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, String> databaseParameters(Map<String, Object> params) {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void prepareDatabase(GraphDatabaseService database, final Map<String, Object> params) {
+        new NoInputBatchTransactionExecutor(database, NUMBER_OF_NODES, NUMBER_OF_NODES, new UnitOfWork<NullItem>() {
+            @Override
+            public void execute(GraphDatabaseService database, NullItem input, int batchNumber, int stepNumber) {
+                Node node = database.createNode();
+                for (int i = 0; i < (int) params.get(PROPERTIES); i++) {
+                    node.setProperty("property" + i, i);
+                }
+            }
+        }).execute();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getExistingDatabasePath() {
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RebuildDatabase rebuildDatabase() {
+        return RebuildDatabase.AFTER_PARAM_CHANGE;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean rebuildDatabase(Map<String, Object> params) {
+        throw new UnsupportedOperationException("never needed, database rebuilt after every param change");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long run(GraphDatabaseService database, Map<String, Object> params) {
+        SnapshotReadingHandler handler = new SnapshotReadingHandler((int) params.get(READS));
+        database.registerTransactionEventHandler(handler);
+
+        try (Transaction tx = database.beginTx()) {
+            for (Node node : GlobalGraphOperations.at(database).getAllNodes()) {
+                node.setProperty("property0", RANDOM.nextInt());
+                node.removeProperty("property1");
+                node.setProperty("new", 1);
+            }
+            tx.success();
+        }
+
+        database.unregisterTransactionEventHandler(handler);
+
+        return handler.getTime();
+    }
+
+    private static class SnapshotReadingHandler extends TransactionEventHandler.Adapter<Void> {
+
+        private final int reads;
+        private long time;
+
+        private SnapshotReadingHandler(int reads) {
+            this.reads = reads;
+        }
+
+        @Override
+        public Void beforeCommit(TransactionData data) throws Exception {
+            long start = System.nanoTime();
+
+            for (Change<Node> change : new LazyTransactionData(data).getAllChangedNodes()) {
+                Node previous = change.getPrevious();
+                for (int i = 0; i < reads; i++) {
+                    for (String key : previous.getPropertyKeys()) {
+                        if (previous.hasProperty(key)) {
+                            previous.getProperty(key);
+                        }
+                    }
+                }
+            }
+
+            time = (System.nanoTime() - start) / 1000;
+            return null;
+        }
+
+        public long getTime() {
+            return time;
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package com.graphaware.writer;
 
 import com.google.common.util.concurrent.AbstractScheduledService;
+import com.graphaware.common.util.ExponentialMovingAverage;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,6 +47,7 @@ public abstract class SingleThreadedWriter extends AbstractScheduledService impl
     protected final LinkedBlockingQueue<RunnableFuture<?>> queue;
     protected final GraphDatabaseService database;
     private final ScheduledExecutorService queueSizeLogger = Executors.newSingleThreadScheduledExecutor();
+    private final ExponentialMovingAverage averageQueueSize = new ExponentialMovingAverage(60_000);
 
     /**
      * Construct a new writer with a default queue capacity of 10,000.
@@ -78,8 +80,10 @@ public abstract class SingleThreadedWriter extends AbstractScheduledService impl
         queueSizeLogger.scheduleWithFixedDelay(new Runnable() {
             @Override
             public void run() {
-                if (queue.size() > 0 || logEmptyQueue()) {
-                    LOG.info("Queue size: " + queue.size());
+                int queueSize = queue.size();
+                averageQueueSize.sample(System.currentTimeMillis(), queueSize);
+                if (queueSize > 0 || logEmptyQueue()) {
+                    LOG.info("Queue size: " + queueSize + ", average queue size over the last minute: " + Math.round(averageQueueSize.getAverage()));
                 }
             }
         }, 5, loggingFrequencyMs(), TimeUnit.SECONDS);